@@ -3,7 +3,7 @@ Object.defineProperty(exports, "__esModule", { value: true });
 const metadata_1 = require("./metadata");
 const battlecode_schema_1 = require("battlecode-schema");
 const match_1 = require("./match");
-const pako_1 = require("pako");
+const gunzip_1 = require("./gunzip");
 /**
  * Represents an entire game.
  * Contains a Match for every match in a game.
@@ -131,7 +131,7 @@ class Game {
      * Do not mutate `data` after calling this function!
      */
     loadFullGameRaw(data) {
-        const ungzipped = pako_1.ungzip(new Uint8Array(data));
+        const ungzipped = gunzip_1.ungzipAll(new Uint8Array(data));
         const wrapper = battlecode_schema_1.schema.GameWrapper.getRootAsGameWrapper(new battlecode_schema_1.flatbuffers.ByteBuffer(ungzipped));
         this.loadFullGame(wrapper);
     }
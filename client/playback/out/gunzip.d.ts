@@ -0,0 +1,8 @@
+/**
+ * Decompress gzipped data that may be a series of gzip members, as replays
+ * saved with a seek index are (one member per 64KiB block, then the index
+ * and a trailer); the result is every member's output, one after another,
+ * as gunzip would give. pako's ungzip stops at the end of the first member,
+ * so each member is inflated in turn.
+ */
+export declare function ungzipAll(data: Uint8Array): Uint8Array;
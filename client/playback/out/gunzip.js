@@ -0,0 +1,42 @@
+"use strict";
+Object.defineProperty(exports, "__esModule", { value: true });
+const pako_1 = require("pako");
+/**
+ * Decompress gzipped data that may be a series of gzip members, as replays
+ * saved with a seek index are (one member per 64KiB block, then the index
+ * and a trailer); the result is every member's output, one after another,
+ * as gunzip would give. pako's ungzip stops at the end of the first member,
+ * so each member is inflated in turn.
+ */
+function ungzipAll(data) {
+    const parts = [];
+    let length = 0;
+    let offset = 0;
+    while (offset < data.length) {
+        const inflator = new pako_1.Inflate();
+        inflator.push(data.subarray(offset), true);
+        if (inflator.err) {
+            throw new Error(`Couldn't ungzip member at byte ${offset}: ${inflator.msg}`);
+        }
+        const part = inflator.result;
+        parts.push(part);
+        length += part.length;
+        // how much input that member took (all of it, if pako read on past it)
+        const consumed = inflator.strm.next_in;
+        if (consumed <= 0) {
+            throw new Error(`Couldn't ungzip member at byte ${offset}: no input used`);
+        }
+        offset += consumed;
+    }
+    if (parts.length === 1) {
+        return parts[0];
+    }
+    const result = new Uint8Array(length);
+    let at = 0;
+    for (const part of parts) {
+        result.set(part, at);
+        at += part.length;
+    }
+    return result;
+}
+exports.ungzipAll = ungzipAll;
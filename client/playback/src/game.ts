@@ -2,7 +2,7 @@ import Metadata from './metadata';
 import GameWorld from './gameworld';
 import { flatbuffers, schema } from 'battlecode-schema';
 import Match from './match';
-import {ungzip} from 'pako';
+import {ungzipAll} from './gunzip';
 
 /**
  * Represents an entire game.
@@ -150,7 +150,7 @@ export default class Game {
    * Do not mutate `data` after calling this function!
    */
   loadFullGameRaw(data: ArrayBuffer) {
-    const ungzipped = ungzip(new Uint8Array(data));
+    const ungzipped = ungzipAll(new Uint8Array(data));
     const wrapper = schema.GameWrapper.getRootAsGameWrapper(
       new flatbuffers.ByteBuffer(ungzipped)
     );
@@ -0,0 +1,41 @@
+import {gzip} from 'pako';
+import * as test from 'blue-tape';
+import {ungzipAll} from '../../gunzip';
+
+function bytes(length: number, seed: number): Uint8Array {
+  const result = new Uint8Array(length);
+  for (let i = 0; i < length; i++) {
+    result[i] = (i * 31 + seed) & 0xFF;
+  }
+  return result;
+}
+
+function concat(...parts: Uint8Array[]): Uint8Array {
+  const result = new Uint8Array(parts.reduce((n, part) => n + part.length, 0));
+  let at = 0;
+  for (const part of parts) {
+    result.set(part, at);
+    at += part.length;
+  }
+  return result;
+}
+
+test('single member', (t: test.Test) => {
+  const data = bytes(1000, 1);
+  t.deepEqual(ungzipAll(gzip(data)), data);
+  t.end();
+});
+
+test('every member of an indexed replay', (t: test.Test) => {
+  // laid out as the engine saves them: 64KiB blocks, the index, then an
+  // empty trailer with an extra field in its header
+  const first = bytes(1 << 16, 2);
+  const second = bytes(1000, 3);
+  const index = bytes(100, 4);
+  const extra = [66, 73, 12, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12];
+  const trailer = gzip(new Uint8Array(0), <any>{header: {extra: extra}});
+  const file = concat(gzip(first), gzip(second), gzip(index), trailer);
+
+  t.deepEqual(ungzipAll(file), concat(first, second, index));
+  t.end();
+});
@@ -0,0 +1,97 @@
+package battlecode.instrumenter;
+
+import battlecode.server.Config;
+import org.objectweb.asm.ClassVisitor;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Whether players' bytecodes are profiled: attributed to the methods and
+ * lines they were charged in, and written out at the end as collapsed
+ * stacks for flame graphs (see battlecode.instrumenter.profiler).
+ *
+ * They're profiled if bc.engine.profile-bytecodes is set in the config a
+ * game is played with; it's meant for local runs, as it adds a call or two
+ * to every basic block a player runs (robots take about a third more CPU
+ * time). The profiler is only reached by reflection, so that tournament
+ * builds, which leave its package out (gradle -Ptournament), build and run
+ * the same without it; there, asking for it is an error.
+ */
+public final class BytecodeProfiling {
+
+    private static final String PROFILER = "battlecode.instrumenter.profiler.BytecodeProfiler";
+
+    /**
+     * The profiler's methods; found the first time a config asks for it.
+     */
+    private static volatile Method wrap;
+    private static volatile Method write;
+
+    /**
+     * Prevent construction.
+     */
+    private BytecodeProfiling() {
+    }
+
+    /**
+     * @param options the config a game is played with
+     * @return whether it asks for bytecodes to be profiled
+     * @throws RuntimeException if it does, but this build of the engine
+     *                          doesn't have the profiler
+     */
+    public static boolean isEnabled(Config options) {
+        if (!options.getBoolean("bc.engine.profile-bytecodes")) {
+            return false;
+        }
+        load();
+        return true;
+    }
+
+    private static synchronized void load() {
+        if (wrap != null) {
+            return;
+        }
+        try {
+            final Class<?> profiler = Class.forName(PROFILER);
+            write = profiler.getMethod("write", File.class);
+            wrap = profiler.getMethod("wrap", ClassVisitor.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            throw new RuntimeException("bc.engine.profile-bytecodes is set, " +
+                    "but this build of the engine doesn't have the bytecode profiler", e);
+        }
+    }
+
+    /**
+     * @param next where instrumented classes go next
+     * @return a pass that profiles instrumented classes before passing
+     *         them on; only once isEnabled has said so
+     */
+    static ClassVisitor wrap(ClassVisitor next) {
+        return (ClassVisitor) invoke(wrap, next);
+    }
+
+    /**
+     * Write out the profiles of every robot that has run, one collapsed
+     * stack file for each team package; only once isEnabled has said so.
+     *
+     * @param dir the directory to write them in
+     * @return the files written
+     */
+    @SuppressWarnings("unchecked")
+    public static List<File> write(File dir) {
+        return (List<File>) invoke(write, dir);
+    }
+
+    private static Object invoke(Method method, Object arg) {
+        try {
+            return method.invoke(null, arg);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -6,13 +6,17 @@ import battlecode.instrumenter.stream.RoboPrintStream;
 import battlecode.instrumenter.stream.SilencedPrintStream;
 import battlecode.server.ErrorReporter;
 import battlecode.server.Config;
+import org.apache.commons.io.output.NullOutputStream;
 
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static battlecode.instrumenter.InstrumentationException.Type.ILLEGAL;
 import static battlecode.instrumenter.InstrumentationException.Type.MISSING;
@@ -38,6 +42,25 @@ public class SandboxedRobotPlayer {
 
     public static final String PLAYER_CLASS_NAME = "RobotPlayer";
 
+    /**
+     * How many players' threads are running, across every match.
+     */
+    private static final AtomicInteger liveThreads = new AtomicInteger();
+
+    /**
+     * For the CPU time players' threads have used.
+     */
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    /**
+     * For the memory players' threads have allocated, or null if the JVM
+     * can't tell us.
+     */
+    private static final com.sun.management.ThreadMXBean allocationBean =
+            threadBean instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()
+                    ? (com.sun.management.ThreadMXBean) threadBean : null;
+
     /**
      * The controller for the robot we're controlling.
      */
@@ -63,6 +86,18 @@ public class SandboxedRobotPlayer {
      */
     private final Thread mainThread;
 
+    /**
+     * The CPU time the main thread had used when getCpuTimeUsed() was last
+     * called, in nanoseconds.
+     */
+    private long lastCpuTime;
+
+    /**
+     * The bytes the main thread had allocated when getBytesAllocated() was
+     * last called.
+     */
+    private long lastAllocatedBytes;
+
     /**
      * The cached 'killRobot' method of the monitor.
      */
@@ -73,6 +108,11 @@ public class SandboxedRobotPlayer {
      */
     private final Method setBytecodeLimitMethod;
 
+    /**
+     * Used to charge the player bytecodes between turns.
+     */
+    private final Method chargeBytecodesMethod;
+
     /**
      * The cached 'getBytecodeNum' method of the monitor.
      */
@@ -102,6 +142,7 @@ public class SandboxedRobotPlayer {
      * @param seed              the seed the robot should use for random operations
      * @param loader            the classloader to load classes with
      * @param robotOut          the output to write robot output to (with headers)
+     * @param outputOptions     where else robot output goes, and how much of it
      * @throws InstrumentationException if the player doesn't work for some reason
      * @throws RuntimeException if our code fails for some reason
      */
@@ -109,7 +150,8 @@ public class SandboxedRobotPlayer {
                                 RobotController robotController,
                                 int seed,
                                 TeamClassLoaderFactory.Loader loader,
-                                OutputStream robotOut)
+                                OutputStream robotOut,
+                                OutputOptions outputOptions)
             throws InstrumentationException {
         this.robotController = robotController;
         this.seed = seed;
@@ -131,6 +173,7 @@ public class SandboxedRobotPlayer {
 
             killMethod = monitor.getMethod("killRobot");
             setBytecodeLimitMethod = monitor.getMethod("setBytecodeLimit", int.class);
+            chargeBytecodesMethod = monitor.getMethod("chargeBytecodes", int.class);
             getBytecodeNumMethod = monitor.getMethod("getBytecodeNum");
             pauseMethod = monitor.getMethod("pause");
             initMethod = monitor.getMethod("init", Pauser.class, Killer.class, int.class);
@@ -140,7 +183,7 @@ public class SandboxedRobotPlayer {
             Class<?> system = individualLoader
                     .loadClass("battlecode.instrumenter.inject.System");
 
-            this.systemOut = getOut(robotOut);
+            this.systemOut = getOut(robotOut, outputOptions);
             system.getMethod("setSystemOut", PrintStream.class).invoke(null, this.systemOut);
 
         } catch (ReflectiveOperationException e) {
@@ -171,6 +214,7 @@ public class SandboxedRobotPlayer {
         };
 
         mainThread = new Thread(() -> {
+            liveThreads.incrementAndGet();
             try {
                 // Init RobotMonitor
                 initMethod.invoke(null, pauser, killer, this.seed);
@@ -200,6 +244,8 @@ public class SandboxedRobotPlayer {
             } catch (final RobotDeathException e) {
                 return;
             } finally {
+                liveThreads.decrementAndGet();
+
                 // Ensure that we know we're terminated.
                 this.terminated = true;
 
@@ -272,6 +318,20 @@ public class SandboxedRobotPlayer {
         }
     }
 
+    /**
+     * Charge the sandboxed player bytecodes, to come out of its next turns
+     * as if it had gone over its limit by that much.
+     *
+     * @param bytecodes the bytecodes to charge
+     */
+    public void chargeBytecodes(int bytecodes) {
+        try {
+            chargeBytecodesMethod.invoke(null, bytecodes);
+        } catch (ReflectiveOperationException e) {
+            ErrorReporter.report(e, true);
+        }
+    }
+
     /**
      * Take a step on the RobotPlayer thread, blocking until it's completed.
      */
@@ -344,6 +404,54 @@ public class SandboxedRobotPlayer {
         }
     }
 
+    /**
+     * @return how many robot players' threads are running, in every match
+     *         being played
+     */
+    public static int getLiveThreads() {
+        return liveThreads.get();
+    }
+
+    /**
+     * Get the CPU time the player's thread has used since this was last
+     * called; so, called after each step(), the CPU time each turn took.
+     * (The first call includes setting up the player.)
+     *
+     * @return the CPU time used, in nanoseconds, or -1 if the JVM can't
+     *         measure it, or the thread has ended
+     */
+    public long getCpuTimeUsed() {
+        final long cpuTime = threadBean.getThreadCpuTime(mainThread.getId());
+        if (cpuTime < 0) {
+            return -1;
+        }
+        final long used = cpuTime - lastCpuTime;
+        lastCpuTime = cpuTime;
+        return used;
+    }
+
+    /**
+     * Get the bytes of heap the player's thread has allocated since this
+     * was last called; so, called after each step(), what each turn
+     * allocated, including in the engine code its calls ran.
+     * (The first call includes setting up the player.)
+     *
+     * @return the bytes allocated, or -1 if the JVM can't measure it, or
+     *         the thread has ended
+     */
+    public long getBytesAllocated() {
+        if (allocationBean == null) {
+            return -1;
+        }
+        final long allocatedBytes = allocationBean.getThreadAllocatedBytes(mainThread.getId());
+        if (allocatedBytes < 0) {
+            return -1;
+        }
+        final long allocated = allocatedBytes - lastAllocatedBytes;
+        lastAllocatedBytes = allocatedBytes;
+        return allocated;
+    }
+
     /**
      * @return the bytecodes used by the player during the most recent step() call.
      */
@@ -383,20 +491,51 @@ public class SandboxedRobotPlayer {
         void kill();
     }
 
-    public PrintStream getOut(OutputStream wrapped) {
-        Config options = Config.getGlobalConfig();
+    /**
+     * How a team's robots' output is handled. Read from the config once per
+     * team and game, rather than for every robot that spawns.
+     */
+    public static class OutputOptions {
+        private final boolean silenced;
+        private final boolean toSystemOut;
+        private final int replayLimitBytes;
+
+        /**
+         * @param silenced whether to throw the team's output away
+         * @param toSystemOut whether to write it to System.out, as well as the match
+         * @param replayLimitBytes the most of it to write to the match, or -1 for no limit
+         */
+        public OutputOptions(boolean silenced, boolean toSystemOut, int replayLimitBytes) {
+            this.silenced = silenced;
+            this.toSystemOut = toSystemOut;
+            this.replayLimitBytes = replayLimitBytes;
+        }
+
+        /**
+         * @return the options config sets for a team
+         */
+        public static OutputOptions forTeam(Config options, Team team) {
+            return new OutputOptions(
+                    team == Team.A && options.getBoolean("bc.engine.silence-a")
+                            || team == Team.B && options.getBoolean("bc.engine.silence-b"),
+                    options.getBoolean("bc.server.robot-player-to-system-out"),
+                    options.getInt("bc.server.robot-player-replay-file-per-team-limit-bytes"));
+        }
+    }
 
-        if (robotController.getTeam() == Team.A
-                && options.getBoolean("bc.engine.silence-a")
-                || robotController.getTeam() == Team.B
-                && options.getBoolean("bc.engine.silence-b")) {
+    /**
+     * @param wrapped where the robot's output is recorded, or null if it
+     *                isn't (then it only goes to system out, if anywhere)
+     */
+    public PrintStream getOut(OutputStream wrapped, OutputOptions options) {
+        if (options.silenced || wrapped == null && !options.toSystemOut) {
             return SilencedPrintStream.theInstance();
             // Modifying Systems specific to this robot.
         } else {
             try {
-                return new RoboPrintStream(wrapped, options.getBoolean(
-                        "bc.server.robot-player-to-system-out"
-                ), options.getInt("bc.server.robot-player-replay-file-per-team-limit-bytes"));
+                return new RoboPrintStream(wrapped != null ? wrapped : NullOutputStream.NULL_OUTPUT_STREAM,
+                        options.toSystemOut,
+                        options.replayLimitBytes);
             } catch (UnsupportedEncodingException e) {
                 throw new RuntimeException("UTF-8 isn't supported on this system??", e);
             }
@@ -2,7 +2,8 @@ package battlecode.instrumenter;
 
 import battlecode.instrumenter.bytecode.ClassReferenceUtil;
 import battlecode.instrumenter.bytecode.InstrumentingClassVisitor;
-import battlecode.server.Config;
+import battlecode.server.jfr.EngineEvents;
+import battlecode.server.jfr.InstrumentEvent;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
@@ -16,6 +17,8 @@ import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static battlecode.instrumenter.InstrumentationException.Type.ILLEGAL;
 import static battlecode.instrumenter.InstrumentationException.Type.MISSING;
@@ -100,19 +103,41 @@ public final class TeamClassLoaderFactory {
      * The values are byte arrays, not Classes, because each instance of
      * InstrumentingClassLoader should define its own class, even if another
      * InstrumentingClassLoader has already loaded a class from the same class file.
+     * Concurrent, so that games played at once can share a factory.
      */
     private final Map<String, byte[]> instrumentedClasses;
 
+    /**
+     * How many classes, and bytes of them, every factory has cached.
+     */
+    private static final AtomicLong classesCached = new AtomicLong();
+    private static final AtomicLong classBytesCached = new AtomicLong();
+
     /**
      * If this team has an error, don't bother trying to cache again.
      */
-    private boolean hasError;
+    private volatile boolean hasError;
 
     /**
      * The ClassReferenceUtil used by this cache.
      */
     private final ClassReferenceUtil refUtil;
 
+    /**
+     * Whether to keep calls to methods marked debug_ in team classes.
+     */
+    private final boolean debugMethods;
+
+    /**
+     * Whether to profile the bytecodes of team classes.
+     */
+    private final boolean profileBytecodes;
+
+    /**
+     * Where the team's classes are loaded from, as given.
+     */
+    private final String classURL;
+
     /**
      * Create a cache for classes loaded from a URL (or local file).
      * The URL can point to a jar file or a directory containing class
@@ -121,8 +146,14 @@ public final class TeamClassLoaderFactory {
      * Resources will be searched for at the URL and then locally.
      *
      * @param classURL the URL to load clases from
+     * @param debugMethods whether to keep calls to debug_ methods
+     * @param profileBytecodes whether to profile the classes' bytecodes;
+     *                         only if BytecodeProfiling says it can
      */
-    public TeamClassLoaderFactory(final String classURL) {
+    public TeamClassLoaderFactory(final String classURL, boolean debugMethods, boolean profileBytecodes) {
+        this.debugMethods = debugMethods;
+        this.profileBytecodes = profileBytecodes;
+        this.classURL = classURL;
         URL url;
         try {
             url = getFilesystemURL(classURL);
@@ -147,7 +178,7 @@ public final class TeamClassLoaderFactory {
                 return findResource(name);
             }
         };
-        this.instrumentedClasses = new HashMap<>();
+        this.instrumentedClasses = new ConcurrentHashMap<>();
         this.hasError = false;
         this.refUtil = new ClassReferenceUtil(this);
     }
@@ -182,7 +213,26 @@ public final class TeamClassLoaderFactory {
      * @param classBytes the bytes of the class
      */
     public void setCached(String className, byte[] classBytes) {
-        this.instrumentedClasses.put(className, classBytes);
+        if (this.instrumentedClasses.put(className, classBytes) == null) {
+            classesCached.incrementAndGet();
+            classBytesCached.addAndGet(classBytes.length);
+        }
+    }
+
+    /**
+     * @return how many classes every factory has cached since the engine
+     *         started, including those no longer in use
+     */
+    public static long getClassesCached() {
+        return classesCached.get();
+    }
+
+    /**
+     * @return how many bytes of classes every factory has cached since the
+     *         engine started
+     */
+    public static long getClassBytesCached() {
+        return classBytesCached.get();
     }
 
     /**
@@ -443,17 +493,21 @@ public final class TeamClassLoaderFactory {
                     throw e;
                 }
 
+                final InstrumentEvent instrumentEvent = beginInstrumentEvent();
                 final byte[] classBytes;
                 try {
                     classBytes = instrument(
                             TeamClassLoaderFactory.this.teamReader(name),
                             true,
-                            Config.getGlobalConfig().getBoolean("bc.engine.debug-methods")
+                            TeamClassLoaderFactory.this.debugMethods
                     );
                 } catch (InstrumentationException e) {
                     TeamClassLoaderFactory.this.hasError = true;
                     throw e;
                 }
+                if (instrumentEvent != null) {
+                    instrumentEvent.finish(name, classURL, true, classBytes.length);
+                }
 
                 finishedClass = saveAndDefineClass(name, classBytes);
             } else if (name.startsWith("instrumented.")) {
@@ -462,6 +516,7 @@ public final class TeamClassLoaderFactory {
                 // If permgen space becomes a problem, we could make it so
                 // that only one copy of these classes is loaded, but
                 // we would need to modify ObjectHashCode.
+                final InstrumentEvent instrumentEvent = beginInstrumentEvent();
                 byte[] classBytes;
                 try {
                     classBytes = instrument(
@@ -471,6 +526,9 @@ public final class TeamClassLoaderFactory {
                     TeamClassLoaderFactory.this.hasError = true;
                     throw ie;
                 }
+                if (instrumentEvent != null) {
+                    instrumentEvent.finish(name, classURL, false, classBytes.length);
+                }
 
                 finishedClass = saveAndDefineClass(name, classBytes);
             } else {
@@ -500,6 +558,19 @@ public final class TeamClassLoaderFactory {
             }*/
         }
 
+        /**
+         * @return an event for instrumenting a class, begun, or null if
+         *         we aren't emitting them
+         */
+        private InstrumentEvent beginInstrumentEvent() {
+            if (!EngineEvents.ENABLED) {
+                return null;
+            }
+            final InstrumentEvent event = new InstrumentEvent();
+            event.begin();
+            return event;
+        }
+
         public Class<?> saveAndDefineClass(String name, byte[] classBytes) {
             if (classBytes == null) {
                 throw new InstrumentationException(ILLEGAL, "Can't save class with null bytes: " + name);
@@ -518,7 +589,7 @@ public final class TeamClassLoaderFactory {
 
             ClassWriter cw = new ClassWriter(COMPUTE_MAXS); // passing true sets maxLocals and maxStack, so we don't have to
             ClassVisitor cv = new InstrumentingClassVisitor(
-                    cw,
+                    TeamClassLoaderFactory.this.profileBytecodes ? BytecodeProfiling.wrap(cw) : cw,
                     this,
                     false,
                     checkDisallowed,
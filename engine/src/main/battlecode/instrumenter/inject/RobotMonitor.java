@@ -64,6 +64,25 @@ public final class RobotMonitor {
         bytecodeLimit = limit;
     }
 
+    /**
+     * Charge this robot bytecodes between turns, to come out of its next
+     * ones as if it had gone over its limit by that much.
+     *
+     * Called from the main thread, while the robot is paused.
+     *
+     * @param numBytecodes the bytecodes to charge
+     */
+    @SuppressWarnings("unused")
+    public static void chargeBytecodes(int numBytecodes) {
+        if (numBytecodes > 0) {
+            try {
+                bytecodesLeft = Math.subtractExact(Math.min(bytecodesLeft, 0), numBytecodes);
+            } catch (ArithmeticException e) {
+                bytecodesLeft = Integer.MIN_VALUE;
+            }
+        }
+    }
+
     /**
      * Set System.out for this robot.
      *
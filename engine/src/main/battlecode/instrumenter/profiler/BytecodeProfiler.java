@@ -0,0 +1,338 @@
+package battlecode.instrumenter.profiler;
+
+import battlecode.common.RobotController;
+import battlecode.common.RobotType;
+import org.objectweb.asm.ClassVisitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Attributes the bytecodes players are charged to the methods and lines
+ * that were charged them, with the calls that led there, so bot authors can
+ * see where their bytecodes go; written out as collapsed stacks, one line
+ * per stack, for flamegraph.pl, speedscope and the like.
+ *
+ * Classes are instrumented as usual, then given one more pass (see
+ * ProfilingClassVisitor) that tells this class about each basic block
+ * before it's charged, with the block's cost, method and line, and about
+ * each method entered and returned from; from which each robot thread
+ * keeps a tree of the stacks it has been charged in.
+ *
+ * Each robot's tree is rooted at its type, and the trees of every robot of
+ * a team's package are added up when they're written out. Only used through
+ * battlecode.instrumenter.BytecodeProfiling; tournament builds leave this
+ * package out.
+ */
+public final class BytecodeProfiler {
+
+    /**
+     * The names of the methods that have been instrumented, by ID.
+     */
+    private static final List<String> methods = new ArrayList<>();
+
+    /**
+     * Every robot thread's profile.
+     */
+    private static final Queue<Profile> profiles = new ConcurrentLinkedQueue<>();
+
+    private static final ThreadLocal<Profile> current = ThreadLocal.withInitial(() -> {
+        final Profile profile = new Profile();
+        profiles.add(profile);
+        return profile;
+    });
+
+    /**
+     * Prevent construction.
+     */
+    private BytecodeProfiler() {
+    }
+
+    /**
+     * @param next where instrumented classes go next
+     * @return a pass that profiles the instrumented classes it's given,
+     *         before passing them on
+     */
+    public static ClassVisitor wrap(ClassVisitor next) {
+        return new ProfilingClassVisitor(next);
+    }
+
+    /**
+     * @param name the method's class and name, e.g. "team.RobotPlayer.run"
+     * @return an ID for the method
+     */
+    static synchronized int registerMethod(String name) {
+        methods.add(name);
+        return methods.size() - 1;
+    }
+
+    private static synchronized String methodName(int method) {
+        return methods.get(method);
+    }
+
+    /**
+     * @return the package of a method's class, e.g. "team" for
+     *         "team.RobotPlayer.run"
+     */
+    private static String packageOf(String method) {
+        final int dot = method.lastIndexOf('.', method.lastIndexOf('.') - 1);
+        return dot < 0 ? "(default)" : method.substring(0, dot);
+    }
+
+    // Methods called from instrumented code, on robot threads
+
+    /**
+     * A player's RobotPlayer.run has started.
+     *
+     * @param rc the robot's controller
+     * @param method the ID of run
+     */
+    public static void start(RobotController rc, int method) {
+        final Profile profile = current.get();
+        profile.type = rc.getType();
+        profile.teamPackage = packageOf(methodName(method));
+        profile.enter(method);
+    }
+
+    /**
+     * A method has been entered.
+     */
+    public static void enter(int method) {
+        current.get().enter(method);
+    }
+
+    /**
+     * A method is returning.
+     */
+    public static void exit() {
+        current.get().exit();
+    }
+
+    /**
+     * A basic block is about to be charged.
+     *
+     * @param bytecodes what it costs
+     * @param method the ID of the method it's in
+     * @param line the line it ends on, or -1 if unknown
+     */
+    public static void block(int bytecodes, int method, int line) {
+        current.get().charge(bytecodes, method, line);
+    }
+
+    /**
+     * A method is about to be called, from a line that hasn't been charged
+     * for a block since the call before it.
+     *
+     * @param method the ID of the method calling it
+     * @param line the line it's called from, or -1 if unknown
+     */
+    public static void at(int method, int line) {
+        current.get().locate(method, line);
+    }
+
+    /**
+     * Bytecodes are about to be charged at the end of the current block,
+     * on top of its own cost (e.g. for allocating an array).
+     */
+    public static void extra(int bytecodes, int method, int line) {
+        if (bytecodes > 0) {
+            current.get().charge(bytecodes, method, line);
+        }
+    }
+
+    // Writing profiles out
+
+    /**
+     * Write the stacks of every robot profiled so far, one file for each
+     * team package, named after it, with a .collapsed extension.
+     *
+     * Robots should be done running; their profiles are read without
+     * locking.
+     *
+     * @param dir the directory to write them in
+     * @return the files written
+     */
+    public static List<File> write(File dir) throws IOException {
+        final Map<String, Map<String, Long>> stacksByPackage = new TreeMap<>();
+        for (Profile profile : profiles) {
+            for (Node root : profile.roots()) {
+                final String teamPackage = profile.teamPackage != null ?
+                        profile.teamPackage : packageOf(methodName(root.method));
+                final Map<String, Long> stacks = stacksByPackage.computeIfAbsent(teamPackage, (p) -> new TreeMap<>());
+                collect(root, profile.type == null ? "(unknown)" : profile.type.name(), stacks);
+            }
+        }
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Can't create " + dir);
+        }
+        final List<File> written = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Long>> entry : stacksByPackage.entrySet()) {
+            final File file = new File(dir, entry.getKey() + ".collapsed");
+            try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+                for (Map.Entry<String, Long> stack : entry.getValue().entrySet()) {
+                    out.print(stack.getKey());
+                    out.print(' ');
+                    out.println(stack.getValue());
+                }
+            }
+            written.add(file);
+        }
+        return written;
+    }
+
+    private static void collect(Node node, String prefix, Map<String, Long> stacks) {
+        final String name = methodName(node.method);
+        final String stack = prefix + ';' + (node.line < 0 ? name : name + ':' + node.line);
+        if (node.bytecodes > 0) {
+            stacks.merge(stack, node.bytecodes, Long::sum);
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            collect(node.children[i], stack, stacks);
+        }
+    }
+
+    /**
+     * Somewhere a robot has been: a line of a method, called from its
+     * parent's.
+     */
+    private static final class Node {
+        final int method;
+        final int line;
+        long bytecodes;
+        Node[] children;
+        int childCount;
+
+        Node(int method, int line) {
+            this.method = method;
+            this.line = line;
+        }
+
+        Node child(int method, int line) {
+            for (int i = 0; i < childCount; i++) {
+                final Node child = children[i];
+                if (child.method == method && child.line == line) {
+                    return child;
+                }
+            }
+            final Node child = new Node(method, line);
+            if (children == null) {
+                children = new Node[2];
+            } else if (childCount == children.length) {
+                final Node[] grown = new Node[childCount * 2];
+                System.arraycopy(children, 0, grown, 0, childCount);
+                children = grown;
+            }
+            children[childCount++] = child;
+            return child;
+        }
+    }
+
+    /**
+     * One robot thread's stacks, and where it is now.
+     */
+    private static final class Profile {
+        /**
+         * Holds the outermost frames as its children.
+         */
+        private final Node top = new Node(-1, -1);
+
+        /**
+         * The robot's type and its team's package, once its player has
+         * started.
+         */
+        RobotType type;
+        String teamPackage;
+
+        /**
+         * For each frame on the stack, its method, and the node for the line
+         * it's on (null until it's charged for a block).
+         */
+        private int[] frameMethods = new int[64];
+        private Node[] frameNodes = new Node[64];
+        private int depth = -1;
+
+        void enter(int method) {
+            depth++;
+            if (depth == frameMethods.length) {
+                final int[] methods = new int[depth * 2];
+                final Node[] nodes = new Node[depth * 2];
+                System.arraycopy(frameMethods, 0, methods, 0, depth);
+                System.arraycopy(frameNodes, 0, nodes, 0, depth);
+                frameMethods = methods;
+                frameNodes = nodes;
+            }
+            frameMethods[depth] = method;
+            frameNodes[depth] = null;
+        }
+
+        void exit() {
+            if (depth >= 0) {
+                depth--;
+            }
+        }
+
+        void charge(int bytecodes, int method, int line) {
+            locate(method, line).bytecodes += bytecodes;
+        }
+
+        /**
+         * @return the node for a line of the method in the innermost frame
+         *         (which should be running it), now the frame's current node
+         */
+        Node locate(int method, int line) {
+            if (depth < 0 || frameMethods[depth] != method) {
+                // An exception has unwound frames without them returning:
+                // go back to the innermost frame of this method. (With
+                // recursion, that isn't always the frame that caught it.)
+                int frame = depth;
+                while (frame >= 0 && frameMethods[frame] != method) {
+                    frame--;
+                }
+                if (frame < 0) {
+                    enter(method);
+                } else {
+                    depth = frame;
+                }
+            }
+            Node node = frameNodes[depth];
+            if (node == null || node.line != line) {
+                node = parent(depth).child(method, line);
+                frameNodes[depth] = node;
+            }
+            return node;
+        }
+
+        /**
+         * @return the node a frame's nodes are children of: its caller's, at
+         *         the line it's on
+         */
+        private Node parent(int frame) {
+            if (frame == 0) {
+                return top;
+            }
+            Node caller = frameNodes[frame - 1];
+            if (caller == null) {
+                caller = parent(frame - 1).child(frameMethods[frame - 1], -1);
+                frameNodes[frame - 1] = caller;
+            }
+            return caller;
+        }
+
+        List<Node> roots() {
+            final List<Node> roots = new ArrayList<>();
+            for (int i = 0; i < top.childCount; i++) {
+                roots.add(top.children[i]);
+            }
+            return roots;
+        }
+    }
+}
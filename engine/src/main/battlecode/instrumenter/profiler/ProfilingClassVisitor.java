@@ -0,0 +1,162 @@
+package battlecode.instrumenter.profiler;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Profiles a class that's been instrumented, so that BytecodeProfiler
+ * hears about the bytecodes charged in it. In every method:
+ *
+ *  - Before each basic block is charged (each call to
+ *    RobotMonitor.incrementBytecodes), tell BytecodeProfiler.block what
+ *    it costs, and the method and line it's in
+ *  - Likewise for what's added to the block's cost
+ *    (RobotMonitor.incrementBytecodesWithoutInterrupt)
+ *  - Before each call that doesn't follow a charged block directly, tell
+ *    BytecodeProfiler.at the line it's from, so the callee is put under it
+ *  - Call BytecodeProfiler.enter at the start, and BytecodeProfiler.exit
+ *    before each return; or BytecodeProfiler.start, for a player's
+ *    RobotPlayer.run
+ *
+ * Nothing is added that branches or needs locals, so the class's stack map
+ * frames stay as they are.
+ */
+public class ProfilingClassVisitor extends ClassVisitor implements Opcodes {
+
+    private static final String MONITOR = "battlecode/instrumenter/inject/RobotMonitor";
+    private static final String PROFILER = "battlecode/instrumenter/profiler/BytecodeProfiler";
+    private static final String RUN_DESC = "(Lbattlecode/common/RobotController;)V";
+
+    private String className;
+
+    public ProfilingClassVisitor(ClassVisitor cv) {
+        super(ASM5, cv);
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature, String superName,
+                      String[] interfaces) {
+        className = name;
+        super.visit(version, access, name, signature, superName, interfaces);
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+                                     String[] exceptions) {
+        final MethodVisitor mv = cv.visitMethod(access, name, desc, signature, exceptions);
+        return mv == null ? null : new ProfilingMethodVisitor(mv, className, access, name, desc, signature, exceptions);
+    }
+
+    private static final class ProfilingMethodVisitor extends MethodNode {
+
+        private final MethodVisitor methodWriter;
+        private final String className;
+
+        ProfilingMethodVisitor(MethodVisitor mv, String className, int access, String name, String desc,
+                               String signature, String[] exceptions) {
+            super(ASM5, access, name, desc, signature, exceptions);
+            this.methodWriter = mv;
+            this.className = className;
+        }
+
+        @Override
+        public void visitEnd() {
+            if (instructions.size() > 0) {
+                profile();
+            }
+            accept(methodWriter);
+        }
+
+        private void profile() {
+            String displayName = className.startsWith("instrumented/") ?
+                    className.substring("instrumented/".length()) : className;
+            displayName = displayName.replace('/', '.') + '.' + name;
+            final int method = BytecodeProfiler.registerMethod(displayName);
+
+            // debug_ methods aren't charged (see RobotMonitor.incrementDebugLevel)
+            final boolean charged = !(name.startsWith("debug_") && desc.endsWith("V"));
+
+            int line = -1;
+            for (AbstractInsnNode node : instructions.toArray()) {
+                if (node instanceof LineNumberNode) {
+                    line = ((LineNumberNode) node).line;
+                } else if (node instanceof MethodInsnNode) {
+                    final MethodInsnNode call = (MethodInsnNode) node;
+                    if (!call.owner.equals(MONITOR)) {
+                        if (!afterCharge(node)) {
+                            instructions.insertBefore(node, at(method, line));
+                        }
+                        continue;
+                    }
+                    if (!charged) {
+                        continue;
+                    }
+                    if (call.name.equals("incrementBytecodes") && node.getPrevious() instanceof LdcInsnNode) {
+                        final InsnList insns = new InsnList();
+                        insns.add(new LdcInsnNode(((LdcInsnNode) node.getPrevious()).cst));
+                        insns.add(new LdcInsnNode(method));
+                        insns.add(new LdcInsnNode(line));
+                        insns.add(new MethodInsnNode(INVOKESTATIC, PROFILER, "block", "(III)V", false));
+                        instructions.insertBefore(node.getPrevious(), insns);
+                    } else if (call.name.equals("incrementBytecodesWithoutInterrupt")) {
+                        final InsnList insns = new InsnList();
+                        insns.add(new InsnNode(DUP));
+                        insns.add(new LdcInsnNode(method));
+                        insns.add(new LdcInsnNode(line));
+                        insns.add(new MethodInsnNode(INVOKESTATIC, PROFILER, "extra", "(III)V", false));
+                        instructions.insertBefore(node, insns);
+                    }
+                } else if (node instanceof InvokeDynamicInsnNode) {
+                    if (!afterCharge(node)) {
+                        instructions.insertBefore(node, at(method, line));
+                    }
+                } else if (node.getOpcode() >= IRETURN && node.getOpcode() <= RETURN) {
+                    instructions.insertBefore(node, new MethodInsnNode(INVOKESTATIC, PROFILER, "exit", "()V", false));
+                }
+            }
+
+            final InsnList entry = new InsnList();
+            if (name.equals("run") && desc.equals(RUN_DESC) && (access & ACC_STATIC) != 0
+                    && className.endsWith("/RobotPlayer") && !className.startsWith("instrumented/")) {
+                entry.add(new VarInsnNode(ALOAD, 0));
+                entry.add(new LdcInsnNode(method));
+                entry.add(new MethodInsnNode(INVOKESTATIC, PROFILER, "start",
+                        "(Lbattlecode/common/RobotController;I)V", false));
+            } else {
+                entry.add(new LdcInsnNode(method));
+                entry.add(new MethodInsnNode(INVOKESTATIC, PROFILER, "enter", "(I)V", false));
+            }
+            instructions.insert(entry);
+        }
+
+        /**
+         * @return whether an instruction directly follows a call to
+         *         RobotMonitor.incrementBytecodes (which will have told the
+         *         profiler its line)
+         */
+        private static boolean afterCharge(AbstractInsnNode node) {
+            final AbstractInsnNode previous = node.getPrevious();
+            return previous instanceof MethodInsnNode
+                    && ((MethodInsnNode) previous).owner.equals(MONITOR)
+                    && ((MethodInsnNode) previous).name.equals("incrementBytecodes");
+        }
+
+        private static InsnList at(int method, int line) {
+            final InsnList insns = new InsnList();
+            insns.add(new LdcInsnNode(method));
+            insns.add(new LdcInsnNode(line));
+            insns.add(new MethodInsnNode(INVOKESTATIC, PROFILER, "at", "(II)V", false));
+            return insns;
+        }
+    }
+}
@@ -39,19 +39,29 @@ public final class GameWrapper extends Table {
   public int matchFooters(int j) { int o = __offset(8); return o != 0 ? bb.getInt(__vector(o) + j * 4) : 0; }
   public int matchFootersLength() { int o = __offset(8); return o != 0 ? __vector_len(o) : 0; }
   public ByteBuffer matchFootersAsByteBuffer() { return __vector_as_bytebuffer(8, 4); }
+  /**
+   * For replays saved with bc.server.compact-replay: the logs of every
+   * round, concatenated and deflated (zlib format). Each Round's
+   * CompactRound says where its logs are.
+   */
+  public int compactLogs(int j) { int o = __offset(10); return o != 0 ? bb.get(__vector(o) + j * 1) & 0xFF : 0; }
+  public int compactLogsLength() { int o = __offset(10); return o != 0 ? __vector_len(o) : 0; }
+  public ByteBuffer compactLogsAsByteBuffer() { return __vector_as_bytebuffer(10, 1); }
 
   public static int createGameWrapper(FlatBufferBuilder builder,
       int eventsOffset,
       int matchHeadersOffset,
-      int matchFootersOffset) {
-    builder.startObject(3);
+      int matchFootersOffset,
+      int compactLogsOffset) {
+    builder.startObject(4);
+    GameWrapper.addCompactLogs(builder, compactLogsOffset);
     GameWrapper.addMatchFooters(builder, matchFootersOffset);
     GameWrapper.addMatchHeaders(builder, matchHeadersOffset);
     GameWrapper.addEvents(builder, eventsOffset);
     return GameWrapper.endGameWrapper(builder);
   }
 
-  public static void startGameWrapper(FlatBufferBuilder builder) { builder.startObject(3); }
+  public static void startGameWrapper(FlatBufferBuilder builder) { builder.startObject(4); }
   public static void addEvents(FlatBufferBuilder builder, int eventsOffset) { builder.addOffset(0, eventsOffset, 0); }
   public static int createEventsVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addOffset(data[i]); return builder.endVector(); }
   public static void startEventsVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
@@ -61,6 +71,9 @@ public final class GameWrapper extends Table {
   public static void addMatchFooters(FlatBufferBuilder builder, int matchFootersOffset) { builder.addOffset(2, matchFootersOffset, 0); }
   public static int createMatchFootersVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addInt(data[i]); return builder.endVector(); }
   public static void startMatchFootersVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
+  public static void addCompactLogs(FlatBufferBuilder builder, int compactLogsOffset) { builder.addOffset(3, compactLogsOffset, 0); }
+  public static int createCompactLogsVector(FlatBufferBuilder builder, byte[] data) { builder.startVector(1, data.length, 1); for (int i = data.length - 1; i >= 0; i--) builder.addByte(data[i]); return builder.endVector(); }
+  public static void startCompactLogsVector(FlatBufferBuilder builder, int numElems) { builder.startVector(1, numElems, 1); }
   public static int endGameWrapper(FlatBufferBuilder builder) {
     int o = builder.endObject();
     return o;
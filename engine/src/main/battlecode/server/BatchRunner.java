@@ -0,0 +1,211 @@
+package battlecode.server;
+
+import battlecode.instrumenter.TeamClassLoaderFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays a manifest of games in one JVM, several at once, and writes a JSON
+ * record of each game's result, so a ladder can play a round of games with
+ * one engine run rather than one per game.
+ *
+ * The manifest has a game per line:
+ *
+ *   team-a[:package] url-a team-b[:package] url-b map[,map...] [seed]
+ *
+ * e.g.
+ *
+ *   # the first round
+ *   bananas /box/classes/bananas yellow:org.yellow /box/classes/yellow Soup,CowFarm,Hills
+ *   bananas /box/classes/bananas yellow:org.yellow /box/classes/yellow Soup 1234
+ *
+ * Blank lines and lines starting with # are skipped. The rest of each game's
+ * settings come from the batch's config.
+ *
+ * Each team's classes are instrumented once, the first time a game needs
+ * them, and shared by all its games; so they mustn't change during the
+ * batch.
+ *
+ * Records are written in manifest order, one per line, as
+ * {"line": the game's line in the manifest, "replay": its save file or null,
+ * "result": the GameResult}, or {"line": ..., "error": why} for a game that
+ * couldn't be played.
+ */
+public class BatchRunner {
+
+    /**
+     * The settings to play each game with, besides its own.
+     */
+    private final Config options;
+
+    /**
+     * Where to save each game's replay, or null to only play them for their
+     * results.
+     */
+    private final File replayDir;
+
+    /**
+     * How many games to play at once.
+     */
+    private final int threads;
+
+    /**
+     * @param options the settings to play games with; copied
+     * @param replayDir where to save replays, or null to not save them
+     * @param threads how many games to play at once
+     */
+    public BatchRunner(Config options, File replayDir, int threads) {
+        if (threads < 1) {
+            throw new RuntimeException("Invalid batch thread count: "+threads);
+        }
+        this.options = new Config(options);
+        // nobody's watching a batch, and results are written by the batch,
+        // in order, not by each game's server
+        this.options.setBoolean("bc.server.websocket", false);
+        this.options.setBoolean("bc.server.interactive", false);
+        this.options.set("bc.server.result-file", "");
+        this.replayDir = replayDir;
+        this.threads = threads;
+    }
+
+    /**
+     * A game from a manifest.
+     */
+    static class Entry {
+        /**
+         * The game's line in the manifest, from 1.
+         */
+        final int line;
+        final MatchConfig match;
+
+        Entry(int line, MatchConfig match) {
+            this.line = line;
+            this.match = match;
+        }
+    }
+
+    /**
+     * Read the games in a manifest.
+     *
+     * @param options the settings to play each game with
+     * @param replayDir where to save replays, or null to not save them
+     * @param manifest the manifest to read
+     * @return the games, in order
+     * @throws RuntimeException if a line isn't a valid game
+     */
+    static List<Entry> parseManifest(Config options, File replayDir, Reader manifest) throws IOException {
+        final List<Entry> entries = new ArrayList<>();
+        final BufferedReader reader = new BufferedReader(manifest);
+
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            final String[] fields = line.split("\\s+");
+            if (fields.length != 5 && fields.length != 6) {
+                throw new RuntimeException("Line "+lineNumber+" of manifest should be "
+                        +"'team-a[:package] url-a team-b[:package] url-b maps [seed]': "+line);
+            }
+            final String[] teamA = fields[0].split(":", 2);
+            final String[] teamB = fields[2].split(":", 2);
+            final String[] maps = fields[4].split(",");
+
+            final Integer seed;
+            try {
+                seed = fields.length == 6 ? Integer.valueOf(fields[5]) : null;
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Line "+lineNumber+" of manifest has an invalid seed: "+fields[5]);
+            }
+
+            final MatchConfig match = new MatchConfig.Builder(options)
+                    .teamA(teamA[0], teamA.length > 1 ? teamA[1] : teamA[0], fields[1])
+                    .teamB(teamB[0], teamB.length > 1 ? teamB[1] : teamB[0], fields[3])
+                    .maps(maps)
+                    .bestOfThree(options.getBoolean("bc.game.best-of-three") && maps.length == 3)
+                    .seed(seed)
+                    .silence(options.getBoolean("bc.engine.silence-a"), options.getBoolean("bc.engine.silence-b"))
+                    .saveFile(replayDir != null ? new File(replayDir,
+                            String.format("%d-%s-vs-%s.bc20", lineNumber, teamA[0], teamB[0])) : null)
+                    .build();
+            entries.add(new Entry(lineNumber, match));
+        }
+        return entries;
+    }
+
+    /**
+     * Play every game in a manifest, and write their records.
+     *
+     * @param manifest the manifest to read
+     * @param out where to write the records
+     * @return whether every game was played
+     * @throws RuntimeException if the manifest isn't valid
+     */
+    public boolean run(Reader manifest, PrintWriter out) throws IOException, InterruptedException {
+        final List<Entry> entries = parseManifest(options, replayDir, manifest);
+        if (replayDir != null && !replayDir.isDirectory() && !replayDir.mkdirs()) {
+            throw new RuntimeException("Couldn't create replay directory "+replayDir);
+        }
+
+        final ConcurrentMap<String, TeamClassLoaderFactory> teamFactories = new ConcurrentHashMap<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, (task) -> {
+            Thread thread = new Thread(task, "batch-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final long start = System.nanoTime();
+        boolean allPlayed = true;
+        try {
+            final List<Future<GameResult>> results = new ArrayList<>();
+            for (Entry entry : entries) {
+                results.add(executor.submit(() -> MatchRunner.run(entry.match, teamFactories)));
+            }
+
+            for (int i = 0; i < entries.size(); i++) {
+                final Entry entry = entries.get(i);
+                String error;
+                GameResult result = null;
+                try {
+                    result = results.get(i).get();
+                    error = result == null ? "Game failed" : null;
+                } catch (ExecutionException e) {
+                    ErrorReporter.report(e.getCause(), true);
+                    error = "Couldn't play game: "+e.getCause().getMessage();
+                }
+
+                if (error != null) {
+                    allPlayed = false;
+                    out.println("{\"line\":" + entry.line + ",\"error\":" + GameResult.string(error) + "}");
+                } else {
+                    out.println("{\"line\":" + entry.line
+                            + ",\"replay\":" + GameResult.string(entry.match.getSaveFile())
+                            + ",\"result\":" + result.toJson() + "}");
+                }
+                out.flush();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Server.debug(options, String.format("Played %d games on %d threads in %.2fs",
+                entries.size(), threads, (System.nanoTime() - start) / 1e9));
+        return allPlayed;
+    }
+}
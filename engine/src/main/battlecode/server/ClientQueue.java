@@ -0,0 +1,468 @@
+package battlecode.server;
+
+import battlecode.schema.Event;
+import org.java_websocket.WebSocket;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The events waiting to be sent to one websocket client, and the thread
+ * that sends them.
+ *
+ * The queue is bounded; what happens when a client falls that far behind
+ * is up to its Policy. A frame is only handed to the websocket once the
+ * previous one has been written out, so the queue depth is the client's
+ * real backlog.
+ *
+ * With a batch size over 1, up to that many queued events are sent in one
+ * binary frame, each prefixed with its length as a little-endian int32
+ * (the flatbuffers "size prefixed" layout). Clients have to ask for this.
+ */
+public class ClientQueue {
+
+    /**
+     * What to do when a client's queue is full.
+     */
+    public enum Policy {
+        /**
+         * Wait for the client, holding up the engine if it comes to that.
+         */
+        BLOCK,
+        /**
+         * Throw away the queue, and resume the client from the next
+         * snapshot (a header, or a round with a keyframe).
+         */
+        DROP,
+        /**
+         * Close the connection.
+         */
+        DISCONNECT
+    }
+
+    /**
+     * How long to wait between checks for the websocket finishing a write.
+     */
+    private static final long WRITE_POLL_MILLIS = 1;
+
+    private final WebSocket client;
+    private final Policy policy;
+    private final int capacity;
+    private final int batchSize;
+    private final DetailLevel detail;
+
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+
+    private final ArrayDeque<byte[]> events;
+    private final ArrayDeque<Long> enqueueTimes;
+
+    /**
+     * Whether we're throwing events away until the next snapshot.
+     */
+    private boolean skipping;
+
+    /**
+     * The last game and match headers taken off the queue to be sent, so
+     * that a client resuming from a snapshot isn't sent them twice.
+     */
+    private byte[] sentGameHeader;
+    private byte[] sentMatchHeader;
+
+    private boolean finishing;
+    private boolean closed;
+
+    private long sentEvents;
+    private long sentFrames;
+    private long droppedEvents;
+
+    private final Thread sender;
+
+    /**
+     * @param client the client to send to
+     * @param policy what to do when the queue is full
+     * @param capacity how many events the queue holds
+     * @param batchSize the most events to send per frame
+     * @param waitForSnapshot whether to send nothing until the next snapshot
+     */
+    ClientQueue(WebSocket client, Policy policy, int capacity, int batchSize, boolean waitForSnapshot) {
+        this(client, policy, capacity, batchSize, waitForSnapshot, DetailLevel.FULL);
+    }
+
+    /**
+     * @param client the client to send to
+     * @param policy what to do when the queue is full
+     * @param capacity how many events the queue holds
+     * @param batchSize the most events to send per frame
+     * @param waitForSnapshot whether to send nothing until the next snapshot
+     * @param detail how much of each round the client wants
+     */
+    ClientQueue(WebSocket client, Policy policy, int capacity, int batchSize, boolean waitForSnapshot,
+                DetailLevel detail) {
+        if (capacity < 1) {
+            throw new RuntimeException("Invalid client queue capacity: "+capacity);
+        }
+        if (batchSize < 1) {
+            throw new RuntimeException("Invalid client batch size: "+batchSize);
+        }
+
+        this.client = client;
+        this.policy = policy;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.detail = detail;
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
+        this.events = new ArrayDeque<>();
+        this.enqueueTimes = new ArrayDeque<>();
+        this.skipping = waitForSnapshot;
+
+        this.sender = new Thread(this::sendLoop, "client-" + client.getRemoteSocketAddress());
+        this.sender.setDaemon(true);
+    }
+
+    void start() {
+        sender.start();
+    }
+
+    /**
+     * Queue the events a client needs to catch up, ignoring the capacity.
+     * Headers the client has already been sent are skipped.
+     *
+     * @param gameHeader the current game header, or null
+     * @param matchHeader the current match header, or null
+     * @param tail the events since the latest snapshot
+     */
+    void catchUp(byte[] gameHeader, byte[] matchHeader, List<byte[]> tail) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            skipping = false;
+            if (gameHeader != null && gameHeader != sentGameHeader) {
+                enqueue(gameHeader);
+            }
+            if (matchHeader != null && matchHeader != sentMatchHeader) {
+                enqueue(matchHeader);
+            }
+            for (byte[] event : tail) {
+                enqueue(event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queue a live event.
+     *
+     * @param snapshot whether the event is a snapshot
+     * @return whether the client is resuming from this snapshot, and has to
+     *         be caught up with catchUp instead
+     */
+    boolean offer(byte[] event, boolean snapshot) throws InterruptedException {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (skipping) {
+                if (snapshot) {
+                    return true;
+                }
+                droppedEvents++;
+                return false;
+            }
+            while (events.size() >= capacity) {
+                switch (policy) {
+                    case BLOCK:
+                        notFull.await();
+                        if (closed) {
+                            return false;
+                        }
+                        break;
+                    case DROP:
+                        droppedEvents += events.size();
+                        events.clear();
+                        enqueueTimes.clear();
+                        skipping = true;
+                        if (snapshot) {
+                            return true;
+                        }
+                        droppedEvents++;
+                        return false;
+                    case DISCONNECT:
+                        droppedEvents += events.size() + 1;
+                        close();
+                        client.close(1008, "Client fell too far behind");
+                        return false;
+                }
+            }
+            enqueue(event);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Note a live event the client can't be sent, because it was never
+     * built: send nothing more until the next snapshot.
+     */
+    void skip() {
+        lock.lock();
+        try {
+            if (!closed) {
+                skipping = true;
+                droppedEvents++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop once everything queued has been sent.
+     */
+    void finish() {
+        lock.lock();
+        try {
+            finishing = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for the sender to finish.
+     *
+     * @return whether it did in time
+     */
+    boolean join(long millis) throws InterruptedException {
+        sender.join(millis);
+        return !sender.isAlive();
+    }
+
+    /**
+     * Stop sending right away, and drop anything still queued.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            events.clear();
+            enqueueTimes.clear();
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    WebSocket getClient() {
+        return client;
+    }
+
+    /**
+     * @return whether we've stopped sending, because the client went away or
+     *         was closed
+     */
+    boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Must hold the lock.
+     */
+    private void enqueue(byte[] event) {
+        events.add(event);
+        enqueueTimes.add(System.nanoTime());
+        notEmpty.signal();
+    }
+
+    private void sendLoop() {
+        try {
+            while (true) {
+                final byte[][] batch;
+                lock.lock();
+                try {
+                    while (events.isEmpty() && !closed && !finishing) {
+                        notEmpty.await();
+                    }
+                    if (closed || events.isEmpty()) {
+                        return;
+                    }
+                    batch = new byte[Math.min(batchSize, events.size())][];
+                    for (int i = 0; i < batch.length; i++) {
+                        batch[i] = events.poll();
+                        enqueueTimes.poll();
+                        noteHeader(batch[i]);
+                    }
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+
+                // let the websocket finish the last frame first
+                while (client.hasBufferedData() && client.isOpen()) {
+                    Thread.sleep(WRITE_POLL_MILLIS);
+                }
+                if (!client.isOpen()) {
+                    close();
+                    return;
+                }
+
+                if (batchSize == 1) {
+                    client.send(batch[0]);
+                } else {
+                    client.send(frame(batch));
+                }
+
+                lock.lock();
+                try {
+                    sentEvents += batch.length;
+                    sentFrames++;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            close();
+        } catch (RuntimeException e) {
+            // the connection went away under us
+            close();
+        }
+    }
+
+    /**
+     * Must hold the lock.
+     */
+    private void noteHeader(byte[] event) {
+        switch (NetServer.eventType(event)) {
+            case Event.GameHeader:
+                sentGameHeader = event;
+                sentMatchHeader = null;
+                break;
+            case Event.MatchHeader:
+                sentMatchHeader = event;
+                break;
+        }
+    }
+
+    /**
+     * @return the events as one size-prefixed frame
+     */
+    static ByteBuffer frame(byte[][] batch) {
+        int size = 0;
+        for (byte[] event : batch) {
+            size += Integer.BYTES + event.length;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        for (byte[] event : batch) {
+            frame.putInt(event.length);
+            frame.put(event);
+        }
+        frame.flip();
+        return frame;
+    }
+
+    // ******************************
+    // ***** STATISTICS *************
+    // ******************************
+
+    public InetSocketAddress getRemoteAddress() {
+        return client.getRemoteSocketAddress();
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public DetailLevel getDetail() {
+        return detail;
+    }
+
+    /**
+     * @return how many events are waiting to be sent
+     */
+    public int getDepth() {
+        lock.lock();
+        try {
+            return events.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return how long the oldest waiting event has been waiting, in
+     *         milliseconds; 0 if the client is caught up
+     */
+    public long getLagMillis() {
+        lock.lock();
+        try {
+            Long oldest = enqueueTimes.peek();
+            return oldest != null ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest) : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return whether the client is waiting for the next snapshot
+     */
+    public boolean isSkipping() {
+        lock.lock();
+        try {
+            return skipping;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSentEvents() {
+        lock.lock();
+        try {
+            return sentEvents;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSentFrames() {
+        lock.lock();
+        try {
+            return sentFrames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return how many events this client was never sent because it fell
+     *         behind (or connected when there was no snapshot to start from)
+     */
+    public long getDroppedEvents() {
+        lock.lock();
+        try {
+            return droppedEvents;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package battlecode.server;
+
+import battlecode.common.Direction;
+import battlecode.common.MapLocation;
+import battlecode.schema.*;
+import battlecode.util.PackedVector;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Expands the rounds of a replay saved with bc.server.compact-replay back
+ * into the values the plain Round fields would have held.
+ *
+ * Moves are stored as directions from each body's last location, so the
+ * rounds of a match have to be read in order, starting just after the match
+ * header or after a round with a keyframe.
+ *
+ * Rounds without a CompactRound are read from their plain fields, so this
+ * works on any replay.
+ *
+ * Not thread safe.
+ */
+public class CompactRoundReader {
+
+    /**
+     * The directions moves are stored as, in order.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * @return the index of the direction from one location to another, or
+     *         -1 if they aren't adjacent (or the same)
+     */
+    static int directionIndex(MapLocation from, MapLocation to) {
+        int dx = to.x - from.x;
+        int dy = to.y - from.y;
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if (DIRECTIONS[i].dx == dx && DIRECTIONS[i].dy == dy) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The deflated logs section of the game, and the inflated version once
+     * it's needed.
+     */
+    private final byte[] compactLogs;
+    private byte[] logs;
+
+    /**
+     * Where each body is, as of the last round read.
+     */
+    private final TIntObjectHashMap<MapLocation> bodyLocations;
+
+    private final TIntArrayList movedLocsXs;
+    private final TIntArrayList movedLocsYs;
+    private final TIntArrayList dirtChangedLocsXs;
+    private final TIntArrayList dirtChangedLocsYs;
+    private final TIntArrayList dirtChanges;
+    private final TIntArrayList waterChangedLocsXs;
+    private final TIntArrayList waterChangedLocsYs;
+    private final TIntArrayList soupChangedLocsXs;
+    private final TIntArrayList soupChangedLocsYs;
+    private final TIntArrayList soupChanges;
+    private final TIntArrayList bytecodeIDs;
+    private final TIntArrayList bytecodesUsed;
+    private String roundLogs;
+
+    private final PackedVector.Reader packed;
+
+    /**
+     * @param game the game the rounds are from
+     */
+    public CompactRoundReader(GameWrapper game) {
+        ByteBuffer compactLogs = game.compactLogsAsByteBuffer();
+        if (compactLogs != null) {
+            this.compactLogs = new byte[compactLogs.remaining()];
+            compactLogs.get(this.compactLogs);
+        } else {
+            this.compactLogs = null;
+        }
+
+        this.bodyLocations = new TIntObjectHashMap<>();
+        this.movedLocsXs = new TIntArrayList();
+        this.movedLocsYs = new TIntArrayList();
+        this.dirtChangedLocsXs = new TIntArrayList();
+        this.dirtChangedLocsYs = new TIntArrayList();
+        this.dirtChanges = new TIntArrayList();
+        this.waterChangedLocsXs = new TIntArrayList();
+        this.waterChangedLocsYs = new TIntArrayList();
+        this.soupChangedLocsXs = new TIntArrayList();
+        this.soupChangedLocsYs = new TIntArrayList();
+        this.soupChanges = new TIntArrayList();
+        this.bytecodeIDs = new TIntArrayList();
+        this.bytecodesUsed = new TIntArrayList();
+        this.packed = new PackedVector.Reader();
+    }
+
+    /**
+     * Start reading a match from the beginning.
+     */
+    public void startMatch(MatchHeader header) {
+        bodyLocations.clear();
+        SpawnedBodyTable bodies = header.map().bodies();
+        if (bodies != null) {
+            addBodies(bodies);
+        }
+    }
+
+    /**
+     * Start reading a match from just after a round with a keyframe.
+     */
+    public void startFromKeyframe(Keyframe keyframe) {
+        bodyLocations.clear();
+        SpawnedBodyTable bodies = keyframe.bodies();
+        if (bodies != null) {
+            addBodies(bodies);
+        }
+    }
+
+    /**
+     * Read the next round of the match; get the results with the getters.
+     */
+    public void readRound(Round round) throws IOException {
+        movedLocsXs.resetQuick();
+        movedLocsYs.resetQuick();
+        dirtChangedLocsXs.resetQuick();
+        dirtChangedLocsYs.resetQuick();
+        dirtChanges.resetQuick();
+        waterChangedLocsXs.resetQuick();
+        waterChangedLocsYs.resetQuick();
+        soupChangedLocsXs.resetQuick();
+        soupChangedLocsYs.resetQuick();
+        soupChanges.resetQuick();
+        bytecodeIDs.resetQuick();
+        bytecodesUsed.resetQuick();
+
+        SpawnedBodyTable spawned = round.spawnedBodies();
+        if (spawned != null) {
+            addBodies(spawned);
+        }
+
+        CompactRound compact = round.compact();
+        if (compact != null) {
+            readCompact(round, compact);
+        } else {
+            readPlain(round);
+        }
+
+        for (int i = 0; i < round.movedIDsLength(); i++) {
+            bodyLocations.put(round.movedIDs(i), new MapLocation(movedLocsXs.get(i), movedLocsYs.get(i)));
+        }
+        for (int i = 0; i < round.diedIDsLength(); i++) {
+            bodyLocations.remove(round.diedIDs(i));
+        }
+
+        Keyframe keyframe = round.keyframe();
+        if (keyframe != null) {
+            startFromKeyframe(keyframe);
+        }
+    }
+
+    private void readCompact(Round round, CompactRound compact) throws IOException {
+        packed.reset(compact.movedJumpsAsByteBuffer());
+        for (int i = 0; i < round.movedIDsLength(); i++) {
+            int direction = compact.movedDirections(i);
+            if (direction == -1) {
+                packed.readLocation();
+                movedLocsXs.add(packed.getX());
+                movedLocsYs.add(packed.getY());
+            } else {
+                MapLocation from = bodyLocations.get(round.movedIDs(i));
+                if (from == null) {
+                    throw new IOException("Round "+round.roundID()+" moves unknown body "+round.movedIDs(i));
+                }
+                movedLocsXs.add(from.x + DIRECTIONS[direction].dx);
+                movedLocsYs.add(from.y + DIRECTIONS[direction].dy);
+            }
+        }
+
+        packed.reset(compact.dirtChangesAsByteBuffer());
+        while (packed.hasRemaining()) {
+            packed.readLocation();
+            dirtChangedLocsXs.add(packed.getX());
+            dirtChangedLocsYs.add(packed.getY());
+            dirtChanges.add(packed.readSigned());
+        }
+
+        packed.reset(compact.waterChangesAsByteBuffer());
+        while (packed.hasRemaining()) {
+            packed.readLocation();
+            waterChangedLocsXs.add(packed.getX());
+            waterChangedLocsYs.add(packed.getY());
+        }
+
+        packed.reset(compact.soupChangesAsByteBuffer());
+        while (packed.hasRemaining()) {
+            packed.readLocation();
+            soupChangedLocsXs.add(packed.getX());
+            soupChangedLocsYs.add(packed.getY());
+            soupChanges.add(packed.readSigned());
+        }
+
+        packed.reset(compact.bytecodesAsByteBuffer());
+        while (packed.hasRemaining()) {
+            bytecodeIDs.add(packed.readDelta());
+            bytecodesUsed.add(packed.readUnsigned() * compact.bytecodeQuantum());
+        }
+
+        if (compact.logsLength() == 0) {
+            roundLogs = "";
+        } else {
+            if (logs == null) {
+                if (compactLogs == null) {
+                    throw new IOException("Replay has compact rounds but no logs section");
+                }
+                logs = IOUtils.toByteArray(new InflaterInputStream(new ByteArrayInputStream(compactLogs)));
+            }
+            roundLogs = new String(logs, compact.logsOffset(), compact.logsLength(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void readPlain(Round round) {
+        VecTable movedLocs = round.movedLocs();
+        if (movedLocs != null) {
+            for (int i = 0; i < movedLocs.xsLength(); i++) {
+                movedLocsXs.add(movedLocs.xs(i));
+                movedLocsYs.add(movedLocs.ys(i));
+            }
+        }
+        VecTable dirtChangedLocs = round.dirtChangedLocs();
+        if (dirtChangedLocs != null) {
+            for (int i = 0; i < dirtChangedLocs.xsLength(); i++) {
+                dirtChangedLocsXs.add(dirtChangedLocs.xs(i));
+                dirtChangedLocsYs.add(dirtChangedLocs.ys(i));
+                dirtChanges.add(round.dirtChanges(i));
+            }
+        }
+        VecTable waterChangedLocs = round.waterChangedLocs();
+        if (waterChangedLocs != null) {
+            for (int i = 0; i < waterChangedLocs.xsLength(); i++) {
+                waterChangedLocsXs.add(waterChangedLocs.xs(i));
+                waterChangedLocsYs.add(waterChangedLocs.ys(i));
+            }
+        }
+        VecTable soupChangedLocs = round.soupChangedLocs();
+        if (soupChangedLocs != null) {
+            for (int i = 0; i < soupChangedLocs.xsLength(); i++) {
+                soupChangedLocsXs.add(soupChangedLocs.xs(i));
+                soupChangedLocsYs.add(soupChangedLocs.ys(i));
+                soupChanges.add(round.soupChanges(i));
+            }
+        }
+        for (int i = 0; i < round.bytecodeIDsLength(); i++) {
+            bytecodeIDs.add(round.bytecodeIDs(i));
+            bytecodesUsed.add(round.bytecodesUsed(i));
+        }
+        roundLogs = round.logs() != null ? round.logs() : "";
+    }
+
+    private void addBodies(SpawnedBodyTable bodies) {
+        VecTable locs = bodies.locs();
+        for (int i = 0; i < bodies.robotIDsLength(); i++) {
+            bodyLocations.put(bodies.robotIDs(i), new MapLocation(locs.xs(i), locs.ys(i)));
+        }
+    }
+
+    public TIntArrayList getMovedLocsXs() {
+        return movedLocsXs;
+    }
+
+    public TIntArrayList getMovedLocsYs() {
+        return movedLocsYs;
+    }
+
+    public TIntArrayList getDirtChangedLocsXs() {
+        return dirtChangedLocsXs;
+    }
+
+    public TIntArrayList getDirtChangedLocsYs() {
+        return dirtChangedLocsYs;
+    }
+
+    public TIntArrayList getDirtChanges() {
+        return dirtChanges;
+    }
+
+    public TIntArrayList getWaterChangedLocsXs() {
+        return waterChangedLocsXs;
+    }
+
+    public TIntArrayList getWaterChangedLocsYs() {
+        return waterChangedLocsYs;
+    }
+
+    public TIntArrayList getSoupChangedLocsXs() {
+        return soupChangedLocsXs;
+    }
+
+    public TIntArrayList getSoupChangedLocsYs() {
+        return soupChangedLocsYs;
+    }
+
+    public TIntArrayList getSoupChanges() {
+        return soupChanges;
+    }
+
+    public TIntArrayList getBytecodeIDs() {
+        return bytecodeIDs;
+    }
+
+    /**
+     * Rounded to a multiple of the bytecode quantum, if the round was compact.
+     */
+    public TIntArrayList getBytecodesUsed() {
+        return bytecodesUsed;
+    }
+
+    public String getLogs() {
+        return roundLogs;
+    }
+}
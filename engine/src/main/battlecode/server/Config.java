@@ -34,6 +34,74 @@ public class Config {
         defaults.setProperty("bc.server.port", "6175");
         defaults.setProperty("bc.server.wait-for-client", "false");
 
+        // Whether to wait for websocket clients to run, pause and step each match
+        // (with battlecode.schema.Control messages), instead of running straight through.
+        defaults.setProperty("bc.server.interactive", "false");
+
+        // Clients that connect mid-game are caught up from the latest snapshot:
+        // the match header, or, if this is set, a round carrying a keyframe, which
+        // the websocket gets every this many rounds. The bundled client can only
+        // start from a match header, so leave it 0 unless yours reads keyframes.
+        // At most retain-limit-mb of events are kept for them; past that, late
+        // joiners wait for the next snapshot. The game and match headers are
+        // always kept, so 0 keeps just them.
+        defaults.setProperty("bc.server.websocket-keyframe-interval", "0");
+        defaults.setProperty("bc.server.websocket-retain-limit-mb", "128");
+
+        // Each websocket client has a queue of this many events. When it fills, the
+        // client-policy decides: block (hold up the engine until the client catches
+        // up), drop (skip the client ahead to the next snapshot) or disconnect.
+        // With batch over 1, up to that many events go in one frame, each prefixed
+        // with its int32 length. Clients can override these when connecting,
+        // with ?policy=...&queue=...&batch=..., up to the max-client-queue and
+        // max-batch.
+        defaults.setProperty("bc.server.websocket-client-policy", "drop");
+        defaults.setProperty("bc.server.websocket-client-queue", "1024");
+        defaults.setProperty("bc.server.websocket-batch", "1");
+        defaults.setProperty("bc.server.websocket-max-client-queue", "8192");
+        defaults.setProperty("bc.server.websocket-max-batch", "256");
+
+        // How much of each round websocket clients get: full, spectator (no logs,
+        // indicators or bytecode counts) or summary (just soup, spawns, deaths and
+        // global pollution). Clients can override it with ?detail=...
+        defaults.setProperty("bc.server.websocket-detail", "full");
+
+        // With bc.server.mode=replay, the replay (saved with save-index) or directory
+        // of replays to stream to websocket clients, each of which gets a queue of this
+        // many events. Clients pick a replay in a directory with ?replay=name.bc20.
+        // They can ask for their own ?queue=...&batch=..., up to the websocket
+        // max-client-queue and max-batch.
+        defaults.setProperty("bc.server.replay-path", "");
+        defaults.setProperty("bc.server.replay-client-queue", "64");
+
+        // With bc.server.mode=daemon, the local port to take game requests on
+        // (POST /match), and how many of them to play at once.
+        defaults.setProperty("bc.server.daemon-port", "6176");
+        defaults.setProperty("bc.server.daemon-threads", "1");
+
+        // If not 0, serve metrics (matches running, their rounds and robots, sandbox
+        // threads, replay buffers, websocket queues, GC...) for Prometheus to scrape,
+        // at http://<metrics-host>:<metrics-port>/metrics, in any mode.
+        defaults.setProperty("bc.server.metrics-port", "0");
+        defaults.setProperty("bc.server.metrics-host", "127.0.0.1");
+
+        // With bc.server.mode=batch, a file of games to play, one per line as
+        // "team-a[:package] url-a team-b[:package] url-b maps [seed]", and how many
+        // to play at once. A JSON record of each game is written, in order, to
+        // bc.server.result-file (or System.out), and replays are saved to
+        // batch-replay-dir, if it's set.
+        defaults.setProperty("bc.server.batch-manifest", "");
+        defaults.setProperty("bc.server.batch-threads", "1");
+        defaults.setProperty("bc.server.batch-replay-dir", "");
+
+        // With bc.server.mode=benchmark, the sizes of the square worlds to generate, the
+        // robot populations to seed each with, and how many rounds to play each for,
+        // with bc.game.team-a's player on both sides. A JSON record of each world is
+        // written to bc.server.result-file, if it's set (see ScalingBenchmark).
+        defaults.setProperty("bc.server.benchmark-sizes", "32,64,128");
+        defaults.setProperty("bc.server.benchmark-robots", "20,200,2000");
+        defaults.setProperty("bc.server.benchmark-rounds", "200");
+
         // Whether to write robot player output to System.out as well as match files.
         defaults.setProperty("bc.server.robot-player-to-system-out", "true");
 
@@ -43,9 +111,83 @@ public class Config {
         defaults.setProperty("bc.server.robot-player-replay-file-per-team-limit-bytes","-1");
 
         defaults.setProperty("bc.server.save-file", "match.rms");
+
+        // Whether to save replays block-compressed, with a (match, round) seek index
+        // that ReplayReader can use to read single rounds without inflating everything.
+        // The files still gunzip to a normal GameWrapper.
+        defaults.setProperty("bc.server.save-index", "false");
+
+        // Every this many rounds, include the full match state (grids, bodies, pollution)
+        // in the round, so viewers can seek without replaying from the start. 0 to disable.
+        defaults.setProperty("bc.server.keyframe-interval", "0");
+
+        // Whether to save replays in the compact encoding: moves as directions,
+        // varint-packed map changes and bytecodes, and logs compressed separately.
+        // Clients need CompactRoundReader (or a converted replay) to read them.
+        // Bytecode counts are rounded to a multiple of compact-bytecode-quantum.
+        defaults.setProperty("bc.server.compact-replay", "false");
+        defaults.setProperty("bc.server.compact-bytecode-quantum", "100");
+
+        // Whether to run games only for their results: nothing is recorded, sent
+        // to a client or saved, and robot output only goes to system out (if
+        // robot-player-to-system-out is set). Much faster for rating runs.
+        defaults.setProperty("bc.server.result-only", "false");
+
+        // How many of a game's matches to play at once. The first is played as usual;
+        // the rest are recorded in the background and added to the game in map order.
+        // Best-of-three games cancel matches that can't change the winner.
+        // Ignored, with a warning, for interactive servers and for compact-replay:
+        // compact rounds point into the logs of the whole game, so they can't be
+        // recorded out of order.
+        defaults.setProperty("bc.server.match-threads", "1");
+
+        // How many games to play at once, each on its own thread (each of which may
+        // use match-threads more). Games can finish out of order, so results are
+        // written as they finish. Not for interactive servers or with the websocket,
+        // which carries one game at a time; use result-only or websocket=false.
+        defaults.setProperty("bc.server.game-threads", "1");
+
+        // If set, a JSON record of each game's result (winner, domination factor
+        // and end-of-match stats for every match) is appended to this file, one per line.
+        defaults.setProperty("bc.server.result-file", "");
         defaults.setProperty("bc.server.transcribe-input", "match.rms");
         defaults.setProperty("bc.server.transcribe-output", "transcribed.txt");
         defaults.setProperty("bc.server.debug", "false");
+
+        // Whether to time each phase of every round (robot turns, blockchain, flooding,
+        // writing the round...) into histograms, available from Server.getRoundStats().
+        // Always on with bc.server.debug, which prints them after each match.
+        defaults.setProperty("bc.server.round-stats", "false");
+
+        // Whether to total the bytecodes, CPU time (of each robot's sandbox thread) and
+        // wall-clock time of robots' turns by team and robot type, available from
+        // Server.getTurnStats(). Always on with bc.server.debug, which prints them after
+        // each match.
+        defaults.setProperty("bc.server.turn-stats", "false");
+
+        // Whether to write the CPU and wall-clock time of every robot's turn into the
+        // replay, next to its bytecodes (Round.cpuTimes and wallTimes, in microseconds).
+        defaults.setProperty("bc.server.turn-times-in-replay", "false");
+
+        // If not 0, a soft budget for the heap each robot may allocate in a turn, in
+        // bytes. Teams whose robots go over it are warned about after each match; with
+        // allocation-budget-action=throttle, robots that go over it are also charged
+        // bytecodes out of their next turns, in proportion to how far over they went
+        // (a whole turn's worth at twice the budget). For scrimmages, not tournaments.
+        defaults.setProperty("bc.server.allocation-budget", "0");
+        defaults.setProperty("bc.server.allocation-budget-action", "flag");
+
+        // Whether to time every call robots make to their RobotControllers, by method
+        // and team, and compare it with the bytecodes MethodCosts.txt charges for it;
+        // printed when the server finishes, and available from Server.getApiProfile().
+        // Adds some tens of nanoseconds to every call.
+        defaults.setProperty("bc.server.api-profile", "false");
+
+        // Whether to emit Java Flight Recorder events for rounds, robot turns, spawns,
+        // sandbox creation, class instrumentation and replay writes (see EngineEvents),
+        // for recordings started with -XX:StartFlightRecording or jcmd. Read at startup.
+        defaults.setProperty("bc.server.jfr-events", "false");
+
         defaults.setProperty("bc.server.throttle", "yield");
         defaults.setProperty("bc.server.throttle-count", "15");
         defaults.setProperty("bc.server.output-xml", "true");
@@ -59,10 +201,18 @@ public class Config {
         defaults.setProperty("bc.engine.silence-d", "false");
         defaults.setProperty("bc.engine.debug-methods", "false");
 
+        // Whether to profile where players' bytecodes go, and write them out at the end
+        // as collapsed stacks for flame graphs, one file per team package, in
+        // bc.engine.profile-bytecodes-dir (see BytecodeProfiling). For local runs only.
+        defaults.setProperty("bc.engine.profile-bytecodes", "false");
+        defaults.setProperty("bc.engine.profile-bytecodes-dir", "profiles");
+
         defaults.setProperty("bc.game.team-a", "team000");
         defaults.setProperty("bc.game.team-b", "team000");
         defaults.setProperty("bc.game.maps", "glass");
         defaults.setProperty("bc.game.map-path", "maps");
+        // If set, every match is played with this seed instead of its map's own.
+        defaults.setProperty("bc.game.seed", "");
         defaults.setProperty("bc.game.state", "0,0");
 
         defaults.setProperty("match.zombie-armageddon", "false");
@@ -91,6 +241,31 @@ public class Config {
      */
     private final Properties properties;
 
+    private Config(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @return a configuration with just the defaults, ignoring system
+     *         properties and bc.conf
+     */
+    public static Config defaultConfig() {
+        return new Config(new Properties(defaults));
+    }
+
+    /**
+     * Creates a copy of another configuration, which can be changed without
+     * changing it.
+     *
+     * @param other the configuration to copy
+     */
+    public Config(Config other) {
+        this(new Properties(defaults));
+        for (String key : other.properties.stringPropertyNames()) {
+            properties.setProperty(key, other.properties.getProperty(key));
+        }
+    }
+
     /**
      * Creates a new Config instance from the given command-line args.
      *
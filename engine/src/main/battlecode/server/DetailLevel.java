@@ -0,0 +1,26 @@
+package battlecode.server;
+
+/**
+ * How much of each round a websocket client is sent. Clients ask for one
+ * when connecting, e.g. ws://host:6175/?detail=spectator.
+ *
+ * Only rounds differ between levels; headers and footers are the same for
+ * everyone, and every level keeps keyframes, so clients at any level can be
+ * caught up from a snapshot.
+ */
+public enum DetailLevel {
+    /**
+     * Everything, as saved to the replay file.
+     */
+    FULL,
+    /**
+     * Everything needed to watch the match, but no logs, indicator dots and
+     * lines, or bytecode usage.
+     */
+    SPECTATOR,
+    /**
+     * Just enough to keep score: team soup, bodies spawned and died, and
+     * global pollution.
+     */
+    SUMMARY
+}
@@ -0,0 +1,297 @@
+package battlecode.server;
+
+import battlecode.common.Team;
+import battlecode.instrumenter.SandboxedRobotPlayer;
+import battlecode.instrumenter.TeamClassLoaderFactory;
+import battlecode.world.GameWorld;
+import battlecode.world.TurnStats;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the games and matches being played in this JVM, by every
+ * Server, so they can be reported as Prometheus metrics (see
+ * MetricsServer).
+ *
+ * Servers register each game and match as it starts, and unregister it
+ * when it's over; that's all the bookkeeping there is. Everything else is
+ * read when metrics are asked for, from whichever thread asks, without
+ * locking the games: so rounds and robot counts are a moment out of date,
+ * which is fine for metrics.
+ */
+public final class EngineMetrics {
+
+    /**
+     * A match being played.
+     */
+    public static final class Match {
+        private final long id;
+        private final GameInfo game;
+        private final String map;
+        private final GameWorld world;
+        private final long startNanos;
+
+        private Match(long id, GameInfo game, String map, GameWorld world) {
+            this.id = id;
+            this.game = game;
+            this.map = map;
+            this.world = world;
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * The match is over, or abandoned.
+         */
+        public void finished() {
+            if (matches.remove(this)) {
+                roundsFinished.addAndGet(world.getCurrentRound());
+                matchesFinished.incrementAndGet();
+                allocatedBytesFinished.addAndGet(allocatedBytes(world));
+            }
+        }
+    }
+
+    /**
+     * A game being played.
+     */
+    public static final class Game {
+        private final GameMaker gameMaker;
+
+        private Game(GameMaker gameMaker) {
+            this.gameMaker = gameMaker;
+        }
+
+        /**
+         * The game is over, or failed.
+         */
+        public void finished() {
+            if (games.remove(this)) {
+                fileEncodeNanosFinished.addAndGet(gameMaker.getFileEncodeNanos());
+                clientEncodeNanosFinished.addAndGet(gameMaker.getClientEncodeNanos());
+            }
+        }
+    }
+
+    private static final Set<Match> matches = ConcurrentHashMap.newKeySet();
+    private static final Set<Game> games = ConcurrentHashMap.newKeySet();
+    private static final Set<NetServer> netServers = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicLong nextMatchID = new AtomicLong();
+    private static final AtomicLong roundsFinished = new AtomicLong();
+    private static final AtomicLong matchesFinished = new AtomicLong();
+    private static final AtomicLong allocatedBytesFinished = new AtomicLong();
+    private static final AtomicLong fileEncodeNanosFinished = new AtomicLong();
+    private static final AtomicLong clientEncodeNanosFinished = new AtomicLong();
+
+    /**
+     * Prevent construction.
+     */
+    private EngineMetrics() {
+    }
+
+    /**
+     * @param game the game the match is part of
+     * @param map the map it's played on
+     * @param world the match
+     * @return the match, to mark finished when it's over
+     */
+    public static Match matchStarted(GameInfo game, String map, GameWorld world) {
+        final Match match = new Match(nextMatchID.incrementAndGet(), game, map, world);
+        matches.add(match);
+        return match;
+    }
+
+    /**
+     * @param gameMaker what's recording the game
+     * @return the game, to mark finished when it's over
+     */
+    public static Game gameStarted(GameMaker gameMaker) {
+        final Game game = new Game(gameMaker);
+        games.add(game);
+        return game;
+    }
+
+    static void netServerStarted(NetServer netServer) {
+        netServers.add(netServer);
+    }
+
+    static void netServerFinished(NetServer netServer) {
+        netServers.remove(netServer);
+    }
+
+    /**
+     * @return the current metrics, in the Prometheus text format
+     */
+    public static String scrape() {
+        final StringBuilder b = new StringBuilder();
+
+        long liveRounds = 0;
+        header(b, "battlecode_match_round", "gauge", "The round each match being played is on");
+        for (Match match : matches) {
+            final int round = match.world.getCurrentRound();
+            liveRounds += round;
+            sample(b, "battlecode_match_round", labels(match), round);
+        }
+        header(b, "battlecode_match_rounds_per_second", "gauge",
+                "Rounds each match being played has run per second, on average");
+        for (Match match : matches) {
+            final double seconds = (System.nanoTime() - match.startNanos) / 1e9;
+            sample(b, "battlecode_match_rounds_per_second", labels(match),
+                    seconds > 0 ? match.world.getCurrentRound() / seconds : 0);
+        }
+        header(b, "battlecode_match_robots", "gauge", "Robots alive in each match being played, by team");
+        for (Match match : matches) {
+            for (Team team : new Team[] {Team.A, Team.B}) {
+                sample(b, "battlecode_match_robots", labels(match) + ",team=\"" + team + "\"",
+                        match.world.getObjectInfo().getRobotCount(team));
+            }
+        }
+
+        long liveAllocatedBytes = 0;
+        header(b, "battlecode_match_allocated_bytes", "gauge",
+                "Heap allocated by robot players in each match being played, by team, if measured");
+        for (Match match : matches) {
+            final TurnStats stats = match.world.getTurnStats();
+            if (stats != null) {
+                for (Team team : new Team[] {Team.A, Team.B}) {
+                    sample(b, "battlecode_match_allocated_bytes", labels(match) + ",team=\"" + team + "\"",
+                            stats.getAllocatedBytes(team));
+                }
+                liveAllocatedBytes += allocatedBytes(match.world);
+            }
+        }
+        header(b, "battlecode_match_over_allocation_budget_turns", "gauge",
+                "Robot turns over the allocation budget in each match being played, by team, if there is one");
+        for (Match match : matches) {
+            final TurnStats stats = match.world.getTurnStats();
+            if (stats != null) {
+                for (Team team : new Team[] {Team.A, Team.B}) {
+                    sample(b, "battlecode_match_over_allocation_budget_turns",
+                            labels(match) + ",team=\"" + team + "\"", stats.getOverBudgetTurns(team));
+                }
+            }
+        }
+
+        header(b, "battlecode_matches_running", "gauge", "Matches being played");
+        sample(b, "battlecode_matches_running", null, matches.size());
+        header(b, "battlecode_matches_total", "counter", "Matches finished or abandoned");
+        sample(b, "battlecode_matches_total", null, matchesFinished.get());
+        header(b, "battlecode_rounds_total", "counter", "Rounds run, in every match");
+        sample(b, "battlecode_rounds_total", null, roundsFinished.get() + liveRounds);
+        header(b, "battlecode_allocated_bytes_total", "counter",
+                "Heap allocated by robot players, in every match where it was measured");
+        sample(b, "battlecode_allocated_bytes_total", null, allocatedBytesFinished.get() + liveAllocatedBytes);
+
+        long replayBytes = 0;
+        long fileEncodeNanos = fileEncodeNanosFinished.get();
+        long clientEncodeNanos = clientEncodeNanosFinished.get();
+        for (Game game : games) {
+            replayBytes += game.gameMaker.getBufferedBytes();
+            fileEncodeNanos += game.gameMaker.getFileEncodeNanos();
+            clientEncodeNanos += game.gameMaker.getClientEncodeNanos();
+        }
+        header(b, "battlecode_games_running", "gauge", "Games being played");
+        sample(b, "battlecode_games_running", null, games.size());
+        header(b, "battlecode_replay_buffer_bytes", "gauge", "Bytes of replays built in memory, not yet written");
+        sample(b, "battlecode_replay_buffer_bytes", null, replayBytes);
+        header(b, "battlecode_event_encode_seconds_total", "counter",
+                "Time spent building events, for the replay file (and clients sent the same) or clients alone");
+        sample(b, "battlecode_event_encode_seconds_total", "for=\"file\"", fileEncodeNanos / 1e9);
+        sample(b, "battlecode_event_encode_seconds_total", "for=\"client\"", clientEncodeNanos / 1e9);
+
+        header(b, "battlecode_sandbox_threads", "gauge", "Robot player threads running");
+        sample(b, "battlecode_sandbox_threads", null, SandboxedRobotPlayer.getLiveThreads());
+        header(b, "battlecode_instrumented_classes_total", "counter", "Classes instrumented and cached for teams");
+        sample(b, "battlecode_instrumented_classes_total", null, TeamClassLoaderFactory.getClassesCached());
+        header(b, "battlecode_instrumented_class_bytes_total", "counter",
+                "Bytes of classes instrumented and cached for teams");
+        sample(b, "battlecode_instrumented_class_bytes_total", null, TeamClassLoaderFactory.getClassBytesCached());
+
+        int incoming = 0;
+        int queued = 0;
+        int clients = 0;
+        for (NetServer netServer : netServers) {
+            incoming += netServer.getIncomingDepth();
+            for (ClientQueue client : netServer.getClients()) {
+                queued += client.getDepth();
+                clients++;
+            }
+        }
+        header(b, "battlecode_websocket_incoming_events", "gauge",
+                "Events waiting to be handed to websocket clients' queues");
+        sample(b, "battlecode_websocket_incoming_events", null, incoming);
+        header(b, "battlecode_websocket_queued_events", "gauge", "Events in websocket clients' queues");
+        sample(b, "battlecode_websocket_queued_events", null, queued);
+        header(b, "battlecode_websocket_clients", "gauge", "Websocket clients connected");
+        sample(b, "battlecode_websocket_clients", null, clients);
+
+        header(b, "jvm_gc_collections_total", "counter", "Garbage collections, by collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sample(b, "jvm_gc_collections_total", "gc=\"" + escape(gc.getName()) + "\"",
+                    Math.max(0, gc.getCollectionCount()));
+        }
+        header(b, "jvm_gc_collection_seconds_total", "counter", "Time spent collecting garbage, by collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sample(b, "jvm_gc_collection_seconds_total", "gc=\"" + escape(gc.getName()) + "\"",
+                    Math.max(0, gc.getCollectionTime()) / 1000.0);
+        }
+        final MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        header(b, "jvm_heap_bytes", "gauge", "Heap memory, used and committed");
+        sample(b, "jvm_heap_bytes", "area=\"used\"", heap.getUsed());
+        sample(b, "jvm_heap_bytes", "area=\"committed\"", heap.getCommitted());
+        header(b, "jvm_threads", "gauge", "Live threads");
+        sample(b, "jvm_threads", null, ManagementFactory.getThreadMXBean().getThreadCount());
+
+        return b.toString();
+    }
+
+    /**
+     * @return the heap both teams' robots have allocated in a match, or 0
+     *         if it isn't being measured
+     */
+    private static long allocatedBytes(GameWorld world) {
+        final TurnStats stats = world.getTurnStats();
+        return stats == null ? 0 : stats.getAllocatedBytes(Team.A) + stats.getAllocatedBytes(Team.B);
+    }
+
+    private static String labels(Match match) {
+        return "match=\"" + match.id + "\""
+                + ",map=\"" + escape(match.map) + "\""
+                + ",team_a=\"" + escape(match.game.getTeamAPackage()) + "\""
+                + ",team_b=\"" + escape(match.game.getTeamBPackage()) + "\"";
+    }
+
+    private static void header(StringBuilder b, String name, String type, String help) {
+        b.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        b.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder b, String name, String labels, double value) {
+        b.append(name);
+        if (labels != null) {
+            b.append('{').append(labels).append('}');
+        }
+        b.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            b.append((long) value);
+        } else {
+            b.append(value);
+        }
+        b.append('\n');
+    }
+
+    /**
+     * Escape a label value, as the text format wants.
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
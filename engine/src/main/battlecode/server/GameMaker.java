@@ -2,10 +2,14 @@ package battlecode.server;
 
 import battlecode.common.GameConstants;
 import battlecode.common.MapLocation;
+import battlecode.common.RobotInfo;
 import battlecode.common.RobotType;
 import battlecode.common.Team;
 import battlecode.schema.*;
+import battlecode.server.jfr.EngineEvents;
+import battlecode.server.jfr.ReplayFlushEvent;
 import battlecode.util.FlatHelpers;
+import battlecode.util.PackedVector;
 import battlecode.util.TeamMapping;
 import battlecode.world.*;
 import com.google.flatbuffers.FlatBufferBuilder;
@@ -13,12 +17,20 @@ import gnu.trove.list.array.TByteArrayList;
 import gnu.trove.list.array.TFloatArrayList;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.list.array.TCharArrayList;
+import gnu.trove.map.hash.TIntObjectHashMap;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.ToIntFunction;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
 import static battlecode.util.FlatHelpers.*;
@@ -52,6 +64,8 @@ public strictfp class GameMaker {
     }
     private State state;
 
+    private static final DetailLevel[] DETAIL_LEVELS = DetailLevel.values();
+
     // this un-separation-of-concerns makes me uncomfortable
 
     /**
@@ -68,8 +82,12 @@ public strictfp class GameMaker {
      * We have a separate byte[] for each packet sent to the client.
      * This is necessary because flatbuffers shares metadata between structures, so we
      * can't just cut out chunks of the larger buffer :/
+     *
+     * Instead, when a client is attached, each event is encoded exactly once with this
+     * encoder; the finished bytes are sent to the client as-is and copied into
+     * the file builder, rather than running the encoder a second time.
      */
-    private FlatBufferBuilder packetBuilder;
+    private EventEncoder eventEncoder;
 
     /**
      * The server we're sending packets on.
@@ -92,6 +110,63 @@ public strictfp class GameMaker {
     private TIntArrayList matchHeaders;
     private TIntArrayList matchFooters;
 
+    /**
+     * Only relevant to the file builder:
+     * Where each match header, round and match footer ended up, so that
+     * tools can find a single round without reading the whole game.
+     * Null if we aren't writing a seek index.
+     */
+    private final ReplayIndex seekIndex;
+
+    /**
+     * Where the most recent event was put in the file builder (counted
+     * from the end, like all builder offsets) and how long it is.
+     * Only tracked when events are built standalone.
+     */
+    private int lastEventStart;
+    private int lastEventLength;
+
+    /**
+     * How often rounds carry a full keyframe of the match state; 0 for never.
+     */
+    private final int keyframeInterval;
+
+    /**
+     * How often rounds sent to the client carry a keyframe, so NetServer can
+     * catch up late joiners from there; 0 for never.
+     */
+    private final int clientKeyframeInterval;
+
+    /**
+     * Whether rounds in the file are written with a CompactRound, and what
+     * bytecode counts are divided by when they are.
+     */
+    private final boolean compact;
+    private final int bytecodeQuantum;
+
+    /**
+     * Only relevant to compact files:
+     * The logs of every round, deflated as they come in, and how many
+     * uncompressed bytes have gone in so far.
+     */
+    private ByteArrayOutputStream compactLogs;
+    private DeflaterOutputStream compactLogsOut;
+    private int compactLogsLength;
+
+    /**
+     * Whether we're only running the game for its result: no events are
+     * built, and the MatchMaker throws away everything it's given.
+     */
+    private final boolean resultOnly;
+
+    /**
+     * How long we've spent building events, in nanoseconds: for the file
+     * (compact or not, and shared with the client when it gets the same
+     * event), and for the client alone.
+     */
+    private final AtomicLong fileEncodeNanos = new AtomicLong();
+    private final AtomicLong clientEncodeNanos = new AtomicLong();
+
     /**
      * The MatchMaker associated with this GameMaker.
      */
@@ -102,22 +177,49 @@ public strictfp class GameMaker {
      * @param packetSink the NetServer to send packets to
      */
     public GameMaker(final GameInfo gameInfo, final NetServer packetSink){
+        this(gameInfo, packetSink, new ReplayConfig.Builder().build());
+    }
+
+    /**
+     * @param gameInfo the mapping of teams to bytes
+     * @param packetSink the NetServer to send packets to
+     * @param replay how to record the game
+     */
+    public GameMaker(final GameInfo gameInfo, final NetServer packetSink, final ReplayConfig replay){
+        final boolean saveIndex = replay.isSaveIndex();
+        final boolean resultOnly = replay.isResultOnly();
+        if (resultOnly && packetSink != null) {
+            throw new RuntimeException("Result-only games can't be sent");
+        }
+
         this.state = State.GAME_HEADER;
 
         this.gameInfo = gameInfo;
 
         this.packetSink = packetSink;
-        if (packetSink != null) {
-            this.packetBuilder = new FlatBufferBuilder();
+        if (packetSink != null || saveIndex) {
+            this.eventEncoder = new EventEncoder();
+        }
+        this.seekIndex = saveIndex ? new ReplayIndex() : null;
+        this.keyframeInterval = replay.getKeyframeInterval();
+        this.clientKeyframeInterval = packetSink != null ? replay.getClientKeyframeInterval() : 0;
+        this.compact = replay.isCompact();
+        this.bytecodeQuantum = replay.getBytecodeQuantum();
+        if (compact) {
+            this.compactLogs = new ByteArrayOutputStream();
+            this.compactLogsOut = new DeflaterOutputStream(compactLogs,
+                    new Deflater(Deflater.BEST_COMPRESSION));
         }
 
-        this.fileBuilder = new FlatBufferBuilder();
+        this.resultOnly = resultOnly;
+
+        this.fileBuilder = resultOnly ? null : new FlatBufferBuilder();
 
         this.events = new TIntArrayList();
         this.matchHeaders = new TIntArrayList();
         this.matchFooters = new TIntArrayList();
 
-        this.matchMaker = new MatchMaker();
+        this.matchMaker = resultOnly ? new NullMatchMaker() : new MatchMaker();
     }
 
     /**
@@ -147,17 +249,32 @@ public strictfp class GameMaker {
      * @return game as a packed flatbuffer byte array.
      */
     public byte[] toBytes() {
+        if (resultOnly) {
+            throw new RuntimeException("Result-only games aren't recorded");
+        }
         if (finishedGame == null) {
             assertState(State.DONE);
 
             int events = offsetVector(fileBuilder, this.events, GameWrapper::startEventsVector);
             int matchHeaders = offsetVector(fileBuilder, this.matchHeaders, GameWrapper::startMatchHeadersVector);
             int matchFooters = offsetVector(fileBuilder, this.matchFooters, GameWrapper::startMatchFootersVector);
+            int compactLogs = 0;
+            if (compact) {
+                try {
+                    compactLogsOut.close();
+                } catch (IOException e) {
+                    throw new RuntimeException("Can't deflate to byte[]outputstream?", e);
+                }
+                compactLogs = GameWrapper.createCompactLogsVector(fileBuilder, this.compactLogs.toByteArray());
+            }
 
             GameWrapper.startGameWrapper(fileBuilder);
             GameWrapper.addEvents(fileBuilder, events);
             GameWrapper.addMatchHeaders(fileBuilder, matchHeaders);
             GameWrapper.addMatchFooters(fileBuilder, matchFooters);
+            if (compact) {
+                GameWrapper.addCompactLogs(fileBuilder, compactLogs);
+            }
 
             fileBuilder.finish(GameWrapper.endGameWrapper(fileBuilder));
 
@@ -165,10 +282,15 @@ public strictfp class GameMaker {
 
             try {
                 ByteArrayOutputStream result = new ByteArrayOutputStream();
-                GZIPOutputStream zipper = new GZIPOutputStream(result);
-                IOUtils.copy(new ByteArrayInputStream(rawBytes), zipper);
-                zipper.close();
-                zipper.flush();
+                if (seekIndex != null) {
+                    seekIndex.resolve(rawBytes.length);
+                    seekIndex.write(rawBytes, result);
+                } else {
+                    GZIPOutputStream zipper = new GZIPOutputStream(result);
+                    IOUtils.copy(new ByteArrayInputStream(rawBytes), zipper);
+                    zipper.close();
+                    zipper.flush();
+                }
                 result.flush();
                 finishedGame = result.toByteArray();
             } catch (IOException e) {
@@ -188,34 +310,213 @@ public strictfp class GameMaker {
             throw new RuntimeException("Null file provided to writeGame");
         }
 
+        ReplayFlushEvent flushEvent = null;
+        if (EngineEvents.ENABLED) {
+            flushEvent = new ReplayFlushEvent();
+            flushEvent.begin();
+        }
         try {
-            FileUtils.writeByteArrayToFile(saveFile, toBytes());
+            final byte[] bytes = toBytes();
+            FileUtils.writeByteArrayToFile(saveFile, bytes);
+            if (flushEvent != null) {
+                flushEvent.finish(saveFile.getPath(), bytes.length);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Run the same logic for both builders.
+     * Build an event and record it for both the file and the client.
      *
-     * @param perBuilder called with each builder; return event id. Should not mutate state.
+     * @param perBuilder called with a builder; return event id. Should not mutate state.
      */
     private void createEvent(ToIntFunction<FlatBufferBuilder> perBuilder) {
-        // make file event and add its offset to the list
-        int eventAP = perBuilder.applyAsInt(fileBuilder);
-        events.add(eventAP);
+        createEvent(perBuilder, null, null);
+    }
+
+    /**
+     * Build an event and record it for both the file and the client.
+     *
+     * @param perBuilder called with a builder; return event id. Should not mutate state.
+     *                   May be null if fileOnly isn't, when no client needs
+     *                   the event.
+     * @param fileOnly if not null, used instead of perBuilder to build the
+     *                 event for the file; the client still gets perBuilder's
+     * @param reduced if not null, builds the event for clients that asked for
+     *                less than DetailLevel.FULL
+     */
+    private void createEvent(ToIntFunction<FlatBufferBuilder> perBuilder,
+                             ToIntFunction<FlatBufferBuilder> fileOnly,
+                             Function<DetailLevel, ToIntFunction<FlatBufferBuilder>> reduced) {
+        if (resultOnly) {
+            return;
+        }
+        boolean sameForClient = fileOnly == null;
+        if (!sameForClient && packetSink != null) {
+            if (perBuilder != null) {
+                long start = System.nanoTime();
+                sendEvent(eventEncoder.encode(perBuilder), reduced);
+                clientEncodeNanos.addAndGet(System.nanoTime() - start);
+            } else {
+                packetSink.skipEvent();
+            }
+        }
+        ToIntFunction<FlatBufferBuilder> forFile = sameForClient ? perBuilder : fileOnly;
+
+        long start = System.nanoTime();
+        boolean sendFileEvent = sameForClient && packetSink != null;
+        if (!sendFileEvent && seekIndex == null) {
+            // nobody's listening or seeking, so build straight into the file
+            events.add(forFile.applyAsInt(fileBuilder));
+            fileEncodeNanos.addAndGet(System.nanoTime() - start);
+            return;
+        }
 
-        if (packetSink != null) {
-            // make packet event and package it up
-            int eventBP = perBuilder.applyAsInt(packetBuilder);
-            packetBuilder.finish(eventBP);
-            packetSink.addEvent(packetBuilder.sizedByteArray());
+        // encode the event once, standalone
+        byte[] event = eventEncoder.encode(forFile);
+
+        // the finished event is position-independent, so the file gets a verbatim copy
+        events.add(embedFinishedBuffer(fileBuilder, event));
+        // past the length embedFinishedBuffer puts in front of it
+        lastEventStart = fileBuilder.offset() - Integer.BYTES;
+        lastEventLength = event.length;
+        fileEncodeNanos.addAndGet(System.nanoTime() - start);
+
+        if (sendFileEvent) {
+            // only the reduced levels are built for the client alone
+            start = System.nanoTime();
+            sendEvent(event, reduced);
+            if (reduced != null) {
+                clientEncodeNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+    }
 
-            // reset packet builder
-            packetBuilder = new FlatBufferBuilder(packetBuilder.dataBuffer());
+    /**
+     * Send an event to the clients, along with whatever reduced versions of
+     * it they want.
+     *
+     * @param full the event at DetailLevel.FULL
+     * @param reduced builds the event at other levels, or null if it's the
+     *                same at every level
+     */
+    private void sendEvent(byte[] full, Function<DetailLevel, ToIntFunction<FlatBufferBuilder>> reduced) {
+        byte[][] variants = clientVariants(full, reduced, eventEncoder, false);
+        if (variants == null) {
+            packetSink.addEvent(full);
+        } else {
+            packetSink.addEvent(variants);
         }
     }
 
+    /**
+     * @param full the event at DetailLevel.FULL
+     * @param reduced builds the event at other levels, or null if it's the
+     *                same at every level
+     * @param everyLevel whether to build every level, rather than just the
+     *                   ones clients want now; for events sent later, when
+     *                   other clients may be connected
+     * @return the event at every level clients want, by ordinal; or null if
+     *         they all get the full event
+     */
+    private byte[][] clientVariants(byte[] full, Function<DetailLevel, ToIntFunction<FlatBufferBuilder>> reduced,
+                                    EventEncoder encoder, boolean everyLevel) {
+        byte[][] variants = null;
+        if (reduced != null) {
+            for (DetailLevel level : DETAIL_LEVELS) {
+                if (level != DetailLevel.FULL && (everyLevel || packetSink.wantsDetail(level))) {
+                    if (variants == null) {
+                        variants = new byte[DETAIL_LEVELS.length][];
+                        Arrays.fill(variants, full);
+                    }
+                    // once per level, however many clients are at it
+                    variants[level.ordinal()] = encoder.encode(reduced.apply(level));
+                }
+            }
+        }
+        return variants;
+    }
+
+    /**
+     * Encodes events standalone, reusing one builder (and its buffer, as it
+     * grows) from one event to the next. Not thread-safe; each thread
+     * building events needs its own.
+     */
+    private static class EventEncoder {
+        private final FlatBufferBuilder eventBuilder = new FlatBufferBuilder(1024);
+
+        /**
+         * @return the event as a finished, standalone flatbuffer
+         */
+        byte[] encode(ToIntFunction<FlatBufferBuilder> perBuilder) {
+            eventBuilder.clear();
+            eventBuilder.finish(perBuilder.applyAsInt(eventBuilder));
+            return eventBuilder.sizedByteArray();
+        }
+    }
+
+    /**
+     * Note where the event just added to the file went, for the GameWrapper
+     * and the seek index.
+     *
+     * @param type the type of the event, from battlecode.schema.Event
+     * @param roundNum the round, if it's a round
+     */
+    private void indexMatchEvent(byte type, int roundNum) {
+        switch (type) {
+            case Event.MatchHeader:
+                matchHeaders.add(events.size() - 1);
+                if (seekIndex != null) {
+                    seekIndex.addMatchHeader(lastEventStart, lastEventLength);
+                }
+                break;
+            case Event.Round:
+                if (seekIndex != null) {
+                    seekIndex.addRound(roundNum, lastEventStart, lastEventLength);
+                }
+                break;
+            case Event.MatchFooter:
+                matchFooters.add(events.size() - 1);
+                if (seekIndex != null) {
+                    seekIndex.addMatchFooter(lastEventStart, lastEventLength);
+                }
+                break;
+        }
+    }
+
+    /**
+     * @return whether a round falls on an interval; never, if it's 0
+     */
+    private static boolean onInterval(int roundNum, int interval) {
+        return interval > 0 && roundNum % interval == 0;
+    }
+
+    /**
+     * @return how many bytes of the replay have been built so far; read
+     *         without locking, so only roughly right from another thread
+     */
+    public long getBufferedBytes() {
+        return fileBuilder == null ? 0 : fileBuilder.offset();
+    }
+
+    /**
+     * @return how long we've spent building events for the file, in
+     *         nanoseconds, including events the client gets as well
+     */
+    public long getFileEncodeNanos() {
+        return fileEncodeNanos.get();
+    }
+
+    /**
+     * @return how long we've spent building events only the client gets,
+     *         in nanoseconds: rounds that differ from the file's (like
+     *         every round of a compact game), and reduced detail levels
+     */
+    public long getClientEncodeNanos() {
+        return clientEncodeNanos.get();
+    }
+
     /**
      * Get the MatchMaker associated with this GameMaker.
      */
@@ -223,6 +524,96 @@ public strictfp class GameMaker {
         return this.matchMaker;
     }
 
+    /**
+     * Create a MatchMaker that records a match on its own, so that matches
+     * can be played in parallel, each on its own thread. Its events are
+     * kept until the match is added to the game with addMatch; clients
+     * don't see it until then.
+     *
+     * Compact games can't do this: their rounds point into the logs of the
+     * whole game, which aren't known until the matches before are added.
+     */
+    public MatchMaker createMatchMaker() {
+        if (compact) {
+            throw new RuntimeException("Compact games can't record matches separately");
+        }
+        return resultOnly ? new NullMatchMaker(true) : new MatchMaker(true);
+    }
+
+    /**
+     * Add a finished match recorded by a MatchMaker from createMatchMaker,
+     * as though it had just been played with getMatchMaker, and send it to
+     * any clients.
+     */
+    public void addMatch(MatchMaker match) {
+        if (match.buffer == null) {
+            throw new RuntimeException("Only matches recorded separately can be added");
+        }
+        if (match.bufferState != State.IN_GAME) {
+            throw new RuntimeException("Can't add a match that isn't finished: "+match.bufferState);
+        }
+        changeState(State.IN_GAME, State.IN_MATCH);
+
+        for (BufferedEvent event : match.buffer) {
+            events.add(embedFinishedBuffer(fileBuilder, event.file));
+            lastEventStart = fileBuilder.offset() - Integer.BYTES;
+            lastEventLength = event.file.length;
+            indexMatchEvent(event.type, event.roundNum);
+
+            if (packetSink != null) {
+                // every level was built; only send them if someone wants them now
+                if (event.clientVariants != null && wantsReducedDetail()) {
+                    packetSink.addEvent(event.clientVariants);
+                } else {
+                    packetSink.addEvent(event.client);
+                }
+            }
+        }
+        match.buffer.clear();
+
+        changeState(State.IN_MATCH, State.IN_GAME);
+    }
+
+    /**
+     * @return whether any client wants less than DetailLevel.FULL
+     */
+    private boolean wantsReducedDetail() {
+        for (DetailLevel level : DETAIL_LEVELS) {
+            if (level != DetailLevel.FULL && packetSink.wantsDetail(level)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An event of a match recorded separately, waiting to be added to the game.
+     */
+    private static class BufferedEvent {
+        /**
+         * The type of the event, from battlecode.schema.Event, and its
+         * round, if it's a round.
+         */
+        final byte type;
+        final int roundNum;
+
+        /**
+         * The event for the file, and for the clients: either the same
+         * event at every level, or one per level.
+         */
+        final byte[] file;
+        final byte[] client;
+        final byte[][] clientVariants;
+
+        BufferedEvent(byte type, int roundNum, byte[] file, byte[] client, byte[][] clientVariants) {
+            this.type = type;
+            this.roundNum = roundNum;
+            this.file = file;
+            this.client = client;
+            this.clientVariants = clientVariants;
+        }
+    }
+
     public void makeGameHeader(){
 
         changeState(State.GAME_HEADER, State.IN_GAME);
@@ -258,6 +649,9 @@ public strictfp class GameMaker {
 
             return EventWrapper.createEventWrapper(builder, Event.GameHeader, gameHeaderOffset);
         });
+        if (seekIndex != null) {
+            seekIndex.addGameHeader(lastEventStart, lastEventLength);
+        }
     }
 
     public int makeBodyTypeMetadata(FlatBufferBuilder builder){
@@ -304,6 +698,9 @@ public strictfp class GameMaker {
 
         createEvent((builder) -> EventWrapper.createEventWrapper(builder, Event.GameFooter,
                 GameFooter.createGameFooter(builder, TeamMapping.id(winner))));
+        if (seekIndex != null) {
+            seekIndex.addGameFooter(lastEventStart, lastEventLength);
+        }
     }
 
     /**
@@ -312,7 +709,9 @@ public strictfp class GameMaker {
      * One of the rare cases where we want a non-static inner class in Java:
      * this basically just provides a restricted interface to GameMaker.
      *
-     * There is only one of these per GameMaker.
+     * There is one of these per GameMaker, used for matches played one after
+     * another; and one more for each match recorded separately (see
+     * createMatchMaker).
      */
     public class MatchMaker {
         private TIntArrayList movedIDs; // ints
@@ -384,10 +783,69 @@ public strictfp class GameMaker {
         private TIntArrayList bytecodeIDs;
         private TIntArrayList bytecodesUsed;
 
+        // How long those robots' turns took, in the same order, if recorded
+        private TIntArrayList cpuTimes;
+        private TIntArrayList wallTimes;
+
         // Used to write logs.
         private final ByteArrayOutputStream logger;
 
+        // Keyframe for this round, if there is one.
+        // The map arrays belong to the GameWorld; they're only read in makeRound.
+        private int[] keyframeSoup;
+        private int[] keyframeDirt;
+        private boolean[] keyframeWater;
+        private float keyframeWaterLevel;
+        private TIntArrayList keyframePollutionLocsXs;
+        private TIntArrayList keyframePollutionLocsYs;
+        private TIntArrayList keyframePollutionRadiiSquared;
+        private TIntArrayList keyframePollutionAdditiveEffects;
+        private TFloatArrayList keyframePollutionMultiplicativeEffects;
+        private TIntArrayList keyframeRobotIDs;
+        private TByteArrayList keyframeTeamIDs;
+        private TByteArrayList keyframeTypes;
+        private TIntArrayList keyframeLocsXs;
+        private TIntArrayList keyframeLocsYs;
+        private TIntArrayList keyframeSoupCarrying;
+        private TIntArrayList keyframeDirtCarrying;
+        private TIntArrayList keyframeHeldIDs;
+
+        // The packed versions of this round's moves, map changes and bytecodes,
+        // for compact files; see CompactRound
+        private TByteArrayList compactMovedDirections;
+        private PackedVector compactMovedJumps;
+        private PackedVector compactDirtChanges;
+        private PackedVector compactWaterChanges;
+        private PackedVector compactSoupChanges;
+        private PackedVector compactBytecodes;
+
+        // Where each body was last recorded to be, so moves can be written as
+        // directions; only tracked for compact files
+        private TIntObjectHashMap<MapLocation> bodyLocations;
+
+        // For a match recorded separately: its events so far, and where it's
+        // at, in place of the GameMaker's state; null otherwise
+        private final List<BufferedEvent> buffer;
+        private State bufferState;
+        private final EventEncoder bufferEncoder;
+
         public MatchMaker() {
+            this(false);
+        }
+
+        /**
+         * @param separate whether to record the match separately, to be added
+         *                 to the game with addMatch
+         */
+        private MatchMaker(boolean separate) {
+            if (separate) {
+                this.buffer = new ArrayList<>();
+                this.bufferState = State.IN_GAME;
+                this.bufferEncoder = new EventEncoder();
+            } else {
+                this.buffer = null;
+                this.bufferEncoder = null;
+            }
             this.movedIDs = new TIntArrayList();
             this.movedLocsXs = new TIntArrayList();
             this.movedLocsYs = new TIntArrayList();
@@ -436,35 +894,119 @@ public strictfp class GameMaker {
             this.indicatorLineRGBsGreen = new TIntArrayList();
             this.bytecodeIDs = new TIntArrayList();
             this.bytecodesUsed = new TIntArrayList();
+            this.cpuTimes = new TIntArrayList();
+            this.wallTimes = new TIntArrayList();
             this.logger = new ByteArrayOutputStream();
+            this.keyframePollutionLocsXs = new TIntArrayList();
+            this.keyframePollutionLocsYs = new TIntArrayList();
+            this.keyframePollutionRadiiSquared = new TIntArrayList();
+            this.keyframePollutionAdditiveEffects = new TIntArrayList();
+            this.keyframePollutionMultiplicativeEffects = new TFloatArrayList();
+            this.keyframeRobotIDs = new TIntArrayList();
+            this.keyframeTeamIDs = new TByteArrayList();
+            this.keyframeTypes = new TByteArrayList();
+            this.keyframeLocsXs = new TIntArrayList();
+            this.keyframeLocsYs = new TIntArrayList();
+            this.keyframeSoupCarrying = new TIntArrayList();
+            this.keyframeDirtCarrying = new TIntArrayList();
+            this.keyframeHeldIDs = new TIntArrayList();
+            this.compactMovedDirections = new TByteArrayList();
+            this.compactMovedJumps = new PackedVector();
+            this.compactDirtChanges = new PackedVector();
+            this.compactWaterChanges = new PackedVector();
+            this.compactSoupChanges = new PackedVector();
+            this.compactBytecodes = new PackedVector();
+            this.bodyLocations = new TIntObjectHashMap<>();
         }
 
         public void makeMatchHeader(LiveMap gameMap) {
-            changeState(State.IN_GAME, State.IN_MATCH);
+            changeMatchState(State.IN_GAME, State.IN_MATCH);
+
+            if (compact) {
+                // CompactRoundReader starts from the same place
+                bodyLocations.clear();
+                for (RobotInfo body : gameMap.getInitialBodies()) {
+                    bodyLocations.put(body.ID, body.location);
+                }
+            }
 
-            createEvent((builder) -> {
+            matchEvent(Event.MatchHeader, 0, (builder) -> {
                 int map = GameMapIO.Serial.serialize(builder, gameMap);
 
                 return EventWrapper.createEventWrapper(builder, Event.MatchHeader,
                         MatchHeader.createMatchHeader(builder, map, gameMap.getRounds()));
-            });
-
-            matchHeaders.add(events.size() - 1);
+            }, null, null);
 
             clearData();
         }
 
         public void makeMatchFooter(Team winTeam, int totalRounds) {
-            changeState(State.IN_MATCH, State.IN_GAME);
+            changeMatchState(State.IN_MATCH, State.IN_GAME);
+
+            matchEvent(Event.MatchFooter, 0, (builder) -> EventWrapper.createEventWrapper(builder, Event.MatchFooter,
+                    MatchFooter.createMatchFooter(builder, TeamMapping.id(winTeam), totalRounds)), null, null);
+        }
+
+        /**
+         * Assert the match is in a particular state: the game's, or for a
+         * match recorded separately, its own.
+         */
+        private void assertMatchState(State state) {
+            if (buffer == null) {
+                assertState(state);
+            } else if (bufferState != state) {
+                throw new RuntimeException("Incorrect MatchMaker state: should be "+
+                        state+", but is: "+bufferState);
+            }
+        }
 
-            createEvent((builder) -> EventWrapper.createEventWrapper(builder, Event.MatchFooter,
-                    MatchFooter.createMatchFooter(builder, TeamMapping.id(winTeam), totalRounds)));
+        /**
+         * Make a match state transition.
+         */
+        void changeMatchState(State start, State end) {
+            assertMatchState(start);
+            if (buffer == null) {
+                state = end;
+            } else {
+                bufferState = end;
+            }
+        }
+
+        /**
+         * Build one of the match's events, like createEvent, and record it
+         * in the game; or, for a match recorded separately, keep it until
+         * addMatch.
+         *
+         * @param type the type of the event, from battlecode.schema.Event
+         * @param roundNum the round, if it's a round
+         */
+        private void matchEvent(byte type, int roundNum,
+                                ToIntFunction<FlatBufferBuilder> perBuilder,
+                                ToIntFunction<FlatBufferBuilder> fileOnly,
+                                Function<DetailLevel, ToIntFunction<FlatBufferBuilder>> reduced) {
+            if (buffer == null) {
+                createEvent(perBuilder, fileOnly, reduced);
+                indexMatchEvent(type, roundNum);
+                return;
+            }
 
-            matchFooters.add(events.size() - 1);
+            long start = System.nanoTime();
+            byte[] file = bufferEncoder.encode(fileOnly != null ? fileOnly : perBuilder);
+            fileEncodeNanos.addAndGet(System.nanoTime() - start);
+            byte[] client = null;
+            byte[][] clientVariants = null;
+            if (packetSink != null) {
+                start = System.nanoTime();
+                client = fileOnly != null ? bufferEncoder.encode(perBuilder) : file;
+                // sent in addMatch, to whoever's connected then
+                clientVariants = clientVariants(client, reduced, bufferEncoder, true);
+                clientEncodeNanos.addAndGet(System.nanoTime() - start);
+            }
+            buffer.add(new BufferedEvent(type, roundNum, file, client, clientVariants));
         }
 
         public void makeRound(int roundNum) {
-            assertState(State.IN_MATCH);
+            assertMatchState(State.IN_MATCH);
 
             try {
                 this.logger.flush();
@@ -474,122 +1016,279 @@ public strictfp class GameMaker {
             byte[] logs = this.logger.toByteArray();
             this.logger.reset();
 
-            createEvent((builder) -> {
-                // The bodies that spawned
-                int spawnedBodiesLocsP = createVecTable(builder, spawnedBodiesLocsXs, spawnedBodiesLocsYs);
-                int spawnedBodiesRobotIDsP = intVector(builder, spawnedBodiesRobotIDs, SpawnedBodyTable::startRobotIDsVector);
-                int spawnedBodiesTeamIDsP = byteVector(builder, spawnedBodiesTeamIDs, SpawnedBodyTable::startTeamIDsVector);
-                int spawnedBodiesTypesP = byteVector(builder, spawnedBodiesTypes, SpawnedBodyTable::startTypesVector);
-                SpawnedBodyTable.startSpawnedBodyTable(builder);
-                SpawnedBodyTable.addLocs(builder, spawnedBodiesLocsP);
-                SpawnedBodyTable.addRobotIDs(builder, spawnedBodiesRobotIDsP);
-                SpawnedBodyTable.addTeamIDs(builder, spawnedBodiesTeamIDsP);
-                SpawnedBodyTable.addTypes(builder, spawnedBodiesTypesP);
-                int spawnedBodiesP = SpawnedBodyTable.endSpawnedBodyTable(builder);
-
-                // Round statistics
-                int teamIDsP = intVector(builder, teamIDs, Round::startTeamIDsVector);
-                int teamSoupsP = intVector(builder, teamSoups, Round::startTeamSoupsVector);
-
-                // The bodies that moved
-                int movedIDsP = intVector(builder, movedIDs, Round::startMovedIDsVector);
-                int movedLocsP = createVecTable(builder, movedLocsXs, movedLocsYs);
-
-                // The bodies that died
-                int diedIDsP = intVector(builder, diedIDs, Round::startDiedIDsVector);
-
-                // The actions that happened
-                int actionIDsP = intVector(builder, actionIDs, Round::startActionIDsVector);
-                int actionsP = byteVector(builder, actions, Round::startActionsVector);
-                int actionTargetsP = intVector(builder, actionTargets, Round::startActionTargetsVector);
-
-                // The dirt changes on locations
-                int dirtChangedLocsP = createVecTable(builder, dirtChangedLocsXs, dirtChangedLocsYs);
-                int dirtChangesP = intVector(builder, dirtChanges, Round::startDirtChangesVector);
-
-                // The water changes on locations
-                int waterChangedLocsP = createVecTable(builder, waterChangedLocsXs, waterChangedLocsYs);
-
-                // The local pollution
-                int pollutionLocationsP = createVecTable(builder, pollutionLocsXs, pollutionLocsYs);
-                int pollutionRadiiSquaredP = intVector(builder, pollutionRadiiSquared, LocalPollutionTable::startRadiiSquaredVector);
-                int pollutionAdditiveEffectsP = intVector(builder, pollutionAdditiveEffects, LocalPollutionTable::startAdditiveEffectsVector);
-                int pollutionMultiplicativeEffectsP = floatVector(builder, pollutionMultiplicativeEffects, LocalPollutionTable::startMultiplicativeEffectsVector);
-                LocalPollutionTable.startLocalPollutionTable(builder);
-                LocalPollutionTable.addLocations(builder, pollutionLocationsP);
-                LocalPollutionTable.addRadiiSquared(builder, pollutionRadiiSquaredP);
-                LocalPollutionTable.addAdditiveEffects(builder, pollutionAdditiveEffectsP);
-                LocalPollutionTable.addMultiplicativeEffects(builder, pollutionMultiplicativeEffectsP);
-                int localPollutionsP = LocalPollutionTable.endLocalPollutionTable(builder);
-
-                // The soup changes on locations
-                int soupChangedLocsP = createVecTable(builder, soupChangedLocsXs, soupChangedLocsYs);
-                int soupChangesP = intVector(builder, soupChanges, Round::startSoupChangesVector);
-
-                // New message requests
-                int newMessagesCostsP = intVector(builder, newMessagesCosts, Round::startNewMessagesCostsVector);
-                int newMessagesP = charVector(builder, newMessages, Round::startNewMessagesVector);
-                
-                // Broadcasted messages
-                int broadcastedMessagesCostsP = intVector(builder, broadcastedMessagesCosts, Round::startBroadcastedMessagesCostsVector);
-                int broadcastedMessagesP = charVector(builder, broadcastedMessages, Round::startBroadcastedMessagesVector);
-
-                // The indicator dots that were set
-                int indicatorDotIDsP = intVector(builder, indicatorDotIDs, Round::startIndicatorDotIDsVector);
-                int indicatorDotLocsP = createVecTable(builder, indicatorDotLocsX, indicatorDotLocsY);
-                int indicatorDotRGBsP = createRGBTable(builder, indicatorDotRGBsRed, indicatorDotRGBsGreen, indicatorDotRGBsBlue);
-
-                // The indicator lines that were set
-                int indicatorLineIDsP = intVector(builder, indicatorLineIDs, Round::startIndicatorLineIDsVector);
-                int indicatorLineStartLocsP = createVecTable(builder, indicatorLineStartLocsX, indicatorLineStartLocsY);
-                int indicatorLineEndLocsP = createVecTable(builder, indicatorLineEndLocsX, indicatorLineEndLocsY);
-                int indicatorLineRGBsP = createRGBTable(builder, indicatorLineRGBsRed, indicatorLineRGBsGreen, indicatorLineRGBsBlue);
-
-                // The bytecode usage
-                int bytecodeIDsP = intVector(builder, bytecodeIDs, Round::startBytecodeIDsVector);
-                int bytecodesUsedP = intVector(builder, bytecodesUsed, Round::startBytecodesUsedVector);
-
-                int logsP = builder.createString(ByteBuffer.wrap(logs));
-
-                Round.startRound(builder);
-                Round.addTeamIDs(builder, teamIDsP);
-                Round.addTeamSoups(builder, teamSoupsP);
-                Round.addMovedIDs(builder, movedIDsP);
-                Round.addMovedLocs(builder, movedLocsP);
-                Round.addSpawnedBodies(builder, spawnedBodiesP);
-                Round.addDiedIDs(builder, diedIDsP);
-                Round.addActionIDs(builder, actionIDsP);
-                Round.addActions(builder, actionsP);
-                Round.addActionTargets(builder, actionTargetsP);
-                Round.addDirtChangedLocs(builder, dirtChangedLocsP);
-                Round.addDirtChanges(builder, dirtChangesP);
-                Round.addWaterChangedLocs(builder, waterChangedLocsP);
-                Round.addGlobalPollution(builder, globalPollution);
-                Round.addLocalPollutions(builder, localPollutionsP);
-                Round.addSoupChangedLocs(builder, soupChangedLocsP);
-                Round.addSoupChanges(builder, soupChangesP);
-                Round.addNewMessagesCosts(builder, newMessagesCostsP);
-                Round.addNewMessages(builder, newMessagesP);
-                Round.addBroadcastedMessagesCosts(builder, broadcastedMessagesCostsP);
-                Round.addBroadcastedMessages(builder, broadcastedMessagesP);
-                Round.addIndicatorDotIDs(builder, indicatorDotIDsP);
-                Round.addIndicatorDotLocs(builder, indicatorDotLocsP);
-                Round.addIndicatorDotRGBs(builder, indicatorDotRGBsP);
-                Round.addIndicatorLineIDs(builder, indicatorLineIDsP);
-                Round.addIndicatorLineStartLocs(builder, indicatorLineStartLocsP);
-                Round.addIndicatorLineEndLocs(builder, indicatorLineEndLocsP);
-                Round.addIndicatorLineRGBs(builder, indicatorLineRGBsP);
-                Round.addRoundID(builder, roundNum);
-                Round.addBytecodeIDs(builder, bytecodeIDsP);
-                Round.addBytecodesUsed(builder, bytecodesUsedP);
-                Round.addLogs(builder, logsP);
-                int round = Round.endRound(builder);
-                return EventWrapper.createEventWrapper(builder, Event.Round, round);
-            });
+            // in compact files, logs go in their own section
+            int logsOffset = compactLogsLength;
+            if (compact) {
+                try {
+                    compactLogsOut.write(logs);
+                } catch (IOException e) {
+                    throw new RuntimeException("Can't deflate to byte[]outputstream?", e);
+                }
+                compactLogsLength += logs.length;
+            }
+
+            // the file and the client may want keyframes on different rounds
+            boolean fileKeyframe = keyframeSoup != null && onInterval(roundNum, keyframeInterval);
+            boolean clientKeyframe = fileKeyframe
+                    || keyframeSoup != null && onInterval(roundNum, clientKeyframeInterval);
+            if (compact && fileKeyframe) {
+                // CompactRoundReader resyncs from keyframes, so we do too
+                for (int i = 0; i < keyframeRobotIDs.size(); i++) {
+                    bodyLocations.put(keyframeRobotIDs.get(i),
+                            new MapLocation(keyframeLocsXs.get(i), keyframeLocsYs.get(i)));
+                }
+            }
+
+            boolean sameForClient = !compact && fileKeyframe == clientKeyframe;
+            // a round built just for the client is wasted with nobody
+            // connected; anyone who connects starts from the next snapshot
+            boolean clientSkips = !sameForClient && !clientKeyframe
+                    && buffer == null && packetSink != null && !packetSink.hasClients();
+            matchEvent(Event.Round, roundNum,
+                    clientSkips ? null
+                            : (builder) -> makeRoundEvent(builder, roundNum, logs, clientKeyframe, false, 0,
+                                    DetailLevel.FULL),
+                    sameForClient ? null
+                            : (builder) -> makeRoundEvent(builder, roundNum, logs, fileKeyframe, compact, logsOffset,
+                                    DetailLevel.FULL),
+                    (level) -> (builder) -> makeRoundEvent(builder, roundNum, logs, clientKeyframe, false, 0,
+                            level));
 
             clearData();
         }
 
+        /**
+         * @param keyframe whether to include the keyframe set for this round
+         * @param packed whether to write the round with a CompactRound
+         * @param logsOffset where the logs went in the compact logs section, if packed
+         * @param detail what to leave out, for clients that asked for less
+         */
+        private int makeRoundEvent(FlatBufferBuilder builder, int roundNum, byte[] logs,
+                                   boolean keyframe, boolean packed, int logsOffset, DetailLevel detail) {
+            boolean full = detail == DetailLevel.FULL;
+            boolean summary = detail == DetailLevel.SUMMARY;
+
+            // The bodies that spawned
+            int spawnedBodiesLocsP = createVecTable(builder, spawnedBodiesLocsXs, spawnedBodiesLocsYs);
+            int spawnedBodiesRobotIDsP = intVector(builder, spawnedBodiesRobotIDs, SpawnedBodyTable::startRobotIDsVector);
+            int spawnedBodiesTeamIDsP = byteVector(builder, spawnedBodiesTeamIDs, SpawnedBodyTable::startTeamIDsVector);
+            int spawnedBodiesTypesP = byteVector(builder, spawnedBodiesTypes, SpawnedBodyTable::startTypesVector);
+            SpawnedBodyTable.startSpawnedBodyTable(builder);
+            SpawnedBodyTable.addLocs(builder, spawnedBodiesLocsP);
+            SpawnedBodyTable.addRobotIDs(builder, spawnedBodiesRobotIDsP);
+            SpawnedBodyTable.addTeamIDs(builder, spawnedBodiesTeamIDsP);
+            SpawnedBodyTable.addTypes(builder, spawnedBodiesTypesP);
+            int spawnedBodiesP = SpawnedBodyTable.endSpawnedBodyTable(builder);
+
+            // Round statistics
+            int teamIDsP = intVector(builder, teamIDs, Round::startTeamIDsVector);
+            int teamSoupsP = intVector(builder, teamSoups, Round::startTeamSoupsVector);
+
+            // The bodies that moved
+            int movedIDsP = summary ? 0 : intVector(builder, movedIDs, Round::startMovedIDsVector);
+            int movedLocsP = packed || summary ? 0 : createVecTable(builder, movedLocsXs, movedLocsYs);
+
+            // The bodies that died
+            int diedIDsP = intVector(builder, diedIDs, Round::startDiedIDsVector);
+
+            // The actions that happened
+            int actionIDsP = summary ? 0 : intVector(builder, actionIDs, Round::startActionIDsVector);
+            int actionsP = summary ? 0 : byteVector(builder, actions, Round::startActionsVector);
+            int actionTargetsP = summary ? 0 : intVector(builder, actionTargets, Round::startActionTargetsVector);
+
+            // The dirt changes on locations
+            int dirtChangedLocsP = packed || summary ? 0 : createVecTable(builder, dirtChangedLocsXs, dirtChangedLocsYs);
+            int dirtChangesP = packed || summary ? 0 : intVector(builder, dirtChanges, Round::startDirtChangesVector);
+
+            // The water changes on locations
+            int waterChangedLocsP = packed || summary ? 0 : createVecTable(builder, waterChangedLocsXs, waterChangedLocsYs);
+
+            // The local pollution
+            int localPollutionsP = summary ? 0 : makeLocalPollutions(builder);
+
+            // The soup changes on locations
+            int soupChangedLocsP = packed || summary ? 0 : createVecTable(builder, soupChangedLocsXs, soupChangedLocsYs);
+            int soupChangesP = packed || summary ? 0 : intVector(builder, soupChanges, Round::startSoupChangesVector);
+
+            // New message requests
+            int newMessagesCostsP = summary ? 0 : intVector(builder, newMessagesCosts, Round::startNewMessagesCostsVector);
+            int newMessagesP = summary ? 0 : charVector(builder, newMessages, Round::startNewMessagesVector);
+            
+            // Broadcasted messages
+            int broadcastedMessagesCostsP = summary ? 0 : intVector(builder, broadcastedMessagesCosts, Round::startBroadcastedMessagesCostsVector);
+            int broadcastedMessagesP = summary ? 0 : charVector(builder, broadcastedMessages, Round::startBroadcastedMessagesVector);
+
+            // The indicator dots that were set
+            int indicatorDotIDsP = full ? intVector(builder, indicatorDotIDs, Round::startIndicatorDotIDsVector) : 0;
+            int indicatorDotLocsP = full ? createVecTable(builder, indicatorDotLocsX, indicatorDotLocsY) : 0;
+            int indicatorDotRGBsP = full ? createRGBTable(builder, indicatorDotRGBsRed, indicatorDotRGBsGreen, indicatorDotRGBsBlue) : 0;
+
+            // The indicator lines that were set
+            int indicatorLineIDsP = full ? intVector(builder, indicatorLineIDs, Round::startIndicatorLineIDsVector) : 0;
+            int indicatorLineStartLocsP = full ? createVecTable(builder, indicatorLineStartLocsX, indicatorLineStartLocsY) : 0;
+            int indicatorLineEndLocsP = full ? createVecTable(builder, indicatorLineEndLocsX, indicatorLineEndLocsY) : 0;
+            int indicatorLineRGBsP = full ? createRGBTable(builder, indicatorLineRGBsRed, indicatorLineRGBsGreen, indicatorLineRGBsBlue) : 0;
+
+            // The bytecode usage
+            int bytecodeIDsP = packed || !full ? 0 : intVector(builder, bytecodeIDs, Round::startBytecodeIDsVector);
+            int bytecodesUsedP = packed || !full ? 0 : intVector(builder, bytecodesUsed, Round::startBytecodesUsedVector);
+
+            // How long the turns took, if recorded
+            int cpuTimesP = !full || cpuTimes.isEmpty() ? 0 : intVector(builder, cpuTimes, Round::startCpuTimesVector);
+            int wallTimesP = !full || wallTimes.isEmpty() ? 0 : intVector(builder, wallTimes, Round::startWallTimesVector);
+
+            int logsP = packed || !full ? 0 : builder.createString(ByteBuffer.wrap(logs));
+
+            // The packed versions of everything left out above
+            int compactP = packed ? makeCompactRound(builder, logsOffset, logs.length) : 0;
+
+            // The full state, every so often
+            int keyframeP = keyframe ? makeKeyframe(builder) : 0;
+
+            Round.startRound(builder);
+            Round.addTeamIDs(builder, teamIDsP);
+            Round.addTeamSoups(builder, teamSoupsP);
+            Round.addMovedIDs(builder, movedIDsP);
+            Round.addMovedLocs(builder, movedLocsP);
+            Round.addSpawnedBodies(builder, spawnedBodiesP);
+            Round.addDiedIDs(builder, diedIDsP);
+            Round.addActionIDs(builder, actionIDsP);
+            Round.addActions(builder, actionsP);
+            Round.addActionTargets(builder, actionTargetsP);
+            Round.addDirtChangedLocs(builder, dirtChangedLocsP);
+            Round.addDirtChanges(builder, dirtChangesP);
+            Round.addWaterChangedLocs(builder, waterChangedLocsP);
+            Round.addGlobalPollution(builder, globalPollution);
+            Round.addLocalPollutions(builder, localPollutionsP);
+            Round.addSoupChangedLocs(builder, soupChangedLocsP);
+            Round.addSoupChanges(builder, soupChangesP);
+            Round.addNewMessagesCosts(builder, newMessagesCostsP);
+            Round.addNewMessages(builder, newMessagesP);
+            Round.addBroadcastedMessagesCosts(builder, broadcastedMessagesCostsP);
+            Round.addBroadcastedMessages(builder, broadcastedMessagesP);
+            Round.addIndicatorDotIDs(builder, indicatorDotIDsP);
+            Round.addIndicatorDotLocs(builder, indicatorDotLocsP);
+            Round.addIndicatorDotRGBs(builder, indicatorDotRGBsP);
+            Round.addIndicatorLineIDs(builder, indicatorLineIDsP);
+            Round.addIndicatorLineStartLocs(builder, indicatorLineStartLocsP);
+            Round.addIndicatorLineEndLocs(builder, indicatorLineEndLocsP);
+            Round.addIndicatorLineRGBs(builder, indicatorLineRGBsP);
+            Round.addRoundID(builder, roundNum);
+            Round.addBytecodeIDs(builder, bytecodeIDsP);
+            Round.addBytecodesUsed(builder, bytecodesUsedP);
+            Round.addLogs(builder, logsP);
+            if (cpuTimesP != 0) {
+                Round.addCpuTimes(builder, cpuTimesP);
+                Round.addWallTimes(builder, wallTimesP);
+            }
+            if (keyframeP != 0) {
+                Round.addKeyframe(builder, keyframeP);
+            }
+            if (compactP != 0) {
+                Round.addCompact(builder, compactP);
+            }
+            int round = Round.endRound(builder);
+            return EventWrapper.createEventWrapper(builder, Event.Round, round);
+        }
+
+        private int makeLocalPollutions(FlatBufferBuilder builder) {
+            int pollutionLocationsP = createVecTable(builder, pollutionLocsXs, pollutionLocsYs);
+            int pollutionRadiiSquaredP = intVector(builder, pollutionRadiiSquared, LocalPollutionTable::startRadiiSquaredVector);
+            int pollutionAdditiveEffectsP = intVector(builder, pollutionAdditiveEffects, LocalPollutionTable::startAdditiveEffectsVector);
+            int pollutionMultiplicativeEffectsP = floatVector(builder, pollutionMultiplicativeEffects, LocalPollutionTable::startMultiplicativeEffectsVector);
+            LocalPollutionTable.startLocalPollutionTable(builder);
+            LocalPollutionTable.addLocations(builder, pollutionLocationsP);
+            LocalPollutionTable.addRadiiSquared(builder, pollutionRadiiSquaredP);
+            LocalPollutionTable.addAdditiveEffects(builder, pollutionAdditiveEffectsP);
+            LocalPollutionTable.addMultiplicativeEffects(builder, pollutionMultiplicativeEffectsP);
+            return LocalPollutionTable.endLocalPollutionTable(builder);
+        }
+
+        private int makeCompactRound(FlatBufferBuilder builder, int logsOffset, int logsLength) {
+            int movedDirectionsP = byteVector(builder, compactMovedDirections, CompactRound::startMovedDirectionsVector);
+            int movedJumpsP = byteVector(builder, compactMovedJumps.getBytes(), CompactRound::startMovedJumpsVector);
+            int dirtChangesP = byteVector(builder, compactDirtChanges.getBytes(), CompactRound::startDirtChangesVector);
+            int waterChangesP = byteVector(builder, compactWaterChanges.getBytes(), CompactRound::startWaterChangesVector);
+            int soupChangesP = byteVector(builder, compactSoupChanges.getBytes(), CompactRound::startSoupChangesVector);
+            int bytecodesP = byteVector(builder, compactBytecodes.getBytes(), CompactRound::startBytecodesVector);
+            return CompactRound.createCompactRound(builder, movedDirectionsP, movedJumpsP, dirtChangesP,
+                    waterChangesP, soupChangesP, bytecodesP, bytecodeQuantum, logsOffset, logsLength);
+        }
+
+        private int makeKeyframe(FlatBufferBuilder builder) {
+            // The grids go straight from the world's arrays into the buffer
+            int soupP = Keyframe.createSoupVector(builder, keyframeSoup);
+            int dirtP = Keyframe.createDirtVector(builder, keyframeDirt);
+            int waterP = Keyframe.createWaterVector(builder, keyframeWater);
+
+            int pollutionLocationsP = createVecTable(builder, keyframePollutionLocsXs, keyframePollutionLocsYs);
+            int pollutionRadiiSquaredP = intVector(builder, keyframePollutionRadiiSquared, LocalPollutionTable::startRadiiSquaredVector);
+            int pollutionAdditiveEffectsP = intVector(builder, keyframePollutionAdditiveEffects, LocalPollutionTable::startAdditiveEffectsVector);
+            int pollutionMultiplicativeEffectsP = floatVector(builder, keyframePollutionMultiplicativeEffects, LocalPollutionTable::startMultiplicativeEffectsVector);
+            LocalPollutionTable.startLocalPollutionTable(builder);
+            LocalPollutionTable.addLocations(builder, pollutionLocationsP);
+            LocalPollutionTable.addRadiiSquared(builder, pollutionRadiiSquaredP);
+            LocalPollutionTable.addAdditiveEffects(builder, pollutionAdditiveEffectsP);
+            LocalPollutionTable.addMultiplicativeEffects(builder, pollutionMultiplicativeEffectsP);
+            int localPollutionsP = LocalPollutionTable.endLocalPollutionTable(builder);
+
+            int bodiesLocsP = createVecTable(builder, keyframeLocsXs, keyframeLocsYs);
+            int bodiesRobotIDsP = intVector(builder, keyframeRobotIDs, SpawnedBodyTable::startRobotIDsVector);
+            int bodiesTeamIDsP = byteVector(builder, keyframeTeamIDs, SpawnedBodyTable::startTeamIDsVector);
+            int bodiesTypesP = byteVector(builder, keyframeTypes, SpawnedBodyTable::startTypesVector);
+            SpawnedBodyTable.startSpawnedBodyTable(builder);
+            SpawnedBodyTable.addLocs(builder, bodiesLocsP);
+            SpawnedBodyTable.addRobotIDs(builder, bodiesRobotIDsP);
+            SpawnedBodyTable.addTeamIDs(builder, bodiesTeamIDsP);
+            SpawnedBodyTable.addTypes(builder, bodiesTypesP);
+            int bodiesP = SpawnedBodyTable.endSpawnedBodyTable(builder);
+
+            int soupCarryingP = intVector(builder, keyframeSoupCarrying, Keyframe::startBodySoupCarryingVector);
+            int dirtCarryingP = intVector(builder, keyframeDirtCarrying, Keyframe::startBodyDirtCarryingVector);
+            int heldIDsP = intVector(builder, keyframeHeldIDs, Keyframe::startBodyHeldIDsVector);
+
+            return Keyframe.createKeyframe(builder, soupP, dirtP, waterP, keyframeWaterLevel,
+                    localPollutionsP, bodiesP, soupCarryingP, dirtCarryingP, heldIDsP);
+        }
+
+        /**
+         * @return whether the given round should carry a keyframe
+         */
+        public boolean isKeyframeRound(int roundNum) {
+            return onInterval(roundNum, keyframeInterval)
+                    || onInterval(roundNum, clientKeyframeInterval);
+        }
+
+        /**
+         * Start a keyframe for the next round written.
+         * The arrays aren't copied, so they mustn't change before makeRound.
+         */
+        public void setKeyframe(int[] soup, int[] dirt, boolean[] water, float waterLevel) {
+            keyframeSoup = soup;
+            keyframeDirt = dirt;
+            keyframeWater = water;
+            keyframeWaterLevel = waterLevel;
+        }
+
+        public void addKeyframeLocalPollution(MapLocation loc, int radiusSquared, int additive, float multiplicative) {
+            keyframePollutionLocsXs.add(loc.x);
+            keyframePollutionLocsYs.add(loc.y);
+            keyframePollutionRadiiSquared.add(radiusSquared);
+            keyframePollutionAdditiveEffects.add(additive);
+            keyframePollutionMultiplicativeEffects.add(multiplicative);
+        }
+
+        public void addKeyframeRobot(InternalRobot robot) {
+            keyframeRobotIDs.add(robot.getID());
+            keyframeLocsXs.add(robot.getLocation().x);
+            keyframeLocsYs.add(robot.getLocation().y);
+            keyframeTeamIDs.add(TeamMapping.id(robot.getTeam()));
+            keyframeTypes.add(FlatHelpers.getBodyTypeFromRobotType(robot.getType()));
+            keyframeSoupCarrying.add(robot.getSoupCarrying());
+            keyframeDirtCarrying.add(robot.getDirtCarrying());
+            keyframeHeldIDs.add(robot.isCurrentlyHoldingUnit() ? robot.getIdOfUnitCurrentlyHeld() : -1);
+        }
+
         /**
          * @return an outputstream that will be baked into the output file
          */
@@ -601,10 +1300,23 @@ public strictfp class GameMaker {
             movedIDs.add(id);
             movedLocsXs.add(newLocation.x);
             movedLocsYs.add(newLocation.y);
+
+            if (compact) {
+                MapLocation oldLocation = bodyLocations.put(id, newLocation);
+                int direction = oldLocation != null ? CompactRoundReader.directionIndex(oldLocation, newLocation) : -1;
+                compactMovedDirections.add((byte) direction);
+                if (direction == -1) {
+                    compactMovedJumps.addLocation(newLocation.x, newLocation.y);
+                }
+            }
         }
 
         public void addDied(int id) {
             diedIDs.add(id);
+
+            if (compact) {
+                bodyLocations.remove(id);
+            }
         }
 
         public void addAction(int userID, byte action, int targetID) {
@@ -617,11 +1329,20 @@ public strictfp class GameMaker {
             dirtChangedLocsXs.add(loc.x);
             dirtChangedLocsYs.add(loc.y);
             dirtChanges.add(change);
+
+            if (compact) {
+                compactDirtChanges.addLocation(loc.x, loc.y);
+                compactDirtChanges.addSigned(change);
+            }
         }
 
         public void addWaterChanged(MapLocation loc) {
             waterChangedLocsXs.add(loc.x);
             waterChangedLocsYs.add(loc.y);
+
+            if (compact) {
+                compactWaterChanges.addLocation(loc.x, loc.y);
+            }
         }
 
         public void setGlobalPollution(int globalPollution) {
@@ -640,6 +1361,11 @@ public strictfp class GameMaker {
             soupChangedLocsXs.add(loc.x);
             soupChangedLocsYs.add(loc.y);
             soupChanges.add(change);
+
+            if (compact) {
+                compactSoupChanges.addLocation(loc.x, loc.y);
+                compactSoupChanges.addSigned(change);
+            }
         }
 
         public void addNewMessage(int cost, String message) {
@@ -684,6 +1410,23 @@ public strictfp class GameMaker {
         public void addBytecodes(int id, int bytecodes) {
             bytecodeIDs.add(id);
             bytecodesUsed.add(bytecodes);
+
+            if (compact) {
+                compactBytecodes.addDelta(id);
+                compactBytecodes.addUnsigned((bytecodes + bytecodeQuantum / 2) / bytecodeQuantum);
+            }
+        }
+
+        /**
+         * Record how long a robot's turn took; called after its addBytecodes,
+         * if at all, so the times line up with the bytecodes.
+         *
+         * @param cpuMicros the CPU time, or -1 if it isn't known
+         * @param wallMicros the wall-clock time
+         */
+        public void addTurnTimes(int cpuMicros, int wallMicros) {
+            cpuTimes.add(cpuMicros);
+            wallTimes.add(wallMicros);
         }
 
         public void addSpawnedRobot(InternalRobot robot) {
@@ -692,6 +1435,10 @@ public strictfp class GameMaker {
             spawnedBodiesLocsYs.add(robot.getLocation().y);
             spawnedBodiesTeamIDs.add(TeamMapping.id(robot.getTeam()));
             spawnedBodiesTypes.add(FlatHelpers.getBodyTypeFromRobotType(robot.getType()));
+
+            if (compact) {
+                bodyLocations.put(robot.getID(), robot.getLocation());
+            }
         }
 
         private void clearData() {
@@ -743,6 +1490,128 @@ public strictfp class GameMaker {
             indicatorLineRGBsGreen.clear();
             bytecodeIDs.clear();
             bytecodesUsed.clear();
+            cpuTimes.clear();
+            wallTimes.clear();
+            keyframeSoup = null;
+            keyframeDirt = null;
+            keyframeWater = null;
+            keyframeWaterLevel = 0;
+            keyframePollutionLocsXs.clear();
+            keyframePollutionLocsYs.clear();
+            keyframePollutionRadiiSquared.clear();
+            keyframePollutionAdditiveEffects.clear();
+            keyframePollutionMultiplicativeEffects.clear();
+            keyframeRobotIDs.clear();
+            keyframeTeamIDs.clear();
+            keyframeTypes.clear();
+            keyframeLocsXs.clear();
+            keyframeLocsYs.clear();
+            keyframeSoupCarrying.clear();
+            keyframeDirtCarrying.clear();
+            keyframeHeldIDs.clear();
+            compactMovedDirections.resetQuick();
+            compactMovedJumps.clear();
+            compactDirtChanges.clear();
+            compactWaterChanges.clear();
+            compactSoupChanges.clear();
+            compactBytecodes.clear();
         }
     }
+
+    /**
+     * The MatchMaker for result-only games: it keeps the match state
+     * transitions honest, and drops everything else on the floor.
+     */
+    private class NullMatchMaker extends MatchMaker {
+        NullMatchMaker() {
+            this(false);
+        }
+
+        NullMatchMaker(boolean separate) {
+            super(separate);
+        }
+
+        @Override
+        public void makeMatchHeader(LiveMap gameMap) {
+            changeMatchState(State.IN_GAME, State.IN_MATCH);
+        }
+
+        @Override
+        public void makeMatchFooter(Team winTeam, int totalRounds) {
+            changeMatchState(State.IN_MATCH, State.IN_GAME);
+        }
+
+        @Override
+        public void makeRound(int roundNum) {}
+
+        @Override
+        public boolean isKeyframeRound(int roundNum) {
+            return false;
+        }
+
+        @Override
+        public void setKeyframe(int[] soup, int[] dirt, boolean[] water, float waterLevel) {}
+
+        @Override
+        public void addKeyframeLocalPollution(MapLocation loc, int radiusSquared, int additive, float multiplicative) {}
+
+        @Override
+        public void addKeyframeRobot(InternalRobot robot) {}
+
+        /**
+         * @return null; there's no file for robot output to go to
+         */
+        @Override
+        public OutputStream getOut() {
+            return null;
+        }
+
+        @Override
+        public void addMoved(int id, MapLocation newLocation) {}
+
+        @Override
+        public void addDied(int id) {}
+
+        @Override
+        public void addAction(int userID, byte action, int targetID) {}
+
+        @Override
+        public void addDirtChanged(MapLocation loc, int change) {}
+
+        @Override
+        public void addWaterChanged(MapLocation loc) {}
+
+        @Override
+        public void setGlobalPollution(int globalPollution) {}
+
+        @Override
+        public void addLocalPollution(MapLocation loc, int radiusSquared, int additive, float multiplicative) {}
+
+        @Override
+        public void addSoupChanged(MapLocation loc, int change) {}
+
+        @Override
+        public void addNewMessage(int cost, String message) {}
+
+        @Override
+        public void addBroadcastedMessage(int cost, String message) {}
+
+        @Override
+        public void addTeamSoup(Team team, int soup) {}
+
+        @Override
+        public void addIndicatorDot(int id, MapLocation loc, int red, int green, int blue) {}
+
+        @Override
+        public void addIndicatorLine(int id, MapLocation startLoc, MapLocation endLoc, int red, int green, int blue) {}
+
+        @Override
+        public void addBytecodes(int id, int bytecodes) {}
+
+        @Override
+        public void addTurnTimes(int cpuMicros, int wallMicros) {}
+
+        @Override
+        public void addSpawnedRobot(InternalRobot robot) {}
+    }
 }
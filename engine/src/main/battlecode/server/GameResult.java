@@ -0,0 +1,217 @@
+package battlecode.server;
+
+import battlecode.common.Team;
+import battlecode.world.DominationFactor;
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a game, as a machine-readable record: who won each match,
+ * why, a few statistics about how it ended, and how long and how many
+ * bytecodes it took.
+ *
+ * Filled in by the Server as matches finish; written out as JSON to
+ * bc.server.result-file, if it's set.
+ */
+public class GameResult {
+
+    /**
+     * The outcome of a single match.
+     */
+    public static class MatchResult {
+        private final String map;
+        private final Team winner;
+        private final DominationFactor dominationFactor;
+        private final int rounds;
+        private final long wallTimeMillis;
+        private final int[] soup;
+        private final int[] robots;
+        private final long[] bytecodes;
+
+        /**
+         * @param soup the soup of team A and team B at the end
+         * @param robots the robot counts of team A and team B at the end
+         */
+        public MatchResult(String map, Team winner, DominationFactor dominationFactor,
+                           int rounds, long wallTimeMillis, int[] soup, int[] robots) {
+            this(map, winner, dominationFactor, rounds, wallTimeMillis, soup, robots, new long[2]);
+        }
+
+        /**
+         * @param soup the soup of team A and team B at the end
+         * @param robots the robot counts of team A and team B at the end
+         * @param bytecodes the bytecodes used by team A's and team B's robots,
+         *                  in the whole match
+         */
+        public MatchResult(String map, Team winner, DominationFactor dominationFactor,
+                           int rounds, long wallTimeMillis, int[] soup, int[] robots, long[] bytecodes) {
+            this.map = map;
+            this.winner = winner;
+            this.dominationFactor = dominationFactor;
+            this.rounds = rounds;
+            this.wallTimeMillis = wallTimeMillis;
+            this.soup = soup;
+            this.robots = robots;
+            this.bytecodes = bytecodes;
+        }
+
+        public String getMap() {
+            return map;
+        }
+
+        public Team getWinner() {
+            return winner;
+        }
+
+        public DominationFactor getDominationFactor() {
+            return dominationFactor;
+        }
+
+        public int getRounds() {
+            return rounds;
+        }
+
+        public long getWallTimeMillis() {
+            return wallTimeMillis;
+        }
+
+        public int getSoup(Team team) {
+            return soup[team.ordinal()];
+        }
+
+        public int getRobotCount(Team team) {
+            return robots[team.ordinal()];
+        }
+
+        public long getBytecodesUsed(Team team) {
+            return bytecodes[team.ordinal()];
+        }
+    }
+
+    private final GameInfo game;
+    private final List<MatchResult> matches;
+    private Team winner;
+    private long wallTimeMillis;
+    private Integer seed;
+
+    /**
+     * @param game the game this is the result of
+     */
+    public GameResult(GameInfo game) {
+        this.game = game;
+        this.matches = new ArrayList<>();
+    }
+
+    public void addMatch(MatchResult match) {
+        matches.add(match);
+    }
+
+    public void setWinner(Team winner) {
+        this.winner = winner;
+    }
+
+    public void setWallTimeMillis(long wallTimeMillis) {
+        this.wallTimeMillis = wallTimeMillis;
+    }
+
+    /**
+     * @param seed the seed every match was played with, or null if each
+     *             used its map's own
+     */
+    public void setSeed(Integer seed) {
+        this.seed = seed;
+    }
+
+    public GameInfo getGame() {
+        return game;
+    }
+
+    /**
+     * @return the matches that were played, in order
+     */
+    public List<MatchResult> getMatches() {
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * @return the winner of the game, or null if it hasn't finished
+     */
+    public Team getWinner() {
+        return winner;
+    }
+
+    /**
+     * @return how long the whole game took, including setting up and
+     *         saving it; 0 if it hasn't finished
+     */
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    /**
+     * @return the seed every match was played with, or null if each used
+     *         its map's own
+     */
+    public Integer getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return how many rounds were played, in all the matches
+     */
+    public int getRounds() {
+        int rounds = 0;
+        for (MatchResult match : matches) {
+            rounds += match.rounds;
+        }
+        return rounds;
+    }
+
+    /**
+     * @return the result as a single-line JSON object
+     */
+    public String toJson() {
+        StringBuilder b = new StringBuilder();
+        b.append("{\"teamA\":").append(string(game.getTeamAName()));
+        b.append(",\"teamAPackage\":").append(string(game.getTeamAPackage()));
+        b.append(",\"teamB\":").append(string(game.getTeamBName()));
+        b.append(",\"teamBPackage\":").append(string(game.getTeamBPackage()));
+        b.append(",\"winner\":").append(string(winner));
+        b.append(",\"wallTimeMillis\":").append(wallTimeMillis);
+        b.append(",\"seed\":").append(seed);
+        b.append(",\"matches\":[");
+        for (int i = 0; i < matches.size(); i++) {
+            MatchResult match = matches.get(i);
+            if (i > 0) {
+                b.append(',');
+            }
+            b.append("{\"map\":").append(string(match.map));
+            b.append(",\"winner\":").append(string(match.winner));
+            b.append(",\"dominationFactor\":").append(string(match.dominationFactor));
+            b.append(",\"rounds\":").append(match.rounds);
+            b.append(",\"wallTimeMillis\":").append(match.wallTimeMillis);
+            b.append(",\"soup\":{\"A\":").append(match.getSoup(Team.A))
+                    .append(",\"B\":").append(match.getSoup(Team.B)).append('}');
+            b.append(",\"robots\":{\"A\":").append(match.getRobotCount(Team.A))
+                    .append(",\"B\":").append(match.getRobotCount(Team.B)).append('}');
+            b.append(",\"bytecodes\":{\"A\":").append(match.getBytecodesUsed(Team.A))
+                    .append(",\"B\":").append(match.getBytecodesUsed(Team.B)).append('}');
+            b.append('}');
+        }
+        b.append("]}");
+        return b.toString();
+    }
+
+    /**
+     * @return a value as a quoted, escaped JSON string, or null
+     */
+    static String string(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        return '"' + StringEscapeUtils.escapeJson(value.toString()) + '"';
+    }
+}
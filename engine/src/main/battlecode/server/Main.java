@@ -1,82 +1,122 @@
 package battlecode.server;
 
 import java.io.File;
-import java.net.URL;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
 
 public class Main {
 
     private static boolean runHeadless(Config options) {
+        final MatchConfig match;
         try {
-            final Server server = new Server(
-                    options,
-                    false
-            );
-
-            final String teamA = options.get("bc.game.team-a");
-            if (teamA == null) {
-                System.err.println("Can't run match without bc.game.team-a set!");
-                return false;
-            }
-            final String teamAURL;
-            if (options.get("bc.game.team-a.url") != null) {
-                teamAURL = options.get("bc.game.team-a.url");
-            } else {
-                System.err.println("Can't run match without bc.game.team-a.url set!");
-                return false;
-            }
-            final String teamAPackage;
-            if (options.get("bc.game.team-a.package") != null) {
-                teamAPackage = options.get("bc.game.team-a.package");
-            } else {
-                teamAPackage = teamA;
-            }
+            match = MatchConfig.fromConfig(options);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
 
-            final String teamB = options.get("bc.game.team-b");
-            if (teamB == null) {
-                System.err.println("Can't run match without bc.game.team-b set!");
-                return false;
-            }
-            final String teamBURL;
-            if (options.get("bc.game.team-b.url") != null) {
-                teamBURL = options.get("bc.game.team-b.url");
-            } else {
-                System.err.println("Can't run match without bc.game.team-b.url set!");
-                return false;
-            }
-            final String teamBPackage;
-            if (options.get("bc.game.team-b.package") != null) {
-                teamBPackage = options.get("bc.game.team-b.package");
-            } else {
-                teamBPackage = teamB;
-            }
+        try {
+            return MatchRunner.run(match) != null;
+        } catch (Exception e) {
+            ErrorReporter.report(e, true);
+            return false;
+        }
+    }
 
-            final String mapsCommaSep = options.get("bc.game.maps");
-            if (mapsCommaSep == null) {
-                System.err.println("Can't run match without bc.game.maps set!");
-                return false;
-            }
-            final String[] maps = mapsCommaSep.split(",");
+    private static boolean runReplay(Config options) {
+        final String replayPath = options.get("bc.server.replay-path");
+        if (replayPath == null || replayPath.isEmpty()) {
+            System.err.println("Can't serve replays without bc.server.replay-path set!");
+            return false;
+        }
 
-            File saveFile;
-            if (options.get("bc.server.save-file") != null) {
-                saveFile = new File(options.get("bc.server.save-file"));
-            } else {
-                System.err.println("Can't run match without bc.server.save-file set!");
-                return false;
-            }
+        try {
+            final ReplayServer server = new ReplayServer(
+                    options.getInt("bc.server.port"),
+                    new File(replayPath),
+                    new WebsocketConfig.Builder()
+                            .queueSize(options.getInt("bc.server.replay-client-queue"),
+                                    options.getInt("bc.server.websocket-max-client-queue"))
+                            .batchSize(options.getInt("bc.server.websocket-batch"),
+                                    options.getInt("bc.server.websocket-max-batch"))
+                            .build());
+            server.start();
+            System.out.println("Serving replays from "+replayPath+" on port "+options.getInt("bc.server.port"));
+
+            // until we're killed
+            new CountDownLatch(1).await();
+            return true;
+        } catch (Exception e) {
+            ErrorReporter.report(e, true);
+            return false;
+        }
+    }
+
+    private static boolean runDaemon(Config options) {
+        try {
+            final MatchDaemon daemon = new MatchDaemon(options,
+                    options.getInt("bc.server.daemon-port"),
+                    options.getInt("bc.server.daemon-threads"));
+            daemon.start();
+            System.out.println("Taking game requests on "+daemon.getAddress());
+
+            // until we're killed
+            new CountDownLatch(1).await();
+            return true;
+        } catch (Exception e) {
+            ErrorReporter.report(e, true);
+            return false;
+        }
+    }
 
-            server.addGameNotification(new GameInfo(
-                    teamA, teamAPackage, teamAURL,
-                    teamB, teamBPackage, teamBURL,
-                    maps,
-                    saveFile,
-                    options.getBoolean("bc.game.best-of-three") && maps.length == 3
-            ));
-            server.terminateNotification();
+    private static boolean runBatch(Config options) {
+        final String manifest = options.get("bc.server.batch-manifest");
+        if (manifest == null || manifest.isEmpty()) {
+            System.err.println("Can't run a batch without bc.server.batch-manifest set!");
+            return false;
+        }
+        final String replayDir = options.get("bc.server.batch-replay-dir");
+        final String resultFile = options.get("bc.server.result-file");
+
+        try {
+            final BatchRunner batch = new BatchRunner(options,
+                    replayDir != null && !replayDir.isEmpty() ? new File(replayDir) : null,
+                    options.getInt("bc.server.batch-threads"));
+            try (Reader in = new InputStreamReader(new FileInputStream(manifest), StandardCharsets.UTF_8);
+                 PrintWriter out = resultFile != null && !resultFile.isEmpty()
+                         ? new PrintWriter(new OutputStreamWriter(
+                                 new FileOutputStream(resultFile, true), StandardCharsets.UTF_8))
+                         : new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+                return batch.run(in, out);
+            }
+        } catch (Exception e) {
+            ErrorReporter.report(e, true);
+            return false;
+        }
+    }
 
-            server.run();
+    private static boolean runBenchmark(Config options) {
+        final String resultFile = options.get("bc.server.result-file");
 
-            return server.getState() == ServerState.FINISHED;
+        try {
+            final ScalingBenchmark benchmark = new ScalingBenchmark(options);
+            // not closed, so System.out isn't
+            final PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            try (PrintWriter records = resultFile != null && !resultFile.isEmpty()
+                    ? new PrintWriter(new OutputStreamWriter(
+                            new FileOutputStream(resultFile, true), StandardCharsets.UTF_8))
+                    : null) {
+                benchmark.run(out, records);
+                return true;
+            } finally {
+                out.flush();
+            }
         } catch (Exception e) {
             ErrorReporter.report(e, true);
             return false;
@@ -95,7 +135,27 @@ public class Main {
         }
     }
 
+    /**
+     * Start serving metrics, if bc.server.metrics-port is set. Failing to
+     * doesn't stop games from being played.
+     */
+    private static void startMetrics(Config options) {
+        final int port = options.getInt("bc.server.metrics-port");
+        if (port == 0) {
+            return;
+        }
+        try {
+            final MetricsServer metrics = new MetricsServer(options.get("bc.server.metrics-host"), port);
+            metrics.start();
+            System.out.println("Serving metrics on "+metrics.getAddress());
+        } catch (Exception e) {
+            System.err.println("Couldn't serve metrics on port "+port+": "+e.getMessage());
+        }
+    }
+
     public static boolean run(Config options) {
+        startMetrics(options);
+
         Server.Mode mode;
         try {
             mode = Server.Mode.valueOf(options.get("bc.server.mode").toUpperCase());
@@ -107,6 +167,14 @@ public class Main {
         switch (mode) {
             case HEADLESS:
                 return runHeadless(options);
+            case REPLAY:
+                return runReplay(options);
+            case DAEMON:
+                return runDaemon(options);
+            case BATCH:
+                return runBatch(options);
+            case BENCHMARK:
+                return runBenchmark(options);
             default:
                 return false;
         }
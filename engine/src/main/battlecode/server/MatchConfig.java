@@ -0,0 +1,288 @@
+package battlecode.server;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Everything needed to play a game with MatchRunner: the teams, the maps,
+ * and how the game is played and recorded. Immutable, so one can be shared
+ * between threads and run any number of times.
+ *
+ * Build one with a Builder, or read one from a Config (as Main does).
+ * Settings a MatchConfig doesn't have a field for are taken from the Config
+ * it's built on, which for a Builder is Config.defaultConfig(): nothing from
+ * system properties or bc.conf leaks into a match built in code.
+ */
+public class MatchConfig {
+
+    private final String teamAName;
+    private final String teamAPackage;
+    private final String teamAURL;
+    private final String teamBName;
+    private final String teamBPackage;
+    private final String teamBURL;
+    private final String[] maps;
+    private final boolean bestOfThree;
+    private final Integer seed;
+    private final boolean silenceA;
+    private final boolean silenceB;
+    private final File saveFile;
+
+    /**
+     * The rest of the settings; never changed once built.
+     */
+    private final Config base;
+
+    private MatchConfig(Builder builder) {
+        this.teamAName = builder.teamAName;
+        this.teamAPackage = builder.teamAPackage;
+        this.teamAURL = builder.teamAURL;
+        this.teamBName = builder.teamBName;
+        this.teamBPackage = builder.teamBPackage;
+        this.teamBURL = builder.teamBURL;
+        this.maps = builder.maps.clone();
+        this.bestOfThree = builder.bestOfThree;
+        this.seed = builder.seed;
+        this.silenceA = builder.silenceA;
+        this.silenceB = builder.silenceB;
+        this.saveFile = builder.saveFile;
+        this.base = new Config(builder.base);
+    }
+
+    /**
+     * Read the game to play from a config's bc.game.* settings, and
+     * bc.server.save-file.
+     *
+     * @param options the config to read; its other settings are used too
+     * @return the game the config describes
+     * @throws RuntimeException if a setting is missing
+     */
+    public static MatchConfig fromConfig(Config options) {
+        final String teamA = require(options, "bc.game.team-a");
+        final String teamAURL = require(options, "bc.game.team-a.url");
+        final String teamB = require(options, "bc.game.team-b");
+        final String teamBURL = require(options, "bc.game.team-b.url");
+        final String[] maps = require(options, "bc.game.maps").split(",");
+        final String saveFile = require(options, "bc.server.save-file");
+        final String seed = options.get("bc.game.seed");
+
+        return new Builder(options)
+                .teamA(teamA, options.get("bc.game.team-a.package") != null
+                        ? options.get("bc.game.team-a.package") : teamA, teamAURL)
+                .teamB(teamB, options.get("bc.game.team-b.package") != null
+                        ? options.get("bc.game.team-b.package") : teamB, teamBURL)
+                .maps(maps)
+                .bestOfThree(options.getBoolean("bc.game.best-of-three") && maps.length == 3)
+                .seed(seed != null && !seed.isEmpty() ? Integer.valueOf(seed) : null)
+                .silence(options.getBoolean("bc.engine.silence-a"), options.getBoolean("bc.engine.silence-b"))
+                .saveFile(options.getBoolean("bc.server.result-only") ? null : new File(saveFile))
+                .build();
+    }
+
+    private static String require(Config options, String key) {
+        final String value = options.get(key);
+        if (value == null) {
+            throw new RuntimeException("Can't run match without "+key+" set!");
+        }
+        return value;
+    }
+
+    /**
+     * @return the game to hand to a Server
+     */
+    GameInfo toGameInfo() {
+        return new GameInfo(teamAName, teamAPackage, teamAURL,
+                teamBName, teamBPackage, teamBURL,
+                maps.clone(), saveFile, bestOfThree);
+    }
+
+    /**
+     * @return a fresh config for a Server to play the game with
+     */
+    Config toConfig() {
+        final Config options = new Config(base);
+        options.set("bc.game.seed", seed != null ? seed.toString() : "");
+        options.setBoolean("bc.engine.silence-a", silenceA);
+        options.setBoolean("bc.engine.silence-b", silenceB);
+        options.setBoolean("bc.server.result-only", saveFile == null);
+        return options;
+    }
+
+    public String getTeamAPackage() {
+        return teamAPackage;
+    }
+
+    public String getTeamBPackage() {
+        return teamBPackage;
+    }
+
+    /**
+     * @return the maps to play on, in order
+     */
+    public String[] getMaps() {
+        return maps.clone();
+    }
+
+    /**
+     * @return the seed every match is played with, or null to use each
+     *         map's own
+     */
+    public Integer getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return where the replay is saved, or null if the game is only
+     *         played for its result
+     */
+    public File getSaveFile() {
+        return saveFile;
+    }
+
+    @Override
+    public String toString() {
+        return teamAPackage + " vs " + teamBPackage + " on " + Arrays.asList(maps)
+                + (seed != null ? " (seed " + seed + ")" : "");
+    }
+
+    /**
+     * Builds MatchConfigs. Not thread safe, but what it builds is.
+     */
+    public static class Builder {
+        private String teamAName;
+        private String teamAPackage;
+        private String teamAURL;
+        private String teamBName;
+        private String teamBPackage;
+        private String teamBURL;
+        private String[] maps;
+        private boolean bestOfThree;
+        private Integer seed;
+        private boolean silenceA;
+        private boolean silenceB;
+        private File saveFile;
+        private final Config base;
+
+        /**
+         * Start from the default settings, without the websocket (there's
+         * no one to watch an embedded match) or robot output on System.out.
+         */
+        public Builder() {
+            this.base = Config.defaultConfig();
+            base.setBoolean("bc.server.websocket", false);
+            base.setBoolean("bc.server.robot-player-to-system-out", false);
+        }
+
+        /**
+         * Start from a config's settings.
+         *
+         * @param base the config to use for everything the builder isn't
+         *             told; copied, so later changes to it aren't seen
+         */
+        public Builder(Config base) {
+            this.base = new Config(base);
+        }
+
+        /**
+         * @param name the team's name
+         * @param teamPackage the package its RobotPlayer is in
+         * @param url the directory or jar of its classes
+         */
+        public Builder teamA(String name, String teamPackage, String url) {
+            this.teamAName = name;
+            this.teamAPackage = teamPackage;
+            this.teamAURL = url;
+            return this;
+        }
+
+        /**
+         * @param name the team's name
+         * @param teamPackage the package its RobotPlayer is in
+         * @param url the directory or jar of its classes
+         */
+        public Builder teamB(String name, String teamPackage, String url) {
+            this.teamBName = name;
+            this.teamBPackage = teamPackage;
+            this.teamBURL = url;
+            return this;
+        }
+
+        public Builder maps(String... maps) {
+            this.maps = maps;
+            return this;
+        }
+
+        /**
+         * @param mapPath the directory to look for maps in, besides the
+         *                ones built into the engine
+         */
+        public Builder mapPath(File mapPath) {
+            base.set("bc.game.map-path", mapPath.getPath());
+            return this;
+        }
+
+        /**
+         * Stop once a team has won two matches. Only for three maps.
+         */
+        public Builder bestOfThree(boolean bestOfThree) {
+            this.bestOfThree = bestOfThree;
+            return this;
+        }
+
+        /**
+         * @param seed the seed to play every match with, or null to use
+         *             each map's own
+         */
+        public Builder seed(Integer seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @param silenceA whether to throw away team A's robots' output
+         * @param silenceB whether to throw away team B's robots' output
+         */
+        public Builder silence(boolean silenceA, boolean silenceB) {
+            this.silenceA = silenceA;
+            this.silenceB = silenceB;
+            return this;
+        }
+
+        /**
+         * @param saveFile where to save the replay, or null (the default) to
+         *                 only play the game for its result, recording
+         *                 nothing
+         */
+        public Builder saveFile(File saveFile) {
+            this.saveFile = saveFile;
+            return this;
+        }
+
+        /**
+         * Set anything else, as it would be set in bc.conf.
+         *
+         * @param key the setting, e.g. bc.server.match-threads
+         * @param value its value
+         */
+        public Builder set(String key, String value) {
+            base.set(key, value);
+            return this;
+        }
+
+        /**
+         * @throws RuntimeException if either team or the maps are missing
+         */
+        public MatchConfig build() {
+            if (teamAPackage == null || teamBPackage == null) {
+                throw new RuntimeException("Can't run match without both teams");
+            }
+            if (maps == null || maps.length == 0) {
+                throw new RuntimeException("Can't run match without maps");
+            }
+            if (bestOfThree && maps.length != 3) {
+                throw new RuntimeException("Best of three needs three maps, not "+maps.length);
+            }
+            return new MatchConfig(this);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package battlecode.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays games on request, over HTTP on the loopback interface, so that a
+ * worker playing game after game starts the JVM, loads the engine and warms
+ * up the JIT once, rather than for every game.
+ *
+ * POST /match with the game's settings in the body, written as they would
+ * be in bc.conf:
+ *
+ *   bc.game.team-a=bananas
+ *   bc.game.team-a.url=/box/classes/player1
+ *   bc.game.team-b=yellow
+ *   bc.game.team-b.url=/box/classes/player2
+ *   bc.game.maps=Soup,CowFarm,Hills
+ *   bc.server.save-file=/box/replay.bc20
+ *
+ * The game is played with MatchRunner, and the response is a JSON object:
+ * {"replay": the save file (or null, for a result-only game), "result": the
+ * GameResult}. Bad requests get a 400, and games that fail a 500, each with
+ * {"error": why}.
+ *
+ * Only game settings (bc.game.*, bc.engine.*, and how the game is saved) can
+ * be set by a request; the rest come from the daemon's own config. Every
+ * request has to say where to save its replay, or that it's result-only,
+ * since games played at once mustn't share a save file.
+ *
+ * GET /status says how many games are being played, are waiting their
+ * turn, and have been played.
+ */
+public class MatchDaemon {
+
+    /**
+     * The settings a request may set, or the prefixes of them.
+     */
+    private static final String[] REQUEST_SETTINGS = {
+            "bc.game.",
+            "bc.engine.",
+            "bc.server.save-file",
+            "bc.server.result-only",
+            "bc.server.save-index",
+            "bc.server.keyframe-interval",
+            "bc.server.compact-replay",
+            "bc.server.compact-bytecode-quantum",
+            "bc.server.match-threads",
+            "bc.server.robot-player-to-system-out",
+            "bc.server.robot-player-replay-file-per-team-limit-bytes",
+    };
+
+    /**
+     * The daemon's own settings, which requests are played on top of.
+     */
+    private final Config options;
+
+    private final HttpServer http;
+    private final ExecutorService executor;
+
+    /**
+     * A permit for each game that may be played at once.
+     */
+    private final Semaphore games;
+
+    private final AtomicInteger running;
+    private final AtomicLong played;
+    private final AtomicLong failed;
+
+    /**
+     * @param options the settings to play requests with, besides their own;
+     *                copied
+     * @param port the port to listen on, or 0 for any free one
+     * @param threads how many games to play at once
+     */
+    public MatchDaemon(Config options, int port, int threads) throws IOException {
+        if (threads < 1) {
+            throw new RuntimeException("Invalid daemon thread count: "+threads);
+        }
+
+        this.options = new Config(options);
+        // nobody's watching, or controlling, a daemon's games
+        this.options.setBoolean("bc.server.websocket", false);
+        this.options.setBoolean("bc.server.interactive", false);
+
+        this.running = new AtomicInteger();
+        this.played = new AtomicLong();
+        this.failed = new AtomicLong();
+
+        this.games = new Semaphore(threads, true);
+        // requests wait for a game permit, not a thread, so status requests
+        // are answered while games are being played
+        this.executor = Executors.newCachedThreadPool((task) -> {
+            Thread thread = new Thread(task, "match-daemon");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.http.setExecutor(executor);
+        this.http.createContext("/match", this::handleMatch);
+        this.http.createContext("/status", this::handleStatus);
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    /**
+     * Stop taking requests, and give the games being played a while to
+     * finish.
+     */
+    public void stop(int delaySeconds) throws InterruptedException {
+        http.stop(delaySeconds);
+        executor.shutdown();
+        executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the address the daemon is listening on
+     */
+    public InetSocketAddress getAddress() {
+        return http.getAddress();
+    }
+
+    /**
+     * Read a game request.
+     *
+     * @param options the daemon's settings
+     * @param body the request, in the format of a properties file
+     * @return the game to play
+     * @throws RuntimeException if the request isn't valid
+     */
+    static MatchConfig parseRequest(Config options, InputStream body) throws IOException {
+        final Properties request = new Properties();
+        request.load(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        final Config game = new Config(options);
+        for (String key : request.stringPropertyNames()) {
+            if (!isRequestSetting(key)) {
+                throw new RuntimeException("Requests can't set "+key);
+            }
+            game.set(key, request.getProperty(key).trim());
+        }
+        if (!request.containsKey("bc.server.save-file") && !game.getBoolean("bc.server.result-only")) {
+            throw new RuntimeException("Requests need a bc.server.save-file, or bc.server.result-only=true");
+        }
+        return MatchConfig.fromConfig(game);
+    }
+
+    private static boolean isRequestSetting(String key) {
+        for (String setting : REQUEST_SETTINGS) {
+            if (setting.endsWith(".") ? key.startsWith(setting) : key.equals(setting)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void handleMatch(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, error("POST a game to play"));
+                return;
+            }
+
+            final MatchConfig match;
+            try {
+                match = parseRequest(options, exchange.getRequestBody());
+            } catch (RuntimeException e) {
+                respond(exchange, 400, error(e.getMessage()));
+                return;
+            }
+
+            try {
+                games.acquire();
+            } catch (InterruptedException e) {
+                respond(exchange, 503, error("Shutting down"));
+                return;
+            }
+            Server.debug(options, "Playing requested game: "+match);
+            running.incrementAndGet();
+            final GameResult result;
+            try {
+                result = MatchRunner.run(match);
+            } catch (RuntimeException e) {
+                ErrorReporter.report(e, true);
+                failed.incrementAndGet();
+                respond(exchange, 500, error("Couldn't play game: "+e.getMessage()));
+                return;
+            } finally {
+                running.decrementAndGet();
+                games.release();
+            }
+            if (result == null) {
+                failed.incrementAndGet();
+                respond(exchange, 500, error("Game failed"));
+                return;
+            }
+            played.incrementAndGet();
+
+            respond(exchange, 200, "{\"replay\":" + GameResult.string(match.getSaveFile())
+                    + ",\"result\":" + result.toJson() + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        try {
+            respond(exchange, 200, String.format("{\"running\":%d,\"waiting\":%d,\"played\":%d,\"failed\":%d}",
+                    running.get(), games.getQueueLength(), played.get(), failed.get()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        final byte[] body = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + GameResult.string(message) + "}";
+    }
+}
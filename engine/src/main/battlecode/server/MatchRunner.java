@@ -0,0 +1,62 @@
+package battlecode.server;
+
+import battlecode.instrumenter.TeamClassLoaderFactory;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Plays games in-process: hand it a MatchConfig, get back a GameResult.
+ *
+ * Each game gets its own Server and its own copy of the config, so any
+ * number of games, configured however, can be run at once from different
+ * threads. Nothing is read from, or written to, the global Config, except
+ * whether to print bc.server.debug messages.
+ */
+public final class MatchRunner {
+
+    /**
+     * Prevent construction.
+     */
+    private MatchRunner() {
+    }
+
+    /**
+     * Play a game on the calling thread, saving its replay if the config
+     * says to.
+     *
+     * @param match the game to play
+     * @return the result of the game, or null if it failed (in which case
+     *         the server will have reported why)
+     * @throws RuntimeException if the server couldn't be started
+     */
+    public static GameResult run(MatchConfig match) {
+        return run(match, null);
+    }
+
+    /**
+     * Play a game on the calling thread, loading its teams with class loader
+     * factories shared with other runs, so each team's classes are only
+     * instrumented once however many games it plays. Only for teams whose
+     * classes don't change between runs.
+     *
+     * @param match the game to play
+     * @param teamFactories factories by team URL, which new teams are added
+     *                      to; null to not share any
+     * @return the result of the game, or null if it failed
+     * @throws RuntimeException if the server couldn't be started
+     */
+    public static GameResult run(MatchConfig match,
+                                 ConcurrentMap<String, TeamClassLoaderFactory> teamFactories) {
+        final Config options = match.toConfig();
+        final Server server = new Server(options, options.getBoolean("bc.server.interactive"), teamFactories);
+
+        server.addGameNotification(match.toGameInfo());
+        server.terminateNotification();
+        server.run();
+
+        if (server.getState() != ServerState.FINISHED || server.getResults().isEmpty()) {
+            return null;
+        }
+        return server.getResults().get(0);
+    }
+}
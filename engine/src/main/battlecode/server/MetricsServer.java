@@ -0,0 +1,76 @@
+package battlecode.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves EngineMetrics over HTTP, at GET /metrics, in the Prometheus text
+ * format, so a worker's games can be watched while they're played: which
+ * matches are running, what round they're on and how fast they're going,
+ * how many robots and sandbox threads there are, and how the JVM's heap and
+ * garbage collector are doing.
+ *
+ * Runs on a single daemon thread of its own, so scrapes don't slow down
+ * games (beyond the moment it takes to read their state).
+ */
+public class MetricsServer {
+
+    private final HttpServer http;
+    private final ExecutorService executor;
+
+    /**
+     * @param host the address to listen on, e.g. 127.0.0.1, or 0.0.0.0 to
+     *             be scraped from other machines
+     * @param port the port to listen on, or 0 for any free one
+     */
+    public MetricsServer(String host, int port) throws IOException {
+        this.executor = Executors.newSingleThreadExecutor((task) -> {
+            Thread thread = new Thread(task, "metrics-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.http = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.http.setExecutor(executor);
+        this.http.createContext("/metrics", this::handleMetrics);
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    public void stop() {
+        http.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * @return the address the server is listening on
+     */
+    public InetSocketAddress getAddress() {
+        return http.getAddress();
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            final byte[] body = EngineMetrics.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
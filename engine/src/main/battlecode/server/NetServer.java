@@ -1,29 +1,129 @@
 package battlecode.server;
 
+import battlecode.schema.Control;
+import battlecode.schema.ControlCommand;
+import battlecode.schema.Event;
+import battlecode.schema.EventWrapper;
+import battlecode.schema.Keyframe;
+import battlecode.schema.Round;
 import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
 
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.channels.ClosedByInterruptException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * Serve a battlecode match over a websocket connection.
  *
- * Sends one battlecode event per websocket message; ignores incoming messages.
+ * Sends one battlecode event per websocket message. Clients can send back
+ * binary Control messages (see battlecode.schema.Control) to run, pause and
+ * step the match, which are passed on to the ControlListener, if any; other
+ * incoming messages are ignored.
+ *
+ * Each client has its own bounded queue and sending thread (see
+ * ClientQueue), so a slow client only holds up itself, unless its policy
+ * says to block. Clients can pick their own policy, queue size and batch
+ * size when connecting, e.g. ws://host:6175/?policy=block&queue=256&batch=8,
+ * up to the server's maximums; otherwise they get the server's defaults.
+ *
+ * Clients that connect late are caught up from a snapshot, not from the
+ * start of the session: we keep the game header, the current match header,
+ * and the events since the latest snapshot. A snapshot is a match header,
+ * or, if the server is told its clients can start from one, a round with a
+ * keyframe (see GameMaker's client keyframe interval). The client in this
+ * repo can't yet, so by default, late joiners get the whole match so far.
+ * If what we keep grows past the retain limit, it's dropped, and anyone who
+ * connects waits for the next snapshot (by default, the next match header)
+ * before receiving anything. Clients that fall behind can be resumed the
+ * same way.
+ *
+ * Clients can also ask for less than everything, e.g. ?detail=spectator
+ * (see DetailLevel). GameMaker only builds the reduced rounds for levels
+ * someone has asked for, once per level however many clients are at it;
+ * anything built before a client connected is sent to it in full. (Matches
+ * recorded separately build every level, since they're sent later.)
  *
  * @author james
  */
 public class NetServer extends WebSocketServer {
 
-    private final List<byte[]> previousEvents;
-    private final BlockingQueue<byte[]> incomingEvents;
+    /**
+     * Receives the control messages clients send.
+     */
+    public interface ControlListener {
+        /**
+         * @param command the command, from battlecode.schema.ControlCommand
+         * @param argument the command's argument, if it has one
+         */
+        void control(byte command, int argument);
+    }
+
+    /**
+     * The header of the current game and match, if any.
+     */
+    private byte[] gameHeader;
+    private byte[] matchHeader;
+
+    /**
+     * Every event since the latest snapshot, starting with the snapshot
+     * itself (unless it's the match header), or null if we've dropped
+     * them and are waiting for the next snapshot. Each event is either the
+     * same at every detail level, or has one variant per level (see
+     * variant).
+     */
+    private List<byte[][]> tail;
+
+    /**
+     * The queue of each connected client.
+     */
+    private final Map<WebSocket, ClientQueue> clients;
+
+    /**
+     * What clients get if they don't ask for something else.
+     */
+    private final ClientQueue.Policy defaultPolicy;
+    private final int defaultQueueSize;
+    private final int defaultBatchSize;
+    private final DetailLevel defaultDetail;
+
+    /**
+     * The most clients can ask for; asking for more gets them this.
+     */
+    private final int maxQueueSize;
+    private final int maxBatchSize;
+
+    /**
+     * Whether clients can start from a round with a keyframe, rather than
+     * only from a match header.
+     */
+    private final boolean keyframeSnapshots;
+
+    /**
+     * How many clients are connected at each detail level.
+     */
+    private final AtomicIntegerArray detailCounts;
+
+    /**
+     * The most we'll keep for late joiners, in bytes; and how much we're
+     * keeping now, and have at most.
+     */
+    private final long retainLimit;
+    private long retainedBytes;
+    private long peakRetainedBytes;
+    private int droppedTails;
+
+    private final BlockingQueue<byte[][]> incomingEvents;
 
     private boolean waitForClient;
 
@@ -32,28 +132,49 @@ public class NetServer extends WebSocketServer {
 
     private Thread queueThread;
 
+    private volatile ControlListener controlListener;
+
     /**
-     * Create a new server.
+     * Create a new server, keeping everything since the latest snapshot.
      * @param port
      */
     public NetServer(int port, boolean waitForClient) {
+        this(port, waitForClient, new WebsocketConfig.Builder().build());
+    }
+
+    /**
+     * Create a new server.
+     * @param port
+     * @param config how to treat clients
+     */
+    public NetServer(int port, boolean waitForClient, WebsocketConfig config) {
         super(new InetSocketAddress(port));
 
         this.waitForClient = waitForClient;
+        this.retainLimit = config.getRetainLimit();
+        this.defaultPolicy = config.getPolicy();
+        this.defaultQueueSize = config.getQueueSize();
+        this.defaultBatchSize = config.getBatchSize();
+        this.maxQueueSize = config.getMaxQueueSize();
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.defaultDetail = config.getDetail();
+        this.keyframeSnapshots = config.isKeyframeSnapshots();
+        this.detailCounts = new AtomicIntegerArray(DetailLevel.values().length);
 
-        previousEvents = new ArrayList<>();
+        tail = new ArrayList<>();
+        clients = new LinkedHashMap<>();
         incomingEvents = new ArrayBlockingQueue<>(64);
 
         queueThread = new Thread(() -> {
             try {
                 while (!done) {
-                    byte[] event = incomingEvents.poll(300, TimeUnit.MILLISECONDS);
+                    byte[][] event = incomingEvents.poll(300, TimeUnit.MILLISECONDS);
                     if (event != null) {
                         processEvent(event);
                     }
                 }
                 while (incomingEvents.size() > 0) {
-                    byte[] event = incomingEvents.remove();
+                    byte[][] event = incomingEvents.remove();
                     processEvent(event);
                 }
             } catch(Exception e) {
@@ -73,6 +194,7 @@ public class NetServer extends WebSocketServer {
 
         queueThread.start();
         super.start();
+        EngineMetrics.netServerStarted(this);
 
         if (waitForClient) {
             System.out.println("Waiting for connection from client...");
@@ -87,17 +209,72 @@ public class NetServer extends WebSocketServer {
         }
     }
 
+    /**
+     * Pass the control messages clients send to a listener, on the
+     * websocket thread. With no listener, they're ignored.
+     */
+    public void setControlListener(ControlListener controlListener) {
+        this.controlListener = controlListener;
+    }
+
     /**
      * Add an event.
      * It will be sent to clients at some point in the future.
+     * Blocks if we're too far behind in sending events, which only happens
+     * when a client with the BLOCK policy is.
      *
      * @param event
      */
     public void addEvent(byte[] event) {
+        addEvent(new byte[][] {event});
+    }
+
+    /**
+     * Add an event that differs between detail levels.
+     * Like addEvent(byte[]), otherwise.
+     *
+     * @param variants the event at each DetailLevel, by ordinal
+     */
+    public void addEvent(byte[][] variants) {
         if (done) {
             throw new RuntimeException("Can't add event, server already finished");
         }
-        incomingEvents.add(event);
+        try {
+            incomingEvents.put(variants);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while adding event", e);
+        }
+    }
+
+    /**
+     * Note that an event was never built, because no client was connected
+     * to see it. Late joiners (and anyone who connected since) are sent
+     * nothing until the next snapshot.
+     */
+    public void skipEvent() {
+        addEvent(SKIPPED);
+    }
+
+    /**
+     * @return whether any client wants events at a detail level, and so
+     *         whether it's worth building them; always true for FULL
+     */
+    public boolean wantsDetail(DetailLevel level) {
+        return level == DetailLevel.FULL || detailCounts.get(level.ordinal()) > 0;
+    }
+
+    /**
+     * @return whether any client is connected, and so whether it's worth
+     *         building events that only clients see
+     */
+    public boolean hasClients() {
+        for (int i = 0; i < detailCounts.length(); i++) {
+            if (detailCounts.get(i) > 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -115,43 +292,325 @@ public class NetServer extends WebSocketServer {
         done = true;
         try {
             queueThread.join();
+
+            // give everyone a chance to get everything
+            final List<ClientQueue> queues;
+            synchronized (connections()) {
+                queues = new ArrayList<>(clients.values());
+            }
+            for (ClientQueue queue : queues) {
+                queue.finish();
+            }
+            for (ClientQueue queue : queues) {
+                if (!queue.join(FINISH_TIMEOUT_MILLIS)) {
+                    System.err.println("Gave up sending to "+queue.getRemoteAddress()+", "
+                            +queue.getDepth()+" events behind");
+                    queue.close();
+                }
+            }
+
             stop();
         } catch (Exception e) {
             ErrorReporter.report(e, true);
+        } finally {
+            EngineMetrics.netServerFinished(this);
         }
     }
 
     // implementation details
 
-    // Two threads: one polling websocket stuff, one awaiting queue inputs
-    // When there's a new client, we lock, all events are sent to client, we unlock
-    // When there is a queue input, we lock, all clients receive event, we unlock
-    // There may still be thread-safety issues here:
-    //
-    // onOpen
+    // Threads: one polling websocket stuff, one awaiting queue inputs, and one
+    // per client sending its queue.
+    // When there's a new client, we lock, the client's queue gets everything
+    // it needs to catch up, we unlock.
+    // When there is a queue input, we lock, keep it for late joiners and note
+    // who to send it to, we unlock, and then add it to each client's queue
+    // (which might block, for clients with the BLOCK policy).
 
-    private void processEvent(byte[] event) {
+    /**
+     * How long finish() waits for each client to be sent everything.
+     */
+    private static final long FINISH_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Stands in for an event that was never built; see skipEvent.
+     */
+    private static final byte[][] SKIPPED = new byte[0][];
+
+    void processEvent(byte[][] variants) throws InterruptedException {
+        if (variants == SKIPPED) {
+            final List<ClientQueue> queues;
+            synchronized (connections()) {
+                tail = null;
+                retainedBytes = headerBytes();
+                queues = new ArrayList<>(clients.values());
+            }
+            for (ClientQueue queue : queues) {
+                queue.skip();
+            }
+            return;
+        }
+
+        final boolean snapshot;
+        final List<ClientQueue> queues;
         synchronized (connections()) {
-            for (WebSocket client : connections()) {
-                client.send(event);
+            snapshot = retain(variants);
+            queues = new ArrayList<>(clients.values());
+        }
+
+        for (ClientQueue queue : queues) {
+            if (queue.offer(variant(variants, queue.getDetail()), snapshot)) {
+                // the snapshot is the last thing we kept, so this catches them up
+                synchronized (connections()) {
+                    catchUp(queue);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return an event at a detail level
+     */
+    static byte[] variant(byte[][] variants, DetailLevel level) {
+        return variants.length == 1 ? variants[0] : variants[level.ordinal()];
+    }
+
+    /**
+     * Queue everything we've kept for a client. If we dropped it, because
+     * the snapshot alone was over the retain limit, the client keeps
+     * waiting for the next one.
+     * Must hold the connections() lock.
+     */
+    private void catchUp(ClientQueue queue) {
+        if (tail == null) {
+            return;
+        }
+        List<byte[]> events = new ArrayList<>(tail.size());
+        for (byte[][] variants : tail) {
+            events.add(variant(variants, queue.getDetail()));
+        }
+        queue.catchUp(gameHeader, matchHeader, events);
+    }
+
+    /**
+     * @return the type of an event, from battlecode.schema.Event
+     */
+    static byte eventType(byte[] event) {
+        return EventWrapper.getRootAsEventWrapper(ByteBuffer.wrap(event)).eType();
+    }
+
+    /**
+     * Keep an event for late joiners, if we need to.
+     * Must hold the connections() lock.
+     *
+     * @return whether the event is a snapshot
+     */
+    boolean retain(byte[] event) {
+        return retain(new byte[][] {event});
+    }
+
+    /**
+     * Keep an event, at every detail level, for late joiners.
+     * Must hold the connections() lock.
+     *
+     * @return whether the event is a snapshot
+     */
+    boolean retain(byte[][] variants) {
+        // every level has the same headers and keyframes
+        byte[] event = variant(variants, DetailLevel.FULL);
+        EventWrapper wrapper = EventWrapper.getRootAsEventWrapper(ByteBuffer.wrap(event));
+        switch (wrapper.eType()) {
+            case Event.GameHeader:
+                gameHeader = event;
+                matchHeader = null;
+                startTail(null);
+                return true;
+            case Event.MatchHeader:
+                matchHeader = event;
+                startTail(null);
+                return true;
+            case Event.Round:
+                if (!keyframeSnapshots) {
+                    break;
+                }
+                Round round = (Round) wrapper.e(new Round());
+                if (round.keyframe(new Keyframe()) != null) {
+                    startTail(variants);
+                    return true;
+                }
+                break;
+        }
+
+        if (tail != null) {
+            tail.add(variants);
+            retainedBytes += size(variants);
+            checkRetainLimit();
+        }
+        return false;
+    }
+
+    /**
+     * Forget the old tail and start a new one, from a snapshot.
+     */
+    private void startTail(byte[][] snapshot) {
+        tail = new ArrayList<>();
+        retainedBytes = headerBytes();
+        if (snapshot != null) {
+            tail.add(snapshot);
+            retainedBytes += size(snapshot);
+        }
+        checkRetainLimit();
+    }
+
+    /**
+     * @return the bytes in an event's variants, counting each array once
+     */
+    private static long size(byte[][] variants) {
+        long size = 0;
+        for (int i = 0; i < variants.length; i++) {
+            boolean seen = false;
+            for (int j = 0; j < i && !seen; j++) {
+                seen = variants[j] == variants[i];
+            }
+            if (!seen) {
+                size += variants[i].length;
             }
-            previousEvents.add(event);
         }
+        return size;
+    }
+
+    private void checkRetainLimit() {
+        peakRetainedBytes = Math.max(peakRetainedBytes, retainedBytes);
+        // the headers are kept whatever the limit, so it's never less
+        if (retainedBytes > Math.max(retainLimit, headerBytes())) {
+            // can't keep everything; wait for the next snapshot, which
+            // without keyframe snapshots is the next match header
+            tail = null;
+            droppedTails++;
+            retainedBytes = headerBytes();
+        }
+    }
+
+    private long headerBytes() {
+        return (gameHeader != null ? gameHeader.length : 0)
+                + (matchHeader != null ? matchHeader.length : 0);
     }
 
     @Override
     public void onOpen(WebSocket client, ClientHandshake handshake) {
-        synchronized (connections()) {
-            connected = true;
+        final ClientQueue queue;
+        try {
+            Map<String, String> params = parseQuery(handshake.getResourceDescriptor());
+            ClientQueue.Policy policy = params.containsKey("policy")
+                    ? ClientQueue.Policy.valueOf(params.get("policy").toUpperCase())
+                    : defaultPolicy;
+            int queueSize = sizeParam(params, "queue", defaultQueueSize, maxQueueSize);
+            int batchSize = sizeParam(params, "batch", defaultBatchSize, maxBatchSize);
+            DetailLevel detail = params.containsKey("detail")
+                    ? DetailLevel.valueOf(params.get("detail").toUpperCase())
+                    : defaultDetail;
+
+            synchronized (connections()) {
+                queue = new ClientQueue(client, policy, queueSize, batchSize, tail == null, detail);
+                if (tail != null) {
+                    catchUp(queue);
+                }
+                clients.put(client, queue);
+                detailCounts.incrementAndGet(detail.ordinal());
+                connected = true;
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Bad connection request from "+client.getRemoteSocketAddress()
+                    +": "+handshake.getResourceDescriptor()+": "+e.getMessage());
+            client.close(1008, "Bad connection request");
+            return;
+        }
+        queue.start();
+    }
 
-            for (byte[] event : previousEvents) {
-                client.send(event);
+    /**
+     * @return the size a client asked for, at most max; or the default, if
+     *         it didn't ask
+     */
+    static int sizeParam(Map<String, String> params, String key, int defaultSize, int max) {
+        return params.containsKey(key)
+                ? Math.min(Integer.parseInt(params.get(key)), max)
+                : defaultSize;
+    }
+
+    /**
+     * @return the parameters of a query string like /?a=b&c=d
+     */
+    static Map<String, String> parseQuery(String resource) {
+        Map<String, String> params = new HashMap<>();
+        int query = resource != null ? resource.indexOf('?') : -1;
+        if (query < 0) {
+            return params;
+        }
+        for (String param : resource.substring(query + 1).split("&")) {
+            int equals = param.indexOf('=');
+            if (equals > 0) {
+                params.put(param.substring(0, equals), param.substring(equals + 1));
             }
         }
+        return params;
+    }
+
+    /**
+     * @return the queues of the connected clients, for their depth, lag and
+     *         so on
+     */
+    public List<ClientQueue> getClients() {
+        synchronized (connections()) {
+            return new ArrayList<>(clients.values());
+        }
+    }
+
+    /**
+     * @return how many events are waiting to be handed to clients' queues
+     */
+    public int getIncomingDepth() {
+        return incomingEvents.size();
+    }
+
+    /**
+     * @return how many bytes of events we're keeping for late joiners
+     */
+    public long getRetainedBytes() {
+        synchronized (connections()) {
+            return retainedBytes;
+        }
+    }
+
+    /**
+     * @return the most bytes of events we've kept for late joiners at once
+     */
+    public long getPeakRetainedBytes() {
+        synchronized (connections()) {
+            return peakRetainedBytes;
+        }
+    }
+
+    /**
+     * @return how many times we've gone over the retain limit and had to
+     *         drop the events since the latest snapshot
+     */
+    public int getDroppedTails() {
+        synchronized (connections()) {
+            return droppedTails;
+        }
     }
 
     @Override
     public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        final ClientQueue queue;
+        synchronized (connections()) {
+            queue = clients.remove(conn);
+        }
+        if (queue != null) {
+            detailCounts.decrementAndGet(queue.getDetail().ordinal());
+            queue.close();
+        }
         System.out.println("Closed: "+conn.getRemoteSocketAddress() + " for "+reason);
     }
 
@@ -161,10 +620,48 @@ public class NetServer extends WebSocketServer {
                 ws.getRemoteSocketAddress()+": `"+s+"`");
     }
 
+    @Override
+    public void onMessage(WebSocket ws, ByteBuffer message) {
+        Control control = readControl(ws, message);
+        if (control == null) {
+            return;
+        }
+
+        ControlListener listener = controlListener;
+        if (listener == null) {
+            System.err.println("Ignoring "+ControlCommand.name(control.command())+" from "
+                    +ws.getRemoteSocketAddress()+", the server isn't interactive");
+            return;
+        }
+        listener.control(control.command(), control.argument());
+    }
+
+    /**
+     * Decode a control message from a client.
+     *
+     * @return the message, or null (having complained) if it's no good
+     */
+    static Control readControl(WebSocket ws, ByteBuffer message) {
+        final Control control;
+        try {
+            control = Control.getRootAsControl(message);
+            control.argument();
+        } catch (RuntimeException e) {
+            System.err.println("Bad control message from "+ws.getRemoteSocketAddress()+": "+e);
+            return null;
+        }
+        if (control.command() < 0 || control.command() >= ControlCommand.names.length) {
+            System.err.println("Unknown control command from "+ws.getRemoteSocketAddress()+": "+control.command());
+            return null;
+        }
+        return control;
+    }
+
     @Override
     public void onError(WebSocket conn, Exception ex) {
         if (!(ex instanceof ClosedByInterruptException)) {
-            System.err.println("Error from: "+conn.getRemoteSocketAddress()+": "+ex);
+            // conn is null for errors in the server itself, e.g. a taken port
+            System.err.println("Error from: "+(conn != null ? conn.getRemoteSocketAddress() : "server")+": "+ex);
         }
     }
 }
@@ -0,0 +1,174 @@
+package battlecode.server;
+
+/**
+ * How a GameMaker records a game: what goes into the saved replay, and
+ * what websocket clients are sent. Immutable, so one can be shared between
+ * games.
+ *
+ * Build one with a Builder, or read one from a Config (as Server does).
+ * A Builder starts from a plain replay: no seek index, no keyframes, and
+ * rounds written the usual way.
+ */
+public class ReplayConfig {
+
+    private final boolean saveIndex;
+    private final int keyframeInterval;
+    private final boolean compact;
+    private final int bytecodeQuantum;
+    private final boolean resultOnly;
+    private final int clientKeyframeInterval;
+
+    private ReplayConfig(Builder builder) {
+        this.saveIndex = builder.saveIndex;
+        this.keyframeInterval = builder.keyframeInterval;
+        this.compact = builder.compact;
+        this.bytecodeQuantum = builder.bytecodeQuantum;
+        this.resultOnly = builder.resultOnly;
+        this.clientKeyframeInterval = builder.clientKeyframeInterval;
+    }
+
+    /**
+     * Read how to record games from a config's bc.server.save-index,
+     * keyframe-interval, compact-replay, compact-bytecode-quantum and
+     * websocket-keyframe-interval.
+     *
+     * @param options the config to read
+     * @return how the config says to record games
+     */
+    public static ReplayConfig fromConfig(Config options) {
+        return new Builder()
+                .saveIndex(options.getBoolean("bc.server.save-index"))
+                .keyframeInterval(options.getInt("bc.server.keyframe-interval"))
+                .compact(options.getBoolean("bc.server.compact-replay"),
+                        options.getInt("bc.server.compact-bytecode-quantum"))
+                .clientKeyframeInterval(options.getInt("bc.server.websocket-keyframe-interval"))
+                .build();
+    }
+
+    /**
+     * @return whether to save the game with a seek index
+     */
+    public boolean isSaveIndex() {
+        return saveIndex;
+    }
+
+    /**
+     * @return how often to write a keyframe, in rounds; 0 for never
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * @return whether to save rounds in the compact encoding (the client is
+     *         always sent the usual one)
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * @return what bytecode counts are rounded to a multiple of, in compact
+     *         replays; 1 if they're kept exact
+     */
+    public int getBytecodeQuantum() {
+        return bytecodeQuantum;
+    }
+
+    /**
+     * @return whether to skip recording the game entirely; it can't then
+     *         be sent or saved
+     */
+    public boolean isResultOnly() {
+        return resultOnly;
+    }
+
+    /**
+     * @return how often to send the client a keyframe, in rounds,
+     *         independent of the file; 0 for never
+     */
+    public int getClientKeyframeInterval() {
+        return clientKeyframeInterval;
+    }
+
+    /**
+     * Builds ReplayConfigs. Not thread safe, but what it builds is.
+     */
+    public static class Builder {
+        private boolean saveIndex;
+        private int keyframeInterval;
+        private boolean compact;
+        private int bytecodeQuantum = 1;
+        private boolean resultOnly;
+        private int clientKeyframeInterval;
+
+        /**
+         * @param saveIndex whether to save the game with a seek index
+         */
+        public Builder saveIndex(boolean saveIndex) {
+            this.saveIndex = saveIndex;
+            return this;
+        }
+
+        /**
+         * @param keyframeInterval how often to write a keyframe, in rounds;
+         *                         0 (the default) for never
+         */
+        public Builder keyframeInterval(int keyframeInterval) {
+            this.keyframeInterval = keyframeInterval;
+            return this;
+        }
+
+        /**
+         * @param compact whether to save rounds in the compact encoding
+         * @param bytecodeQuantum in compact replays, bytecode counts are
+         *                        rounded to a multiple of this; 1 to keep
+         *                        them exact
+         */
+        public Builder compact(boolean compact, int bytecodeQuantum) {
+            this.compact = compact;
+            this.bytecodeQuantum = bytecodeQuantum;
+            return this;
+        }
+
+        /**
+         * @param resultOnly whether to skip recording the game entirely;
+         *                   then nothing else can be set
+         */
+        public Builder resultOnly(boolean resultOnly) {
+            this.resultOnly = resultOnly;
+            return this;
+        }
+
+        /**
+         * @param clientKeyframeInterval how often to send the client a
+         *                               keyframe, in rounds; 0 (the
+         *                               default) for never
+         */
+        public Builder clientKeyframeInterval(int clientKeyframeInterval) {
+            this.clientKeyframeInterval = clientKeyframeInterval;
+            return this;
+        }
+
+        /**
+         * @throws RuntimeException if a setting is out of range, or a
+         *                          result-only game is set to record
+         *                          anything
+         */
+        public ReplayConfig build() {
+            if (resultOnly && (saveIndex || keyframeInterval != 0 || compact)) {
+                throw new RuntimeException("Result-only games can't be indexed, keyframed or compacted");
+            }
+            if (keyframeInterval < 0) {
+                throw new RuntimeException("Invalid keyframe interval: "+keyframeInterval);
+            }
+            if (clientKeyframeInterval < 0) {
+                throw new RuntimeException("Invalid client keyframe interval: "+clientKeyframeInterval);
+            }
+            if (bytecodeQuantum < 1) {
+                throw new RuntimeException("Invalid bytecode quantum: "+bytecodeQuantum);
+            }
+            return new ReplayConfig(this);
+        }
+    }
+}
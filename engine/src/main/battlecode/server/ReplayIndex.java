@@ -0,0 +1,439 @@
+package battlecode.server;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A seek table for a saved game, mapping (match, round) to the bytes of
+ * the corresponding event in the uncompressed GameWrapper.
+ *
+ * An indexed replay is still a valid gzip file, and still decompresses to a
+ * GameWrapper; it's just written as a series of independent gzip members:
+ *
+ *   - one member per BLOCK_SIZE bytes of the uncompressed GameWrapper
+ *   - one member holding this index (which decompresses to junk after the
+ *     GameWrapper, which flatbuffer readers never look at)
+ *   - a fixed-size, empty trailer member whose header points at the index
+ *
+ * That way ReplayReader can find the index from the end of the file, then
+ * inflate only the blocks an event actually lives in.
+ *
+ * Only works if every event is a self-contained flatbuffer, which GameMaker
+ * takes care of when it's asked to index.
+ */
+public final class ReplayIndex {
+
+    /**
+     * Uncompressed bytes per gzip member.
+     */
+    public static final int BLOCK_SIZE = 1 << 16;
+
+    /**
+     * Identifies the index member, and the subfield in the trailer header.
+     */
+    private static final int MAGIC = 0x42433230; // "BC20"
+    private static final int VERSION = 1;
+    private static final byte SUBFIELD_1 = 'B';
+    private static final byte SUBFIELD_2 = 'I';
+
+    /**
+     * Size of the trailer: a gzip header with one 12-byte extra subfield,
+     * an empty deflate stream, and the gzip footer.
+     */
+    static final int TRAILER_SIZE = 10 + 2 + 4 + 12 + 2 + 8;
+
+    /**
+     * Where one event lives in the uncompressed game.
+     * While GameMaker is still writing, starts are counted backwards from the
+     * end of its builder; resolve() turns them into real positions.
+     */
+    private static final class Entries {
+        final TIntArrayList starts = new TIntArrayList();
+        final TIntArrayList lengths = new TIntArrayList();
+
+        void add(int start, int length) {
+            starts.add(start);
+            lengths.add(length);
+        }
+    }
+
+    /**
+     * The events of a single match.
+     */
+    private static final class MatchEntry {
+        final Entries header = new Entries();
+        final Entries footer = new Entries();
+        final Entries rounds = new Entries();
+        int firstRound;
+    }
+
+    private final List<MatchEntry> matches;
+
+    /**
+     * The game's header and footer; empty until they're recorded.
+     */
+    private final Entries gameHeader;
+    private final Entries gameFooter;
+
+    /**
+     * Compressed offsets of each block's gzip member; only known once written
+     * (or read).
+     */
+    private final TLongArrayList blockOffsets;
+
+    /**
+     * Offset of the index member itself, i.e. the end of the last block.
+     */
+    private long indexOffset;
+
+    /**
+     * Length of the uncompressed GameWrapper.
+     */
+    private int gameLength;
+
+    public ReplayIndex() {
+        this.matches = new ArrayList<>();
+        this.gameHeader = new Entries();
+        this.gameFooter = new Entries();
+        this.blockOffsets = new TLongArrayList();
+    }
+
+    // ******************************
+    // ***** WRITING ****************
+    // ******************************
+
+    public void addGameHeader(int start, int length) {
+        gameHeader.add(start, length);
+    }
+
+    public void addGameFooter(int start, int length) {
+        gameFooter.add(start, length);
+    }
+
+    public void addMatchHeader(int start, int length) {
+        MatchEntry match = new MatchEntry();
+        match.header.add(start, length);
+        matches.add(match);
+    }
+
+    public void addRound(int roundNum, int start, int length) {
+        MatchEntry match = currentMatch();
+        if (match.rounds.starts.isEmpty()) {
+            match.firstRound = roundNum;
+        } else if (roundNum != match.firstRound + match.rounds.starts.size()) {
+            throw new RuntimeException("Can't index non-consecutive round "+roundNum);
+        }
+        match.rounds.add(start, length);
+    }
+
+    public void addMatchFooter(int start, int length) {
+        currentMatch().footer.add(start, length);
+    }
+
+    private MatchEntry currentMatch() {
+        if (matches.isEmpty()) {
+            throw new RuntimeException("Can't index an event outside of a match");
+        }
+        return matches.get(matches.size() - 1);
+    }
+
+    /**
+     * Convert offsets from the end of a finished builder into positions in
+     * its sized byte array.
+     *
+     * @param gameLength the length of the finished buffer
+     */
+    public void resolve(int gameLength) {
+        this.gameLength = gameLength;
+        resolve(gameHeader);
+        resolve(gameFooter);
+        for (MatchEntry match : matches) {
+            for (Entries entries : new Entries[] {match.header, match.footer, match.rounds}) {
+                resolve(entries);
+            }
+        }
+    }
+
+    private void resolve(Entries entries) {
+        for (int i = 0; i < entries.starts.size(); i++) {
+            entries.starts.set(i, gameLength - entries.starts.get(i));
+        }
+    }
+
+    /**
+     * Write a game as an indexed, block-compressed replay.
+     *
+     * @param game the uncompressed GameWrapper
+     * @param out the stream to write to
+     */
+    public void write(byte[] game, OutputStream out) throws IOException {
+        if (game.length != gameLength) {
+            throw new RuntimeException("Index was resolved against a different game");
+        }
+
+        CountingOutputStream counter = new CountingOutputStream(out);
+
+        blockOffsets.clear();
+        for (int start = 0; start < game.length; start += BLOCK_SIZE) {
+            blockOffsets.add(counter.count);
+            writeMember(counter, game, start, Math.min(BLOCK_SIZE, game.length - start), null);
+        }
+
+        indexOffset = counter.count;
+        byte[] index = toBytes();
+        writeMember(counter, index, 0, index.length, null);
+
+        ByteArrayOutputStream extra = new ByteArrayOutputStream();
+        DataOutputStream extraData = new DataOutputStream(extra);
+        extraData.writeLong(indexOffset);
+        extraData.writeInt(MAGIC);
+        writeMember(counter, new byte[0], 0, 0, extra.toByteArray());
+
+        counter.flush();
+    }
+
+    private byte[] toBytes() throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(result);
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(BLOCK_SIZE);
+        data.writeInt(gameLength);
+        data.writeInt(blockOffsets.size());
+        for (int i = 0; i < blockOffsets.size(); i++) {
+            data.writeLong(blockOffsets.get(i));
+        }
+        data.writeInt(matches.size());
+        for (MatchEntry match : matches) {
+            writeEntry(data, match.header);
+            writeEntry(data, match.footer);
+            data.writeInt(match.firstRound);
+            data.writeInt(match.rounds.starts.size());
+            for (int i = 0; i < match.rounds.starts.size(); i++) {
+                data.writeInt(match.rounds.starts.get(i));
+                data.writeInt(match.rounds.lengths.get(i));
+            }
+        }
+        writeEntry(data, gameHeader);
+        writeEntry(data, gameFooter);
+        data.flush();
+        return result.toByteArray();
+    }
+
+    private static void writeEntry(DataOutputStream data, Entries entries) throws IOException {
+        if (entries.starts.size() != 1) {
+            throw new RuntimeException("Game or match is missing its header or footer");
+        }
+        data.writeInt(entries.starts.get(0));
+        data.writeInt(entries.lengths.get(0));
+    }
+
+    /**
+     * Write a single gzip member (RFC 1952), optionally with one extra subfield.
+     */
+    private static void writeMember(OutputStream out, byte[] data, int start, int length,
+                                    byte[] extra) throws IOException {
+        out.write(new byte[] {
+                0x1f, (byte) 0x8b,           // magic
+                Deflater.DEFLATED,           // method
+                (byte) (extra != null ? 4 : 0), // flags: FEXTRA
+                0, 0, 0, 0,                  // mtime
+                0,                           // xfl
+                (byte) 0xff                  // os: unknown
+        });
+        if (extra != null) {
+            writeShortLE(out, extra.length + 4);
+            out.write(SUBFIELD_1);
+            out.write(SUBFIELD_2);
+            writeShortLE(out, extra.length);
+            out.write(extra);
+        }
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data, start, length);
+        deflater.finish();
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        deflater.end();
+
+        CRC32 crc = new CRC32();
+        crc.update(data, start, length);
+        writeIntLE(out, (int) crc.getValue());
+        writeIntLE(out, length);
+    }
+
+    private static void writeShortLE(OutputStream out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+    }
+
+    private static void writeIntLE(OutputStream out, int value) throws IOException {
+        writeShortLE(out, value & 0xffff);
+        writeShortLE(out, (value >> 16) & 0xffff);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    // ******************************
+    // ***** READING ****************
+    // ******************************
+
+    /**
+     * Find the index offset in a replay's trailer.
+     *
+     * @param trailer the last TRAILER_SIZE bytes of the file
+     * @return the offset of the index member, or -1 if the replay isn't indexed
+     */
+    static long readTrailer(byte[] trailer) throws IOException {
+        if (trailer.length != TRAILER_SIZE
+                || trailer[0] != 0x1f || trailer[1] != (byte) 0x8b
+                || (trailer[3] & 4) == 0
+                || trailer[12] != SUBFIELD_1 || trailer[13] != SUBFIELD_2) {
+            return -1;
+        }
+        DataInputStream extra = new DataInputStream(new ByteArrayInputStream(trailer, 16, 12));
+        long indexOffset = extra.readLong();
+        return extra.readInt() == MAGIC ? indexOffset : -1;
+    }
+
+    /**
+     * Parse an inflated index member.
+     *
+     * @param index the inflated index
+     * @param indexOffset where the index member starts in the file
+     */
+    static ReplayIndex read(byte[] index, long indexOffset) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(index));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Unsupported replay index");
+        }
+        if (data.readInt() != VERSION || data.readInt() != BLOCK_SIZE) {
+            throw new IOException("Unsupported replay index");
+        }
+
+        ReplayIndex result = new ReplayIndex();
+        result.indexOffset = indexOffset;
+        result.gameLength = data.readInt();
+        int blocks = data.readInt();
+        for (int i = 0; i < blocks; i++) {
+            result.blockOffsets.add(data.readLong());
+        }
+        int matches = data.readInt();
+        for (int m = 0; m < matches; m++) {
+            MatchEntry match = new MatchEntry();
+            match.header.add(data.readInt(), data.readInt());
+            match.footer.add(data.readInt(), data.readInt());
+            match.firstRound = data.readInt();
+            int rounds = data.readInt();
+            for (int i = 0; i < rounds; i++) {
+                match.rounds.add(data.readInt(), data.readInt());
+            }
+            result.matches.add(match);
+        }
+        result.gameHeader.add(data.readInt(), data.readInt());
+        result.gameFooter.add(data.readInt(), data.readInt());
+        return result;
+    }
+
+    public int getMatchCount() {
+        return matches.size();
+    }
+
+    public int getFirstRound(int match) {
+        return matches.get(match).firstRound;
+    }
+
+    public int getRoundCount(int match) {
+        return matches.get(match).rounds.starts.size();
+    }
+
+    /**
+     * @return {start, length} of the round's event, or null if it wasn't recorded
+     */
+    int[] getRound(int match, int round) {
+        Entries rounds = matches.get(match).rounds;
+        int i = round - matches.get(match).firstRound;
+        if (i < 0 || i >= rounds.starts.size()) {
+            return null;
+        }
+        return new int[] {rounds.starts.get(i), rounds.lengths.get(i)};
+    }
+
+    /**
+     * @return {start, length} of the game header, or null if it hasn't
+     *         been recorded yet
+     */
+    int[] getGameHeader() {
+        return gameHeader.starts.isEmpty() ? null
+                : new int[] {gameHeader.starts.get(0), gameHeader.lengths.get(0)};
+    }
+
+    /**
+     * @return {start, length} of the game footer, or null if it hasn't
+     *         been recorded yet
+     */
+    int[] getGameFooter() {
+        return gameFooter.starts.isEmpty() ? null
+                : new int[] {gameFooter.starts.get(0), gameFooter.lengths.get(0)};
+    }
+
+    int[] getMatchHeader(int match) {
+        Entries header = matches.get(match).header;
+        return new int[] {header.starts.get(0), header.lengths.get(0)};
+    }
+
+    int[] getMatchFooter(int match) {
+        Entries footer = matches.get(match).footer;
+        return new int[] {footer.starts.get(0), footer.lengths.get(0)};
+    }
+
+    int getBlockCount() {
+        return blockOffsets.size();
+    }
+
+    /**
+     * @return the compressed offset of a block's member
+     */
+    long getBlockStart(int block) {
+        return blockOffsets.get(block);
+    }
+
+    /**
+     * @return the compressed offset just past a block's member
+     */
+    long getBlockEnd(int block) {
+        return block + 1 < blockOffsets.size() ? blockOffsets.get(block + 1) : indexOffset;
+    }
+
+    long getIndexOffset() {
+        return indexOffset;
+    }
+}
@@ -0,0 +1,407 @@
+package battlecode.server;
+
+import battlecode.schema.*;
+import gnu.trove.list.array.TIntArrayList;
+import org.apache.commons.io.IOUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads individual events out of a saved game.
+ *
+ * If the replay was saved with a seek index (bc.server.save-index), only
+ * the blocks containing the requested event are read and inflated, so
+ * reading round 2500 of match 3 costs the same as reading round 1.
+ *
+ * Replays without an index still work; they're inflated in full once, when
+ * opened.
+ *
+ * The file is memory-mapped, so readers of the same replay share its pages,
+ * and only the blocks being read (plus the index) take up heap.
+ *
+ * Not thread safe.
+ */
+public class ReplayReader implements Closeable {
+
+    private final FileChannel channel;
+
+    /**
+     * The whole (compressed) file.
+     */
+    private final MappedByteBuffer file;
+
+    /**
+     * The index of the replay, or null if it doesn't have one.
+     */
+    private final ReplayIndex index;
+
+    /**
+     * For unindexed replays: the whole game, and which events are where.
+     * (We don't trust GameWrapper.matchHeaders / matchFooters; GameMaker
+     * writes them with offsetVector, so they aren't plain event indices.)
+     */
+    private final GameWrapper wrapper;
+    private final TIntArrayList headerEvents;
+    private final TIntArrayList footerEvents;
+    private final List<TIntArrayList> roundEvents;
+    private final TIntArrayList firstRounds;
+
+    /**
+     * For indexed replays: the last run of blocks we inflated, since
+     * consecutive events are usually in the same block.
+     */
+    private int cachedFirstBlock = -1;
+    private int cachedLastBlock = -1;
+    private byte[] cachedBlocks;
+
+    private ReplayReader(FileChannel channel, MappedByteBuffer file, ReplayIndex index, GameWrapper wrapper) {
+        this.channel = channel;
+        this.file = file;
+        this.index = index;
+        this.wrapper = wrapper;
+        this.headerEvents = new TIntArrayList();
+        this.footerEvents = new TIntArrayList();
+        this.roundEvents = new ArrayList<>();
+        this.firstRounds = new TIntArrayList();
+
+        if (wrapper != null) {
+            EventWrapper event = new EventWrapper();
+            Round round = new Round();
+            for (int e = 0; e < wrapper.eventsLength(); e++) {
+                switch (wrapper.events(event, e).eType()) {
+                    case Event.MatchHeader:
+                        headerEvents.add(e);
+                        roundEvents.add(new TIntArrayList());
+                        firstRounds.add(0);
+                        break;
+                    case Event.Round:
+                        TIntArrayList rounds = roundEvents.get(roundEvents.size() - 1);
+                        if (rounds.isEmpty()) {
+                            firstRounds.set(firstRounds.size() - 1, ((Round) event.e(round)).roundID());
+                        }
+                        rounds.add(e);
+                        break;
+                    case Event.MatchFooter:
+                        footerEvents.add(e);
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Open a saved game.
+     *
+     * @param file the .bc20 file
+     * @return a reader for the file
+     * @throws IOException if the file can't be read
+     */
+    public static ReplayReader open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // can't be a valid game anyway: flatbuffers are under 2GB uncompressed
+                throw new IOException("Replay is too big: "+size+" bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (size > ReplayIndex.TRAILER_SIZE) {
+                long indexOffset = ReplayIndex.readTrailer(
+                        read(mapped, size - ReplayIndex.TRAILER_SIZE, size));
+                if (indexOffset >= 0) {
+                    byte[] index = inflate(mapped, indexOffset, size - ReplayIndex.TRAILER_SIZE);
+                    return new ReplayReader(channel, mapped, ReplayIndex.read(index, indexOffset), null);
+                }
+            }
+
+            byte[] game = inflate(mapped, 0, size);
+            return new ReplayReader(channel, mapped, null,
+                    GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(game)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return whether the replay has a seek index
+     */
+    public boolean isIndexed() {
+        return index != null;
+    }
+
+    /**
+     * @return the number of matches in the replay
+     */
+    public int getMatchCount() {
+        return index != null ? index.getMatchCount() : roundEvents.size();
+    }
+
+    /**
+     * @return the number of the first round recorded for a match
+     */
+    public int getFirstRound(int match) {
+        return index != null ? index.getFirstRound(match) : firstRounds.get(match);
+    }
+
+    /**
+     * @return the number of rounds recorded for a match
+     */
+    public int getRoundCount(int match) {
+        return index != null ? index.getRoundCount(match) : roundEvents.get(match).size();
+    }
+
+    /**
+     * Read the header of a match.
+     *
+     * @param match the index of the match in the game
+     */
+    public MatchHeader readMatchHeader(int match) throws IOException {
+        EventWrapper event = index != null
+                ? readIndexedEvent(index.getMatchHeader(match))
+                : wrapper.events(headerEvents.get(match));
+        return (MatchHeader) event.e(new MatchHeader());
+    }
+
+    /**
+     * Read the footer of a match.
+     *
+     * @param match the index of the match in the game
+     */
+    public MatchFooter readMatchFooter(int match) throws IOException {
+        EventWrapper event = index != null
+                ? readIndexedEvent(index.getMatchFooter(match))
+                : wrapper.events(footerEvents.get(match));
+        return (MatchFooter) event.e(new MatchFooter());
+    }
+
+    /**
+     * Read a single round.
+     *
+     * @param match the index of the match in the game
+     * @param round the round number, as in Round.roundID
+     * @return the round, or null if it wasn't recorded
+     */
+    public Round readRound(int match, int round) throws IOException {
+        final EventWrapper event;
+        if (index != null) {
+            int[] location = index.getRound(match, round);
+            if (location == null) {
+                return null;
+            }
+            event = readIndexedEvent(location);
+        } else {
+            int i = round - firstRounds.get(match);
+            TIntArrayList rounds = roundEvents.get(match);
+            if (i < 0 || i >= rounds.size()) {
+                return null;
+            }
+            event = wrapper.events(rounds.get(i));
+        }
+        return (Round) event.e(new Round());
+    }
+
+    /**
+     * Read the game header as a standalone EventWrapper, to send as is.
+     * Only works on indexed replays.
+     */
+    public byte[] readGameHeaderEvent() throws IOException {
+        return readIndexedEventBytes(requireIndex().getGameHeader());
+    }
+
+    /**
+     * Read a match header as a standalone EventWrapper, to send as is.
+     * Only works on indexed replays.
+     *
+     * @param match the index of the match in the game
+     */
+    public byte[] readMatchHeaderEvent(int match) throws IOException {
+        return readIndexedEventBytes(requireIndex().getMatchHeader(match));
+    }
+
+    /**
+     * Read a round as a standalone EventWrapper, to send as is.
+     * Only works on indexed replays.
+     *
+     * @param match the index of the match in the game
+     * @param round the round number, as in Round.roundID
+     * @return the event, or null if the round wasn't recorded
+     */
+    public byte[] readRoundEvent(int match, int round) throws IOException {
+        int[] location = requireIndex().getRound(match, round);
+        return location != null ? readIndexedEventBytes(location) : null;
+    }
+
+    /**
+     * Read a match footer as a standalone EventWrapper, to send as is.
+     * Only works on indexed replays.
+     *
+     * @param match the index of the match in the game
+     */
+    public byte[] readMatchFooterEvent(int match) throws IOException {
+        return readIndexedEventBytes(requireIndex().getMatchFooter(match));
+    }
+
+    /**
+     * Read the game footer as a standalone EventWrapper, to send as is.
+     * Only works on indexed replays.
+     */
+    public byte[] readGameFooterEvent() throws IOException {
+        return readIndexedEventBytes(requireIndex().getGameFooter());
+    }
+
+    /**
+     * @return whether the replay's events can be read as standalone events
+     */
+    public boolean hasStandaloneEvents() {
+        return index != null;
+    }
+
+    private ReplayIndex requireIndex() throws IOException {
+        if (index == null) {
+            // events built straight into the file can't be pulled out on their own
+            throw new IOException("Only replays saved with bc.server.save-index can be read as events");
+        }
+        return index;
+    }
+
+    /**
+     * Find the closest keyframe at or before a round, so that a viewer can
+     * start from there and apply only the rounds after it.
+     * Reads at most bc.server.keyframe-interval rounds, if keyframes were saved.
+     *
+     * @param match the index of the match in the game
+     * @param round the round number to seek to
+     * @return the number of the round holding the keyframe, or 0 if there's
+     *         none and the viewer has to start from the match header
+     */
+    public int findKeyframeRound(int match, int round) throws IOException {
+        int first = getFirstRound(match);
+        int last = first + getRoundCount(match) - 1;
+        Keyframe keyframe = new Keyframe();
+        for (int i = Math.min(round, last); i >= first; i--) {
+            Round r = readRound(match, i);
+            if (r == null) {
+                throw new IOException("Replay is missing round "+i+" of match "+match+"; is it truncated?");
+            }
+            if (r.keyframe(keyframe) != null) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Inflate just the blocks an event spans, and decode it.
+     *
+     * @param location {start, length} of the event in the uncompressed game
+     */
+    private EventWrapper readIndexedEvent(int[] location) throws IOException {
+        byte[] blocks = inflateBlocks(location);
+        int offset = location[0] % ReplayIndex.BLOCK_SIZE;
+        return EventWrapper.getRootAsEventWrapper(ByteBuffer.wrap(blocks, offset, location[1]).slice());
+    }
+
+    /**
+     * Inflate just the blocks an event spans, and copy it out.
+     *
+     * @param location {start, length} of the event in the uncompressed game
+     */
+    private byte[] readIndexedEventBytes(int[] location) throws IOException {
+        byte[] blocks = inflateBlocks(location);
+        int offset = location[0] % ReplayIndex.BLOCK_SIZE;
+        byte[] event = new byte[location[1]];
+        System.arraycopy(blocks, offset, event, 0, event.length);
+        return event;
+    }
+
+    /**
+     * @param location {start, length} of an event in the uncompressed game,
+     *                 or null if the index is missing it
+     * @return the inflated blocks it spans, starting with the block it starts in
+     */
+    private byte[] inflateBlocks(int[] location) throws IOException {
+        if (location == null) {
+            throw new IOException("Replay index has no location for a header or footer; it's corrupt");
+        }
+        int start = location[0];
+        int length = location[1];
+        int firstBlock = start / ReplayIndex.BLOCK_SIZE;
+        int lastBlock = (start + length - 1) / ReplayIndex.BLOCK_SIZE;
+        if (lastBlock >= index.getBlockCount()) {
+            throw new IOException("Replay index points past the end of the game");
+        }
+
+        if (firstBlock != cachedFirstBlock || lastBlock != cachedLastBlock) {
+            // a new array, not a reused one; earlier events may still point into the old one
+            cachedBlocks = inflate(file, index.getBlockStart(firstBlock), index.getBlockEnd(lastBlock));
+            cachedFirstBlock = firstBlock;
+            cachedLastBlock = lastBlock;
+        }
+        return cachedBlocks;
+    }
+
+    private static byte[] read(MappedByteBuffer file, long start, long end) {
+        ByteBuffer range = file.duplicate();
+        range.limit((int) end).position((int) start);
+        byte[] result = new byte[range.remaining()];
+        range.get(result);
+        return result;
+    }
+
+    /**
+     * Inflate a run of whole gzip members.
+     */
+    private static byte[] inflate(MappedByteBuffer file, long start, long end) throws IOException {
+        ByteBuffer range = file.duplicate();
+        range.limit((int) end).position((int) start);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        IOUtils.copy(new GZIPInputStream(new ByteBufferInputStream(range)), result);
+        return result.toByteArray();
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer; GZIPInputStream can't wander
+     * past its limit into the next member.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package battlecode.server;
+
+import battlecode.schema.Control;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serve saved games over websocket connections, in the same format as
+ * NetServer: one battlecode event per message (or size-prefixed batches,
+ * if asked for).
+ *
+ * Unlike NetServer, every client gets its own stream (see ReplayStream),
+ * which it can pause, step and seek with Control messages. Serving a
+ * directory, clients pick a replay in it when connecting, e.g.
+ * ws://host:6175/?replay=finals.bc20&batch=8&paused=true. Like NetServer,
+ * clients can ask for a queue or batch size up to the server's maximums.
+ *
+ * Only replays saved with bc.server.save-index can be streamed: their events
+ * can be read one at a time, without inflating the whole game. They're
+ * streamed as saved, i.e. at DetailLevel.FULL.
+ */
+public class ReplayServer extends WebSocketServer {
+
+    /**
+     * A replay file, or a directory of them.
+     */
+    private final File replays;
+
+    /**
+     * What clients get if they don't ask for something else.
+     */
+    private final int defaultQueueSize;
+    private final int defaultBatchSize;
+
+    /**
+     * The most clients can ask for; asking for more gets them this.
+     */
+    private final int maxQueueSize;
+    private final int maxBatchSize;
+
+    /**
+     * The stream of each connected client.
+     */
+    private final Map<WebSocket, ReplayStream> streams;
+
+    /**
+     * @param port
+     * @param replays a replay file, or a directory of them
+     * @param config the clients' queue and batch sizes, and their maximums;
+     *               clients always block their own stream when behind, so
+     *               its other settings don't apply
+     */
+    public ReplayServer(int port, File replays, WebsocketConfig config) {
+        super(new InetSocketAddress(port));
+
+        if (!replays.exists()) {
+            throw new RuntimeException("No such replay or directory: "+replays);
+        }
+
+        this.replays = replays;
+        this.defaultQueueSize = config.getQueueSize();
+        this.defaultBatchSize = config.getBatchSize();
+        this.maxQueueSize = config.getMaxQueueSize();
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.streams = new HashMap<>();
+    }
+
+    /**
+     * @param name the replay a client asked for, or null
+     * @return the replay file to serve it
+     */
+    File findReplay(String name) throws IOException {
+        if (replays.isFile()) {
+            if (name != null && !name.equals(replays.getName())) {
+                throw new IOException("Only serving "+replays.getName());
+            }
+            return replays;
+        }
+        if (name == null) {
+            throw new IOException("No replay asked for");
+        }
+        File replay = new File(replays, name).getCanonicalFile();
+        if (!replays.getCanonicalFile().equals(replay.getParentFile()) || !replay.isFile()) {
+            throw new IOException("No such replay: "+name);
+        }
+        return replay;
+    }
+
+    @Override
+    public void onOpen(WebSocket client, ClientHandshake handshake) {
+        final ReplayStream stream;
+        final ClientQueue queue;
+        try {
+            Map<String, String> params = NetServer.parseQuery(handshake.getResourceDescriptor());
+            int queueSize = NetServer.sizeParam(params, "queue", defaultQueueSize, maxQueueSize);
+            int batchSize = NetServer.sizeParam(params, "batch", defaultBatchSize, maxBatchSize);
+            boolean paused = Boolean.parseBoolean(params.get("paused"));
+
+            File replay = findReplay(params.get("replay"));
+            ReplayReader reader = ReplayReader.open(replay);
+            if (!reader.hasStandaloneEvents()) {
+                reader.close();
+                throw new IOException(replay.getName()+" wasn't saved with bc.server.save-index");
+            }
+
+            queue = new ClientQueue(client, ClientQueue.Policy.BLOCK, queueSize, batchSize, false);
+            stream = new ReplayStream(reader, queue, paused);
+            synchronized (connections()) {
+                streams.put(client, stream);
+            }
+            System.out.println("Streaming "+replay+" to "+client.getRemoteSocketAddress());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Bad replay request from "+client.getRemoteSocketAddress()
+                    +": "+handshake.getResourceDescriptor()+": "+e.getMessage());
+            client.close(1008, "Bad replay request: "+e.getMessage());
+            return;
+        }
+        queue.start();
+        stream.start();
+    }
+
+    /**
+     * @return how many clients are being streamed to
+     */
+    public int getViewerCount() {
+        synchronized (connections()) {
+            return streams.size();
+        }
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        final ReplayStream stream;
+        synchronized (connections()) {
+            stream = streams.remove(conn);
+        }
+        if (stream != null) {
+            stream.close();
+        }
+        System.out.println("Closed: "+conn.getRemoteSocketAddress() + " for "+reason);
+    }
+
+    @Override
+    public void onMessage(WebSocket ws, String s) {
+        System.err.println("Spurious message from "+
+                ws.getRemoteSocketAddress()+": `"+s+"`");
+    }
+
+    @Override
+    public void onMessage(WebSocket ws, ByteBuffer message) {
+        Control control = NetServer.readControl(ws, message);
+        if (control == null) {
+            return;
+        }
+        final ReplayStream stream;
+        synchronized (connections()) {
+            stream = streams.get(ws);
+        }
+        if (stream != null) {
+            stream.control(control.command(), control.argument());
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        if (!(ex instanceof ClosedByInterruptException)) {
+            System.err.println("Error from: "+(conn != null ? conn.getRemoteSocketAddress() : "server")+": "+ex);
+        }
+    }
+}
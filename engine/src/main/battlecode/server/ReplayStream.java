@@ -0,0 +1,219 @@
+package battlecode.server;
+
+import battlecode.schema.ControlCommand;
+
+import java.io.IOException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams one saved game to one websocket client, on its own thread.
+ *
+ * Events are read from the replay one at a time, only once the client's
+ * queue has room for them, so a viewer costs its queue and the blocks its
+ * reader has inflated, not the whole game.
+ *
+ * The client controls the stream with Control messages, much as it would
+ * an interactive Server: run, pause, step, run until a round, and seek
+ * within the current match. A seek sends the match header again, then the
+ * rounds from the nearest keyframe at or before the target up to the target
+ * itself (or none, when seeking to before the first round).
+ */
+class ReplayStream {
+
+    private final ReplayReader reader;
+    private final ClientQueue queue;
+
+    private final ReentrantLock lock;
+    private final Condition changed;
+
+    /**
+     * Guarded by lock.
+     */
+    private boolean paused;
+    private int pauseAfterRound;
+    private boolean seeking;
+    private int seekRound;
+    private int nextRound;
+    private boolean closed;
+
+    private final Thread streamer;
+
+    /**
+     * @param reader the replay to stream; closed when the stream is
+     * @param queue the client's queue, which should have the BLOCK policy
+     * @param paused whether to wait for a command before sending any rounds
+     */
+    ReplayStream(ReplayReader reader, ClientQueue queue, boolean paused) {
+        this.reader = reader;
+        this.queue = queue;
+        this.lock = new ReentrantLock();
+        this.changed = lock.newCondition();
+        this.paused = paused;
+
+        this.streamer = new Thread(this::streamLoop, "replay-" + queue.getRemoteAddress());
+        this.streamer.setDaemon(true);
+    }
+
+    void start() {
+        streamer.start();
+    }
+
+    /**
+     * Handle a control message from the client.
+     *
+     * @param command the command, from battlecode.schema.ControlCommand
+     * @param argument the command's argument, if it has one
+     */
+    void control(byte command, int argument) {
+        lock.lock();
+        try {
+            switch (command) {
+                case ControlCommand.Run:
+                    paused = false;
+                    pauseAfterRound = 0;
+                    break;
+                case ControlCommand.Pause:
+                    paused = true;
+                    pauseAfterRound = 0;
+                    break;
+                case ControlCommand.Step:
+                    if (argument < 1) {
+                        return;
+                    }
+                    paused = false;
+                    pauseAfterRound = nextRound - 1 + argument;
+                    break;
+                case ControlCommand.RunUntil:
+                    if (argument < 1) {
+                        return;
+                    }
+                    paused = false;
+                    pauseAfterRound = argument;
+                    break;
+                case ControlCommand.Seek:
+                    seeking = true;
+                    seekRound = argument;
+                    break;
+                default:
+                    return;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop streaming, and let go of the replay.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        queue.close();
+    }
+
+    /**
+     * Wait for the stream to finish.
+     *
+     * @return whether it did in time
+     */
+    boolean join(long millis) throws InterruptedException {
+        streamer.join(millis);
+        return !streamer.isAlive();
+    }
+
+    private void streamLoop() {
+        try {
+            send(reader.readGameHeaderEvent());
+            for (int match = 0; match < reader.getMatchCount(); match++) {
+                streamMatch(match);
+            }
+            send(reader.readGameFooterEvent());
+            queue.finish();
+        } catch (InterruptedException e) {
+            // closed, or the client went away
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Can't stream replay to "+queue.getRemoteAddress()+": "+e);
+            queue.close();
+            queue.getClient().close(1011, "Can't read replay");
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // nothing to be done
+            }
+        }
+    }
+
+    private void streamMatch(int match) throws InterruptedException, IOException {
+        int first = reader.getFirstRound(match);
+        int last = first + reader.getRoundCount(match) - 1;
+
+        send(reader.readMatchHeaderEvent(match));
+        int round = first;
+        while (round <= last) {
+            Integer seek = awaitRound(round);
+            if (seek != null) {
+                int target = Math.max(first - 1, Math.min(last, seek));
+                send(reader.readMatchHeaderEvent(match));
+                if (target >= first) {
+                    int keyframe = reader.findKeyframeRound(match, target);
+                    for (int r = keyframe != 0 ? keyframe : first; r <= target; r++) {
+                        send(reader.readRoundEvent(match, r));
+                    }
+                }
+                round = target + 1;
+                continue;
+            }
+
+            send(reader.readRoundEvent(match, round));
+            round++;
+        }
+        send(reader.readMatchFooterEvent(match));
+    }
+
+    /**
+     * Block until we may send a round, or are asked to seek.
+     *
+     * @param round the round we want to send next
+     * @return the round to seek to, or null to send the round
+     */
+    private Integer awaitRound(int round) throws InterruptedException {
+        lock.lock();
+        try {
+            nextRound = round;
+            while (true) {
+                if (closed) {
+                    throw new InterruptedException("Replay stream closed");
+                }
+                if (seeking) {
+                    seeking = false;
+                    return seekRound;
+                }
+                if (!paused) {
+                    if (pauseAfterRound == 0 || round <= pauseAfterRound) {
+                        return null;
+                    }
+                    paused = true;
+                    pauseAfterRound = 0;
+                }
+                changed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void send(byte[] event) throws InterruptedException {
+        queue.offer(event, false);
+        if (queue.isClosed()) {
+            throw new InterruptedException("Client went away");
+        }
+    }
+}
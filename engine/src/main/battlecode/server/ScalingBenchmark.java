@@ -0,0 +1,343 @@
+package battlecode.server;
+
+import battlecode.common.GameConstants;
+import battlecode.common.MapLocation;
+import battlecode.common.RobotType;
+import battlecode.common.Team;
+import battlecode.instrumenter.BytecodeProfiling;
+import battlecode.instrumenter.SandboxedRobotPlayer;
+import battlecode.instrumenter.TeamClassLoaderFactory;
+import battlecode.util.Histogram;
+import battlecode.world.*;
+import battlecode.world.control.*;
+
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measures how the engine scales: generates square, rotationally symmetric
+ * worlds of each size in bc.server.benchmark-sizes, seeds each with each
+ * population of robots in bc.server.benchmark-robots (half for each team,
+ * a mix of miners, landscapers and drones, scattered at random), and plays
+ * bc.server.benchmark-rounds rounds of it with team A's player on both
+ * sides; it should be one that keeps every robot busy, like the stress
+ * players in example-bots. For each world it reports:
+ *
+ *  - rounds per second, and robot turns per second
+ *  - the median and p99 wall-clock time of a robot's turn
+ *  - the p99 time of a whole round
+ *  - the engine's own time per turn: each round's time, less its robots'
+ *    turns, over the turns taken; what the engine spends per robot, which
+ *    should stay flat as the population grows
+ *  - the share of the rounds spent recalculating pollution
+ *  - the heap the world holds on to at the end (after a GC), and the
+ *    most threads that were live at once
+ *
+ * Turns per second falling, or engine time per turn rising, with the
+ * population means something costs more than linearly in robots.
+ *
+ * Worlds are built in memory, so they can be bigger than maps can be
+ * saved (64x64); populations that would fill more than a quarter of a
+ * world are skipped. The first world is played once beforehand, unreported,
+ * so that class loading and JIT compilation don't land on it. Each team's
+ * classes are instrumented once, for all the worlds. Matches are recorded
+ * as usual, unless bc.server.result-only is set, and a JSON record of each
+ * world is written to bc.server.result-file, if it's set.
+ */
+public class ScalingBenchmark {
+
+    private static final long SEED = GameConstants.GAME_DEFAULT_SEED;
+
+    private static final RobotType[] MIX = {
+            RobotType.MINER, RobotType.LANDSCAPER, RobotType.MINER, RobotType.DELIVERY_DRONE
+    };
+
+    private final Config options;
+    private final int[] sizes;
+    private final int[] populations;
+    private final int rounds;
+    private final String teamPackage;
+    private final TeamClassLoaderFactory teamFactory;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    /**
+     * @param options where the sizes, populations, rounds and player come from
+     */
+    public ScalingBenchmark(Config options) {
+        this.options = options;
+        this.sizes = parseInts(options, "bc.server.benchmark-sizes");
+        this.populations = parseInts(options, "bc.server.benchmark-robots");
+        this.rounds = options.getInt("bc.server.benchmark-rounds");
+        if (rounds < 1) {
+            throw new RuntimeException("Invalid bc.server.benchmark-rounds: " + rounds);
+        }
+        this.teamPackage = options.get("bc.game.team-a");
+        this.teamFactory = new TeamClassLoaderFactory(options.get("bc.game.team-a.url"),
+                options.getBoolean("bc.engine.debug-methods"), BytecodeProfiling.isEnabled(options));
+    }
+
+    /**
+     * Play every size and population, printing a row for each as it's done.
+     *
+     * @param out where to print the table
+     * @param records where to write a JSON record of each, or null
+     * @return the results, smallest worlds first
+     */
+    public List<Result> run(PrintWriter out, PrintWriter records) {
+        if (sizes[0] * sizes[0] / 4 >= populations[0]) {
+            run(sizes[0], populations[0]);
+        }
+        out.println(Result.HEADER);
+        out.flush();
+        final List<Result> results = new ArrayList<>();
+        for (int size : sizes) {
+            for (int population : populations) {
+                if (population > size * size / 4) {
+                    out.println(String.format("%5d %7d  skipped: more than a quarter of the world",
+                            size, population));
+                    out.flush();
+                    continue;
+                }
+                final Result result = run(size, population);
+                results.add(result);
+                out.println(result.row());
+                out.flush();
+                if (records != null) {
+                    records.println(result.toJson());
+                    records.flush();
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Play a world of the given size and population.
+     */
+    public Result run(int size, int population) {
+        final LiveMap map = generate(size, population);
+        final GameMaker gameMaker = new GameMaker(new GameInfo(
+                "A", teamPackage, null, "B", teamPackage, null,
+                new String[] {map.getMapName()}, null, false
+        ), null, new ReplayConfig.Builder().resultOnly(options.getBoolean("bc.server.result-only")).build());
+        gameMaker.makeGameHeader();
+        final GameMaker.MatchMaker matchMaker = gameMaker.getMatchMaker();
+        final RobotControlProvider provider = createControlProvider(matchMaker);
+
+        // start afresh, so the last world's threads don't count
+        System.gc();
+        threads.resetPeakThreadCount();
+
+        final GameWorld world = new GameWorld(map, provider, matchMaker);
+        final RoundStats roundStats = new RoundStats();
+        final TurnStats turnStats = new TurnStats();
+        world.setRoundStats(roundStats);
+        world.setTurnStats(turnStats);
+
+        final long start = System.nanoTime();
+        int played = 0;
+        GameState state = GameState.RUNNING;
+        while (played < rounds && state != GameState.DONE) {
+            state = world.runRound();
+            played++;
+        }
+        final long nanos = System.nanoTime() - start;
+
+        // while the world's still live
+        System.gc();
+        final long heap = memory.getHeapMemoryUsage().getUsed();
+        final int peakThreads = threads.getPeakThreadCount();
+        final int finalRobots = world.getObjectInfo().getRobotCount(Team.A)
+                + world.getObjectInfo().getRobotCount(Team.B);
+        if (state != GameState.DONE) {
+            provider.matchEnded();
+        }
+
+        return new Result(size, population, played, nanos, roundStats, turnStats,
+                finalRobots, heap, peakThreads);
+    }
+
+    /**
+     * @return a world size wide and high, with an HQ for each team and the
+     *         given number of robots between them
+     */
+    public static LiveMap generate(int size, int population) {
+        final MapBuilder builder = new MapBuilder("Scaling" + size + "x" + population, size, size, (int) SEED);
+        builder.setSymmetry(MapBuilder.MapSymmetry.rotational);
+        builder.setWaterLevel(0);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                builder.setDirt(x, y, 3);
+                // a soup field every few tiles, for miners to find
+                if (x % 8 < 2 && y % 8 < 2) {
+                    builder.setSymmetricSoup(x, y, 200);
+                }
+            }
+        }
+        // a source in each corner, for the flood to spread from
+        builder.setSymmetricWater(0, 0, true);
+        builder.setSymmetricDirt(0, 0, GameConstants.MIN_WATER_ELEVATION);
+        builder.setSymmetricWater(size - 1, 0, true);
+        builder.setSymmetricDirt(size - 1, 0, GameConstants.MIN_WATER_ELEVATION);
+        builder.addSymmetricHQ(size / 4, size / 4);
+
+        final Set<MapLocation> taken = new HashSet<>();
+        taken.add(new MapLocation(size / 4, size / 4));
+        taken.add(builder.symmetryLocation(new MapLocation(size / 4, size / 4)));
+        final Random random = new Random(SEED + size * 31 + population);
+        // the HQs are 0 and 1
+        int id = 2;
+        for (int i = 0; i < population / 2; i++) {
+            MapLocation loc;
+            MapLocation mirror;
+            do {
+                // not in the first or last column, where the sources are
+                loc = new MapLocation(1 + random.nextInt(size - 2), random.nextInt(size));
+                mirror = builder.symmetryLocation(loc);
+            } while (loc.equals(mirror) || taken.contains(loc) || taken.contains(mirror));
+            taken.add(loc);
+            taken.add(mirror);
+            final RobotType type = MIX[i % MIX.length];
+            builder.addRobot(id++, Team.A, type, loc);
+            builder.addRobot(id++, Team.B, type, mirror);
+        }
+        return builder.build();
+    }
+
+    /**
+     * As Server does, but with robots' output thrown away.
+     */
+    private RobotControlProvider createControlProvider(GameMaker.MatchMaker matchMaker) {
+        final SandboxedRobotPlayer.OutputOptions silenced = new SandboxedRobotPlayer.OutputOptions(true, false, 0);
+        final TeamControlProvider teamProvider = new TeamControlProvider();
+        teamProvider.registerControlProvider(Team.A,
+                new PlayerControlProvider(teamPackage, teamFactory, matchMaker.getOut(), silenced));
+        teamProvider.registerControlProvider(Team.B,
+                new PlayerControlProvider(teamPackage, teamFactory, matchMaker.getOut(), silenced));
+        teamProvider.registerControlProvider(Team.NEUTRAL, new CowControlProvider());
+        return teamProvider;
+    }
+
+    private static int[] parseInts(Config options, String key) {
+        final String[] parts = options.get(key).split(",");
+        final int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                values[i] = Integer.parseInt(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid " + key + ": " + options.get(key));
+            }
+            if (values[i] < 1) {
+                throw new RuntimeException("Invalid " + key + ": " + options.get(key));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * What playing one world cost.
+     */
+    public static final class Result {
+
+        static final String HEADER = String.format("%5s %7s %6s %8s %9s %10s %9s %9s %10s %10s %6s %8s %8s",
+                "size", "robots", "rounds", "end", "rounds/s", "turns/s", "turn p50", "turn p99",
+                "round p99", "engine/t", "poll%", "heap MB", "threads");
+
+        public final int size;
+        public final int robots;
+        public final int rounds;
+        public final long nanos;
+        public final RoundStats roundStats;
+        public final TurnStats turnStats;
+        public final int finalRobots;
+        public final long heapBytes;
+        public final int peakThreads;
+
+        Result(int size, int robots, int rounds, long nanos, RoundStats roundStats, TurnStats turnStats,
+               int finalRobots, long heapBytes, int peakThreads) {
+            this.size = size;
+            this.robots = robots;
+            this.rounds = rounds;
+            this.nanos = nanos;
+            this.roundStats = roundStats;
+            this.turnStats = turnStats;
+            this.finalRobots = finalRobots;
+            this.heapBytes = heapBytes;
+            this.peakThreads = peakThreads;
+        }
+
+        public double getRoundsPerSecond() {
+            return rounds / (nanos / 1e9);
+        }
+
+        public double getTurnsPerSecond() {
+            return getTurns() / (nanos / 1e9);
+        }
+
+        public long getTurns() {
+            return turnStats.getTurnTimes().getCount();
+        }
+
+        /**
+         * @return the time the rounds took that wasn't robots' turns, per
+         *         turn, in nanoseconds
+         */
+        public double getEngineNanosPerTurn() {
+            final long turns = getTurns();
+            if (turns == 0) {
+                return 0;
+            }
+            return (roundStats.get(RoundStats.Phase.ROUND).getTotal() - turnStats.getTurnTimes().getTotal())
+                    / (double) turns;
+        }
+
+        /**
+         * @return the percentage of the rounds' time spent recalculating pollution
+         */
+        public double getPollutionPercent() {
+            final long total = roundStats.get(RoundStats.Phase.ROUND).getTotal();
+            return total == 0 ? 0 : 100.0 * roundStats.get(RoundStats.Phase.POLLUTION).getTotal() / total;
+        }
+
+        String row() {
+            final Histogram turns = turnStats.getTurnTimes();
+            return String.format("%5d %7d %6d %8d %9.1f %10.0f %7.1fus %7.1fus %8.2fms %8.1fus %6.1f %8.1f %8d",
+                    size, robots, rounds, finalRobots, getRoundsPerSecond(), getTurnsPerSecond(),
+                    turns.getValueAtPercentile(50) / 1e3, turns.getValueAtPercentile(99) / 1e3,
+                    roundStats.get(RoundStats.Phase.ROUND).getValueAtPercentile(99) / 1e6,
+                    getEngineNanosPerTurn() / 1e3, getPollutionPercent(),
+                    heapBytes / (1024.0 * 1024.0), peakThreads);
+        }
+
+        public String toJson() {
+            final Histogram turns = turnStats.getTurnTimes();
+            final Histogram round = roundStats.get(RoundStats.Phase.ROUND);
+            return "{\"size\":" + size
+                    + ",\"robots\":" + robots
+                    + ",\"rounds\":" + rounds
+                    + ",\"finalRobots\":" + finalRobots
+                    + ",\"nanos\":" + nanos
+                    + ",\"roundsPerSecond\":" + getRoundsPerSecond()
+                    + ",\"turnsPerSecond\":" + getTurnsPerSecond()
+                    + ",\"turnNanos\":{\"p50\":" + turns.getValueAtPercentile(50)
+                    + ",\"p99\":" + turns.getValueAtPercentile(99)
+                    + ",\"max\":" + turns.getMax() + '}'
+                    + ",\"roundNanos\":{\"p50\":" + round.getValueAtPercentile(50)
+                    + ",\"p99\":" + round.getValueAtPercentile(99)
+                    + ",\"max\":" + round.getMax() + '}'
+                    + ",\"engineNanosPerTurn\":" + getEngineNanosPerTurn()
+                    + ",\"pollutionPercent\":" + getPollutionPercent()
+                    + ",\"heapBytes\":" + heapBytes
+                    + ",\"peakThreads\":" + peakThreads + '}';
+        }
+    }
+}
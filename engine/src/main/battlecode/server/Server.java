@@ -2,13 +2,33 @@ package battlecode.server;
 
 import battlecode.common.GameConstants;
 import battlecode.common.Team;
+import battlecode.instrumenter.BytecodeProfiling;
+import battlecode.instrumenter.SandboxedRobotPlayer;
+import battlecode.instrumenter.TeamClassLoaderFactory;
+import battlecode.schema.ControlCommand;
 import battlecode.world.*;
 import battlecode.world.control.*;
 
+import org.apache.commons.io.FileUtils;
+
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Runs matches. Specifically, this class forms a pipeline connecting match and
@@ -29,8 +49,21 @@ public strictfp class Server implements Runnable {
 
     /**
      * The state of the match that the server is running (or about to run).
+     * Only changed while holding stateLock; stateChanged is signalled
+     * whenever it (or pauseAfterRound) is.
+     */
+    private volatile ServerState state;
+
+    private final ReentrantLock stateLock;
+    private final Condition stateChanged;
+
+    /**
+     * In interactive mode, the round to pause after, or 0 to keep running;
+     * and the last round of the current match that's finished.
+     * Guarded by stateLock.
      */
-    private ServerState state;
+    private int pauseAfterRound;
+    private int lastRound;
 
     /**
      * The options provided to the server via config file and command line.
@@ -45,9 +78,55 @@ public strictfp class Server implements Runnable {
 
     /**
      * The GameWorld the server is currently operating on.
+     * Matches played in the background, in parallel, aren't counted.
      */
     private GameWorld currentWorld;
 
+    /**
+     * Class loader factories shared with other servers, by team URL, so a
+     * team's classes are only instrumented once; or null, to instrument
+     * them afresh for each match.
+     */
+    private final ConcurrentMap<String, TeamClassLoaderFactory> teamFactories;
+
+    /**
+     * The phase timings of every match the server has played, or null if
+     * it isn't timing them (bc.server.round-stats, or bc.server.debug).
+     */
+    private final RoundStats roundStats;
+
+    /**
+     * The cost of the turns of every match the server has played, or null
+     * if it isn't totalling them (bc.server.turn-stats, or bc.server.debug).
+     */
+    private final TurnStats turnStats;
+
+    /**
+     * Whether to measure the cost of each match's turns at all: to total
+     * them, to serve them as metrics, or to hold robots to an allocation
+     * budget.
+     */
+    private final boolean measureTurns;
+
+    /**
+     * What robots' calls to their controllers have cost in every match the
+     * server has played, or null if it isn't timing them (bc.server.api-profile).
+     */
+    private final ApiProfile apiProfile;
+
+    /**
+     * Whether robots' bytecodes are profiled, and written out when the
+     * server finishes (bc.engine.profile-bytecodes).
+     */
+    private final boolean profileBytecodes;
+
+    /**
+     * The results of the games the server has finished, in the order they
+     * finished (which, with bc.server.game-threads, isn't always the order
+     * they were added in).
+     */
+    private final List<GameResult> results;
+
 
     /**
      * The server's mode affects how notifications are handled, whether or not
@@ -56,6 +135,26 @@ public strictfp class Server implements Runnable {
      */
     public enum Mode {
         HEADLESS,
+        /**
+         * Don't run anything; stream saved games from bc.server.replay-path
+         * to websocket clients (see ReplayServer).
+         */
+        REPLAY,
+        /**
+         * Don't run anything until asked to; play games requested over HTTP
+         * (see MatchDaemon).
+         */
+        DAEMON,
+        /**
+         * Play the games in bc.server.batch-manifest, several at once, and
+         * write their results (see BatchRunner).
+         */
+        BATCH,
+        /**
+         * Play generated worlds of growing size and population, and report
+         * how the engine scales (see ScalingBenchmark).
+         */
+        BENCHMARK,
     }
 
     /**
@@ -66,12 +165,42 @@ public strictfp class Server implements Runnable {
      *                    match run state
      */
     public Server(Config options, boolean interactive) {
+        this(options, interactive, null);
+    }
+
+    /**
+     * Initializes a new server, which shares its teams' instrumented classes.
+     * Only for teams whose classes won't change while the factories are
+     * shared; all servers sharing them should have the same
+     * bc.engine.debug-methods and bc.engine.profile-bytecodes.
+     *
+     * @param options the configuration to use
+     * @param interactive whether to wait for notifications to control the
+     *                    match run state
+     * @param teamFactories class loader factories to share, by team URL;
+     *                      null to not share any
+     */
+    public Server(Config options, boolean interactive,
+                  ConcurrentMap<String, TeamClassLoaderFactory> teamFactories) {
         this.gameQueue = new LinkedBlockingQueue<>();
+        this.teamFactories = teamFactories;
 
         this.interactive = interactive;
 
         this.options = options;
         this.state = ServerState.NOT_READY;
+        this.stateLock = new ReentrantLock();
+        this.stateChanged = stateLock.newCondition();
+        this.results = new CopyOnWriteArrayList<>();
+        this.roundStats = options.getBoolean("bc.server.round-stats") || options.getBoolean("bc.server.debug")
+                ? new RoundStats() : null;
+        this.turnStats = options.getBoolean("bc.server.turn-stats") || options.getBoolean("bc.server.debug")
+                ? new TurnStats() : null;
+        this.measureTurns = turnStats != null
+                || options.getInt("bc.server.metrics-port") != 0
+                || options.getInt("bc.server.allocation-budget") > 0;
+        this.apiProfile = options.getBoolean("bc.server.api-profile") ? new ApiProfile() : null;
+        this.profileBytecodes = BytecodeProfiling.isEnabled(options);
     }
 
     // ******************************
@@ -79,22 +208,115 @@ public strictfp class Server implements Runnable {
     // ******************************
 
     public void startNotification(){
-        state = ServerState.READY;
+        setState(ServerState.READY);
     }
 
     public void pauseNotification(){
-        state = ServerState.PAUSED;
+        stateLock.lock();
+        try {
+            pauseAfterRound = 0;
+            setState(ServerState.PAUSED);
+        } finally {
+            stateLock.unlock();
+        }
     }
 
     public void resumeNotification(){
-        if (state == ServerState.PAUSED){
-            state = ServerState.RUNNING;
+        stateLock.lock();
+        try {
+            if (state == ServerState.PAUSED) {
+                pauseAfterRound = 0;
+                setState(ServerState.RUNNING);
+            }
+        } finally {
+            stateLock.unlock();
         }
     }
 
     public void runNotification(){
-        if (state != ServerState.PAUSED) {
-            state = ServerState.RUNNING;
+        stateLock.lock();
+        try {
+            if (state != ServerState.PAUSED) {
+                pauseAfterRound = 0;
+                setState(ServerState.RUNNING);
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Run some more rounds of the current match (or the next one, between
+     * matches), then pause.
+     *
+     * @param rounds how many rounds to run
+     */
+    public void stepNotification(int rounds){
+        if (rounds < 1) {
+            warn("Can't step "+rounds+" rounds");
+            return;
+        }
+        stateLock.lock();
+        try {
+            pauseAfterRound = lastRound + rounds;
+            setState(ServerState.RUNNING);
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Run until a round of the current match (or the next one, between
+     * matches) has finished, then pause. If it already has, pause now.
+     *
+     * @param round the last round to run
+     */
+    public void runUntilNotification(int round){
+        if (round < 1) {
+            warn("Can't run until round "+round);
+            return;
+        }
+        stateLock.lock();
+        try {
+            pauseAfterRound = round;
+            setState(ServerState.RUNNING);
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Handle a control message from a client.
+     *
+     * @param command the command, from battlecode.schema.ControlCommand
+     * @param argument the command's argument, if it has one
+     */
+    public void controlNotification(byte command, int argument){
+        debug("Control: "+ControlCommand.name(command)+" "+argument);
+        switch (command) {
+            case ControlCommand.Run:
+                stateLock.lock();
+                try {
+                    resumeNotification();
+                    runNotification();
+                } finally {
+                    stateLock.unlock();
+                }
+                break;
+            case ControlCommand.Pause:
+                pauseNotification();
+                break;
+            case ControlCommand.Step:
+                stepNotification(argument);
+                break;
+            case ControlCommand.RunUntil:
+                runUntilNotification(argument);
+                break;
+            case ControlCommand.Seek:
+                warn("Can't seek in a live match");
+                break;
+            default:
+                warn("Unknown control command "+command);
         }
     }
 
@@ -116,14 +338,57 @@ public strictfp class Server implements Runnable {
      * matches.
      */
     public void run() {
+        final boolean resultOnly = options.getBoolean("bc.server.result-only");
+
         final NetServer netServer;
-        if (options.getBoolean("bc.server.websocket")) {
+        if (resultOnly) {
+            debug("Running result-only; not recording or sending games");
+            netServer = null;
+        } else if (options.getBoolean("bc.server.websocket")) {
             netServer = new NetServer(options.getInt("bc.server.port"),
-                                      options.getBoolean("bc.server.wait-for-client"));
+                                      options.getBoolean("bc.server.wait-for-client"),
+                                      WebsocketConfig.fromConfig(options));
+            if (interactive) {
+                netServer.setControlListener(this::controlNotification);
+            }
             netServer.start();
         } else {
             netServer = null;
         }
+        if (interactive && netServer == null) {
+            warn("Interactive, but there's no websocket to be controlled from; run, pause and step won't arrive");
+        }
+
+        int matchThreads = options.getInt("bc.server.match-threads");
+        if (matchThreads > 1 && interactive) {
+            warn("Can't run matches in parallel interactively; running them one at a time");
+            matchThreads = 1;
+        }
+        if (matchThreads > 1 && !resultOnly && options.getBoolean("bc.server.compact-replay")) {
+            warn("Can't run matches in parallel for a compact replay; running them one at a time");
+            matchThreads = 1;
+        }
+
+        int gameThreads = options.getInt("bc.server.game-threads");
+        if (gameThreads > 1 && (interactive || netServer != null)) {
+            warn("Can't run games in parallel interactively or over the websocket; running them one at a time");
+            gameThreads = 1;
+        }
+
+        final ExecutorService gamePool;
+        if (gameThreads > 1) {
+            debug("Running up to "+gameThreads+" games at a time");
+            gamePool = Executors.newFixedThreadPool(gameThreads, (task) -> {
+                Thread thread = new Thread(task, "game-runner");
+                thread.setDaemon(true);
+                return thread;
+            });
+            setState(ServerState.RUNNING);
+        } else {
+            gamePool = null;
+        }
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final long startTime = System.nanoTime();
 
         while (true) {
             final GameInfo currentGame;
@@ -139,6 +404,28 @@ public strictfp class Server implements Runnable {
 
             // Note: ==, not .equals()
             if (currentGame == POISON) {
+                if (gamePool != null) {
+                    gamePool.shutdown();
+                    try {
+                        while (!gamePool.awaitTermination(1, TimeUnit.MINUTES)) {
+                            debug("Waiting for games to finish");
+                        }
+                    } catch (InterruptedException e) {
+                        warn("Interrupted while waiting for games to finish!");
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (!failed.get()) {
+                        setState(ServerState.FINISHED);
+                    }
+                }
+                debugThroughput(System.nanoTime() - startTime);
+                if (apiProfile != null) {
+                    say("RobotController call costs:\n" + apiProfile.summary());
+                }
+                if (profileBytecodes) {
+                    writeBytecodeProfiles();
+                }
                 debug("Shutting down server");
                 if (netServer != null) {
                     netServer.finish();
@@ -146,69 +433,318 @@ public strictfp class Server implements Runnable {
                 return;
             }
 
-            GameMaker gameMaker = new GameMaker(currentGame, netServer);
-            gameMaker.makeGameHeader();
+            final int threads = matchThreads;
+            if (gamePool != null) {
+                gamePool.submit(() -> {
+                    try {
+                        runGame(currentGame, netServer, resultOnly, threads, false);
+                    } catch (Exception e) {
+                        ErrorReporter.report(e);
+                        failed.set(true);
+                        setState(ServerState.ERROR);
+                    }
+                });
+                continue;
+            }
 
-            debug("Running: "+currentGame);
+            try {
+                runGame(currentGame, netServer, resultOnly, threads, true);
+            } catch (Exception e) {
+                ErrorReporter.report(e);
+                setState(ServerState.ERROR);
+                return;
+            }
+        }
+    }
 
-            // Set up our control provider
-            final RobotControlProvider prov = createControlProvider(currentGame, gameMaker);
+    /**
+     * Play a game, and record its result.
+     *
+     * @param live whether the game is the one the server is running, rather
+     *             than one of several being played at once
+     */
+    private void runGame(GameInfo currentGame, NetServer netServer, boolean resultOnly,
+                         int matchThreads, boolean live) throws Exception {
+        final long startTime = System.nanoTime();
 
-            // Count wins
-            int aWins = 0, bWins = 0;
+        final GameMaker gameMaker;
+        if (resultOnly) {
+            gameMaker = new GameMaker(currentGame, null, new ReplayConfig.Builder().resultOnly(true).build());
+        } else {
+            gameMaker = new GameMaker(currentGame, netServer, ReplayConfig.fromConfig(options));
+        }
+        gameMaker.makeGameHeader();
 
-            // Loop through the maps in the current game
-            for (int matchIndex = 0; matchIndex < currentGame.getMaps().length; matchIndex++) {
+        debug("Running: "+currentGame);
 
-                Team winner;
-                try {
-                    winner = runMatch(currentGame, matchIndex, prov, gameMaker);
-                } catch (Exception e) {
-                    ErrorReporter.report(e);
-                    this.state = ServerState.ERROR;
-                    return;
-                }
+        final GameResult result = new GameResult(currentGame);
+        final Team winner;
+        final EngineMetrics.Game gameMetrics = EngineMetrics.gameStarted(gameMaker);
+        try {
+            if (matchThreads > 1 && currentGame.getMaps().length > 1) {
+                runMatchesInParallel(currentGame, gameMaker, result, matchThreads, live);
+            } else {
+                runMatches(currentGame, gameMaker, result, live);
+            }
 
-                switch (winner) {
-                    case A:
-                        aWins++;
-                        break;
-                    case B:
-                        bWins++;
-                        break;
-                    default:
-                        warn("Team "+winner+" won???");
-                }
+            winner = countWins(result, Team.A) >= countWins(result, Team.B) ? Team.A : Team.B;
+            gameMaker.makeGameFooter(winner);
+            if (!resultOnly) {
+                gameMaker.writeGame(currentGame.getSaveFile());
+            }
+        } finally {
+            gameMetrics.finished();
+        }
+
+        if (netServer != null) {
+            debug(String.format("websocket keeping %d bytes for late joiners (peak %d, dropped %d times)",
+                    netServer.getRetainedBytes(), netServer.getPeakRetainedBytes(),
+                    netServer.getDroppedTails()));
+            for (ClientQueue client : netServer.getClients()) {
+                debug(String.format("client %s (%s, %s): %d events queued, %d ms behind, %d sent in %d frames, %d dropped",
+                        client.getRemoteAddress(), client.getPolicy(), client.getDetail(), client.getDepth(),
+                        client.getLagMillis(), client.getSentEvents(), client.getSentFrames(),
+                        client.getDroppedEvents()));
+            }
+        }
+
+        result.setWinner(winner);
+        final String seed = options.get("bc.game.seed");
+        result.setSeed(seed != null && !seed.isEmpty() ? Integer.valueOf(seed) : null);
+        result.setWallTimeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        debug(String.format("game completed in %.4g seconds: %d matches, %d rounds (%.1f rounds/s)",
+                result.getWallTimeMillis() / 1000.0, result.getMatches().size(), result.getRounds(),
+                result.getRounds() * 1000.0 / Math.max(1, result.getWallTimeMillis())));
+        if (!resultOnly) {
+            debug(String.format("events built in %.4g seconds for the %s replay, %.4g more for clients alone",
+                    gameMaker.getFileEncodeNanos() / 1e9,
+                    options.getBoolean("bc.server.compact-replay") ? "compact" : "full",
+                    gameMaker.getClientEncodeNanos() / 1e9));
+        }
+        results.add(result);
+        writeResult(result);
+    }
+
+    /**
+     * Report how many games and rounds the server got through.
+     *
+     * @param nanos how long it's been running
+     */
+    private void debugThroughput(long nanos) {
+        if (results.isEmpty()) {
+            return;
+        }
+        long rounds = 0;
+        long gameMillis = 0;
+        for (GameResult result : results) {
+            rounds += result.getRounds();
+            gameMillis += result.getWallTimeMillis();
+        }
+        double seconds = nanos / 1e9;
+        debug(String.format("%d games, %d rounds in %.4g seconds: %.3g games/s, %.1f rounds/s "
+                        + "(%.4g seconds of games, %.2fx concurrency)",
+                results.size(), rounds, seconds, results.size() / seconds, rounds / seconds,
+                gameMillis / 1000.0, gameMillis / 1000.0 / seconds));
+    }
+
+    /**
+     * Append a game's result to bc.server.result-file, if it's set.
+     */
+    private synchronized void writeResult(GameResult result) {
+        final String resultFile = options.get("bc.server.result-file");
+        if (resultFile == null || resultFile.isEmpty()) {
+            return;
+        }
+        try {
+            FileUtils.writeStringToFile(new File(resultFile), result.toJson() + "\n",
+                    StandardCharsets.UTF_8, true);
+        } catch (IOException e) {
+            warn("Couldn't write result to " + resultFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write out where every robot's bytecodes went, to
+     * bc.engine.profile-bytecodes-dir.
+     */
+    private void writeBytecodeProfiles() {
+        final File dir = new File(options.get("bc.engine.profile-bytecodes-dir"));
+        try {
+            for (File file : BytecodeProfiling.write(dir)) {
+                say("Wrote bytecode profile to " + file);
+            }
+        } catch (RuntimeException e) {
+            warn("Couldn't write bytecode profiles to " + dir + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Play the maps of a game one after another, until they're all played or
+     * a best of three is decided.
+     */
+    private void runMatches(GameInfo currentGame, GameMaker gameMaker, GameResult result,
+                            boolean live) throws Exception {
+        // Set up our control provider
+        final RobotControlProvider prov = createControlProvider(currentGame, gameMaker.getMatchMaker());
 
+        // Loop through the maps in the current game
+        for (int matchIndex = 0; matchIndex < currentGame.getMaps().length; matchIndex++) {
+            addMatchResult(result, runMatch(currentGame, matchIndex, prov, gameMaker.getMatchMaker(), live, null, null));
+
+            if (live) {
                 currentWorld = null;
+            }
 
-                if (currentGame.isBestOfThree()) {
-                    if (aWins == 2 || bWins == 2) {
-                        break;
-                    }
+            if (isDecided(currentGame, result)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Play the maps of a game up to threads at a time. The first is played
+     * here, as usual, so clients can watch it live; the rest are played in
+     * the background, each recorded by its own MatchMaker, and added to the
+     * game in map order as it catches up with them.
+     *
+     * In a best of three, matches that can't change the winner any more are
+     * cancelled; only the ones that would have been played one at a time
+     * end up in the game. What background matches say is kept until they're
+     * added, so it comes out in map order, and not at all if they're
+     * cancelled.
+     */
+    private void runMatchesInParallel(GameInfo currentGame, GameMaker gameMaker, GameResult result,
+                                      int threads, boolean live) throws Exception {
+        final int matches = currentGame.getMaps().length;
+        final GameMaker.MatchMaker[] matchMakers = new GameMaker.MatchMaker[matches];
+        final AtomicBoolean[] cancelled = new AtomicBoolean[matches];
+        final List<List<Runnable>> output = new ArrayList<>(Collections.nCopies(matches, null));
+        final List<Future<GameResult.MatchResult>> background = new ArrayList<>();
+
+        final ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads - 1, matches - 1), (task) -> {
+            Thread thread = new Thread(task, "match-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int matchIndex = 1; matchIndex < matches; matchIndex++) {
+                final int index = matchIndex;
+                final GameMaker.MatchMaker matchMaker = gameMaker.createMatchMaker();
+                matchMakers[index] = matchMaker;
+                cancelled[index] = new AtomicBoolean(false);
+                output.set(index, new ArrayList<>());
+                background.add(pool.submit(() -> runMatch(currentGame, index,
+                        createControlProvider(currentGame, matchMaker), matchMaker, false, cancelled[index],
+                        output.get(index))));
+            }
+
+            addMatchResult(result, runMatch(currentGame, 0,
+                    createControlProvider(currentGame, gameMaker.getMatchMaker()), gameMaker.getMatchMaker(),
+                    live, null, null));
+            if (live) {
+                currentWorld = null;
+            }
+
+            for (int matchIndex = 1; matchIndex < matches; matchIndex++) {
+                if (isDecided(currentGame, result)) {
+                    debug("Cancelling "+(matches - matchIndex)+" matches that can't change the winner");
+                    break;
                 }
+
+                final GameResult.MatchResult matchResult;
+                try {
+                    matchResult = background.get(matchIndex - 1).get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+                gameMaker.addMatch(matchMakers[matchIndex]);
+                // its events are in the game now
+                matchMakers[matchIndex] = null;
+                for (Runnable line : output.get(matchIndex)) {
+                    line.run();
+                }
+                addMatchResult(result, matchResult);
+            }
+        } finally {
+            // stop whatever's left, and let it shut its robots down
+            for (AtomicBoolean cancel : cancelled) {
+                if (cancel != null) {
+                    cancel.set(true);
+                }
+            }
+            pool.shutdown();
+            if (!pool.awaitTermination(CANCEL_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                warn("Gave up waiting for cancelled matches to stop");
             }
-            Team winner = aWins >= bWins ? Team.A : Team.B;
-            gameMaker.makeGameFooter(winner);
-            gameMaker.writeGame(currentGame.getSaveFile());
         }
     }
 
+    /**
+     * How long to wait for cancelled matches to finish their current round.
+     */
+    private static final long CANCEL_TIMEOUT_SECONDS = 60;
+
+    private static void addMatchResult(GameResult result, GameResult.MatchResult matchResult) {
+        result.addMatch(matchResult);
+
+        Team winner = matchResult.getWinner();
+        if (winner != Team.A && winner != Team.B) {
+            warn("Team "+winner+" won???");
+        }
+    }
+
+    private static int countWins(GameResult result, Team team) {
+        int wins = 0;
+        for (GameResult.MatchResult match : result.getMatches()) {
+            if (match.getWinner() == team) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * @return whether a best of three has been won, so the rest of its
+     *         matches needn't be played
+     */
+    private static boolean isDecided(GameInfo game, GameResult result) {
+        return game.isBestOfThree()
+                && (countWins(result, Team.A) == 2 || countWins(result, Team.B) == 2);
+    }
 
     /**
-     * @return the winner of the match
+     * @param matchMaker records the match
+     * @param live whether this is the match the server is running (and
+     *             clients can control, in interactive mode), rather than
+     *             one played in the background
+     * @param cancelled set when the match is no longer needed, or null if
+     *                  it always is
+     * @param output where to keep what the match says, to say once it's
+     *               collected; or null to say it as it happens
+     * @return the result of the match, or null if it was cancelled
      * @throws Exception if the match fails to run for some reason
      */
-    private Team runMatch(GameInfo currentGame,
+    private GameResult.MatchResult runMatch(GameInfo currentGame,
                           int matchIndex,
                           RobotControlProvider prov,
-                          GameMaker gameMaker) throws Exception {
+                          GameMaker.MatchMaker matchMaker,
+                          boolean live,
+                          AtomicBoolean cancelled,
+                          List<Runnable> output) throws Exception {
+
+        if (cancelled != null && cancelled.get()) {
+            return null;
+        }
 
         final String mapName = currentGame.getMaps()[matchIndex];
-        final LiveMap loadedMap;
+        LiveMap loadedMap;
 
         try {
             loadedMap = GameMapIO.loadMap(mapName, new File(options.get("bc.game.map-path")));
+            final String seed = options.get("bc.game.seed");
+            if (seed != null && !seed.isEmpty()) {
+                loadedMap = new LiveMap(loadedMap, Integer.parseInt(seed));
+            }
             debug("running map " + loadedMap);
         } catch (IOException e) {
             warn("Couldn't load map " + mapName + ", skipping");
@@ -216,56 +752,150 @@ public strictfp class Server implements Runnable {
         }
 
         // Create the game world!
-        currentWorld = new GameWorld(loadedMap, prov, gameMaker.getMatchMaker());
+        final GameWorld world = new GameWorld(loadedMap, prov, matchMaker);
+        if (roundStats != null) {
+            world.setRoundStats(new RoundStats());
+        }
+        if (measureTurns) {
+            world.setTurnStats(new TurnStats());
+        }
+        world.setRecordTurnTimes(options.getBoolean("bc.server.turn-times-in-replay"));
+        world.setAllocationBudget(options.getInt("bc.server.allocation-budget"),
+                "throttle".equals(options.get("bc.server.allocation-budget-action")));
+
+        final EngineMetrics.Match metrics = EngineMetrics.matchStarted(currentGame, mapName, world);
+        try {
+            return playMatch(currentGame, mapName, world, prov, live, cancelled, output);
+        } finally {
+            metrics.finished();
+        }
+    }
+
+    /**
+     * Run a match's rounds, and say who won.
+     *
+     * @return the result of the match, or null if it was cancelled
+     */
+    private GameResult.MatchResult playMatch(GameInfo currentGame,
+                                             String mapName,
+                                             GameWorld world,
+                                             RobotControlProvider prov,
+                                             boolean live,
+                                             AtomicBoolean cancelled,
+                                             List<Runnable> output) throws Exception {
+        final boolean background = !live;
 
         // Get started
-        if (interactive) {
-            // TODO necessary?
-            // Poll for RUNNING, if we're in interactive mode
-            while (!ServerState.RUNNING.equals(state)) {
-                try {
-                    Thread.sleep(250);
-                } catch (InterruptedException e) {}
-            }
+        if (background) {
+            // nothing to wait for, or tell anyone
+        } else if (interactive) {
+            currentWorld = world;
+            // Wait to be told to run, if we're in interactive mode
+            awaitRound(1);
         } else {
+            currentWorld = world;
             // Start the game immediately if we're not in interactive mode
-            this.state = ServerState.RUNNING;
+            setState(ServerState.RUNNING);
         }
 
         long startTime = System.currentTimeMillis();
-        say("-------------------- Match Starting --------------------");
-        say(String.format("%s vs. %s on %s", currentGame.getTeamAPackage(), currentGame.getTeamBPackage(), mapName));
+        say(output, "-------------------- Match Starting --------------------");
+        say(output, String.format("%s vs. %s on %s",
+                currentGame.getTeamAPackage(), currentGame.getTeamBPackage(), mapName));
 
         // If there are more rounds to be run, run them and
         // and send the round (and optionally stats) bytes to
         // recipients.
-        while (this.state != ServerState.FINISHED) {
+        while (true) {
+            GameState gameState = world.runRound();
+            if (GameState.DONE.equals(gameState)) {
+                break;
+            }
 
-            // If not paused/stopped:
-            switch (this.state) {
+            if (background) {
+                if (cancelled != null && cancelled.get()) {
+                    prov.matchEnded();
+                    debug("Cancelled "+mapName+" after round "+world.getCurrentRound());
+                    return null;
+                }
+            } else if (interactive || state != ServerState.RUNNING) {
+                awaitRound(world.getCurrentRound() + 1);
+            }
+        }
+        if (!background) {
+            stateLock.lock();
+            try {
+                // commands from now on are about the next match
+                lastRound = 0;
+                pauseAfterRound = 0;
+                setState(ServerState.FINISHED);
+            } finally {
+                stateLock.unlock();
+            }
+        }
 
-                case RUNNING:
-                    GameState state = currentWorld.runRound();
+        say(output, getWinnerString(currentGame, world.getWinner(), world.getCurrentRound(), world.getGameStats()));
+        say(output, "-------------------- Match Finished --------------------");
 
-                    if (GameState.DONE.equals(state)) {
-                        this.state = ServerState.FINISHED;
-                        break;
-                    }
+        long timeMillis = System.currentTimeMillis() - startTime;
+        debug(String.format("match completed in %.4g seconds", timeMillis / 1000.0));
+        if (roundStats != null) {
+            roundStats.add(world.getRoundStats());
+            debug("round timings on " + mapName + ":\n" + world.getRoundStats().summary());
+        }
+        if (turnStats != null) {
+            turnStats.add(world.getTurnStats());
+            debug("turn costs on " + mapName + ":\n" + world.getTurnStats().summary());
+        }
+        if (world.getTurnStats() != null) {
+            warnOverAllocationBudget(currentGame, mapName, world.getTurnStats(), output);
+        }
 
-                    break;
+        TeamInfo teamInfo = world.getTeamInfo();
+        ObjectInfo objectInfo = world.getObjectInfo();
+        return new GameResult.MatchResult(mapName,
+                world.getWinner(),
+                world.getGameStats().getDominationFactor(),
+                world.getCurrentRound(),
+                timeMillis,
+                new int[] {teamInfo.getSoup(Team.A), teamInfo.getSoup(Team.B)},
+                new int[] {objectInfo.getRobotCount(Team.A), objectInfo.getRobotCount(Team.B)},
+                new long[] {teamInfo.getBytecodesUsed(Team.A), teamInfo.getBytecodesUsed(Team.B)});
+    }
 
-                case PAUSED:
-                    Thread.sleep(250);
-                    break;
+    /**
+     * Block until we're allowed to run a round, in interactive mode:
+     * until we're running, and haven't been told to pause before it.
+     *
+     * @param round the round we want to run next
+     */
+    void awaitRound(int round) throws InterruptedException {
+        stateLock.lock();
+        try {
+            lastRound = round - 1;
+            while (true) {
+                if (state == ServerState.RUNNING) {
+                    if (pauseAfterRound == 0 || round <= pauseAfterRound) {
+                        return;
+                    }
+                    pauseAfterRound = 0;
+                    setState(ServerState.PAUSED);
+                }
+                stateChanged.await();
             }
+        } finally {
+            stateLock.unlock();
         }
+    }
 
-        say(getWinnerString(currentGame, currentWorld.getWinner(), currentWorld.getCurrentRound()));
-        say("-------------------- Match Finished --------------------");
-
-        double timeDiff = (System.currentTimeMillis() - startTime) / 1000.0;
-        debug(String.format("match completed in %.4g seconds", timeDiff));
-        return currentWorld.getWinner();
+    private void setState(ServerState state) {
+        stateLock.lock();
+        try {
+            this.state = state;
+            stateChanged.signalAll();
+        } finally {
+            stateLock.unlock();
+        }
     }
 
     // ******************************
@@ -278,20 +908,24 @@ public strictfp class Server implements Runnable {
      * @param game the game to provide control for
      * @return a fresh control provider for the game
      */
-    private RobotControlProvider createControlProvider(GameInfo game, GameMaker gameMaker) {
+    private RobotControlProvider createControlProvider(GameInfo game, GameMaker.MatchMaker matchMaker) {
         // Strictly speaking, this should probably be somewhere in battlecode.world
         // Whatever
 
         final TeamControlProvider teamProvider = new TeamControlProvider();
-
-        teamProvider.registerControlProvider(
-                Team.A,
-                new PlayerControlProvider(game.getTeamAPackage(), game.getTeamAURL(), gameMaker.getMatchMaker().getOut())
-        );
-        teamProvider.registerControlProvider(
-                Team.B,
-                new PlayerControlProvider(game.getTeamBPackage(), game.getTeamBURL(), gameMaker.getMatchMaker().getOut())
-        );
+        final boolean debugMethods = options.getBoolean("bc.engine.debug-methods");
+
+        final PlayerControlProvider teamA = new PlayerControlProvider(game.getTeamAPackage(),
+                getTeamFactory(game.getTeamAURL(), debugMethods),
+                matchMaker.getOut(), SandboxedRobotPlayer.OutputOptions.forTeam(options, Team.A));
+        final PlayerControlProvider teamB = new PlayerControlProvider(game.getTeamBPackage(),
+                getTeamFactory(game.getTeamBURL(), debugMethods),
+                matchMaker.getOut(), SandboxedRobotPlayer.OutputOptions.forTeam(options, Team.B));
+        teamA.setApiProfile(apiProfile);
+        teamB.setApiProfile(apiProfile);
+
+        teamProvider.registerControlProvider(Team.A, teamA);
+        teamProvider.registerControlProvider(Team.B, teamB);
         teamProvider.registerControlProvider(
                 Team.NEUTRAL,
                 new CowControlProvider()
@@ -299,10 +933,80 @@ public strictfp class Server implements Runnable {
         return teamProvider;
     }
 
+    /**
+     * @param teamURL where a team's classes are
+     * @return a class loader factory for the team: a shared one, if we're
+     *         sharing them, or else a new one
+     */
+    private TeamClassLoaderFactory getTeamFactory(String teamURL, boolean debugMethods) {
+        if (teamFactories == null) {
+            return new TeamClassLoaderFactory(teamURL, debugMethods, profileBytecodes);
+        }
+        return teamFactories.computeIfAbsent(String.valueOf(teamURL),
+                (url) -> new TeamClassLoaderFactory(teamURL, debugMethods, profileBytecodes));
+    }
+
     // ******************************
     // ***** GETTER METHODS *********
     // ******************************
 
+    /**
+     * @return the results of the games the server has finished, in the
+     *         order they finished
+     */
+    public List<GameResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * @return how long the phases of the rounds of every match the server
+     *         has finished took, or null if it isn't timing them
+     */
+    public RoundStats getRoundStats() {
+        return roundStats;
+    }
+
+    /**
+     * Warn about the teams whose robots went over the allocation budget in
+     * a match, if any did.
+     *
+     * @param output where to keep the warnings until the match is collected,
+     *               or null to warn now
+     */
+    private void warnOverAllocationBudget(GameInfo currentGame, String mapName, TurnStats stats,
+                                          List<Runnable> output) {
+        for (Team team : new Team[] {Team.A, Team.B}) {
+            final long over = stats.getOverBudgetTurns(team);
+            if (over > 0) {
+                warn(output, String.format("Team %s (%s) went over the allocation budget of %d bytes in %d of %d turns"
+                                + " on %s, allocating %d bytes per turn on average",
+                        team,
+                        team == Team.A ? currentGame.getTeamAPackage() : currentGame.getTeamBPackage(),
+                        options.getInt("bc.server.allocation-budget"),
+                        over,
+                        stats.getAllocatedTurns(team),
+                        mapName,
+                        stats.getAllocatedBytes(team) / Math.max(1, stats.getAllocatedTurns(team))));
+            }
+        }
+    }
+
+    /**
+     * @return what robots' calls to their controllers have cost, or null
+     *         if the server isn't timing them
+     */
+    public ApiProfile getApiProfile() {
+        return apiProfile;
+    }
+
+    /**
+     * @return the cost of the turns of every match the server has
+     *         finished, or null if it isn't totalling them
+     */
+    public TurnStats getTurnStats() {
+        return turnStats;
+    }
+
     /**
      * @return the state of the game
      */
@@ -316,6 +1020,10 @@ public strictfp class Server implements Runnable {
      * @return A string representing the match's winner.
      */
     public String getWinnerString(GameInfo game, Team winner, int roundNumber) {
+        return getWinnerString(game, winner, roundNumber, currentWorld.getGameStats());
+    }
+
+    private String getWinnerString(GameInfo game, Team winner, int roundNumber, GameStats stats) {
 
         String teamName;
 
@@ -339,7 +1047,6 @@ public strictfp class Server implements Runnable {
         sb.append(" wins (round ").append(roundNumber).append(")");
 
         sb.append("\nReason: ");
-        GameStats stats = currentWorld.getGameStats();
         DominationFactor dom = stats.getDominationFactor();
 
         switch (dom) {
@@ -402,13 +1109,51 @@ public strictfp class Server implements Runnable {
         }
     }
 
+    /**
+     * Say something about a match, now or once it's collected.
+     *
+     * @param output where to keep it until then, or null to say it now
+     * @param msg the message to display
+     */
+    private static void say(List<Runnable> output, String msg) {
+        if (output != null) {
+            output.add(() -> say(msg));
+        } else {
+            say(msg);
+        }
+    }
+
+    /**
+     * Warn about something in a match, now or once it's collected.
+     *
+     * @param output where to keep it until then, or null to warn now
+     * @param msg the warning message to display
+     */
+    private static void warn(List<Runnable> output, String msg) {
+        if (output != null) {
+            output.add(() -> warn(msg));
+        } else {
+            warn(msg);
+        }
+    }
+
+    /**
+     * Display a debugging message, if this server's bc.server.debug is set.
+     *
+     * @param msg the debug message to display
+     */
+    private void debug(String msg) {
+        debug(options, msg);
+    }
+
     /**
      * This method is used to display debugging messages with formatted output.
      *
+     * @param options the config to check bc.server.debug in
      * @param msg the debug message to display
      */
-    public static void debug(String msg) {
-        if (Config.getGlobalConfig().getBoolean("bc.server.debug")) {
+    public static void debug(Config options, String msg) {
+        if (options.getBoolean("bc.server.debug")) {
             for (String line : msg.split("\n")) {
                 System.out.printf("[server:debug] %s\n", line);
             }
@@ -0,0 +1,202 @@
+package battlecode.server;
+
+/**
+ * How a NetServer treats its clients: what they get unless they ask for
+ * something else, the most they can ask for, and what's kept for late
+ * joiners. Immutable.
+ *
+ * Build one with a Builder, or read one from a Config (as Server does).
+ */
+public class WebsocketConfig {
+
+    private final long retainLimit;
+    private final ClientQueue.Policy policy;
+    private final int queueSize;
+    private final int batchSize;
+    private final int maxQueueSize;
+    private final int maxBatchSize;
+    private final DetailLevel detail;
+    private final boolean keyframeSnapshots;
+
+    private WebsocketConfig(Builder builder) {
+        this.retainLimit = builder.retainLimit;
+        this.policy = builder.policy;
+        this.queueSize = builder.queueSize;
+        this.batchSize = builder.batchSize;
+        this.maxQueueSize = builder.maxQueueSize;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.detail = builder.detail;
+        this.keyframeSnapshots = builder.keyframeSnapshots;
+    }
+
+    /**
+     * Read how to treat clients from a config's bc.server.websocket-*
+     * settings.
+     *
+     * @param options the config to read
+     * @return how the config says to treat clients
+     */
+    public static WebsocketConfig fromConfig(Config options) {
+        return new Builder()
+                .retainLimit(options.getInt("bc.server.websocket-retain-limit-mb") * 1024L * 1024L)
+                .policy(ClientQueue.Policy.valueOf(options.get("bc.server.websocket-client-policy").toUpperCase()))
+                .queueSize(options.getInt("bc.server.websocket-client-queue"),
+                        options.getInt("bc.server.websocket-max-client-queue"))
+                .batchSize(options.getInt("bc.server.websocket-batch"),
+                        options.getInt("bc.server.websocket-max-batch"))
+                .detail(DetailLevel.valueOf(options.get("bc.server.websocket-detail").toUpperCase()))
+                .keyframeSnapshots(options.getInt("bc.server.websocket-keyframe-interval") > 0)
+                .build();
+    }
+
+    /**
+     * @return the most to keep for late joiners, in bytes; the game and
+     *         match headers are kept regardless, so a limit under their
+     *         size keeps only them
+     */
+    public long getRetainLimit() {
+        return retainLimit;
+    }
+
+    /**
+     * @return what to do with clients whose queues fill up, by default
+     */
+    public ClientQueue.Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return how many events each client's queue holds, by default
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * @return the most events to send a client per frame, by default
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the most events a client can ask its queue to hold
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * @return the most events a client can ask to be sent per frame
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @return how much of each round to send clients, by default
+     */
+    public DetailLevel getDetail() {
+        return detail;
+    }
+
+    /**
+     * @return whether clients can start from a round with a keyframe,
+     *         rather than only a match header
+     */
+    public boolean isKeyframeSnapshots() {
+        return keyframeSnapshots;
+    }
+
+    /**
+     * Builds WebsocketConfigs. Not thread safe, but what it builds is.
+     */
+    public static class Builder {
+        private long retainLimit = Long.MAX_VALUE;
+        private ClientQueue.Policy policy = ClientQueue.Policy.DROP;
+        private int queueSize = 1024;
+        private int batchSize = 1;
+        private int maxQueueSize = 8192;
+        private int maxBatchSize = 256;
+        private DetailLevel detail = DetailLevel.FULL;
+        private boolean keyframeSnapshots;
+
+        /**
+         * @param retainLimit the most to keep for late joiners, in bytes,
+         *                    but never less than the game and match
+         *                    headers; by default, everything since the
+         *                    latest snapshot
+         */
+        public Builder retainLimit(long retainLimit) {
+            this.retainLimit = retainLimit;
+            return this;
+        }
+
+        /**
+         * @param policy what to do with clients whose queues fill up, by
+         *               default; DROP unless set
+         */
+        public Builder policy(ClientQueue.Policy policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        /**
+         * @param queueSize how many events each client's queue holds, by
+         *                  default
+         * @param maxQueueSize the most a client can ask for
+         */
+        public Builder queueSize(int queueSize, int maxQueueSize) {
+            this.queueSize = queueSize;
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * @param batchSize the most events to send a client per frame, by
+         *                  default
+         * @param maxBatchSize the most a client can ask for
+         */
+        public Builder batchSize(int batchSize, int maxBatchSize) {
+            this.batchSize = batchSize;
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * @param detail how much of each round to send clients, by default
+         */
+        public Builder detail(DetailLevel detail) {
+            this.detail = detail;
+            return this;
+        }
+
+        /**
+         * @param keyframeSnapshots whether clients can start from a round
+         *                          with a keyframe, rather than only a
+         *                          match header (the default)
+         */
+        public Builder keyframeSnapshots(boolean keyframeSnapshots) {
+            this.keyframeSnapshots = keyframeSnapshots;
+            return this;
+        }
+
+        /**
+         * @throws RuntimeException if a size is out of range, or a default
+         *                          is over its maximum
+         */
+        public WebsocketConfig build() {
+            if (retainLimit < 0) {
+                throw new RuntimeException("Invalid retain limit: "+retainLimit);
+            }
+            if (queueSize < 1 || batchSize < 1) {
+                throw new RuntimeException("Invalid client queue or batch size: "+queueSize+", "+batchSize);
+            }
+            if (queueSize > maxQueueSize || batchSize > maxBatchSize) {
+                throw new RuntimeException("Client queue or batch size over its maximum: "
+                        +queueSize+" > "+maxQueueSize+" or "+batchSize+" > "+maxBatchSize);
+            }
+            return new WebsocketConfig(this);
+        }
+    }
+}
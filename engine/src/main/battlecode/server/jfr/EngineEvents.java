@@ -0,0 +1,33 @@
+package battlecode.server.jfr;
+
+import battlecode.server.Config;
+
+/**
+ * Whether the engine emits its Java Flight Recorder events (the other
+ * classes in this package), which record rounds, robot turns, spawns,
+ * sandbox creation, class instrumentation and replay writes, each with its
+ * duration and the robot it was for, if any.
+ *
+ * They're off unless bc.server.jfr-events is set when the engine starts;
+ * then every emitting site is a check of a constant, and the JIT removes
+ * the rest. When they're on, they're recorded like any other JFR event,
+ * e.g. by running the engine with
+ *
+ *   -XX:StartFlightRecording=filename=engine.jfr
+ *
+ * and cost little more than an allocation when no recording is running.
+ * The events don't record stack traces.
+ */
+public final class EngineEvents {
+
+    /**
+     * Whether to emit events; fixed when the engine starts.
+     */
+    public static final boolean ENABLED = Config.getGlobalConfig().getBoolean("bc.server.jfr-events");
+
+    /**
+     * Prevent construction.
+     */
+    private EngineEvents() {
+    }
+}
@@ -0,0 +1,46 @@
+package battlecode.server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Instrumenting a class for a team, the first time one of its robots loads
+ * it. Classes already instrumented for the team are reused, and don't get
+ * an event.
+ */
+@Name("battlecode.Instrument")
+@Label("Class Instrumentation")
+@Category({"Battlecode", "Instrumenter"})
+@Description("Instrumenting a class for a team")
+@StackTrace(false)
+public class InstrumentEvent extends jdk.jfr.Event {
+
+    @Label("Class Name")
+    String className;
+
+    @Label("Team URL")
+    String teamURL;
+
+    @Label("Team Class")
+    @Description("Whether the class is the team's own, rather than a library class")
+    boolean teamClass;
+
+    @Label("Class Size")
+    @DataAmount
+    int classBytes;
+
+    public void finish(String className, String teamURL, boolean teamClass, int classBytes) {
+        end();
+        if (shouldCommit()) {
+            this.className = className;
+            this.teamURL = teamURL;
+            this.teamClass = teamClass;
+            this.classBytes = classBytes;
+            commit();
+        }
+    }
+}
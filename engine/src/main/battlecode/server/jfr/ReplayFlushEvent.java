@@ -0,0 +1,36 @@
+package battlecode.server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Writing a game's replay out to its file, including finishing and
+ * compressing it.
+ */
+@Name("battlecode.ReplayFlush")
+@Label("Replay Flush")
+@Category({"Battlecode", "Engine"})
+@Description("Finishing a replay and writing it to its file")
+@StackTrace(false)
+public class ReplayFlushEvent extends jdk.jfr.Event {
+
+    @Label("Path")
+    String path;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    public void finish(String path, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.path = path;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
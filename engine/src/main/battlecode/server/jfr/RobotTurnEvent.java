@@ -0,0 +1,46 @@
+package battlecode.server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A robot's turn: running its player until it yields, and processing the
+ * end of its turn.
+ */
+@Name("battlecode.RobotTurn")
+@Label("Robot Turn")
+@Category({"Battlecode", "Engine"})
+@Description("A robot's turn")
+@StackTrace(false)
+public class RobotTurnEvent extends jdk.jfr.Event {
+
+    @Label("Robot ID")
+    int robotID;
+
+    @Label("Team")
+    String team;
+
+    @Label("Robot Type")
+    String robotType;
+
+    @Label("Round")
+    int round;
+
+    @Label("Bytecodes Used")
+    int bytecodesUsed;
+
+    public void finish(int robotID, String team, String robotType, int round, int bytecodesUsed) {
+        end();
+        if (shouldCommit()) {
+            this.robotID = robotID;
+            this.team = team;
+            this.robotType = robotType;
+            this.round = round;
+            this.bytecodesUsed = bytecodesUsed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package battlecode.server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A round of a match, from the beginning of the round to writing it out.
+ */
+@Name("battlecode.Round")
+@Label("Round")
+@Category({"Battlecode", "Engine"})
+@Description("A round of a match")
+@StackTrace(false)
+public class RoundEvent extends jdk.jfr.Event {
+
+    @Label("Map")
+    String map;
+
+    @Label("Round")
+    int round;
+
+    @Label("Robots")
+    @Description("Robots alive at the end of the round, of either team")
+    int robots;
+
+    @Label("Bytecodes Used")
+    @Description("Bytecodes used by both teams' robots in the round")
+    long bytecodesUsed;
+
+    public void finish(String map, int round, int robots, long bytecodesUsed) {
+        end();
+        if (shouldCommit()) {
+            this.map = map;
+            this.round = round;
+            this.robots = robots;
+            this.bytecodesUsed = bytecodesUsed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package battlecode.server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Creating a robot's sandbox: its class loader, and the thread its player
+ * runs on, up to the start of its first turn.
+ */
+@Name("battlecode.Sandbox")
+@Label("Sandbox Creation")
+@Category({"Battlecode", "Engine"})
+@Description("Creating a robot's class loader and player thread")
+@StackTrace(false)
+public class SandboxEvent extends jdk.jfr.Event {
+
+    @Label("Robot ID")
+    int robotID;
+
+    @Label("Team")
+    String team;
+
+    @Label("Robot Type")
+    String robotType;
+
+    @Label("Team Package")
+    String teamPackage;
+
+    public void finish(int robotID, String team, String robotType, String teamPackage) {
+        end();
+        if (shouldCommit()) {
+            this.robotID = robotID;
+            this.team = team;
+            this.robotType = robotType;
+            this.teamPackage = teamPackage;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package battlecode.server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A robot being added to the world, including creating its sandbox.
+ */
+@Name("battlecode.Spawn")
+@Label("Spawn")
+@Category({"Battlecode", "Engine"})
+@Description("A robot being added to the world, including creating its sandbox")
+@StackTrace(false)
+public class SpawnEvent extends jdk.jfr.Event {
+
+    @Label("Robot ID")
+    int robotID;
+
+    @Label("Team")
+    String team;
+
+    @Label("Robot Type")
+    String robotType;
+
+    @Label("Round")
+    int round;
+
+    public void finish(int robotID, String team, String robotType, int round) {
+        end();
+        if (shouldCommit()) {
+            this.robotID = robotID;
+            this.team = team;
+            this.robotType = robotType;
+            this.round = round;
+            commit();
+        }
+    }
+}
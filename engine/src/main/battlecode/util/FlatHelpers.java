@@ -155,6 +155,36 @@ public class FlatHelpers {
         return builder.endVector();
     }
 
+    /**
+     * Copy a finished flatbuffer into another builder, without re-encoding it.
+     *
+     * Flatbuffers only use relative offsets, so a finished buffer can be
+     * dropped verbatim into a larger one; the returned offset points at its
+     * root table and can be used like any other table offset in the outer
+     * builder (e.g. in offsetVector).
+     *
+     * The bytes are copied in at once, as the contents of a byte vector
+     * (whose length nothing reads). Our schema has no 8-byte scalars, so
+     * finished buffers are at most 4-byte aligned, and always a multiple of
+     * their alignment in size.
+     *
+     * @param builder the builder to copy into
+     * @param finished the bytes of a finished buffer, as from sizedByteArray()
+     * @return the offset of the finished buffer's root table in builder
+     */
+    public static int embedFinishedBuffer(FlatBufferBuilder builder, byte[] finished) {
+        builder.createUnintializedVector(1, finished.length, Integer.BYTES).put(finished);
+        final int vector = builder.endVector();
+
+        // the buffer starts with the offset of its root table
+        int root = (finished[0] & 0xFF)
+                | (finished[1] & 0xFF) << 8
+                | (finished[2] & 0xFF) << 16
+                | (finished[3] & 0xFF) << 24;
+        // and starts just after the vector's length
+        return vector - Integer.BYTES - root;
+    }
+
     public static int createVecTable(FlatBufferBuilder builder, TIntList xs, TIntList ys) {
         if (xs.size() != ys.size()) {
             throw new RuntimeException("Mismatched x/y length: "+xs.size()+" != "+ys.size());
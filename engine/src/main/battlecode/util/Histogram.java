@@ -0,0 +1,144 @@
+package battlecode.util;
+
+/**
+ * A histogram of non-negative longs (usually durations in nanoseconds), with
+ * log-linear buckets in the style of HdrHistogram: values below 128 are
+ * counted exactly, and above that each power of two is split into 64
+ * buckets, so every recorded value is known to within 1/64 of itself
+ * (about 1.6%) whatever its magnitude. Recording is a few shifts and an
+ * array increment, and allocates nothing.
+ *
+ * Not thread safe.
+ */
+public final class Histogram {
+
+    /**
+     * log2 of the number of buckets each power of two is split into.
+     */
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Values below this have a bucket each.
+     */
+    private static final int EXACT = SUB_BUCKETS * 2;
+
+    /**
+     * Enough buckets for any long.
+     */
+    private static final int BUCKETS = EXACT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts;
+    private long count;
+    private long total;
+    private long min;
+    private long max;
+
+    public Histogram() {
+        this.counts = new long[BUCKETS];
+        this.min = Long.MAX_VALUE;
+        this.max = 0;
+    }
+
+    /**
+     * @param value the value to count; negative values count as 0
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucket(value)]++;
+        count++;
+        total += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Count everything another histogram has counted, too.
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the values recorded
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the smallest value recorded, or 0 if none have been
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * @return the largest value recorded, or 0 if none have been
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean of the values recorded, or 0 if none have been
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return a value that percentile of the values recorded are no larger
+     *         than (to within the precision of the buckets), or 0 if none
+     *         have been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, highestInBucket(i)));
+            }
+        }
+        return max;
+    }
+
+    private static int bucket(long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        // how far the value has to be shifted to leave SUB_BUCKET_BITS + 1 bits
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return EXACT + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long highestInBucket(int bucket) {
+        if (bucket < EXACT) {
+            return bucket;
+        }
+        final int shift = (bucket - EXACT) / SUB_BUCKETS + 1;
+        final long lowest = ((long) ((bucket - EXACT) % SUB_BUCKETS + SUB_BUCKETS)) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
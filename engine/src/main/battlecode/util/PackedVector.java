@@ -0,0 +1,139 @@
+package battlecode.util;
+
+import gnu.trove.list.array.TByteArrayList;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A growable byte vector of varints, as used by the CompactRound table.
+ *
+ * Varints are unsigned LEB128: 7 bits per byte, low bits first, high bit set
+ * on every byte but the last. Signed values are zigzag-encoded first, so
+ * small negative numbers stay small. Locations and deltas are relative to
+ * the previous value of the same kind written to (or read from) the vector.
+ *
+ * Reuse one instance per vector, and clear() it between rounds.
+ */
+public final class PackedVector {
+
+    private final TByteArrayList bytes;
+
+    private int lastX;
+    private int lastY;
+    private int lastDelta;
+
+    public PackedVector() {
+        this.bytes = new TByteArrayList();
+    }
+
+    public TByteArrayList getBytes() {
+        return bytes;
+    }
+
+    public boolean isEmpty() {
+        return bytes.isEmpty();
+    }
+
+    public void clear() {
+        bytes.resetQuick();
+        lastX = 0;
+        lastY = 0;
+        lastDelta = 0;
+    }
+
+    public void addUnsigned(int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes.add((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        bytes.add((byte) value);
+    }
+
+    public void addSigned(int value) {
+        addUnsigned((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Add a value as the difference from the last one added this way.
+     */
+    public void addDelta(int value) {
+        addSigned(value - lastDelta);
+        lastDelta = value;
+    }
+
+    /**
+     * Add a location as the difference from the last location added.
+     */
+    public void addLocation(int x, int y) {
+        addSigned(x - lastX);
+        addSigned(y - lastY);
+        lastX = x;
+        lastY = y;
+    }
+
+    /**
+     * Reads back a vector written by a PackedVector.
+     */
+    public static final class Reader {
+        private ByteBuffer bytes;
+
+        private int x;
+        private int y;
+        private int lastDelta;
+
+        /**
+         * @param bytes the vector, as from one of CompactRound's
+         *              xAsByteBuffer() methods; may be null if absent
+         * @return this
+         */
+        public Reader reset(ByteBuffer bytes) {
+            this.bytes = bytes;
+            this.x = 0;
+            this.y = 0;
+            this.lastDelta = 0;
+            return this;
+        }
+
+        public boolean hasRemaining() {
+            return bytes != null && bytes.hasRemaining();
+        }
+
+        public int readUnsigned() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = bytes.get();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new RuntimeException("Malformed varint");
+        }
+
+        public int readSigned() {
+            int value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public int readDelta() {
+            lastDelta += readSigned();
+            return lastDelta;
+        }
+
+        /**
+         * Read a location; get it with getX() and getY().
+         */
+        public void readLocation() {
+            x += readSigned();
+            y += readSigned();
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package battlecode.world;
+
+import battlecode.common.RobotController;
+import battlecode.common.Team;
+import battlecode.instrumenter.bytecode.MethodCostUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What robots' calls to their RobotControllers really cost the engine, per
+ * method and team, next to the bytecodes MethodCosts.txt charges for them;
+ * so that engine optimisation can start with the methods that cost the most
+ * in practice, and charges that are far off from a method's real cost
+ * stand out.
+ *
+ * Robots' controllers are only profiled if they're wrapped (see wrap());
+ * the wrapper times each call with System.nanoTime, and passes it on by
+ * reflection, which adds some tens of nanoseconds to every call, so the
+ * cheapest methods look a little more expensive than they are.
+ *
+ * Thread safe, so that one profile can be shared by matches played at
+ * once.
+ */
+public final class ApiProfile {
+
+    private static final Team[] TEAMS = Team.values();
+
+    /**
+     * The names of RobotController's methods, in order; overloads share
+     * a name, as they share a cost.
+     */
+    private static final String[] METHODS;
+
+    /**
+     * The index of each method name in METHODS.
+     */
+    private static final Map<String, Integer> INDICES;
+
+    /**
+     * The bytecodes charged for a call to each method.
+     */
+    private static final int[] CHARGED;
+
+    static {
+        final TreeSet<String> names = new TreeSet<>();
+        for (Method method : RobotController.class.getMethods()) {
+            names.add(method.getName());
+        }
+        METHODS = names.toArray(new String[0]);
+        INDICES = new HashMap<>();
+        CHARGED = new int[METHODS.length];
+        for (int i = 0; i < METHODS.length; i++) {
+            INDICES.put(METHODS[i], i);
+            final MethodCostUtil.MethodData data =
+                    MethodCostUtil.getMethodData("battlecode/common/RobotController", METHODS[i]);
+            CHARGED[i] = data != null ? data.cost : 0;
+        }
+    }
+
+    private final LongAdder[][] calls;
+    private final LongAdder[][] nanos;
+
+    public ApiProfile() {
+        this.calls = new LongAdder[TEAMS.length][METHODS.length];
+        this.nanos = new LongAdder[TEAMS.length][METHODS.length];
+        for (int t = 0; t < TEAMS.length; t++) {
+            for (int m = 0; m < METHODS.length; m++) {
+                calls[t][m] = new LongAdder();
+                nanos[t][m] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * @param controller a robot's controller
+     * @param team the robot's team
+     * @return a controller that does the same, and times each call in this
+     *         profile
+     */
+    public RobotController wrap(RobotController controller, Team team) {
+        final int t = team.ordinal();
+        final InvocationHandler handler = (proxy, method, args) -> {
+            final Integer m = method.getDeclaringClass() == Object.class ? null : INDICES.get(method.getName());
+            final long start = System.nanoTime();
+            try {
+                return method.invoke(controller, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (m != null) {
+                    nanos[t][m].add(System.nanoTime() - start);
+                    calls[t][m].increment();
+                }
+            }
+        };
+        return (RobotController) Proxy.newProxyInstance(RobotController.class.getClassLoader(),
+                new Class<?>[] {RobotController.class}, handler);
+    }
+
+    /**
+     * @return how many times the team's robots called the method
+     *         (counting all its overloads)
+     */
+    public long getCalls(Team team, String method) {
+        final Integer m = INDICES.get(method);
+        return m == null ? 0 : calls[team.ordinal()][m].sum();
+    }
+
+    /**
+     * @return how long the team's calls to the method took, in nanoseconds
+     */
+    public long getNanos(Team team, String method) {
+        final Integer m = INDICES.get(method);
+        return m == null ? 0 : nanos[team.ordinal()][m].sum();
+    }
+
+    /**
+     * @return the bytecodes charged for each call to the method
+     */
+    public static int getCharged(String method) {
+        final Integer m = INDICES.get(method);
+        return m == null ? 0 : CHARGED[m];
+    }
+
+    /**
+     * @return for each team, a table of the methods its robots called,
+     *         costliest first, with their calls, real cost, and charge
+     */
+    public String summary() {
+        final StringBuilder b = new StringBuilder();
+        b.append(String.format("%-8s %-32s %10s %10s %6s %9s %8s %8s",
+                "team", "method", "calls", "total ms", "%", "ns/call", "charged", "ns/bc"));
+        for (Team team : TEAMS) {
+            long teamNanos = 0;
+            final List<Integer> called = new ArrayList<>();
+            for (int m = 0; m < METHODS.length; m++) {
+                if (calls[team.ordinal()][m].sum() != 0) {
+                    called.add(m);
+                    teamNanos += nanos[team.ordinal()][m].sum();
+                }
+            }
+            called.sort((x, y) -> Long.compare(nanos[team.ordinal()][y].sum(), nanos[team.ordinal()][x].sum()));
+            for (int m : called) {
+                final long n = calls[team.ordinal()][m].sum();
+                final long ns = nanos[team.ordinal()][m].sum();
+                b.append(String.format("%n%-8s %-32s %10d %10.1f %6.1f %9.1f %8d %8s",
+                        team.name(), METHODS[m], n, ns / 1e6,
+                        teamNanos == 0 ? 0.0 : 100.0 * ns / teamNanos,
+                        (double) ns / n,
+                        CHARGED[m],
+                        // what each bytecode charged really cost; the outliers are the mischarged methods
+                        CHARGED[m] == 0 ? "-" : String.format("%.1f", (double) ns / n / CHARGED[m])));
+            }
+        }
+        return b.toString();
+    }
+}
@@ -5,6 +5,10 @@ import battlecode.schema.Action;
 import battlecode.server.ErrorReporter;
 import battlecode.server.GameMaker;
 import battlecode.server.GameState;
+import battlecode.server.jfr.EngineEvents;
+import battlecode.server.jfr.RobotTurnEvent;
+import battlecode.server.jfr.RoundEvent;
+import battlecode.server.jfr.SpawnEvent;
 import battlecode.world.control.RobotControlProvider;
 
 import java.util.*;
@@ -58,6 +62,12 @@ public strictfp class GameWorld {
     private final RobotControlProvider controlProvider;
     private Random rand;
 
+    /**
+     * Makes transaction IDs. Reseeded from the map seed whenever a robot is
+     * created; it's per world, so matches played at once don't share it.
+     */
+    private Random transactionIDs;
+
     // the pool of messages not yet sent
     private PriorityQueue<Transaction> blockchainQueue;
     // the messages that have been broadcasted already
@@ -67,6 +77,29 @@ public strictfp class GameWorld {
 
     private final GameMaker.MatchMaker matchMaker;
 
+    /**
+     * Where to time each phase of the rounds, or null to not time them.
+     */
+    private RoundStats roundStats;
+
+    /**
+     * Where to total the cost of robots' turns, or null to not total them.
+     */
+    private TurnStats turnStats;
+
+    /**
+     * Whether to write how long each robot's turn took into the replay.
+     */
+    private boolean recordTurnTimes;
+
+    /**
+     * The heap a robot may allocate in a turn before it's over budget, in
+     * bytes, or 0 for no budget; and whether to charge robots that go over
+     * it bytecodes, or just count them.
+     */
+    private long allocationBudget;
+    private boolean throttleAllocation;
+
     @SuppressWarnings("unchecked")
     public GameWorld(LiveMap gm, RobotControlProvider cp, GameMaker.MatchMaker matchMaker) {
         this.initialSoup = gm.getSoupArray();
@@ -121,14 +154,28 @@ public strictfp class GameWorld {
             return GameState.DONE;
         }
 
+        final long roundStart = startPhase();
+        RoundEvent roundEvent = null;
+        long bytecodesBefore = 0;
+        if (EngineEvents.ENABLED) {
+            roundEvent = new RoundEvent();
+            roundEvent.begin();
+            bytecodesBefore = teamInfo.getBytecodesUsed(Team.A) + teamInfo.getBytecodesUsed(Team.B);
+        }
         try {
+            long start = startPhase();
             this.processBeginningOfRound();
             this.controlProvider.roundStarted();
+            endPhase(RoundStats.Phase.BEGINNING_OF_ROUND, start);
 
+            start = startPhase();
             updateDynamicBodies();
+            endPhase(RoundStats.Phase.ROBOT_TURNS, start);
 
+            start = startPhase();
             this.controlProvider.roundEnded();
             this.processEndOfRound();
+            endPhase(RoundStats.Phase.END_OF_ROUND, start);
 
             if (!this.isRunning()) {
                 this.controlProvider.matchEnded();
@@ -140,10 +187,92 @@ public strictfp class GameWorld {
             return GameState.DONE;
         }
         // Write out round data
+        final long start = startPhase();
         matchMaker.makeRound(currentRound);
+        endPhase(RoundStats.Phase.MAKE_ROUND, start);
+        endPhase(RoundStats.Phase.ROUND, roundStart);
+        if (roundEvent != null) {
+            roundEvent.finish(gameMap.getMapName(), currentRound,
+                    objectInfo.getRobotCount(Team.A) + objectInfo.getRobotCount(Team.B),
+                    teamInfo.getBytecodesUsed(Team.A) + teamInfo.getBytecodesUsed(Team.B) - bytecodesBefore);
+        }
         return GameState.RUNNING;
     }
 
+    /**
+     * Time the phases of each round from now on.
+     *
+     * @param roundStats where to record the timings, or null to stop
+     *                   timing them
+     */
+    public void setRoundStats(RoundStats roundStats) {
+        this.roundStats = roundStats;
+    }
+
+    /**
+     * @return the timings of the rounds played, or null if they aren't
+     *         being timed
+     */
+    public RoundStats getRoundStats() {
+        return roundStats;
+    }
+
+    /**
+     * Total the cost of robots' turns, by team and type, from now on; must
+     * be set before the first round, or the first turns timed will include
+     * the robots' earlier ones.
+     *
+     * @param turnStats where to total them, or null to stop
+     */
+    public void setTurnStats(TurnStats turnStats) {
+        this.turnStats = turnStats;
+    }
+
+    /**
+     * @return the cost of the turns played, or null if it isn't being totalled
+     */
+    public TurnStats getTurnStats() {
+        return turnStats;
+    }
+
+    /**
+     * Write the CPU and wall-clock time of each robot's turn into the
+     * replay, next to its bytecodes, from now on; see setTurnStats for
+     * when to call this.
+     */
+    public void setRecordTurnTimes(boolean recordTurnTimes) {
+        this.recordTurnTimes = recordTurnTimes;
+    }
+
+    /**
+     * Give robots a soft budget for the heap they allocate each turn, from
+     * now on; see setTurnStats for when to call this. Turns that go over it
+     * are counted in the turn stats, if there are any; and, if throttling,
+     * the robot is charged a share of its bytecode limit in proportion to
+     * how far over it went (all of it at twice the budget), out of its next
+     * turns.
+     *
+     * @param bytesPerTurn the budget, or 0 for none
+     * @param throttle whether to charge robots that go over it bytecodes
+     */
+    public void setAllocationBudget(long bytesPerTurn, boolean throttle) {
+        this.allocationBudget = bytesPerTurn;
+        this.throttleAllocation = throttle;
+    }
+
+    /**
+     * @return the time a phase starts at, if we're timing them
+     */
+    private long startPhase() {
+        return roundStats != null ? System.nanoTime() : 0;
+    }
+
+    private void endPhase(RoundStats.Phase phase, long start) {
+        if (roundStats != null) {
+            roundStats.record(phase, System.nanoTime() - start);
+        }
+    }
+
     private void updateDynamicBodies(){
         objectInfo.eachDynamicBodyByExecOrder((body) -> {
             // System.out.println(Arrays.deepToString(this.robots));
@@ -166,10 +295,41 @@ public strictfp class GameWorld {
             }
             return true;
         } else {
+            RobotTurnEvent turnEvent = null;
+            if (EngineEvents.ENABLED) {
+                turnEvent = new RobotTurnEvent();
+                turnEvent.begin();
+            }
             robot.processBeginningOfTurn();
+            final boolean timed = turnStats != null || recordTurnTimes || allocationBudget > 0;
+            final long turnStart = timed ? System.nanoTime() : 0;
             this.controlProvider.runRobot(robot);
+            final long wallNanos = timed ? System.nanoTime() - turnStart : 0;
             robot.setBytecodesUsed(this.controlProvider.getBytecodesUsed(robot));
+            if (robot.getTeam() != Team.NEUTRAL) {
+                teamInfo.addBytecodesUsed(robot.getTeam(), robot.getBytecodesUsed());
+            }
             robot.processEndOfTurn();
+            if (timed) {
+                final long cpuNanos = this.controlProvider.getCpuTimeUsed(robot);
+                final long allocatedBytes = turnStats != null || allocationBudget > 0
+                        ? this.controlProvider.getBytesAllocated(robot) : -1;
+                if (turnStats != null) {
+                    turnStats.record(robot.getTeam(), robot.getType(), robot.getBytecodesUsed(), cpuNanos, wallNanos,
+                            allocatedBytes);
+                }
+                if (allocationBudget > 0 && allocatedBytes > allocationBudget) {
+                    overAllocationBudget(robot, allocatedBytes);
+                }
+                if (recordTurnTimes) {
+                    matchMaker.addTurnTimes(cpuNanos < 0 ? -1 : (int) Math.min(cpuNanos / 1000, Integer.MAX_VALUE),
+                            (int) Math.min(wallNanos / 1000, Integer.MAX_VALUE));
+                }
+            }
+            if (turnEvent != null) {
+                turnEvent.finish(robot.getID(), robot.getTeam().name(), robot.getType().name(),
+                        currentRound, robot.getBytecodesUsed());
+            }
 
             // If the robot terminates but the death signal has not yet
             // been visited:
@@ -179,6 +339,32 @@ public strictfp class GameWorld {
         }
     }
 
+    private void overAllocationBudget(InternalRobot robot, long allocatedBytes) {
+        if (turnStats != null) {
+            turnStats.recordOverBudget(robot.getTeam(), robot.getType());
+        }
+        if (throttleAllocation) {
+            this.controlProvider.chargeBytecodes(robot,
+                    allocationCharge(robot.getType().bytecodeLimit, allocatedBytes, allocationBudget));
+        }
+    }
+
+    /**
+     * @param bytecodeLimit the robot's bytecode limit
+     * @param allocatedBytes the heap it allocated in a turn
+     * @param budget its allocation budget
+     * @return the bytecodes to charge it, out of its next turns, for going
+     *         over the budget: a share of its limit in proportion to how far
+     *         over it went, all of it at twice the budget
+     */
+    public static int allocationCharge(int bytecodeLimit, long allocatedBytes, long budget) {
+        final long over = allocatedBytes - budget;
+        if (over <= 0) {
+            return 0;
+        }
+        return over >= budget ? bytecodeLimit : (int) (bytecodeLimit * over / budget);
+    }
+
     // *********************************
     // ****** BASIC MAP METHODS ********
     // *********************************
@@ -187,6 +373,14 @@ public strictfp class GameWorld {
         return this.gameMap.getSeed();
     }
 
+    public void reseedTransactionIDs() {
+        this.transactionIDs = new Random(this.gameMap.getSeed());
+    }
+
+    public int nextTransactionID() {
+        return this.transactionIDs.nextInt();
+    }
+
     public LiveMap getGameMap() {
         return this.gameMap;
     }
@@ -264,8 +458,11 @@ public strictfp class GameWorld {
     // ***********************************
 
     public int getPollution(MapLocation loc) {
-        if (pollutionNeedsUpdate)
+        if (pollutionNeedsUpdate) {
+            final long start = startPhase();
             calculatePollution();
+            endPhase(RoundStats.Phase.POLLUTION, start);
+        }
         return this.gameMap.onTheMap(loc) ? this.pollution[locationToIndex(loc)] : 0;
     }
 
@@ -614,11 +811,15 @@ public strictfp class GameWorld {
         });
 
         // process blockchain messages
+        long start = startPhase();
         processBlockchain();
+        endPhase(RoundStats.Phase.BLOCKCHAIN, start);
 
         // flooding
+        start = startPhase();
         updateWaterLevel();
         floodfill();
+        endPhase(RoundStats.Phase.FLOODING, start);
 
         // Check for end of match
         // occurs when one HQ is destroyed, or time limit reached
@@ -635,10 +836,28 @@ public strictfp class GameWorld {
         matchMaker.addTeamSoup(Team.B, teamInfo.getSoup(Team.B));
         matchMaker.setGlobalPollution(this.globalPollution);
 
+        // every so often, the full state, so viewers can seek
+        if (matchMaker.isKeyframeRound(currentRound))
+            writeKeyframe();
+
         if (gameStats.getWinner() != null)
             running = false;
     }
 
+    /**
+     * Hands the current state to the match maker as a keyframe.
+     * The map arrays are passed as-is; they're written out before the next round runs.
+     */
+    private void writeKeyframe() {
+        matchMaker.setKeyframe(this.soup, this.dirt, this.flooded, this.waterLevel);
+        for (LocalPollutionEffect pE : localPollutions.values())
+            matchMaker.addKeyframeLocalPollution(pE.loc, pE.radiusSquared, pE.additiveEffect, pE.multiplicativeEffect);
+        objectInfo.eachRobot((robot) -> {
+            matchMaker.addKeyframeRobot(robot);
+            return true;
+        });
+    }
+
     /**
      * Flood expands from currently flooded locations to immediately
      *  adjacent locations that are beneath the current water level.
@@ -666,12 +885,20 @@ public strictfp class GameWorld {
     // *********************************
 
     public int spawnRobot(int ID, RobotType type, MapLocation location, Team team){
+        SpawnEvent spawnEvent = null;
+        if (EngineEvents.ENABLED) {
+            spawnEvent = new SpawnEvent();
+            spawnEvent.begin();
+        }
         InternalRobot robot = new InternalRobot(this, ID, type, location, team);
         objectInfo.spawnRobot(robot);
         addRobot(location, robot);
 
         controlProvider.robotSpawned(robot);
         matchMaker.addSpawnedRobot(robot);
+        if (spawnEvent != null) {
+            spawnEvent.finish(ID, team.name(), type.name(), currentRound);
+        }
         return ID;
     }
 
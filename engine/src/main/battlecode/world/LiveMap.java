@@ -119,7 +119,17 @@ public strictfp class LiveMap {
      * @param gm the LiveMap to copy.
      */
     public LiveMap(LiveMap gm) {
-        this(gm.width, gm.height, gm.origin, gm.seed, gm.rounds, gm.mapName, gm.initialBodies,
+        this(gm, gm.seed);
+    }
+
+    /**
+     * Creates a copy of the input LiveMap, as above, with a different seed.
+     *
+     * @param gm the LiveMap to copy.
+     * @param seed the seed to use instead of the map's own.
+     */
+    public LiveMap(LiveMap gm, int seed) {
+        this(gm.width, gm.height, gm.origin, seed, gm.rounds, gm.mapName, gm.initialBodies,
              gm.soupArray, gm.pollutionArray, gm.waterArray, gm.dirtArray, gm.waterLevel);
     }
 
@@ -30,11 +30,6 @@ public final strictfp class RobotControllerImpl implements RobotController {
      */
     private final InternalRobot robot;
 
-    /**
-     * An rng based on the world seed.
-     */
-    private static Random random;
-
     /**
      * Create a new RobotControllerImpl
      *
@@ -45,7 +40,7 @@ public final strictfp class RobotControllerImpl implements RobotController {
         this.gameWorld = gameWorld;
         this.robot = robot;
 
-        this.random = new Random(gameWorld.getMapSeed());
+        gameWorld.reseedTransactionIDs();
     }
 
     // *********************************
@@ -990,7 +985,7 @@ public final strictfp class RobotControllerImpl implements RobotController {
         // pay!
         gameWorld.getTeamInfo().adjustSoup(getTeam(), -cost);
         // create a block chain entry
-        int id = random.nextInt();
+        int id = gameWorld.nextTransactionID();
         Transaction transaction = new Transaction(cost, message.clone(), id);
         // add
         gameWorld.addTransaction(transaction);
@@ -0,0 +1,133 @@
+package battlecode.world;
+
+import battlecode.util.Histogram;
+
+/**
+ * How long the phases of a match's rounds took, each as a histogram of
+ * nanoseconds, so a slow match can be traced to the phase that made it
+ * slow.
+ *
+ * Some phases are parts of others: blockchain and flooding are timed within
+ * the end of the round, and pollution is recalculated when a robot first
+ * senses it after it changes, so within robot turns.
+ *
+ * A GameWorld only collects these if it's been given one (see
+ * GameWorld.setRoundStats); otherwise timing a phase costs a null check.
+ * Not thread safe, except for add(), so that matches played at once can
+ * be totalled.
+ */
+public final class RoundStats {
+
+    public enum Phase {
+        /**
+         * The whole round, including writing it out.
+         */
+        ROUND("round", false),
+        /**
+         * processBeginningOfRound, and the control provider's roundStarted.
+         */
+        BEGINNING_OF_ROUND("beginning of round", false),
+        /**
+         * Every robot's turn.
+         */
+        ROBOT_TURNS("robot turns", false),
+        /**
+         * Recalculating pollution; happens during robot turns.
+         */
+        POLLUTION("pollution", true),
+        /**
+         * The control provider's roundEnded, and processEndOfRound.
+         */
+        END_OF_ROUND("end of round", false),
+        /**
+         * Choosing and broadcasting the round's transactions; happens at the
+         * end of the round.
+         */
+        BLOCKCHAIN("blockchain", true),
+        /**
+         * Raising the water and flooding; happens at the end of the round.
+         */
+        FLOODING("flooding", true),
+        /**
+         * Writing out the round (GameMaker.MatchMaker.makeRound).
+         */
+        MAKE_ROUND("make round", false);
+
+        private final String label;
+        private final boolean nested;
+
+        Phase(String label, boolean nested) {
+            this.label = label;
+            this.nested = nested;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final Histogram[] phases;
+
+    public RoundStats() {
+        this.phases = new Histogram[PHASES.length];
+        for (int i = 0; i < PHASES.length; i++) {
+            phases[i] = new Histogram();
+        }
+    }
+
+    /**
+     * @param phase the phase that ran
+     * @param nanos how long it took
+     */
+    public void record(Phase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * @return how long each run of the phase took, in nanoseconds
+     */
+    public Histogram get(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    /**
+     * @return how many rounds have been timed
+     */
+    public long getRounds() {
+        return get(Phase.ROUND).getCount();
+    }
+
+    /**
+     * Count another match's timings, too.
+     */
+    public synchronized void add(RoundStats other) {
+        synchronized (other) {
+            for (int i = 0; i < PHASES.length; i++) {
+                phases[i].add(other.phases[i]);
+            }
+        }
+    }
+
+    /**
+     * @return a table of each phase's count, total, and distribution, in
+     *         microseconds
+     */
+    public synchronized String summary() {
+        final long roundTotal = get(Phase.ROUND).getTotal();
+        final StringBuilder b = new StringBuilder();
+        b.append(String.format("%-20s %7s %9s %6s %9s %9s %9s %9s %9s",
+                "phase (us)", "count", "total ms", "%", "mean", "p50", "p90", "p99", "max"));
+        for (Phase phase : PHASES) {
+            final Histogram h = get(phase);
+            b.append(String.format("%n%-20s %7d %9.1f %6.1f %9.1f %9.1f %9.1f %9.1f %9.1f",
+                    (phase.nested ? "  " : "") + phase.label,
+                    h.getCount(),
+                    h.getTotal() / 1e6,
+                    roundTotal == 0 ? 0.0 : 100.0 * h.getTotal() / roundTotal,
+                    h.getMean() / 1e3,
+                    h.getValueAtPercentile(50) / 1e3,
+                    h.getValueAtPercentile(90) / 1e3,
+                    h.getValueAtPercentile(99) / 1e3,
+                    h.getMax() / 1e3));
+        }
+        return b.toString();
+    }
+}
@@ -14,6 +14,7 @@ public class TeamInfo {
     private int[] teamSoup;
     private boolean[] destroyedHQ;
     private int[] blockchainsSent;
+    private long[] bytecodesUsed;
 
     public TeamInfo(GameWorld gameWorld) {
         this.gameWorld = gameWorld;
@@ -21,6 +22,7 @@ public class TeamInfo {
         Arrays.fill(teamSoup, GameConstants.INITIAL_SOUP);
         this.destroyedHQ = new boolean[2];
         blockchainsSent = new int[2];
+        bytecodesUsed = new long[2];
     }
 
     // *********************************
@@ -36,6 +38,13 @@ public class TeamInfo {
         return blockchainsSent[t.ordinal()];
     }
 
+    /**
+     * @return the bytecodes the team's robots have used, in all their turns
+     */
+    public long getBytecodesUsed(Team t) {
+        return bytecodesUsed[t.ordinal()];
+    }
+
     // *********************************
     // ***** UPDATE METHODS ************
     // *********************************
@@ -60,4 +69,8 @@ public class TeamInfo {
     public void addBlockchainSent(Team t) {
         blockchainsSent[t.ordinal()]++;
     }
+
+    public void addBytecodesUsed(Team t, int bytecodes) {
+        bytecodesUsed[t.ordinal()] += bytecodes;
+    }
 }
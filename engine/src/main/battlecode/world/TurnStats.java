@@ -0,0 +1,250 @@
+package battlecode.world;
+
+import battlecode.common.RobotType;
+import battlecode.common.Team;
+import battlecode.util.Histogram;
+
+/**
+ * What robots' turns cost, totalled by team and robot type: how many turns
+ * there were, the bytecodes they used, the CPU time their players' threads
+ * used, the wall-clock time they took, and the heap they allocated.
+ * Bytecodes are what robots are charged; the rest is what they actually
+ * cost the engine, which for the same bytecodes can vary a lot with what
+ * the bytecodes do. Allocation, in particular, is paid for by everyone, in
+ * garbage collection.
+ *
+ * CPU time and allocation aren't always known (cows run on the engine's
+ * own thread, and some JVMs can't measure them), so the turns they were
+ * measured for are counted separately. So are the turns that went over an
+ * allocation budget, if there is one (see GameWorld.setAllocationBudget).
+ * Every turn's wall-clock time also goes in one histogram, for the tail
+ * latency of turns, which the totals hide.
+ *
+ * A GameWorld only collects these if it's been given one (see
+ * GameWorld.setTurnStats). Not thread safe, except for add(), so that
+ * matches played at once can be totalled.
+ */
+public final class TurnStats {
+
+    private static final Team[] TEAMS = Team.values();
+    private static final RobotType[] TYPES = RobotType.values();
+
+    private final long[][] turns;
+    private final long[][] bytecodes;
+    private final long[][] cpuTurns;
+    private final long[][] cpuNanos;
+    private final long[][] wallNanos;
+    private final long[][] allocatedTurns;
+    private final long[][] allocatedBytes;
+    private final long[][] overBudgetTurns;
+    private final Histogram turnTimes;
+
+    public TurnStats() {
+        this.turns = new long[TEAMS.length][TYPES.length];
+        this.bytecodes = new long[TEAMS.length][TYPES.length];
+        this.cpuTurns = new long[TEAMS.length][TYPES.length];
+        this.cpuNanos = new long[TEAMS.length][TYPES.length];
+        this.wallNanos = new long[TEAMS.length][TYPES.length];
+        this.allocatedTurns = new long[TEAMS.length][TYPES.length];
+        this.allocatedBytes = new long[TEAMS.length][TYPES.length];
+        this.overBudgetTurns = new long[TEAMS.length][TYPES.length];
+        this.turnTimes = new Histogram();
+    }
+
+    /**
+     * Count a robot's turn.
+     *
+     * @param team the robot's team
+     * @param type the robot's type
+     * @param bytecodes the bytecodes it used
+     * @param cpuNanos the CPU time it used, or -1 if that isn't known
+     * @param wallNanos the wall-clock time it took
+     * @param allocatedBytes the heap it allocated, or -1 if that isn't known
+     */
+    public void record(Team team, RobotType type, int bytecodes, long cpuNanos, long wallNanos,
+                       long allocatedBytes) {
+        final int t = team.ordinal();
+        final int r = type.ordinal();
+        this.turns[t][r]++;
+        this.bytecodes[t][r] += bytecodes;
+        if (cpuNanos >= 0) {
+            this.cpuTurns[t][r]++;
+            this.cpuNanos[t][r] += cpuNanos;
+        }
+        this.wallNanos[t][r] += wallNanos;
+        this.turnTimes.record(wallNanos);
+        if (allocatedBytes >= 0) {
+            this.allocatedTurns[t][r]++;
+            this.allocatedBytes[t][r] += allocatedBytes;
+        }
+    }
+
+    /**
+     * Count a robot's turn as having gone over the allocation budget.
+     */
+    public void recordOverBudget(Team team, RobotType type) {
+        this.overBudgetTurns[team.ordinal()][type.ordinal()]++;
+    }
+
+    public long getTurns(Team team, RobotType type) {
+        return turns[team.ordinal()][type.ordinal()];
+    }
+
+    public long getBytecodes(Team team, RobotType type) {
+        return bytecodes[team.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * @return how many of the turns had their CPU time measured
+     */
+    public long getCpuTurns(Team team, RobotType type) {
+        return cpuTurns[team.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * @return the CPU time used in the turns it was measured for, in nanoseconds
+     */
+    public long getCpuNanos(Team team, RobotType type) {
+        return cpuNanos[team.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * @return the wall-clock time the turns took, in nanoseconds
+     */
+    public long getWallNanos(Team team, RobotType type) {
+        return wallNanos[team.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * @return how many of the turns had their allocation measured
+     */
+    public long getAllocatedTurns(Team team, RobotType type) {
+        return allocatedTurns[team.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * @return the bytes allocated in the turns it was measured for
+     */
+    public long getAllocatedBytes(Team team, RobotType type) {
+        return allocatedBytes[team.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * @return how many of the turns went over the allocation budget
+     */
+    public long getOverBudgetTurns(Team team, RobotType type) {
+        return overBudgetTurns[team.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * @return the wall-clock time each turn took, of every team and type,
+     *         in nanoseconds
+     */
+    public Histogram getTurnTimes() {
+        return turnTimes;
+    }
+
+    public long getTurns(Team team) {
+        return sum(turns[team.ordinal()]);
+    }
+
+    public long getBytecodes(Team team) {
+        return sum(bytecodes[team.ordinal()]);
+    }
+
+    public long getCpuTurns(Team team) {
+        return sum(cpuTurns[team.ordinal()]);
+    }
+
+    public long getCpuNanos(Team team) {
+        return sum(cpuNanos[team.ordinal()]);
+    }
+
+    public long getWallNanos(Team team) {
+        return sum(wallNanos[team.ordinal()]);
+    }
+
+    public long getAllocatedTurns(Team team) {
+        return sum(allocatedTurns[team.ordinal()]);
+    }
+
+    public long getAllocatedBytes(Team team) {
+        return sum(allocatedBytes[team.ordinal()]);
+    }
+
+    public long getOverBudgetTurns(Team team) {
+        return sum(overBudgetTurns[team.ordinal()]);
+    }
+
+    /**
+     * Count another match's turns, too.
+     */
+    public synchronized void add(TurnStats other) {
+        synchronized (other) {
+            turnTimes.add(other.turnTimes);
+            for (int t = 0; t < TEAMS.length; t++) {
+                for (int r = 0; r < TYPES.length; r++) {
+                    turns[t][r] += other.turns[t][r];
+                    bytecodes[t][r] += other.bytecodes[t][r];
+                    cpuTurns[t][r] += other.cpuTurns[t][r];
+                    cpuNanos[t][r] += other.cpuNanos[t][r];
+                    wallNanos[t][r] += other.wallNanos[t][r];
+                    allocatedTurns[t][r] += other.allocatedTurns[t][r];
+                    allocatedBytes[t][r] += other.allocatedBytes[t][r];
+                    overBudgetTurns[t][r] += other.overBudgetTurns[t][r];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a table of each team and robot type's turns, with their
+     *         totals and their mean cost per turn and per bytecode
+     */
+    public synchronized String summary() {
+        final StringBuilder b = new StringBuilder();
+        b.append(String.format("%-8s %-22s %8s %12s %10s %10s %10s %10s %8s %10s %9s %6s",
+                "team", "type", "turns", "bytecodes", "cpu ms", "wall ms", "cpu us/t", "wall us/t", "ns/bc",
+                "alloc KB", "B/t", "over"));
+        for (Team team : TEAMS) {
+            for (RobotType type : TYPES) {
+                if (getTurns(team, type) != 0) {
+                    row(b, team.name(), type.name(), getTurns(team, type), getBytecodes(team, type),
+                            getCpuTurns(team, type), getCpuNanos(team, type), getWallNanos(team, type),
+                            getAllocatedTurns(team, type), getAllocatedBytes(team, type),
+                            getOverBudgetTurns(team, type));
+                }
+            }
+            if (getTurns(team) != 0) {
+                row(b, team.name(), "(all)", getTurns(team), getBytecodes(team),
+                        getCpuTurns(team), getCpuNanos(team), getWallNanos(team),
+                        getAllocatedTurns(team), getAllocatedBytes(team), getOverBudgetTurns(team));
+            }
+        }
+        return b.toString();
+    }
+
+    private static void row(StringBuilder b, String team, String type, long turns, long bytecodes,
+                            long cpuTurns, long cpuNanos, long wallNanos,
+                            long allocatedTurns, long allocatedBytes, long overBudgetTurns) {
+        b.append(String.format("%n%-8s %-22s %8d %12d %10s %10.1f %10s %10.1f %8s %10s %9s %6d",
+                team, type, turns, bytecodes,
+                cpuTurns == 0 ? "-" : String.format("%.1f", cpuNanos / 1e6),
+                wallNanos / 1e6,
+                cpuTurns == 0 ? "-" : String.format("%.1f", cpuNanos / 1e3 / cpuTurns),
+                wallNanos / 1e3 / turns,
+                // only where every turn's CPU time is known, so it's per the same bytecodes
+                cpuTurns != turns || bytecodes == 0 ? "-" : String.format("%.1f", (double) cpuNanos / bytecodes),
+                allocatedTurns == 0 ? "-" : String.format("%.1f", allocatedBytes / 1024.0),
+                allocatedTurns == 0 ? "-" : String.valueOf(allocatedBytes / allocatedTurns),
+                overBudgetTurns));
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
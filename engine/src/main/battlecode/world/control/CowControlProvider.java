@@ -223,6 +223,22 @@ public class CowControlProvider implements RobotControlProvider {
         return 0;
     }
 
+    @Override
+    public long getCpuTimeUsed(InternalRobot robot) {
+        // Cows move on the engine's thread, which we don't time.
+        return -1;
+    }
+
+    @Override
+    public long getBytesAllocated(InternalRobot robot) {
+        return -1;
+    }
+
+    @Override
+    public void chargeBytecodes(InternalRobot robot, int bytecodes) {
+        // Cows don't use bytecodes.
+    }
+
     @Override
     public boolean getTerminated(InternalRobot robot) {
         // Cows never terminate due to computation errors.
@@ -35,6 +35,19 @@ public class NullControlProvider implements RobotControlProvider {
         return 0;
     }
 
+    @Override
+    public long getCpuTimeUsed(InternalRobot robot) {
+        return -1;
+    }
+
+    @Override
+    public long getBytesAllocated(InternalRobot robot) {
+        return -1;
+    }
+
+    @Override
+    public void chargeBytecodes(InternalRobot robot, int bytecodes) {}
+
     @Override
     public boolean getTerminated(InternalRobot robot) {
         return false;
@@ -4,6 +4,9 @@ import battlecode.instrumenter.InstrumentationException;
 import battlecode.instrumenter.TeamClassLoaderFactory;
 import battlecode.instrumenter.SandboxedRobotPlayer;
 import battlecode.server.ErrorReporter;
+import battlecode.server.jfr.EngineEvents;
+import battlecode.server.jfr.SandboxEvent;
+import battlecode.world.ApiProfile;
 import battlecode.world.GameWorld;
 import battlecode.world.InternalRobot;
 
@@ -52,16 +55,42 @@ public class PlayerControlProvider implements RobotControlProvider {
     private final OutputStream robotOut;
 
     /**
-     * Create a new PlayerControlProvider.
-     *  @param teamPackage the name / package of the team we're loading
-     * @param teamURL the url of the classes for the team;
+     * How the team's output is handled.
+     */
+    private final SandboxedRobotPlayer.OutputOptions outputOptions;
+
+    /**
+     * Where to time the team's calls to their RobotControllers, or null to
+     * not time them.
+     */
+    private ApiProfile apiProfile;
+
+    /**
+     * Create a new PlayerControlProvider, loading the team's classes with a
+     * factory that may already have instrumented them.
+     *
+     * @param teamPackage the name / package of the team we're loading
+     * @param factory the factory for the team's class loaders
      * @param robotOut the output that robots should write to
+     * @param outputOptions how the team's output is handled
      */
-    public PlayerControlProvider(String teamPackage, String teamURL, OutputStream robotOut) {
+    public PlayerControlProvider(String teamPackage, TeamClassLoaderFactory factory, OutputStream robotOut,
+                                 SandboxedRobotPlayer.OutputOptions outputOptions) {
         this.teamPackage = teamPackage;
         this.sandboxes = new HashMap<>(); // GameWorld maintains order for us
-        this.factory = new TeamClassLoaderFactory(teamURL);
+        this.factory = factory;
         this.robotOut = robotOut;
+        this.outputOptions = outputOptions;
+    }
+
+    /**
+     * Time the calls the team's robots make to their RobotControllers,
+     * from the next robot spawned on.
+     *
+     * @param apiProfile where to time them, or null to stop
+     */
+    public void setApiProfile(ApiProfile apiProfile) {
+        this.apiProfile = apiProfile;
     }
 
     @Override
@@ -82,15 +111,25 @@ public class PlayerControlProvider implements RobotControlProvider {
 
     @Override
     public void robotSpawned(InternalRobot robot) {
+        SandboxEvent sandboxEvent = null;
+        if (EngineEvents.ENABLED) {
+            sandboxEvent = new SandboxEvent();
+            sandboxEvent.begin();
+        }
         try {
             final SandboxedRobotPlayer player = new SandboxedRobotPlayer(
                     teamPackage,
-                    robot.getController(),
+                    apiProfile != null ? apiProfile.wrap(robot.getController(), robot.getTeam())
+                            : robot.getController(),
                     robot.getID(),
                     factory.createLoader(),
-                    robotOut
+                    robotOut,
+                    outputOptions
             );
             this.sandboxes.put(robot.getID(), player);
+            if (sandboxEvent != null) {
+                sandboxEvent.finish(robot.getID(), robot.getTeam().name(), robot.getType().name(), teamPackage);
+            }
         } catch (InstrumentationException e) {
             ErrorReporter.report("Error while loading player "+ teamPackage +": "+e.getMessage(), false);
             robot.suicide();
@@ -146,6 +185,37 @@ public class PlayerControlProvider implements RobotControlProvider {
         }
     }
 
+    @Override
+    public long getCpuTimeUsed(InternalRobot robot) {
+        final SandboxedRobotPlayer player = this.sandboxes.get(robot.getID());
+
+        if (player != null) {
+            return player.getCpuTimeUsed();
+        } else {
+            return -1;
+        }
+    }
+
+    @Override
+    public long getBytesAllocated(InternalRobot robot) {
+        final SandboxedRobotPlayer player = this.sandboxes.get(robot.getID());
+
+        if (player != null) {
+            return player.getBytesAllocated();
+        } else {
+            return -1;
+        }
+    }
+
+    @Override
+    public void chargeBytecodes(InternalRobot robot, int bytecodes) {
+        final SandboxedRobotPlayer player = this.sandboxes.get(robot.getID());
+
+        if (player != null) {
+            player.chargeBytecodes(bytecodes);
+        }
+    }
+
     @Override
     public boolean getTerminated(InternalRobot robot) {
         assert this.sandboxes.containsKey(robot.getID());
@@ -76,6 +76,35 @@ public interface RobotControlProvider {
      */
     int getBytecodesUsed(InternalRobot robot);
 
+    /**
+     * Get the CPU time the given robot's player has used since this was
+     * last called for it, which is once after each of its turns, if at all.
+     *
+     * @param robot the robot to check
+     * @return the CPU time used, in nanoseconds, or -1 if it isn't known
+     */
+    long getCpuTimeUsed(InternalRobot robot);
+
+    /**
+     * Get the bytes of heap the given robot's player has allocated since
+     * this was last called for it, which is once after each of its turns,
+     * if at all.
+     *
+     * @param robot the robot to check
+     * @return the bytes allocated, or -1 if it isn't known
+     */
+    long getBytesAllocated(InternalRobot robot);
+
+    /**
+     * Charge the given robot bytecodes between its turns, to come out of
+     * its next ones, as if it had gone over its bytecode limit by that much.
+     * Does nothing for robots that aren't limited by bytecodes.
+     *
+     * @param robot the robot to charge
+     * @param bytecodes the bytecodes to charge
+     */
+    void chargeBytecodes(InternalRobot robot, int bytecodes);
+
     /**
      * Determine whether the computation thread for the given
      * robot has terminated
@@ -109,6 +109,30 @@ public final class TeamControlProvider implements RobotControlProvider {
         return teamProviderMap.get(team).getBytecodesUsed(robot);
     }
 
+    @Override
+    public long getCpuTimeUsed(InternalRobot robot) {
+        Team team = robot.getTeam();
+        assert teamProviderMap.containsKey(team);
+
+        return teamProviderMap.get(team).getCpuTimeUsed(robot);
+    }
+
+    @Override
+    public long getBytesAllocated(InternalRobot robot) {
+        Team team = robot.getTeam();
+        assert teamProviderMap.containsKey(team);
+
+        return teamProviderMap.get(team).getBytesAllocated(robot);
+    }
+
+    @Override
+    public void chargeBytecodes(InternalRobot robot, int bytecodes) {
+        Team team = robot.getTeam();
+        assert teamProviderMap.containsKey(team);
+
+        teamProviderMap.get(team).chargeBytecodes(robot, bytecodes);
+    }
+
     @Override
     public boolean getTerminated(InternalRobot robot) {
         Team team = robot.getTeam();
@@ -80,7 +80,7 @@ public class LoaderTest {
 
     @Before
     public void setupDefaultCache() throws Exception {
-        sharedCache = new TeamClassLoaderFactory(tempClassFolder);
+        sharedCache = new TeamClassLoaderFactory(tempClassFolder, false, false);
         l1 = setupLoader(sharedCache);
         l2 = setupLoader(sharedCache);
     }
@@ -313,7 +313,7 @@ public class LoaderTest {
     @Test
     public void testLoadFromJar() throws Exception {
         String jar = URLUtils.toTempJar("instrumentertest/Nothing.class");
-        TeamClassLoaderFactory factory = new TeamClassLoaderFactory(jar);
+        TeamClassLoaderFactory factory = new TeamClassLoaderFactory(jar, false, false);
         URL jarClassLocation = factory.getTeamURL("instrumentertest/Nothing.class");
 
         // EXTREMELY scientific
@@ -335,7 +335,7 @@ public class LoaderTest {
             }
         );
         TeamClassLoaderFactory.Loader loader = setupLoader(
-                new TeamClassLoaderFactory(folder)
+                new TeamClassLoaderFactory(folder, false, false)
         );
 
         try {
@@ -360,7 +360,7 @@ public class LoaderTest {
         }) {
             try {
                 TeamClassLoaderFactory.Loader loader
-                    = setupLoader(new TeamClassLoaderFactory(folder));
+                    = setupLoader(new TeamClassLoaderFactory(folder, false, false));
                 loader.loadClass(className);
                 fail("No error on player package: "+className);
             } catch (InstrumentationException e) {}
@@ -386,9 +386,9 @@ public class LoaderTest {
             }
         );
         TeamClassLoaderFactory.Loader loaderA = setupLoader(
-                new TeamClassLoaderFactory(folderA));
+                new TeamClassLoaderFactory(folderA, false, false));
         TeamClassLoaderFactory.Loader loaderB = setupLoader(
-                new TeamClassLoaderFactory(folderB));
+                new TeamClassLoaderFactory(folderB, false, false));
 
         assertEquals(
                 'A',
@@ -413,7 +413,7 @@ public class LoaderTest {
                 "file:///AJSJEUDKA9FHLJADDHS/THIS/FOLDER/SHOULD/NOT/EXIST"
         }) {
 
-            TeamClassLoaderFactory c = new TeamClassLoaderFactory(badURL);
+            TeamClassLoaderFactory c = new TeamClassLoaderFactory(badURL, false, false);
 
             assertTrue("Failed to error on url: "+badURL, c.getError());
         }
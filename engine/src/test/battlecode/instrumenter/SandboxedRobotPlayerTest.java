@@ -6,14 +6,17 @@ import battlecode.common.RobotType;
 import battlecode.common.Team;
 import battlecode.instrumenter.stream.SilencedPrintStream;
 import battlecode.server.Config;
+import battlecode.world.GameWorld;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -53,6 +56,7 @@ public class SandboxedRobotPlayerTest {
 
     TeamClassLoaderFactory factory;
     TeamClassLoaderFactory.Loader loader;
+    SandboxedRobotPlayer.OutputOptions outputOptions;
     RobotController rc;
 
     @Before
@@ -68,13 +72,14 @@ public class SandboxedRobotPlayerTest {
         when(rc.getLocation()).thenReturn(new MapLocation(0, 0));
         when(rc.getRoundNum()).thenReturn(0);
 
-        factory = new TeamClassLoaderFactory(tempClassFolder);
+        factory = new TeamClassLoaderFactory(tempClassFolder, false, false);
         loader = factory.createLoader();
+        outputOptions = SandboxedRobotPlayer.OutputOptions.forTeam(Config.defaultConfig(), Team.A);
     }
 
     @Test
     public void testLifecycleEmptyPlayer() throws Exception {
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerempty", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerempty", rc, 0, loader, out, outputOptions);
 
         player.setBytecodeLimit(10000);
 
@@ -87,7 +92,7 @@ public class SandboxedRobotPlayerTest {
 
     @Test
     public void testRobotControllerMethodsCalled() throws Exception {
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayeractions", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayeractions", rc, 0, loader, out, outputOptions);
 
         player.setBytecodeLimit(10000);
 
@@ -103,7 +108,7 @@ public class SandboxedRobotPlayerTest {
 
     // @Test
     // public void testYield() throws Exception {
-    //     SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerclock", rc, 0, loader, out);
+    //     SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerclock", rc, 0, loader, out, outputOptions);
     //     player.setBytecodeLimit(10000);
 
     //     player.step();
@@ -121,7 +126,7 @@ public class SandboxedRobotPlayerTest {
 
     @Test
     public void testBytecodeCountingWorks() throws Exception {
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerloopforever", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerloopforever", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(100);
 
         player.step();
@@ -135,7 +140,7 @@ public class SandboxedRobotPlayerTest {
 
     @Test(timeout=300)
     public void testAvoidDeadlocks() throws Exception {
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayersuicide", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayersuicide", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(10);
 
         // Attempt to kill the player when it calls "disintegrate"
@@ -153,7 +158,7 @@ public class SandboxedRobotPlayerTest {
 
     @Test
     public void testStaticInitialization() throws Exception {
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerstatic", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerstatic", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(10000);
 
         // Player calls "yield" in static initializer
@@ -167,7 +172,7 @@ public class SandboxedRobotPlayerTest {
 
     @Test
     public void testBytecodeOveruse() throws Exception {
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerbytecode", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerbytecode", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(200);
 
         for (int i = 0; i < 10; i++) {
@@ -182,7 +187,7 @@ public class SandboxedRobotPlayerTest {
 
     @Test
     public void testArrayLooping() throws Exception {
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerarray", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerarray", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(10000);
 
         player.step();
@@ -191,7 +196,7 @@ public class SandboxedRobotPlayerTest {
 
     @Test
     public void testArrayBytecode() throws Exception {
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerarraybytecode", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerarraybytecode", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(10000);
 
 	int[] bytecodesUsed = new int[4];
@@ -215,7 +220,7 @@ public class SandboxedRobotPlayerTest {
 
     @Test
     public void testMultiArrayBytecode() throws Exception {
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayermultiarraybytecode", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayermultiarraybytecode", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(10000);
 
 	int[] bytecodesUsed = new int[4];
@@ -241,7 +246,7 @@ public class SandboxedRobotPlayerTest {
     public void testBcTesting() throws Exception {
         Config.getGlobalConfig().set("bc.testing.should.terminate", "true");
 
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayersystem", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayersystem", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(200);
 
         player.step();
@@ -250,9 +255,9 @@ public class SandboxedRobotPlayerTest {
 
     @Test
     public void testDebugMethodsEnabled() throws Exception {
-        Config.getGlobalConfig().set("bc.engine.debug-methods", "true");
+        loader = new TeamClassLoaderFactory(tempClassFolder, true, false).createLoader();
 
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerdebug", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerdebug", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(100);
 
         player.step();
@@ -261,9 +266,7 @@ public class SandboxedRobotPlayerTest {
 
     @Test
     public void testDebugMethodsDisabled() throws Exception {
-        Config.getGlobalConfig().set("bc.engine.debug-methods", "false");
-
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayernodebug", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayernodebug", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(200);
 
         player.step();
@@ -272,7 +275,7 @@ public class SandboxedRobotPlayerTest {
 
     @Test
     public void testUseShared() throws Exception {
-        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerusesshared", rc, 0, loader, out);
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerusesshared", rc, 0, loader, out, outputOptions);
         player.setBytecodeLimit(200);
         player.step();
         assertTrue(player.getTerminated());
@@ -294,4 +297,39 @@ public class SandboxedRobotPlayerTest {
     //     assertEquals("[A:ARCHON#0@0] I LOVE MEMES\nthis shouldn't have a header\n",
     //             out.toString("UTF-8"));
     // }
+
+    @Test(timeout=10000)
+    public void testAllocationThrottle() throws Exception {
+        final int limit = 20000;
+        final long budget = 12000;
+
+        RobotController rc = mock(RobotController.class);
+        when(rc.getTeam()).thenReturn(Team.A);
+        when(rc.getType()).thenReturn(RobotType.HQ);
+        when(rc.getID()).thenReturn(0);
+        TeamClassLoaderFactory.Loader loader = new TeamClassLoaderFactory(
+                URLUtils.toTempFolder("testplayerallocates/RobotPlayer.class"), false, false).createLoader();
+        SandboxedRobotPlayer player = new SandboxedRobotPlayer("testplayerallocates", rc, 0, loader,
+                SilencedPrintStream.theInstance(),
+                SandboxedRobotPlayer.OutputOptions.forTeam(Config.defaultConfig(), Team.A));
+        player.setBytecodeLimit(limit);
+
+        // the first turn also loads the player, so measure the second
+        player.step();
+        assumeTrue("this JVM can't measure allocation", player.getBytesAllocated() >= 0);
+        player.step();
+        final long allocated = player.getBytesAllocated();
+        assertTrue("allocated " + allocated, allocated > budget && allocated < 2 * budget);
+
+        // charged as the engine would with allocation-budget-action=throttle
+        final int charge = GameWorld.allocationCharge(limit, allocated, budget);
+        assertTrue(charge > 0 && charge < limit);
+        player.chargeBytecodes(charge);
+        player.step();
+
+        ArgumentCaptor<Integer> bytecodesLeft = ArgumentCaptor.forClass(Integer.class);
+        verify(rc, times(3)).canSenseRadiusSquared(bytecodesLeft.capture());
+        assertEquals(charge, bytecodesLeft.getAllValues().get(1) - bytecodesLeft.getAllValues().get(2));
+        player.terminate();
+    }
 }
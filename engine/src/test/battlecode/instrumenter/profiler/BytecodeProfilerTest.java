@@ -0,0 +1,53 @@
+package battlecode.instrumenter.profiler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BytecodeProfilerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testStacks() throws Exception {
+        final int run = BytecodeProfiler.registerMethod("profilertest.RobotPlayer.run");
+        final int helper = BytecodeProfiler.registerMethod("profilertest.RobotPlayer.helper");
+
+        // on a thread of its own, as a robot would be
+        final Thread robot = new Thread(() -> {
+            BytecodeProfiler.enter(run);
+            BytecodeProfiler.block(3, run, 10);
+            BytecodeProfiler.at(run, 11);
+            BytecodeProfiler.enter(helper);
+            BytecodeProfiler.block(5, helper, 20);
+            BytecodeProfiler.exit();
+            BytecodeProfiler.block(2, run, 12);
+            BytecodeProfiler.enter(helper);
+            BytecodeProfiler.block(4, helper, 20);
+            BytecodeProfiler.extra(6, helper, 20);
+            // helper throws, and run catches it
+            BytecodeProfiler.block(1, run, 13);
+            BytecodeProfiler.exit();
+        });
+        robot.start();
+        robot.join();
+
+        final List<File> files = BytecodeProfiler.write(folder.getRoot());
+        final File file = new File(folder.getRoot(), "profilertest.collapsed");
+        assertTrue(files.contains(file));
+        assertEquals(Arrays.asList(
+                "(unknown);profilertest.RobotPlayer.run:10 3",
+                "(unknown);profilertest.RobotPlayer.run:11;profilertest.RobotPlayer.helper:20 5",
+                "(unknown);profilertest.RobotPlayer.run:12 2",
+                "(unknown);profilertest.RobotPlayer.run:12;profilertest.RobotPlayer.helper:20 10",
+                "(unknown);profilertest.RobotPlayer.run:13 1"
+        ), Files.readAllLines(file.toPath()));
+    }
+}
@@ -0,0 +1,18 @@
+package testplayerallocates;
+
+import battlecode.common.Clock;
+import battlecode.common.RobotController;
+
+/**
+ * Reports the bytecodes it starts each turn with, then allocates 16KB.
+ */
+public class RobotPlayer {
+    @SuppressWarnings("unused")
+    public static void run(RobotController rc) {
+        while (true) {
+            rc.canSenseRadiusSquared(Clock.getBytecodesLeft());
+            long[] garbage = new long[2000];
+            Clock.yield();
+        }
+    }
+}
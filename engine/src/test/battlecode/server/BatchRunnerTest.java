@@ -0,0 +1,60 @@
+package battlecode.server;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchRunnerTest {
+
+    private static List<BatchRunner.Entry> parse(File replayDir, String manifest) throws IOException {
+        return BatchRunner.parseManifest(Config.defaultConfig(), replayDir, new StringReader(manifest));
+    }
+
+    @Test
+    public void testParseManifest() throws IOException {
+        List<BatchRunner.Entry> entries = parse(new File("/box/replays"),
+                "# first round\n"
+                + "bananas /teams/bananas yellow:org.yellow /teams/yellow honolulu,argentina,tonga\n"
+                + "\n"
+                + "  yellow:org.yellow\t/teams/yellow bananas /teams/bananas honolulu 1234  \n");
+        assertEquals(2, entries.size());
+
+        BatchRunner.Entry first = entries.get(0);
+        assertEquals(2, first.line);
+        GameInfo game = first.match.toGameInfo();
+        assertEquals("bananas", game.getTeamAPackage());
+        assertEquals("/teams/bananas", game.getTeamAURL());
+        assertEquals("org.yellow", game.getTeamBPackage());
+        assertEquals("/teams/yellow", game.getTeamBURL());
+        assertArrayEquals(new String[] {"honolulu", "argentina", "tonga"}, game.getMaps());
+        assertNull(first.match.getSeed());
+        assertEquals(new File("/box/replays", "2-bananas-vs-yellow.bc20"), first.match.getSaveFile());
+
+        BatchRunner.Entry second = entries.get(1);
+        assertEquals(4, second.line);
+        assertEquals("org.yellow", second.match.getTeamAPackage());
+        assertEquals(Integer.valueOf(1234), second.match.getSeed());
+    }
+
+    @Test
+    public void testResultOnly() throws IOException {
+        BatchRunner.Entry entry = parse(null, "a /teams/a b /teams/b honolulu\n").get(0);
+        assertNull(entry.match.getSaveFile());
+        assertTrue(entry.match.toConfig().getBoolean("bc.server.result-only"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMissingField() throws IOException {
+        parse(null, "a /teams/a b honolulu\n");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testBadSeed() throws IOException {
+        parse(null, "a /teams/a b /teams/b honolulu seedy\n");
+    }
+}
@@ -0,0 +1,262 @@
+package battlecode.server;
+
+import battlecode.schema.Event;
+import battlecode.schema.EventWrapper;
+import battlecode.schema.GameFooter;
+import battlecode.schema.GameHeader;
+import com.google.flatbuffers.FlatBufferBuilder;
+import org.java_websocket.WebSocket;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ClientQueueTest {
+
+    /**
+     * @param stalled whether the client never finishes writing anything
+     */
+    private WebSocket mockClient(AtomicBoolean stalled) {
+        WebSocket client = Mockito.mock(WebSocket.class);
+        when(client.isOpen()).thenReturn(true);
+        when(client.hasBufferedData()).thenAnswer(invocation -> stalled.get());
+        return client;
+    }
+
+    /**
+     * @return a small, distinct event
+     */
+    private static byte[] event(int i) {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        builder.finish(EventWrapper.createEventWrapper(builder, Event.GameFooter,
+                GameFooter.createGameFooter(builder, (byte) i)));
+        return builder.sizedByteArray();
+    }
+
+    private static byte[] gameHeader() {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        GameHeader.startGameHeader(builder);
+        int header = GameHeader.endGameHeader(builder);
+        builder.finish(EventWrapper.createEventWrapper(builder, Event.GameHeader, header));
+        return builder.sizedByteArray();
+    }
+
+    /**
+     * Wait for the sender to take everything off the queue.
+     */
+    private static void awaitEmpty(ClientQueue queue) throws InterruptedException {
+        for (int i = 0; i < 500 && queue.getDepth() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test(timeout=5000)
+    public void testSendsInOrder() throws Exception {
+        WebSocket client = mockClient(new AtomicBoolean(false));
+        ClientQueue queue = new ClientQueue(client, ClientQueue.Policy.BLOCK, 4, 1, false);
+        queue.start();
+
+        for (int i = 0; i < 20; i++) {
+            assertFalse(queue.offer(event(i), false));
+        }
+        queue.finish();
+        assertTrue(queue.join(5000));
+
+        InOrder inOrder = Mockito.inOrder(client);
+        for (int i = 0; i < 20; i++) {
+            inOrder.verify(client).send(event(i));
+        }
+        assertEquals(20, queue.getSentEvents());
+        assertEquals(20, queue.getSentFrames());
+        assertEquals(0, queue.getDroppedEvents());
+    }
+
+    @Test(timeout=5000)
+    public void testBlock() throws Exception {
+        AtomicBoolean stalled = new AtomicBoolean(true);
+        WebSocket client = mockClient(stalled);
+        ClientQueue queue = new ClientQueue(client, ClientQueue.Policy.BLOCK, 2, 1, false);
+        queue.start();
+
+        // one event in flight, two queued
+        queue.offer(event(0), false);
+        for (int i = 0; i < 100 && queue.getDepth() > 0; i++) {
+            Thread.sleep(10);
+        }
+        queue.offer(event(1), false);
+        queue.offer(event(2), false);
+        assertEquals(2, queue.getDepth());
+
+        AtomicBoolean offered = new AtomicBoolean(false);
+        Thread engine = new Thread(() -> {
+            try {
+                queue.offer(event(3), false);
+                offered.set(true);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        engine.start();
+        Thread.sleep(100);
+        assertFalse(offered.get());
+        assertTrue(queue.getLagMillis() > 0);
+
+        stalled.set(false);
+        engine.join();
+        assertTrue(offered.get());
+        awaitEmpty(queue);
+        assertEquals(0, queue.getDroppedEvents());
+        queue.close();
+    }
+
+    @Test(timeout=5000)
+    public void testDropToSnapshot() throws Exception {
+        AtomicBoolean stalled = new AtomicBoolean(true);
+        WebSocket client = mockClient(stalled);
+        ClientQueue queue = new ClientQueue(client, ClientQueue.Policy.DROP, 2, 1, false);
+
+        assertFalse(queue.offer(event(0), false));
+        assertFalse(queue.offer(event(1), false));
+        // full, so everything goes
+        assertFalse(queue.offer(event(2), false));
+        assertTrue(queue.isSkipping());
+        assertEquals(0, queue.getDepth());
+        assertEquals(3, queue.getDroppedEvents());
+
+        assertFalse(queue.offer(event(3), false));
+        assertEquals(4, queue.getDroppedEvents());
+
+        // the next snapshot brings it back
+        assertTrue(queue.offer(event(4), true));
+        queue.catchUp(null, null, Collections.singletonList(event(4)));
+        assertFalse(queue.isSkipping());
+        assertEquals(1, queue.getDepth());
+
+        stalled.set(false);
+        queue.start();
+        awaitEmpty(queue);
+        queue.finish();
+        assertTrue(queue.join(5000));
+        verify(client).send(event(4));
+        verify(client, never()).send(event(0));
+    }
+
+    @Test(timeout=5000)
+    public void testDisconnect() throws Exception {
+        WebSocket client = mockClient(new AtomicBoolean(true));
+        ClientQueue queue = new ClientQueue(client, ClientQueue.Policy.DISCONNECT, 2, 1, false);
+
+        queue.offer(event(0), false);
+        queue.offer(event(1), false);
+        verify(client, never()).close(anyInt(), anyString());
+        queue.offer(event(2), false);
+        verify(client).close(anyInt(), anyString());
+        assertEquals(3, queue.getDroppedEvents());
+
+        // and that's the end of it
+        queue.offer(event(3), false);
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test(timeout=5000)
+    public void testWaitForSnapshot() throws Exception {
+        WebSocket client = mockClient(new AtomicBoolean(false));
+        ClientQueue queue = new ClientQueue(client, ClientQueue.Policy.DROP, 8, 1, true);
+        queue.start();
+
+        assertFalse(queue.offer(event(0), false));
+        assertTrue(queue.offer(event(1), true));
+        byte[] header = gameHeader();
+        queue.catchUp(header, null, Collections.singletonList(event(1)));
+        queue.offer(event(2), false);
+        queue.finish();
+        assertTrue(queue.join(5000));
+
+        InOrder inOrder = Mockito.inOrder(client);
+        inOrder.verify(client).send(header);
+        inOrder.verify(client).send(event(1));
+        inOrder.verify(client).send(event(2));
+        verify(client, never()).send(event(0));
+    }
+
+    @Test(timeout=5000)
+    public void testSkippedEvent() throws Exception {
+        WebSocket client = mockClient(new AtomicBoolean(false));
+        ClientQueue queue = new ClientQueue(client, ClientQueue.Policy.BLOCK, 8, 1, false);
+        queue.start();
+
+        assertFalse(queue.offer(event(0), false));
+        // a gap: what follows is no use until the next snapshot
+        queue.skip();
+        assertTrue(queue.isSkipping());
+        assertFalse(queue.offer(event(1), false));
+        assertTrue(queue.offer(event(2), true));
+        queue.catchUp(null, null, Collections.singletonList(event(2)));
+        queue.finish();
+        assertTrue(queue.join(5000));
+
+        InOrder inOrder = Mockito.inOrder(client);
+        inOrder.verify(client).send(event(0));
+        inOrder.verify(client).send(event(2));
+        verify(client, never()).send(event(1));
+        assertEquals(2, queue.getDroppedEvents());
+    }
+
+    @Test(timeout=5000)
+    public void testBatches() throws Exception {
+        AtomicBoolean stalled = new AtomicBoolean(true);
+        WebSocket client = mockClient(stalled);
+        ClientQueue queue = new ClientQueue(client, ClientQueue.Policy.BLOCK, 16, 4, false);
+
+        for (int i = 0; i < 6; i++) {
+            queue.offer(event(i), false);
+        }
+        stalled.set(false);
+        queue.start();
+        queue.finish();
+        assertTrue(queue.join(5000));
+
+        verify(client, times(2)).send(any(ByteBuffer.class));
+        assertEquals(6, queue.getSentEvents());
+        assertEquals(2, queue.getSentFrames());
+    }
+
+    @Test
+    public void testFrame() {
+        ByteBuffer frame = ClientQueue.frame(new byte[][] {{1, 2, 3}, {}, {4}})
+                .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(4 + 3 + 4 + 0 + 4 + 1, frame.remaining());
+        assertEquals(3, frame.getInt());
+        assertEquals(1, frame.get());
+        assertEquals(2, frame.get());
+        assertEquals(3, frame.get());
+        assertEquals(0, frame.getInt());
+        assertEquals(1, frame.getInt());
+        assertEquals(4, frame.get());
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    public void testParseQuery() {
+        assertTrue(NetServer.parseQuery("/").isEmpty());
+        assertTrue(NetServer.parseQuery(null).isEmpty());
+        assertEquals("block", NetServer.parseQuery("/?policy=block&batch=8").get("policy"));
+        assertEquals("8", NetServer.parseQuery("/?policy=block&batch=8").get("batch"));
+        assertEquals(Arrays.asList("x"), Arrays.asList(NetServer.parseQuery("/?x=&y=x").get("y")));
+    }
+}
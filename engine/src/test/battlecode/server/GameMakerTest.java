@@ -5,20 +5,29 @@ import battlecode.common.MapLocation;
 import battlecode.common.RobotType;
 import battlecode.common.Team;
 import battlecode.schema.Event;
+import battlecode.schema.EventWrapper;
 import battlecode.schema.GameHeader;
 import battlecode.schema.GameWrapper;
+import battlecode.schema.Keyframe;
+import battlecode.schema.MatchFooter;
+import battlecode.schema.MatchHeader;
+import battlecode.schema.Round;
 import battlecode.util.TeamMapping;
 import battlecode.world.TestMapBuilder;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
 import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.*;
@@ -120,6 +129,570 @@ public class GameMakerTest {
         verify(mockServer, times(9)).addEvent(any(byte[].class));
     }
 
+    @Test
+    public void testClientEventsMatchFile() throws Exception {
+        NetServer mockServer = Mockito.mock(NetServer.class);
+        GameMaker gm = new GameMaker(info, mockServer);
+
+        gm.makeGameHeader();
+        GameMaker.MatchMaker mm = gm.getMatchMaker();
+        mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt()
+                .build());
+        mm.addMoved(0, new MapLocation(1, 1));
+        mm.addBytecodes(0, 1234);
+        mm.makeRound(0);
+        mm.addDied(0);
+        mm.makeRound(1);
+        mm.makeMatchFooter(Team.B, 2);
+        gm.makeGameFooter(Team.B);
+
+        GameWrapper output = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(ungzip(gm.toBytes())));
+
+        ArgumentCaptor<byte[]> sent = ArgumentCaptor.forClass(byte[].class);
+        verify(mockServer, times(6)).addEvent(sent.capture());
+        List<byte[]> packets = sent.getAllValues();
+
+        assertEquals(packets.size(), output.eventsLength());
+        for (int i = 0; i < packets.size(); i++) {
+            EventWrapper packet = EventWrapper.getRootAsEventWrapper(ByteBuffer.wrap(packets.get(i)));
+            assertEquals(packet.eType(), output.events(i).eType());
+        }
+
+        Round fileRound = (Round) output.events(2).e(new Round());
+        Round packetRound = (Round) EventWrapper.getRootAsEventWrapper(ByteBuffer.wrap(packets.get(2))).e(new Round());
+        assertEquals(packetRound.roundID(), fileRound.roundID());
+        assertEquals(1, fileRound.movedIDsLength());
+        assertEquals(0, fileRound.movedIDs(0));
+        assertEquals(1, fileRound.movedLocs().xs(0));
+        assertEquals(1234, fileRound.bytecodesUsed(0));
+
+        Round fileRound2 = (Round) output.events(3).e(new Round());
+        assertEquals(1, fileRound2.roundID());
+        assertEquals(0, fileRound2.diedIDs(0));
+    }
+
+    @Test
+    public void testDetailLevels() throws Exception {
+        NetServer mockServer = Mockito.mock(NetServer.class);
+        Mockito.when(mockServer.wantsDetail(any(DetailLevel.class))).thenReturn(true);
+        GameMaker gm = new GameMaker(info, mockServer);
+
+        gm.makeGameHeader();
+        GameMaker.MatchMaker mm = gm.getMatchMaker();
+        mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt()
+                .build());
+        mm.addMoved(0, new MapLocation(1, 1));
+        mm.addIndicatorDot(0, new MapLocation(1, 1), 255, 0, 0);
+        mm.addBytecodes(0, 1234);
+        mm.addTeamSoup(Team.A, 200);
+        mm.addDied(1);
+        mm.makeRound(0);
+        mm.makeMatchFooter(Team.B, 1);
+        gm.makeGameFooter(Team.B);
+
+        // headers and footers are the same at every level
+        verify(mockServer, times(4)).addEvent(any(byte[].class));
+        ArgumentCaptor<byte[][]> sent = ArgumentCaptor.forClass(byte[][].class);
+        verify(mockServer).addEvent(sent.capture());
+        byte[][] variants = sent.getValue();
+        assertEquals(DetailLevel.values().length, variants.length);
+
+        Round full = (Round) EventWrapper.getRootAsEventWrapper(
+                ByteBuffer.wrap(variants[DetailLevel.FULL.ordinal()])).e(new Round());
+        Round spectator = (Round) EventWrapper.getRootAsEventWrapper(
+                ByteBuffer.wrap(variants[DetailLevel.SPECTATOR.ordinal()])).e(new Round());
+        Round summary = (Round) EventWrapper.getRootAsEventWrapper(
+                ByteBuffer.wrap(variants[DetailLevel.SUMMARY.ordinal()])).e(new Round());
+
+        assertEquals(1, full.movedIDsLength());
+        assertEquals(1, full.indicatorDotIDsLength());
+        assertEquals(1, full.bytecodesUsedLength());
+
+        assertEquals(1, spectator.movedIDsLength());
+        assertEquals(1, spectator.movedLocs().xs(0));
+        assertEquals(0, spectator.indicatorDotIDsLength());
+        assertEquals(0, spectator.bytecodesUsedLength());
+        assertNull(spectator.logs());
+
+        assertEquals(0, summary.movedIDsLength());
+        assertNull(summary.movedLocs());
+        assertEquals(0, summary.actionsLength());
+        assertEquals(1, summary.diedIDsLength());
+        assertEquals(200, summary.teamSoups(0));
+        assertEquals(full.globalPollution(), summary.globalPollution());
+
+        assertTrue(variants[DetailLevel.SPECTATOR.ordinal()].length < variants[DetailLevel.FULL.ordinal()].length);
+        assertTrue(variants[DetailLevel.SUMMARY.ordinal()].length < variants[DetailLevel.SPECTATOR.ordinal()].length);
+    }
+
+    /**
+     * Play a short match, moving a robot around.
+     */
+    private static void playMatch(GameMaker.MatchMaker mm, int match) {
+        mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt()
+                .build());
+        for (int round = 1; round <= 20; round++) {
+            mm.addMoved(0, new MapLocation(match, round));
+            mm.makeRound(round);
+        }
+        mm.makeMatchFooter(match % 2 == 0 ? Team.A : Team.B, 20);
+    }
+
+    @Test
+    public void testSeparateMatches() throws Exception {
+        // one after another
+        NetServer oneServer = Mockito.mock(NetServer.class);
+        GameMaker one = new GameMaker(info, oneServer, new ReplayConfig.Builder().saveIndex(true).build());
+        one.makeGameHeader();
+        for (int match = 0; match < 3; match++) {
+            playMatch(one.getMatchMaker(), match);
+        }
+        one.makeGameFooter(Team.A);
+
+        // the first as usual, the others at once, on their own threads
+        NetServer parallelServer = Mockito.mock(NetServer.class);
+        GameMaker parallel = new GameMaker(info, parallelServer, new ReplayConfig.Builder().saveIndex(true).build());
+        parallel.makeGameHeader();
+        GameMaker.MatchMaker[] separate = {parallel.createMatchMaker(), parallel.createMatchMaker()};
+        Thread[] threads = new Thread[separate.length];
+        for (int i = 0; i < separate.length; i++) {
+            final int match = i + 1;
+            threads[i] = new Thread(() -> playMatch(separate[match - 1], match));
+            threads[i].start();
+        }
+        playMatch(parallel.getMatchMaker(), 0);
+        for (int i = 0; i < separate.length; i++) {
+            threads[i].join();
+            parallel.addMatch(separate[i]);
+        }
+        parallel.makeGameFooter(Team.A);
+
+        assertArrayEquals(one.toBytes(), parallel.toBytes());
+
+        ArgumentCaptor<byte[]> oneSent = ArgumentCaptor.forClass(byte[].class);
+        verify(oneServer, times(2 + 3 * 22)).addEvent(oneSent.capture());
+        ArgumentCaptor<byte[]> parallelSent = ArgumentCaptor.forClass(byte[].class);
+        verify(parallelServer, times(2 + 3 * 22)).addEvent(parallelSent.capture());
+        for (int i = 0; i < oneSent.getAllValues().size(); i++) {
+            assertArrayEquals(oneSent.getAllValues().get(i), parallelSent.getAllValues().get(i));
+        }
+    }
+
+    @Test
+    public void testSeparateMatchDetailLevels() throws Exception {
+        NetServer mockServer = Mockito.mock(NetServer.class);
+        GameMaker gm = new GameMaker(info, mockServer);
+        gm.makeGameHeader();
+
+        // nobody wants less than everything while the match is recorded...
+        GameMaker.MatchMaker separate = gm.createMatchMaker();
+        playMatch(separate, 0);
+
+        // ...but someone does by the time it's sent
+        Mockito.when(mockServer.wantsDetail(any(DetailLevel.class))).thenReturn(true);
+        gm.addMatch(separate);
+        gm.makeGameFooter(Team.A);
+
+        ArgumentCaptor<byte[][]> sent = ArgumentCaptor.forClass(byte[][].class);
+        verify(mockServer, times(20)).addEvent(sent.capture());
+        for (byte[][] variants : sent.getAllValues()) {
+            Round summary = (Round) EventWrapper.getRootAsEventWrapper(
+                    ByteBuffer.wrap(variants[DetailLevel.SUMMARY.ordinal()])).e(new Round());
+            assertEquals(0, summary.movedIDsLength());
+            assertNotSame(variants[DetailLevel.FULL.ordinal()], variants[DetailLevel.SUMMARY.ordinal()]);
+        }
+    }
+
+    @Test(expected=RuntimeException.class)
+    public void testUnfinishedSeparateMatch() {
+        GameMaker gm = new GameMaker(info, null);
+        gm.makeGameHeader();
+        GameMaker.MatchMaker mm = gm.createMatchMaker();
+        mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt()
+                .build());
+        gm.addMatch(mm);
+    }
+
+    @Test
+    public void testSeekIndex() throws Exception {
+        for (boolean indexed : new boolean[] {true, false}) {
+            GameMaker gm = new GameMaker(info, null, new ReplayConfig.Builder().saveIndex(indexed).build());
+
+            gm.makeGameHeader();
+            GameMaker.MatchMaker mm = gm.getMatchMaker();
+            for (int match = 0; match < 2; match++) {
+                mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                        .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                        .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                        .setSoup()
+                        .setWater()
+                        .setPollution()
+                        .setDirt()
+                        .build());
+                for (int round = 1; round <= 100; round++) {
+                    mm.addMoved(round, new MapLocation(match, round));
+                    if (round == 50) {
+                        // big enough to span several blocks
+                        byte[] log = new byte[3 * ReplayIndex.BLOCK_SIZE];
+                        Arrays.fill(log, (byte) 'x');
+                        mm.getOut().write(log);
+                    }
+                    mm.makeRound(round);
+                }
+                mm.makeMatchFooter(match == 0 ? Team.A : Team.B, 100);
+            }
+            gm.makeGameFooter(Team.A);
+
+            // still a normal gzipped GameWrapper
+            GameWrapper output = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(ungzip(gm.toBytes())));
+            assertEquals(206, output.eventsLength());
+            assertEquals(Event.GameFooter, output.events(205).eType());
+
+            File file = File.createTempFile("seek", ".bc20");
+            file.deleteOnExit();
+            gm.writeGame(file);
+
+            try (ReplayReader reader = ReplayReader.open(file)) {
+                assertEquals(indexed, reader.isIndexed());
+                assertEquals(2, reader.getMatchCount());
+                for (int match = 0; match < 2; match++) {
+                    assertEquals("indexed=" + indexed, 1, reader.getFirstRound(match));
+                    assertEquals(100, reader.getRoundCount(match));
+                    assertEquals("honolulu", reader.readMatchHeader(match).map().name());
+
+                    MatchFooter footer = reader.readMatchFooter(match);
+                    assertEquals(TeamMapping.id(match == 0 ? Team.A : Team.B), footer.winner());
+
+                    for (int round : new int[] {1, 49, 50, 51, 100}) {
+                        Round r = reader.readRound(match, round);
+                        assertEquals(round, r.roundID());
+                        assertEquals(round, r.movedIDs(0));
+                        assertEquals(match, r.movedLocs().xs(0));
+                        assertEquals(round, r.movedLocs().ys(0));
+                        assertEquals(round == 50 ? 3 * ReplayIndex.BLOCK_SIZE : 0, r.logs().length());
+                    }
+                    assertNull(reader.readRound(match, 101));
+                }
+
+                assertEquals(indexed, reader.hasStandaloneEvents());
+                if (indexed) {
+                    assertEquals(Event.GameHeader, NetServer.eventType(reader.readGameHeaderEvent()));
+                    assertEquals(Event.MatchHeader, NetServer.eventType(reader.readMatchHeaderEvent(1)));
+                    byte[] round = reader.readRoundEvent(1, 50);
+                    assertEquals(Event.Round, NetServer.eventType(round));
+                    assertEquals(50, ((Round) EventWrapper.getRootAsEventWrapper(ByteBuffer.wrap(round))
+                            .e(new Round())).roundID());
+                    assertNull(reader.readRoundEvent(1, 101));
+                    assertEquals(Event.MatchFooter, NetServer.eventType(reader.readMatchFooterEvent(1)));
+                    assertEquals(Event.GameFooter, NetServer.eventType(reader.readGameFooterEvent()));
+                } else {
+                    try {
+                        reader.readRoundEvent(0, 1);
+                        fail("Read a standalone event from an unindexed replay");
+                    } catch (IOException e) {
+                        // expected
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testKeyframes() throws Exception {
+        GameMaker gm = new GameMaker(info, null,
+                new ReplayConfig.Builder().saveIndex(true).keyframeInterval(10).build());
+
+        int[] soup = new int[50 * 50];
+        int[] dirt = new int[50 * 50];
+        boolean[] water = new boolean[50 * 50];
+
+        gm.makeGameHeader();
+        GameMaker.MatchMaker mm = gm.getMatchMaker();
+        mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt()
+                .build());
+        for (int round = 1; round <= 35; round++) {
+            soup[round] = round;
+            dirt[round] = -round;
+            water[round] = true;
+            if (mm.isKeyframeRound(round)) {
+                mm.setKeyframe(soup, dirt, water, round / 2f);
+                mm.addKeyframeLocalPollution(new MapLocation(3, 4), 5, 6, 0.5f);
+            }
+            mm.makeRound(round);
+        }
+        mm.makeMatchFooter(Team.A, 35);
+        gm.makeGameFooter(Team.A);
+
+        File file = File.createTempFile("keyframe", ".bc20");
+        file.deleteOnExit();
+        gm.writeGame(file);
+
+        try (ReplayReader reader = ReplayReader.open(file)) {
+            assertNull(reader.readRound(0, 9).keyframe());
+            assertNull(reader.readRound(0, 11).keyframe());
+
+            Keyframe keyframe = reader.readRound(0, 20).keyframe();
+            assertNotNull(keyframe);
+            assertEquals(50 * 50, keyframe.soupLength());
+            assertEquals(50 * 50, keyframe.dirtLength());
+            assertEquals(50 * 50, keyframe.waterLength());
+            // the state as of round 20, not the end of the game
+            assertEquals(20, keyframe.soup(20));
+            assertEquals(0, keyframe.soup(21));
+            assertEquals(-20, keyframe.dirt(20));
+            assertTrue(keyframe.water(20));
+            assertFalse(keyframe.water(21));
+            assertEquals(10f, keyframe.waterLevel(), 0f);
+            assertEquals(1, keyframe.localPollutions().radiiSquaredLength());
+            assertEquals(4, keyframe.localPollutions().locations().ys(0));
+
+            assertEquals(0, reader.findKeyframeRound(0, 9));
+            assertEquals(10, reader.findKeyframeRound(0, 10));
+            assertEquals(30, reader.findKeyframeRound(0, 35));
+            assertEquals(30, reader.findKeyframeRound(0, 1000));
+        }
+    }
+
+    @Test
+    public void testCompactRounds() throws Exception {
+        NetServer mockServer = Mockito.mock(NetServer.class);
+        Mockito.when(mockServer.hasClients()).thenReturn(true);
+        GameMaker gm = new GameMaker(info, mockServer, new ReplayConfig.Builder().compact(true, 10).build());
+
+        gm.makeGameHeader();
+        GameMaker.MatchMaker mm = gm.getMatchMaker();
+        mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt()
+                .build());
+        mm.addMoved(0, new MapLocation(1, 1));
+        mm.addMoved(1, new MapLocation(30, 20));
+        mm.addDirtChanged(new MapLocation(4, 5), -3);
+        mm.addDirtChanged(new MapLocation(2, 9), 7);
+        mm.addWaterChanged(new MapLocation(6, 6));
+        mm.addSoupChanged(new MapLocation(10, 1), -5);
+        mm.addBytecodes(7, 1234);
+        mm.addBytecodes(3, 5);
+        mm.getOut().write("hello".getBytes());
+        mm.makeRound(1);
+        mm.addMoved(0, new MapLocation(1, 0));
+        mm.addMoved(1, new MapLocation(30, 20));
+        mm.getOut().write("world".getBytes());
+        mm.makeRound(2);
+        mm.addDied(0);
+        mm.makeRound(3);
+        mm.makeMatchFooter(Team.B, 3);
+        gm.makeGameFooter(Team.B);
+
+        // the client still gets plain rounds
+        ArgumentCaptor<byte[]> sent = ArgumentCaptor.forClass(byte[].class);
+        verify(mockServer, times(7)).addEvent(sent.capture());
+        Round packetRound = (Round) EventWrapper.getRootAsEventWrapper(
+                ByteBuffer.wrap(sent.getAllValues().get(2))).e(new Round());
+        assertNull(packetRound.compact());
+        assertEquals(30, packetRound.movedLocs().xs(1));
+        assertEquals(1234, packetRound.bytecodesUsed(0));
+        assertEquals("hello", packetRound.logs());
+
+        GameWrapper output = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(ungzip(gm.toBytes())));
+        Round fileRound = (Round) output.events(2).e(new Round());
+        assertNotNull(fileRound.compact());
+        assertNull(fileRound.movedLocs());
+        assertNull(fileRound.dirtChangedLocs());
+        assertEquals(0, fileRound.bytecodesUsedLength());
+        assertNull(fileRound.logs());
+
+        CompactRoundReader reader = new CompactRoundReader(output);
+        reader.startMatch((MatchHeader) output.events(1).e(new MatchHeader()));
+
+        reader.readRound(fileRound);
+        assertArrayEquals(new int[] {1, 30}, reader.getMovedLocsXs().toArray());
+        assertArrayEquals(new int[] {1, 20}, reader.getMovedLocsYs().toArray());
+        assertArrayEquals(new int[] {4, 2}, reader.getDirtChangedLocsXs().toArray());
+        assertArrayEquals(new int[] {5, 9}, reader.getDirtChangedLocsYs().toArray());
+        assertArrayEquals(new int[] {-3, 7}, reader.getDirtChanges().toArray());
+        assertArrayEquals(new int[] {6}, reader.getWaterChangedLocsXs().toArray());
+        assertArrayEquals(new int[] {10}, reader.getSoupChangedLocsXs().toArray());
+        assertArrayEquals(new int[] {-5}, reader.getSoupChanges().toArray());
+        assertArrayEquals(new int[] {7, 3}, reader.getBytecodeIDs().toArray());
+        // rounded to the nearest 10
+        assertArrayEquals(new int[] {1230, 10}, reader.getBytecodesUsed().toArray());
+        assertEquals("hello", reader.getLogs());
+
+        Round fileRound2 = (Round) output.events(3).e(new Round());
+        assertEquals(CompactRoundReader.directionIndex(new MapLocation(1, 1), new MapLocation(1, 0)),
+                fileRound2.compact().movedDirections(0));
+        reader.readRound(fileRound2);
+        assertArrayEquals(new int[] {1, 30}, reader.getMovedLocsXs().toArray());
+        assertArrayEquals(new int[] {0, 20}, reader.getMovedLocsYs().toArray());
+        assertEquals(0, reader.getDirtChanges().size());
+        assertEquals("world", reader.getLogs());
+
+        reader.readRound((Round) output.events(4).e(new Round()));
+        assertEquals(0, reader.getMovedLocsXs().size());
+        assertEquals("", reader.getLogs());
+    }
+
+    @Test
+    public void testCompactRoundsWithoutClients() throws Exception {
+        NetServer mockServer = Mockito.mock(NetServer.class);
+        GameMaker gm = new GameMaker(info, mockServer, new ReplayConfig.Builder().compact(true, 1).build());
+
+        gm.makeGameHeader();
+        GameMaker.MatchMaker mm = gm.getMatchMaker();
+        mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt()
+                .build());
+        for (int round = 1; round <= 3; round++) {
+            mm.addMoved(0, new MapLocation(round, 0));
+            mm.makeRound(round);
+        }
+        mm.makeMatchFooter(Team.A, 3);
+        gm.makeGameFooter(Team.A);
+
+        // nobody's connected to need the plain rounds, so they aren't built...
+        ArgumentCaptor<byte[]> sent = ArgumentCaptor.forClass(byte[].class);
+        verify(mockServer, times(4)).addEvent(sent.capture());
+        verify(mockServer, times(3)).skipEvent();
+        for (byte[] event : sent.getAllValues()) {
+            assertNotEquals(Event.Round, NetServer.eventType(event));
+        }
+
+        // ...but the file still has every round
+        GameWrapper output = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(ungzip(gm.toBytes())));
+        for (int round = 1; round <= 3; round++) {
+            assertNotNull(((Round) output.events(round + 1).e(new Round())).compact());
+        }
+        assertTrue(gm.getFileEncodeNanos() > 0);
+        assertEquals(0, gm.getClientEncodeNanos());
+    }
+
+    @Test
+    public void testClientKeyframes() throws Exception {
+        NetServer mockServer = Mockito.mock(NetServer.class);
+        GameMaker gm = new GameMaker(info, mockServer, new ReplayConfig.Builder().clientKeyframeInterval(4).build());
+
+        int[] soup = new int[50 * 50];
+        int[] dirt = new int[50 * 50];
+        boolean[] water = new boolean[50 * 50];
+
+        gm.makeGameHeader();
+        GameMaker.MatchMaker mm = gm.getMatchMaker();
+        mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt()
+                .build());
+        for (int round = 1; round <= 9; round++) {
+            if (mm.isKeyframeRound(round)) {
+                mm.setKeyframe(soup, dirt, water, 0f);
+            }
+            mm.makeRound(round);
+        }
+        mm.makeMatchFooter(Team.A, 9);
+        gm.makeGameFooter(Team.A);
+
+        // the client gets keyframes every 4 rounds...
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(mockServer, times(13)).addEvent(captor.capture());
+        List<byte[]> sent = captor.getAllValues();
+        for (int round = 1; round <= 9; round++) {
+            Round r = (Round) EventWrapper.getRootAsEventWrapper(ByteBuffer.wrap(sent.get(round + 1)))
+                    .e(new Round());
+            assertEquals(round, r.roundID());
+            assertEquals(round % 4 == 0, r.keyframe() != null);
+        }
+
+        // ...and the file doesn't
+        GameWrapper output = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(ungzip(gm.toBytes())));
+        for (int round = 1; round <= 9; round++) {
+            assertNull(((Round) output.events(round + 1).e(new Round())).keyframe());
+        }
+    }
+
+    @Test
+    public void testResultOnly() throws Exception {
+        GameMaker gm = new GameMaker(info, null, new ReplayConfig.Builder().resultOnly(true).build());
+
+        gm.makeGameHeader();
+        GameMaker.MatchMaker mm = gm.getMatchMaker();
+        assertNull(mm.getOut());
+        mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt()
+                .build());
+        mm.addMoved(0, new MapLocation(1, 1));
+        mm.addIndicatorDot(0, new MapLocation(1, 1), 255, 0, 0);
+        assertFalse(mm.isKeyframeRound(0));
+        mm.makeRound(0);
+        mm.makeMatchFooter(Team.B, 1);
+        gm.makeGameFooter(Team.B);
+
+        try {
+            gm.toBytes();
+            fail("Result-only games shouldn't have any bytes");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test(expected=RuntimeException.class)
+    public void testResultOnlyWithClient() {
+        new GameMaker(info, Mockito.mock(NetServer.class), new ReplayConfig.Builder().resultOnly(true).build());
+    }
+
+    @Test(expected=RuntimeException.class)
+    public void testResultOnlyMatchStateExceptions() {
+        GameMaker gm = new GameMaker(info, null, new ReplayConfig.Builder().resultOnly(true).build());
+        gm.makeGameHeader();
+        gm.getMatchMaker().makeMatchFooter(Team.A, 23);
+    }
+
     public byte[] ungzip(byte[] in) throws IOException {
         ByteArrayOutputStream result = new ByteArrayOutputStream();
         IOUtils.copy(new GZIPInputStream(new ByteArrayInputStream(in)), result);
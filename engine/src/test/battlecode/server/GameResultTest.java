@@ -0,0 +1,48 @@
+package battlecode.server;
+
+import battlecode.common.Team;
+import battlecode.world.DominationFactor;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GameResultTest {
+    private final GameInfo info = new GameInfo(
+                    "ban\"anas", "org.bananas", null,
+                    "yellow","org.yellow", null,
+                    new String[] {"honolulu", "argentina"}, null, false
+    );
+
+    @Test
+    public void testToJson() {
+        GameResult result = new GameResult(info);
+        assertNull(result.getWinner());
+
+        result.addMatch(new GameResult.MatchResult("honolulu", Team.B,
+                DominationFactor.HQ_DESTROYED, 512, 1200,
+                new int[] {30, 400}, new int[] {2, 17}));
+        result.addMatch(new GameResult.MatchResult("argentina", Team.A,
+                DominationFactor.QUANTITY_OVER_QUALITY, 3000, 4500,
+                new int[] {900, 10}, new int[] {40, 39}, new long[] {123456789012L, 5000}));
+        result.setWinner(Team.A);
+        result.setWallTimeMillis(6000);
+        result.setSeed(42);
+
+        assertEquals(2, result.getMatches().size());
+        assertEquals(400, result.getMatches().get(0).getSoup(Team.B));
+        assertEquals(39, result.getMatches().get(1).getRobotCount(Team.B));
+        assertEquals(3512, result.getRounds());
+        assertEquals(0, result.getMatches().get(0).getBytecodesUsed(Team.A));
+        assertEquals(123456789012L, result.getMatches().get(1).getBytecodesUsed(Team.A));
+
+        assertEquals("{\"teamA\":\"ban\\\"anas\",\"teamAPackage\":\"org.bananas\","
+                + "\"teamB\":\"yellow\",\"teamBPackage\":\"org.yellow\",\"winner\":\"A\",\"wallTimeMillis\":6000,\"seed\":42,\"matches\":["
+                + "{\"map\":\"honolulu\",\"winner\":\"B\",\"dominationFactor\":\"HQ_DESTROYED\","
+                + "\"rounds\":512,\"wallTimeMillis\":1200,\"soup\":{\"A\":30,\"B\":400},\"robots\":{\"A\":2,\"B\":17},"
+                + "\"bytecodes\":{\"A\":0,\"B\":0}},"
+                + "{\"map\":\"argentina\",\"winner\":\"A\",\"dominationFactor\":\"QUANTITY_OVER_QUALITY\","
+                + "\"rounds\":3000,\"wallTimeMillis\":4500,\"soup\":{\"A\":900,\"B\":10},\"robots\":{\"A\":40,\"B\":39},"
+                + "\"bytecodes\":{\"A\":123456789012,\"B\":5000}}"
+                + "]}", result.toJson());
+    }
+}
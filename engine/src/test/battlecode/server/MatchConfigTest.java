@@ -0,0 +1,102 @@
+package battlecode.server;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class MatchConfigTest {
+
+    private MatchConfig.Builder builder() {
+        return new MatchConfig.Builder()
+                .teamA("bananas", "org.bananas", "/teams/bananas")
+                .teamB("yellow", "org.yellow", "/teams/yellow");
+    }
+
+    @Test
+    public void testBuild() {
+        String[] maps = {"honolulu", "argentina", "tonga"};
+        MatchConfig match = builder()
+                .maps(maps)
+                .bestOfThree(true)
+                .seed(1234)
+                .silence(true, false)
+                .set("bc.server.match-threads", "3")
+                .build();
+        maps[0] = "changed";
+
+        GameInfo game = match.toGameInfo();
+        assertEquals("org.bananas", game.getTeamAPackage());
+        assertEquals("/teams/yellow", game.getTeamBURL());
+        assertArrayEquals(new String[] {"honolulu", "argentina", "tonga"}, game.getMaps());
+        assertTrue(game.isBestOfThree());
+
+        Config options = match.toConfig();
+        assertEquals("1234", options.get("bc.game.seed"));
+        assertTrue(options.getBoolean("bc.engine.silence-a"));
+        assertFalse(options.getBoolean("bc.engine.silence-b"));
+        assertEquals(3, options.getInt("bc.server.match-threads"));
+        // nowhere to save it, so just play it
+        assertTrue(options.getBoolean("bc.server.result-only"));
+        assertFalse(options.getBoolean("bc.server.websocket"));
+    }
+
+    @Test
+    public void testConfigsAreSeparate() {
+        Config base = Config.defaultConfig();
+        base.set("bc.game.map-path", "first");
+        MatchConfig match = new MatchConfig.Builder(base)
+                .teamA("a", "a", null)
+                .teamB("b", "b", null)
+                .maps("honolulu")
+                .saveFile(new File("game.bc20"))
+                .build();
+        base.set("bc.game.map-path", "second");
+
+        Config options = match.toConfig();
+        assertEquals("first", options.get("bc.game.map-path"));
+        assertFalse(options.getBoolean("bc.server.result-only"));
+        assertEquals("", options.get("bc.game.seed"));
+
+        // runs can't change each other's settings
+        options.set("bc.game.map-path", "third");
+        assertEquals("first", match.toConfig().get("bc.game.map-path"));
+    }
+
+    @Test
+    public void testFromConfig() {
+        Config options = Config.defaultConfig();
+        options.set("bc.game.team-a", "bananas");
+        options.set("bc.game.team-a.url", "/teams/bananas");
+        options.set("bc.game.team-b", "yellow");
+        options.set("bc.game.team-b.package", "org.yellow");
+        options.set("bc.game.team-b.url", "/teams/yellow");
+        options.set("bc.game.maps", "honolulu,argentina");
+        options.set("bc.server.save-file", "game.bc20");
+        options.setBoolean("bc.game.best-of-three", true);
+
+        MatchConfig match = MatchConfig.fromConfig(options);
+        GameInfo game = match.toGameInfo();
+        assertEquals("bananas", game.getTeamAPackage());
+        assertEquals("org.yellow", game.getTeamBPackage());
+        assertArrayEquals(new String[] {"honolulu", "argentina"}, game.getMaps());
+        // not with two maps
+        assertFalse(game.isBestOfThree());
+        assertEquals(new File("game.bc20"), match.getSaveFile());
+        assertNull(match.getSeed());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testFromConfigNeedsTeams() {
+        Config options = Config.defaultConfig();
+        options.set("bc.game.team-a", "bananas");
+        options.set("bc.game.maps", "honolulu");
+        MatchConfig.fromConfig(options);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testNeedsMaps() {
+        builder().build();
+    }
+}
@@ -0,0 +1,100 @@
+package battlecode.server;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class MatchDaemonTest {
+
+    private static final String GAME = "bc.game.team-a=bananas\n"
+            + "bc.game.team-a.url=/teams/bananas\n"
+            + "bc.game.team-b=yellow\n"
+            + "bc.game.team-b.url=/teams/yellow\n"
+            + "bc.game.maps=honolulu,argentina\n";
+
+    private MatchDaemon daemon;
+
+    @Before
+    public void setUp() throws IOException {
+        daemon = new MatchDaemon(Config.defaultConfig(), 0, 1);
+        daemon.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        daemon.stop(0);
+    }
+
+    private static MatchConfig parse(String request) throws IOException {
+        return MatchDaemon.parseRequest(Config.defaultConfig(),
+                new ByteArrayInputStream(request.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testParseRequest() throws IOException {
+        MatchConfig match = parse(GAME + "bc.server.save-file=/box/replay.bc20\nbc.game.seed=12\n");
+        assertEquals("bananas", match.getTeamAPackage());
+        assertArrayEquals(new String[] {"honolulu", "argentina"}, match.getMaps());
+        assertEquals(new File("/box/replay.bc20"), match.getSaveFile());
+        assertEquals(Integer.valueOf(12), match.getSeed());
+
+        assertNull(parse(GAME + "bc.server.result-only=true\n").getSaveFile());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testNeedsSaveFile() throws IOException {
+        parse(GAME);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testOnlyGameSettings() throws IOException {
+        parse(GAME + "bc.server.result-only=true\nbc.server.websocket=true\n");
+    }
+
+    private HttpURLConnection connect(String path) throws IOException {
+        URL url = new URL("http", daemon.getAddress().getHostString(), daemon.getAddress().getPort(), path);
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try {
+            return IOUtils.toString(in, StandardCharsets.UTF_8).trim();
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test(timeout=5000)
+    public void testStatus() throws IOException {
+        HttpURLConnection status = connect("/status");
+        assertEquals(200, status.getResponseCode());
+        assertEquals("{\"running\":0,\"waiting\":0,\"played\":0,\"failed\":0}", read(status.getInputStream()));
+    }
+
+    @Test(timeout=5000)
+    public void testBadRequest() throws IOException {
+        HttpURLConnection match = connect("/match");
+        match.setRequestMethod("POST");
+        match.setDoOutput(true);
+        try (OutputStream out = match.getOutputStream()) {
+            out.write(GAME.getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(400, match.getResponseCode());
+        assertEquals("{\"error\":\"Requests need a bc.server.save-file, or bc.server.result-only=true\"}",
+                read(match.getErrorStream()));
+
+        assertEquals(405, connect("/match").getResponseCode());
+    }
+}
@@ -0,0 +1,67 @@
+package battlecode.server;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class MetricsServerTest {
+
+    private MetricsServer metrics;
+
+    @Before
+    public void setUp() throws IOException {
+        metrics = new MetricsServer("127.0.0.1", 0);
+        metrics.start();
+    }
+
+    @After
+    public void tearDown() {
+        metrics.stop();
+    }
+
+    private HttpURLConnection connect(String path) throws IOException {
+        URL url = new URL("http", "127.0.0.1", metrics.getAddress().getPort(), path);
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    @Test(timeout=5000)
+    public void testScrape() throws IOException {
+        HttpURLConnection scrape = connect("/metrics");
+        assertEquals(200, scrape.getResponseCode());
+        assertTrue(scrape.getContentType().startsWith("text/plain; version=0.0.4"));
+
+        String body;
+        try (InputStream in = scrape.getInputStream()) {
+            body = IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+        assertTrue(body.contains("# TYPE battlecode_rounds_total counter\n"));
+        assertTrue(body.contains("\nbattlecode_matches_running "));
+        assertTrue(body.contains("\nbattlecode_sandbox_threads "));
+        assertTrue(body.contains("\njvm_gc_collections_total{gc=\""));
+        // every line is a comment or a sample
+        for (String line : body.split("\n")) {
+            assertTrue(line, line.startsWith("# ") || line.matches("[a-z_]+(\\{.*\\})? -?[0-9.E]+"));
+        }
+    }
+
+    @Test(timeout=5000)
+    public void testOnlyGet() throws IOException {
+        HttpURLConnection post = connect("/metrics");
+        post.setRequestMethod("POST");
+        assertEquals(405, post.getResponseCode());
+    }
+
+    @Test
+    public void testEscape() {
+        assertEquals("a\\\\b\\\"c\\nd", EngineMetrics.escape("a\\b\"c\nd"));
+    }
+}
@@ -0,0 +1,284 @@
+package battlecode.server;
+
+import battlecode.common.MapLocation;
+import battlecode.common.RobotType;
+import battlecode.common.Team;
+import battlecode.schema.Control;
+import battlecode.schema.ControlCommand;
+import battlecode.world.TestMapBuilder;
+import com.google.flatbuffers.FlatBufferBuilder;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+public class NetServerTest {
+    private final GameInfo info = new GameInfo(
+                    "bananas", "org.bananas", null,
+                    "yellow","org.yellow", null,
+                    new String[] {"honolulu"}, null, false
+    );
+
+    /**
+     * @return the events of a game with a keyframe every 5 rounds: game
+     *         header, match header, rounds 1 to 12, match footer, game footer
+     */
+    private List<byte[]> makeEvents() {
+        NetServer mockServer = Mockito.mock(NetServer.class);
+        GameMaker gm = new GameMaker(info, mockServer, new ReplayConfig.Builder().clientKeyframeInterval(5).build());
+
+        int[] soup = new int[50 * 50];
+        int[] dirt = new int[50 * 50];
+        boolean[] water = new boolean[50 * 50];
+
+        gm.makeGameHeader();
+        GameMaker.MatchMaker mm = gm.getMatchMaker();
+        mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt()
+                .build());
+        for (int round = 1; round <= 12; round++) {
+            if (mm.isKeyframeRound(round)) {
+                mm.setKeyframe(soup, dirt, water, 0f);
+            }
+            mm.makeRound(round);
+        }
+        mm.makeMatchFooter(Team.A, 12);
+        gm.makeGameFooter(Team.A);
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(mockServer, atLeastOnce()).addEvent(captor.capture());
+        return captor.getAllValues();
+    }
+
+    /**
+     * @return a server whose clients can start from keyframes
+     */
+    private static NetServer keyframeServer(long retainLimit) {
+        return new NetServer(0, false, new WebsocketConfig.Builder()
+                .retainLimit(retainLimit)
+                .keyframeSnapshots(true)
+                .build());
+    }
+
+    @Test
+    public void testRetainsSinceSnapshot() {
+        List<byte[]> events = makeEvents();
+        NetServer server = keyframeServer(Long.MAX_VALUE);
+
+        assertTrue(server.retain(events.get(0)));
+        assertTrue(server.retain(events.get(1)));
+        long headers = events.get(0).length + events.get(1).length;
+        assertEquals(headers, server.getRetainedBytes());
+
+        long expected = headers;
+        for (int round = 1; round <= 12; round++) {
+            byte[] event = events.get(round + 1);
+            // rounds 5 and 10 have keyframes
+            assertEquals(round % 5 == 0, server.retain(event));
+            if (round % 5 == 0) {
+                expected = headers;
+            }
+            expected += event.length;
+            assertEquals(expected, server.getRetainedBytes());
+        }
+
+        assertFalse(server.retain(events.get(14)));
+        assertFalse(server.retain(events.get(15)));
+        assertEquals(0, server.getDroppedTails());
+        assertTrue(server.getPeakRetainedBytes() >= server.getRetainedBytes());
+    }
+
+    @Test
+    public void testRetainLimit() {
+        List<byte[]> events = makeEvents();
+        long headers = events.get(0).length + events.get(1).length;
+        // room for the headers and a round or two, but not a keyframe
+        NetServer server = keyframeServer(headers + events.get(2).length + events.get(3).length);
+
+        server.retain(events.get(0));
+        server.retain(events.get(1));
+        for (int round = 1; round <= 6; round++) {
+            server.retain(events.get(round + 1));
+        }
+
+        // the tail overflowed on round 3, and the keyframe on round 5 alone is too big
+        assertEquals(2, server.getDroppedTails());
+        assertEquals(headers, server.getRetainedBytes());
+
+        // a new game starts from scratch
+        server.retain(events.get(0));
+        assertEquals(events.get(0).length, server.getRetainedBytes());
+    }
+
+    @Test
+    public void testRetainsMatchByDefault() {
+        List<byte[]> events = makeEvents();
+        long headers = events.get(0).length + events.get(1).length;
+        long firstFive = 0;
+        for (int round = 1; round <= 5; round++) {
+            firstFive += events.get(round + 1).length;
+        }
+        // room for the headers and the first five rounds, keyframe and all
+        NetServer server = new NetServer(0, false,
+                new WebsocketConfig.Builder().retainLimit(headers + firstFive).build());
+
+        assertTrue(server.retain(events.get(0)));
+        assertTrue(server.retain(events.get(1)));
+        // the keyframes don't count; late joiners get the match from its header
+        for (int round = 1; round <= 5; round++) {
+            assertFalse(server.retain(events.get(round + 1)));
+        }
+        assertEquals(0, server.getDroppedTails());
+
+        // and when it won't fit, they wait for the next match header
+        for (int round = 6; round <= 12; round++) {
+            assertFalse(server.retain(events.get(round + 1)));
+        }
+        assertEquals(1, server.getDroppedTails());
+        assertEquals(headers, server.getRetainedBytes());
+        assertTrue(server.retain(events.get(1)));
+        assertEquals(headers, server.getRetainedBytes());
+    }
+
+    /**
+     * @return a client that's connected to a server, and takes whatever
+     *         it's sent
+     */
+    private static WebSocket connect(NetServer server) {
+        WebSocket client = Mockito.mock(WebSocket.class);
+        Mockito.when(client.isOpen()).thenReturn(true);
+        ClientHandshake handshake = Mockito.mock(ClientHandshake.class);
+        Mockito.when(handshake.getResourceDescriptor()).thenReturn("/");
+        server.onOpen(client, handshake);
+        return client;
+    }
+
+    @Test(timeout=5000)
+    public void testHeadersOverRetainLimit() throws Exception {
+        List<byte[]> events = makeEvents();
+        NetServer server = new NetServer(0, false, new WebsocketConfig.Builder().retainLimit(0).build());
+
+        server.processEvent(new byte[][] {events.get(0)});
+        WebSocket client = connect(server);
+        server.processEvent(new byte[][] {events.get(1)});
+
+        // the headers are kept anyway, so late joiners still get them
+        assertEquals(0, server.getDroppedTails());
+        assertEquals(events.get(0).length + events.get(1).length, server.getRetainedBytes());
+        WebSocket late = connect(server);
+        for (WebSocket c : Arrays.asList(client, late)) {
+            verify(c, Mockito.timeout(1000)).send(events.get(0));
+            verify(c, Mockito.timeout(1000)).send(events.get(1));
+        }
+        for (ClientQueue queue : server.getClients()) {
+            queue.close();
+        }
+    }
+
+    @Test(timeout=5000)
+    public void testSnapshotOverRetainLimit() throws Exception {
+        List<byte[]> events = makeEvents();
+        long headers = events.get(0).length + events.get(1).length;
+        NetServer server = keyframeServer(headers + events.get(2).length + events.get(3).length);
+
+        for (int i = 0; i <= 4; i++) {
+            server.processEvent(new byte[][] {events.get(i)});
+        }
+        // joins after the tail overflowed, so waits for a snapshot
+        WebSocket client = connect(server);
+        // the keyframe on round 5 is too big to keep, so it keeps waiting
+        for (int round = 4; round <= 6; round++) {
+            server.processEvent(new byte[][] {events.get(round + 1)});
+        }
+
+        assertEquals(2, server.getDroppedTails());
+        assertTrue(server.getClients().get(0).isSkipping());
+        verify(client, Mockito.never()).send(Mockito.any(byte[].class));
+        server.getClients().get(0).close();
+    }
+
+    @Test
+    public void testRetainsVariants() {
+        List<byte[]> events = makeEvents();
+        NetServer server = new NetServer(0, false);
+        assertTrue(server.wantsDetail(DetailLevel.FULL));
+        assertFalse(server.wantsDetail(DetailLevel.SPECTATOR));
+
+        server.retain(events.get(0));
+        server.retain(events.get(1));
+        long headers = events.get(0).length + events.get(1).length;
+
+        // a stand-in for a smaller round, shared by both reduced levels
+        byte[] full = events.get(2);
+        byte[] reduced = events.get(3);
+        byte[][] variants = new byte[DetailLevel.values().length][];
+        Arrays.fill(variants, reduced);
+        variants[DetailLevel.FULL.ordinal()] = full;
+
+        assertFalse(server.retain(variants));
+        assertEquals(headers + full.length + reduced.length, server.getRetainedBytes());
+        assertSame(full, NetServer.variant(variants, DetailLevel.FULL));
+        assertSame(reduced, NetServer.variant(variants, DetailLevel.SUMMARY));
+        assertSame(full, NetServer.variant(new byte[][] {full}, DetailLevel.SUMMARY));
+    }
+
+    @Test
+    public void testSizeParams() {
+        Map<String, String> params = NetServer.parseQuery("/?queue=256&batch=2147483647");
+        assertEquals(256, NetServer.sizeParam(params, "queue", 1024, 8192));
+        // clients can't ask for more than the server allows
+        assertEquals(256, NetServer.sizeParam(params, "batch", 1, 256));
+        assertEquals(1024, NetServer.sizeParam(new HashMap<>(), "queue", 1024, 8192));
+    }
+
+    @Test(expected=RuntimeException.class)
+    public void testDefaultOverMaximum() {
+        new WebsocketConfig.Builder().batchSize(16, 8).build();
+    }
+
+    private static ByteBuffer control(byte command, int argument) {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        builder.finish(Control.createControl(builder, command, argument));
+        return ByteBuffer.wrap(builder.sizedByteArray());
+    }
+
+    @Test
+    public void testControl() {
+        NetServer server = new NetServer(0, false);
+        WebSocket client = Mockito.mock(WebSocket.class);
+        List<String> received = new ArrayList<>();
+
+        // ignored without a listener
+        server.onMessage(client, control(ControlCommand.Run, 0));
+
+        server.setControlListener((command, argument) ->
+                received.add(ControlCommand.name(command) + " " + argument));
+        server.onMessage(client, control(ControlCommand.Step, 3));
+        server.onMessage(client, control(ControlCommand.RunUntil, 250));
+        server.onMessage(client, control((byte) 17, 0));
+        server.onMessage(client, ByteBuffer.wrap(new byte[] {1, 2}));
+        server.onMessage(client, control(ControlCommand.Pause, 0));
+
+        assertEquals(3, received.size());
+        assertEquals("Step 3", received.get(0));
+        assertEquals("RunUntil 250", received.get(1));
+        assertEquals("Pause 0", received.get(2));
+    }
+}
@@ -0,0 +1,47 @@
+package battlecode.server;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReplayConfigTest {
+
+    @Test
+    public void testDefaults() {
+        ReplayConfig replay = new ReplayConfig.Builder().build();
+        assertFalse(replay.isSaveIndex());
+        assertEquals(0, replay.getKeyframeInterval());
+        assertFalse(replay.isCompact());
+        assertEquals(1, replay.getBytecodeQuantum());
+        assertFalse(replay.isResultOnly());
+        assertEquals(0, replay.getClientKeyframeInterval());
+    }
+
+    @Test
+    public void testFromConfig() {
+        Config options = Config.defaultConfig();
+        options.setBoolean("bc.server.save-index", true);
+        options.set("bc.server.keyframe-interval", "50");
+        options.setBoolean("bc.server.compact-replay", true);
+        options.set("bc.server.compact-bytecode-quantum", "10");
+        options.set("bc.server.websocket-keyframe-interval", "25");
+
+        ReplayConfig replay = ReplayConfig.fromConfig(options);
+        assertTrue(replay.isSaveIndex());
+        assertEquals(50, replay.getKeyframeInterval());
+        assertTrue(replay.isCompact());
+        assertEquals(10, replay.getBytecodeQuantum());
+        assertFalse(replay.isResultOnly());
+        assertEquals(25, replay.getClientKeyframeInterval());
+    }
+
+    @Test(expected=RuntimeException.class)
+    public void testResultOnlyRecordsNothing() {
+        new ReplayConfig.Builder().resultOnly(true).saveIndex(true).build();
+    }
+
+    @Test(expected=RuntimeException.class)
+    public void testInvalidBytecodeQuantum() {
+        new ReplayConfig.Builder().compact(true, 0).build();
+    }
+}
@@ -0,0 +1,231 @@
+package battlecode.server;
+
+import battlecode.common.MapLocation;
+import battlecode.common.RobotType;
+import battlecode.common.Team;
+import battlecode.schema.ControlCommand;
+import battlecode.schema.Event;
+import battlecode.schema.EventWrapper;
+import battlecode.schema.Round;
+import battlecode.world.TestMapBuilder;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReplayStreamTest {
+
+    /**
+     * Two matches of 30 rounds, with a keyframe every 10.
+     */
+    private static File replay;
+
+    @BeforeClass
+    public static void makeReplay() throws IOException {
+        GameInfo info = new GameInfo(
+                "bananas", "org.bananas", null,
+                "yellow", "org.yellow", null,
+                new String[] {"honolulu"}, null, false);
+        GameMaker gm = new GameMaker(info, null,
+                new ReplayConfig.Builder().saveIndex(true).keyframeInterval(10).build());
+
+        int[] soup = new int[50 * 50];
+        int[] dirt = new int[50 * 50];
+        boolean[] water = new boolean[50 * 50];
+
+        gm.makeGameHeader();
+        GameMaker.MatchMaker mm = gm.getMatchMaker();
+        for (int match = 0; match < 2; match++) {
+            mm.makeMatchHeader(new TestMapBuilder("honolulu", 2, -3, 50, 50, 1337, 50, 0)
+                    .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                    .addRobot(1, Team.B, RobotType.HQ, new MapLocation(25, 25))
+                    .setSoup()
+                    .setWater()
+                    .setPollution()
+                    .setDirt()
+                    .build());
+            for (int round = 1; round <= 30; round++) {
+                if (mm.isKeyframeRound(round)) {
+                    mm.setKeyframe(soup, dirt, water, 0f);
+                }
+                mm.makeRound(round);
+            }
+            mm.makeMatchFooter(Team.A, 30);
+        }
+        gm.makeGameFooter(Team.A);
+
+        replay = File.createTempFile("stream", ".bc20");
+        replay.deleteOnExit();
+        gm.writeGame(replay);
+    }
+
+    private WebSocket mockClient() {
+        WebSocket client = Mockito.mock(WebSocket.class);
+        when(client.isOpen()).thenReturn(true);
+        when(client.hasBufferedData()).thenReturn(false);
+        return client;
+    }
+
+    /**
+     * @return what's been sent, as "GameHeader", "MatchHeader", round numbers,
+     *         and so on
+     */
+    private static List<String> sent(WebSocket client, int atLeast) {
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(client, atLeast(atLeast)).send(captor.capture());
+        List<String> result = new ArrayList<>();
+        for (byte[] event : captor.getAllValues()) {
+            EventWrapper wrapper = EventWrapper.getRootAsEventWrapper(ByteBuffer.wrap(event));
+            if (wrapper.eType() == Event.Round) {
+                result.add(Integer.toString(((Round) wrapper.e(new Round())).roundID()));
+            } else {
+                result.add(Event.name(wrapper.eType()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Wait for the stream to send a number of events, and no more.
+     */
+    private static List<String> awaitSent(WebSocket client, ClientQueue queue, int count)
+            throws InterruptedException {
+        for (int i = 0; i < 500 && queue.getSentEvents() < count; i++) {
+            Thread.sleep(5);
+        }
+        // give it a chance to send too much
+        Thread.sleep(50);
+        assertEquals(count, queue.getSentEvents());
+        return sent(client, count);
+    }
+
+    @Test(timeout=5000)
+    public void testStreamsEverything() throws Exception {
+        WebSocket client = mockClient();
+        ClientQueue queue = new ClientQueue(client, ClientQueue.Policy.BLOCK, 4, 1, false);
+        ReplayStream stream = new ReplayStream(ReplayReader.open(replay), queue, false);
+        queue.start();
+        stream.start();
+        assertTrue(stream.join(5000));
+        assertTrue(queue.join(5000));
+
+        List<String> sent = sent(client, 1);
+        assertEquals(1 + 2 * (1 + 30 + 1) + 1, sent.size());
+        assertEquals("GameHeader", sent.get(0));
+        assertEquals("MatchHeader", sent.get(1));
+        assertEquals("1", sent.get(2));
+        assertEquals("30", sent.get(31));
+        assertEquals("MatchFooter", sent.get(32));
+        assertEquals("MatchHeader", sent.get(33));
+        assertEquals("GameFooter", sent.get(sent.size() - 1));
+    }
+
+    @Test(timeout=5000)
+    public void testPauseStepAndSeek() throws Exception {
+        WebSocket client = mockClient();
+        ClientQueue queue = new ClientQueue(client, ClientQueue.Policy.BLOCK, 4, 1, false);
+        ReplayStream stream = new ReplayStream(ReplayReader.open(replay), queue, true);
+        queue.start();
+        stream.start();
+
+        // headers only, until told otherwise
+        assertEquals(2, awaitSent(client, queue, 2).size());
+
+        stream.control(ControlCommand.Step, 3);
+        List<String> sent = awaitSent(client, queue, 5);
+        assertEquals("3", sent.get(4));
+
+        // from the keyframe on round 20, paused afterwards
+        stream.control(ControlCommand.Seek, 25);
+        sent = awaitSent(client, queue, 5 + 1 + 6);
+        assertEquals("MatchHeader", sent.get(5));
+        assertEquals("20", sent.get(6));
+        assertEquals("25", sent.get(11));
+
+        // back to before any keyframe
+        stream.control(ControlCommand.Seek, 2);
+        sent = awaitSent(client, queue, 12 + 1 + 2);
+        assertEquals("1", sent.get(13));
+        assertEquals("2", sent.get(14));
+
+        stream.control(ControlCommand.RunUntil, 4);
+        sent = awaitSent(client, queue, 17);
+        assertEquals("4", sent.get(16));
+
+        stream.control(ControlCommand.Run, 0);
+        assertTrue(stream.join(5000));
+        stream.close();
+    }
+
+    @Test(timeout=5000)
+    public void testClose() throws Exception {
+        WebSocket client = mockClient();
+        ClientQueue queue = new ClientQueue(client, ClientQueue.Policy.BLOCK, 4, 1, false);
+        ReplayStream stream = new ReplayStream(ReplayReader.open(replay), queue, true);
+        queue.start();
+        stream.start();
+        awaitSent(client, queue, 2);
+
+        stream.close();
+        assertTrue(stream.join(5000));
+        assertTrue(queue.isClosed());
+    }
+
+    private static WebsocketConfig sizes(int queueSize, int batchSize) {
+        return new WebsocketConfig.Builder().queueSize(queueSize, 64).batchSize(batchSize, 8).build();
+    }
+
+    @Test
+    public void testSizeParams() throws Exception {
+        ReplayServer server = new ReplayServer(0, replay, sizes(4, 1));
+        for (String bad : new String[] {"/?queue=0", "/?batch=-1", "/?queue=lots"}) {
+            WebSocket client = mockClient();
+            ClientHandshake handshake = Mockito.mock(ClientHandshake.class);
+            when(handshake.getResourceDescriptor()).thenReturn(bad);
+            server.onOpen(client, handshake);
+            verify(client).close(Mockito.eq(1008), Mockito.anyString());
+        }
+        assertEquals(0, server.getViewerCount());
+
+        // asking for too much gets the most there is
+        WebSocket client = mockClient();
+        ClientHandshake handshake = Mockito.mock(ClientHandshake.class);
+        when(handshake.getResourceDescriptor()).thenReturn("/?queue=2000000000&batch=2000000000&paused=true");
+        server.onOpen(client, handshake);
+        verify(client, Mockito.never()).close(Mockito.anyInt(), Mockito.anyString());
+        assertEquals(1, server.getViewerCount());
+        server.onClose(client, 1000, "done", true);
+    }
+
+    @Test
+    public void testFindReplay() throws Exception {
+        File dir = replay.getParentFile();
+        ReplayServer server = new ReplayServer(0, dir, sizes(4, 1));
+        assertEquals(replay.getCanonicalFile(), server.findReplay(replay.getName()));
+        for (String bad : new String[] {null, "../" + replay.getName(), "nonexistent.bc20"}) {
+            try {
+                server.findReplay(bad);
+                fail("Found " + bad);
+            } catch (IOException e) {
+                // expected
+            }
+        }
+
+        server = new ReplayServer(0, replay, sizes(4, 1));
+        assertEquals(replay, server.findReplay(null));
+        assertEquals(replay, server.findReplay(replay.getName()));
+    }
+}
@@ -0,0 +1,47 @@
+package battlecode.server;
+
+import battlecode.common.*;
+import battlecode.world.LiveMap;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ScalingBenchmarkTest {
+    @Test
+    public void testGenerate() {
+        LiveMap map = ScalingBenchmark.generate(100, 1000);
+        assertEquals(100, map.getWidth());
+        assertEquals(100, map.getHeight());
+
+        // the HQs, and the population split between the teams
+        RobotInfo[] bodies = map.getInitialBodies();
+        assertEquals(1002, bodies.length);
+        Map<MapLocation, RobotInfo> byLocation = new HashMap<>();
+        int teamA = 0;
+        for (RobotInfo body : bodies) {
+            assertNull("two robots at " + body.location, byLocation.put(body.location, body));
+            assertTrue(body.location.x >= 0 && body.location.x < 100);
+            assertTrue(body.location.y >= 0 && body.location.y < 100);
+            if (body.team == Team.A) {
+                teamA++;
+            }
+        }
+        assertEquals(501, teamA);
+
+        // rotationally symmetric
+        for (RobotInfo body : bodies) {
+            RobotInfo mirror = byLocation.get(new MapLocation(99 - body.location.x, 99 - body.location.y));
+            assertNotNull(mirror);
+            assertEquals(body.type, mirror.type);
+            assertEquals(body.team.opponent(), mirror.team);
+        }
+        int[] soup = map.getSoupArray();
+        for (int i = 0; i < soup.length; i++) {
+            assertEquals(soup[i], soup[soup.length - 1 - i]);
+        }
+    }
+}
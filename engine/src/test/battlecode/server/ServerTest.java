@@ -0,0 +1,115 @@
+package battlecode.server;
+
+import battlecode.schema.ControlCommand;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ServerTest {
+
+    private Server server;
+
+    /**
+     * The last round the fake match has been allowed to run.
+     */
+    private AtomicInteger ran;
+
+    private Thread engine;
+
+    @Before
+    public void setUp() {
+        Config options = new Config(new String[0]);
+        Config.setGlobalConfig(options);
+        server = new Server(options, true);
+        ran = new AtomicInteger();
+
+        // runs a 20 round match, as far as it's allowed to
+        engine = new Thread(() -> {
+            try {
+                for (int round = 1; round <= 20; round++) {
+                    server.awaitRound(round);
+                    ran.set(round);
+                }
+            } catch (InterruptedException e) {
+                // done
+            }
+        });
+        engine.setDaemon(true);
+        engine.start();
+    }
+
+    /**
+     * Wait for the match to get to a round and stop there.
+     */
+    private void awaitRan(int round) throws InterruptedException {
+        for (int i = 0; i < 500 && ran.get() < round; i++) {
+            Thread.sleep(5);
+        }
+        // give it a chance to go too far
+        Thread.sleep(20);
+        assertEquals(round, ran.get());
+    }
+
+    @Test(timeout=5000)
+    public void testWaitsToRun() throws Exception {
+        awaitRan(0);
+        server.startNotification();
+        awaitRan(0);
+        server.runNotification();
+        awaitRan(20);
+    }
+
+    @Test(timeout=5000)
+    public void testStep() throws Exception {
+        server.stepNotification(3);
+        awaitRan(3);
+        assertEquals(ServerState.PAUSED, server.getState());
+
+        server.stepNotification(1);
+        awaitRan(4);
+        server.stepNotification(0);
+        awaitRan(4);
+    }
+
+    @Test(timeout=5000)
+    public void testRunUntil() throws Exception {
+        server.runUntilNotification(10);
+        awaitRan(10);
+        assertEquals(ServerState.PAUSED, server.getState());
+
+        // already there
+        server.runUntilNotification(7);
+        awaitRan(10);
+        assertEquals(ServerState.PAUSED, server.getState());
+
+        server.runUntilNotification(12);
+        awaitRan(12);
+    }
+
+    @Test(timeout=5000)
+    public void testPauseAndResume() throws Exception {
+        server.stepNotification(5);
+        awaitRan(5);
+
+        // running doesn't override a pause; resuming does
+        server.runNotification();
+        awaitRan(5);
+        server.resumeNotification();
+        awaitRan(20);
+    }
+
+    @Test(timeout=5000)
+    public void testControl() throws Exception {
+        server.controlNotification(ControlCommand.Step, 2);
+        awaitRan(2);
+        server.controlNotification(ControlCommand.RunUntil, 8);
+        awaitRan(8);
+        server.controlNotification(ControlCommand.Pause, 0);
+        awaitRan(8);
+        server.controlNotification(ControlCommand.Run, 0);
+        awaitRan(20);
+    }
+}
@@ -0,0 +1,32 @@
+package battlecode.util;
+
+import battlecode.schema.VecTable;
+import com.google.flatbuffers.FlatBufferBuilder;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlatHelpersTest {
+    @Test
+    public void testEmbedFinishedBuffer() {
+        FlatBufferBuilder inner = new FlatBufferBuilder();
+        inner.finish(FlatHelpers.createVecTable(inner,
+                new TIntArrayList(new int[] {1, 2, 3}), new TIntArrayList(new int[] {4, 5, 6})));
+        byte[] finished = inner.sizedByteArray();
+
+        // after something else, so it isn't at the start of the outer buffer
+        FlatBufferBuilder outer = new FlatBufferBuilder(16);
+        outer.addByte((byte) 7);
+        int embedded = FlatHelpers.embedFinishedBuffer(outer, finished);
+        outer.finish(embedded);
+
+        VecTable table = VecTable.getRootAsVecTable(ByteBuffer.wrap(outer.sizedByteArray()));
+        assertEquals(3, table.xsLength());
+        assertEquals(1, table.xs(0));
+        assertEquals(3, table.xs(2));
+        assertEquals(6, table.ys(2));
+    }
+}
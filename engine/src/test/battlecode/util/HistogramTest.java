@@ -0,0 +1,70 @@
+package battlecode.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+    @Test
+    public void testEmpty() {
+        Histogram h = new Histogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMin());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getValueAtPercentile(99));
+        assertEquals(0, h.getMean(), 0);
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram h = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            h.record(i);
+        }
+        assertEquals(100, h.getCount());
+        assertEquals(5050, h.getTotal());
+        assertEquals(1, h.getMin());
+        assertEquals(100, h.getMax());
+        assertEquals(50.5, h.getMean(), 1e-9);
+        assertEquals(50, h.getValueAtPercentile(50));
+        assertEquals(90, h.getValueAtPercentile(90));
+        assertEquals(100, h.getValueAtPercentile(100));
+        assertEquals(1, h.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void testLargeValuesAreClose() {
+        Histogram h = new Histogram();
+        long[] values = {1000, 123456, 9876543, 1L << 40, 3L << 50, Long.MAX_VALUE};
+        for (long value : values) {
+            Histogram one = new Histogram();
+            one.record(1);
+            one.record(value);
+            long p100 = one.getValueAtPercentile(100);
+            assertEquals(value, p100);
+            long p50 = one.getValueAtPercentile(50);
+            assertEquals(1, p50);
+            h.record(value);
+        }
+        for (int i = 0; i < values.length; i++) {
+            long estimate = h.getValueAtPercentile(100.0 * (i + 1) / values.length);
+            assertTrue(estimate + " should be close to " + values[i],
+                    estimate >= values[i] && estimate - values[i] <= values[i] / 64);
+        }
+    }
+
+    @Test
+    public void testAdd() {
+        Histogram a = new Histogram();
+        Histogram b = new Histogram();
+        a.record(10);
+        a.record(-5);
+        b.record(5000);
+        a.add(b);
+        assertEquals(3, a.getCount());
+        assertEquals(0, a.getMin());
+        assertEquals(5000, a.getMax());
+        assertEquals(5010, a.getTotal());
+    }
+}
@@ -0,0 +1,50 @@
+package battlecode.world;
+
+import battlecode.common.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ApiProfileTest {
+    @Test
+    public void testWrappedCallsAreCounted() throws GameActionException {
+        LiveMap map = new TestMapBuilder("test", new MapLocation(0,0), 10, 10, 1337, 100, 5)
+            .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+            .addRobot(1, Team.B, RobotType.HQ, new MapLocation(9, 9))
+            .setSoup()
+            .setWater()
+            .setPollution()
+            .setDirt()
+            .build();
+        TestGame game = new TestGame(map);
+        final int minerA = game.spawn(3, 3, RobotType.MINER, Team.A);
+
+        ApiProfile profile = new ApiProfile();
+        RobotController rc = profile.wrap(game.getBot(minerA).getController(), Team.A);
+
+        assertEquals(minerA, rc.getID());
+        assertEquals(new MapLocation(3, 3), rc.getLocation());
+        rc.senseNearbyRobots();
+        rc.senseNearbyRobots(2);
+        try {
+            // exceptions come through as they are
+            rc.buildRobot(RobotType.MINER, Direction.NORTH);
+            fail("miners can't build miners");
+        } catch (GameActionException e) {
+            assertEquals(GameActionExceptionType.CANT_DO_THAT, e.getType());
+        }
+
+        assertEquals(1, profile.getCalls(Team.A, "getID"));
+        assertEquals(2, profile.getCalls(Team.A, "senseNearbyRobots"));
+        assertEquals(1, profile.getCalls(Team.A, "buildRobot"));
+        assertEquals(0, profile.getCalls(Team.B, "getID"));
+        assertEquals(0, profile.getCalls(Team.A, "noSuchMethod"));
+        assertTrue(profile.getNanos(Team.A, "senseNearbyRobots") >= 0);
+        assertEquals(100, ApiProfile.getCharged("senseNearbyRobots"));
+
+        String summary = profile.summary();
+        assertTrue(summary.contains("senseNearbyRobots"));
+        assertFalse(summary.contains("getTeamSoup"));
+    }
+}
@@ -0,0 +1,214 @@
+package battlecode.world;
+
+import battlecode.common.*;
+import battlecode.server.GameInfo;
+import battlecode.server.GameMaker;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+/**
+ * Holds the round loop to budgets for the heap it allocates, so that new
+ * garbage on a hot path fails the build rather than turning up later as GC
+ * pauses. Each scenario plays some rounds to warm up, then measures what
+ * this thread allocates per round (TestGame runs robots on it, so that
+ * includes their RobotController calls) while recording the match as the
+ * server does.
+ *
+ * The budgets are about 1.5x what each scenario allocated when it was
+ * written. If a change means to allocate more, raise its budget along with
+ * it; if one allocates much less, lower it, so it keeps catching things.
+ */
+public class RoundAllocationTest {
+
+    /**
+     * Bytes per round each scenario may allocate (measured on a 64-bit JVM
+     * with compressed oops, as with heaps under 32GB).
+     */
+    private static final long CROWDED_SENSING_BUDGET = 5_100_000;   // 100 miners; was 3.39MB
+    private static final long BLOCKCHAIN_BUDGET = 195_000;          // 100 miners; was 130KB
+    private static final long FLOODING_BUDGET = 740_000;            // 40x40; was 495KB
+    private static final long SPAWNING_BUDGET = 1_060_000;          // 16 buildings; was 705KB
+    private static final long SEPARATE_SENSING_BUDGET = 5_100_000;  // recorded separately; was 3.37MB
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 100;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeClass
+    public static void findThreadBean() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("this JVM can't measure allocation", bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue("this JVM can't measure allocation", threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void testCrowdedSensing() throws GameActionException {
+        TestGame game = new TestGame(map(30, 30).build(), matchMaker());
+        for (int x = 10; x < 20; x++) {
+            for (int y = 10; y < 20; y++) {
+                game.spawn(x, y, RobotType.MINER, (x + y) % 2 == 0 ? Team.A : Team.B);
+            }
+        }
+
+        assertWithinBudget("crowded sensing", CROWDED_SENSING_BUDGET, game, (id, rc) -> {
+            rc.senseNearbyRobots();
+            rc.senseNearbyRobots(-1, rc.getTeam().opponent());
+            rc.senseNearbySoup();
+        });
+    }
+
+    @Test
+    public void testCrowdedSensingRecordedSeparately() throws GameActionException {
+        TestGame game = new TestGame(map(30, 30).build(), separateMatchMaker());
+        for (int x = 10; x < 20; x++) {
+            for (int y = 10; y < 20; y++) {
+                game.spawn(x, y, RobotType.MINER, (x + y) % 2 == 0 ? Team.A : Team.B);
+            }
+        }
+
+        assertWithinBudget("crowded sensing, recorded separately", SEPARATE_SENSING_BUDGET, game, (id, rc) -> {
+            rc.senseNearbyRobots();
+            rc.senseNearbyRobots(-1, rc.getTeam().opponent());
+            rc.senseNearbySoup();
+        });
+    }
+
+    @Test
+    public void testBlockchainTraffic() throws GameActionException {
+        TestGame game = new TestGame(map(30, 30).build(), matchMaker());
+        game.getWorld().getTeamInfo().adjustSoup(Team.A, 1000000);
+        game.getWorld().getTeamInfo().adjustSoup(Team.B, 1000000);
+        for (int x = 5; x < 25; x++) {
+            for (int y = 5; y < 10; y++) {
+                game.spawn(x, y, RobotType.MINER, y % 2 == 0 ? Team.A : Team.B);
+            }
+        }
+        final int[] message = {1, 2, 3, 4, 5, 6, 7};
+
+        assertWithinBudget("blockchain traffic", BLOCKCHAIN_BUDGET, game, (id, rc) -> {
+            // more transactions than fit in a block, so they queue up
+            if (rc.canSubmitTransaction(message, 1 + id % 5)) {
+                rc.submitTransaction(message, 1 + id % 5);
+            }
+            if (rc.getRoundNum() > 1) {
+                rc.getBlock(rc.getRoundNum() - 1);
+            }
+        });
+    }
+
+    @Test
+    public void testMassFlooding() throws GameActionException {
+        final MapLocation hqA = new MapLocation(20, 5);
+        final MapLocation hqB = new MapLocation(20, 34);
+        TestGame game = new TestGame(new TestMapBuilder("test", new MapLocation(0, 0), 40, 40, 1337, 100, 5)
+                .addRobot(0, Team.A, RobotType.HQ, hqA)
+                .addRobot(1, Team.B, RobotType.HQ, hqB)
+                .setSoup()
+                .setWater()
+                .setPollution()
+                // everywhere's under water as soon as it rises, but the HQs
+                .setDirt(-5)
+                .setDirt(hqA, 1000)
+                .setDirt(hqB, 1000)
+                .setWater(new MapLocation(0, 0))
+                .setWater(new MapLocation(39, 39))
+                .build(), matchMaker());
+
+        // the flood spreads through the warm-up and the first rounds measured,
+        // then covers the map
+        assertWithinBudget("mass flooding", FLOODING_BUDGET, game, (id, rc) -> {});
+    }
+
+    @Test
+    public void testMassSpawning() throws GameActionException {
+        TestGame game = new TestGame(map(40, 40).build(), matchMaker());
+        game.getWorld().getTeamInfo().adjustSoup(Team.A, 1000000);
+        game.getWorld().getTeamInfo().adjustSoup(Team.B, 1000000);
+        for (int x = 5; x < 40; x += 10) {
+            game.spawn(x, 10, RobotType.DESIGN_SCHOOL, Team.A);
+            game.spawn(x, 15, RobotType.FULFILLMENT_CENTER, Team.A);
+            game.spawn(x, 25, RobotType.DESIGN_SCHOOL, Team.B);
+            game.spawn(x, 30, RobotType.FULFILLMENT_CENTER, Team.B);
+        }
+
+        assertWithinBudget("mass spawning", SPAWNING_BUDGET, game, (id, rc) -> {
+            final RobotType type = rc.getType();
+            final RobotType built = type == RobotType.HQ ? RobotType.MINER :
+                    type == RobotType.DESIGN_SCHOOL ? RobotType.LANDSCAPER :
+                    type == RobotType.FULFILLMENT_CENTER ? RobotType.DELIVERY_DRONE : null;
+            if (built == null) {
+                return;
+            }
+            for (Direction dir : Direction.allDirections()) {
+                if (rc.canBuildRobot(built, dir)) {
+                    rc.buildRobot(built, dir);
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * Play the warm-up rounds, then assert the rounds after allocate no
+     * more than the budget, on average.
+     */
+    private static void assertWithinBudget(String scenario, long budget, TestGame game,
+                                           TestGame.BiConsumerWithException f) throws GameActionException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            game.round(f);
+        }
+        final long thread = Thread.currentThread().getId();
+        final long start = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            game.round(f);
+        }
+        final long perRound = (threads.getThreadAllocatedBytes(thread) - start) / MEASURED_ROUNDS;
+        assertTrue(scenario + " allocated " + perRound + " bytes per round, over its budget of " + budget,
+                perRound <= budget);
+    }
+
+    private static TestMapBuilder map(int width, int height) {
+        return new TestMapBuilder("test", new MapLocation(0, 0), width, height, 1337, 100, 5)
+                .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+                .addRobot(1, Team.B, RobotType.HQ, new MapLocation(width - 1, height - 1))
+                .setSoup()
+                .setWater()
+                .setPollution()
+                .setDirt();
+    }
+
+    private static GameMaker gameMaker() {
+        final GameMaker gameMaker = new GameMaker(new GameInfo(
+                "A", "a", null,
+                "B", "b", null,
+                new String[] {"test"}, null, false
+        ), null);
+        gameMaker.makeGameHeader();
+        return gameMaker;
+    }
+
+    /**
+     * @return a match maker that records the match as the server does by
+     *         default, one match after another
+     */
+    private static GameMaker.MatchMaker matchMaker() {
+        return gameMaker().getMatchMaker();
+    }
+
+    /**
+     * @return a match maker that records the match as the server does when
+     *         it plays matches at once (bc.server.match-threads)
+     */
+    private static GameMaker.MatchMaker separateMatchMaker() {
+        return gameMaker().createMatchMaker();
+    }
+}
@@ -34,13 +34,23 @@ public class TestGame {
      * @param map the game map
      */
     public TestGame(LiveMap map) {
-        world = new GameWorld(map,
-                new TestControlProvider(),
+        this(map,
                 // this is a hack.
                 // there should be a cleaner way to do this?
                 Mockito.mock(GameMaker.MatchMaker.class));
     }
 
+    /**
+     * Creates a test game with the given map, recorded by the given match
+     * maker (e.g. a real one, rather than a mock that remembers every call).
+     *
+     * @param map the game map
+     * @param matchMaker the match maker to record the game with
+     */
+    public TestGame(LiveMap map, GameMaker.MatchMaker matchMaker) {
+        world = new GameWorld(map, new TestControlProvider(), matchMaker);
+    }
+
     /**
      * Returns the x coordinate of the map origin.
      *
@@ -175,6 +185,19 @@ public class TestGame {
             return robot.getBytecodesUsed();
         }
 
+        @Override
+        public long getCpuTimeUsed(InternalRobot robot) {
+            return -1;
+        }
+
+        @Override
+        public long getBytesAllocated(InternalRobot robot) {
+            return -1;
+        }
+
+        @Override
+        public void chargeBytecodes(InternalRobot robot, int bytecodes) {}
+
         @Override
         public boolean getTerminated(InternalRobot robot) {
             return false;
@@ -2,6 +2,7 @@ package battlecode.world;
 
 import battlecode.common.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -83,6 +84,26 @@ public class TestMapBuilder {
         return this;
     }
 
+    public TestMapBuilder setDirt(int elevation) {
+        this.dirtArray = new int[width*height];
+        Arrays.fill(this.dirtArray, elevation);
+        return this;
+    }
+
+    public TestMapBuilder setDirt(MapLocation loc, int elevation) {
+        this.dirtArray[index(loc)] = elevation;
+        return this;
+    }
+
+    public TestMapBuilder setWater(MapLocation loc) {
+        this.waterArray[index(loc)] = true;
+        return this;
+    }
+
+    private int index(MapLocation loc) {
+        return (loc.x - origin.x) + (loc.y - origin.y) * width;
+    }
+
     public TestMapBuilder addBody(RobotInfo info) {
         bodies.add(info);
         return this;
@@ -0,0 +1,79 @@
+package battlecode.world;
+
+import battlecode.common.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TurnStatsTest {
+    @Test
+    public void testRecordAndAdd() {
+        TurnStats stats = new TurnStats();
+        stats.record(Team.A, RobotType.MINER, 100, 5000, 8000, 4096);
+        stats.record(Team.A, RobotType.MINER, 300, -1, 2000, -1);
+        stats.record(Team.A, RobotType.HQ, 50, 1000, 1000, 100);
+        stats.record(Team.B, RobotType.MINER, 10, 10, 20, 0);
+
+        assertEquals(2, stats.getTurns(Team.A, RobotType.MINER));
+        assertEquals(400, stats.getBytecodes(Team.A, RobotType.MINER));
+        assertEquals(1, stats.getCpuTurns(Team.A, RobotType.MINER));
+        assertEquals(5000, stats.getCpuNanos(Team.A, RobotType.MINER));
+        assertEquals(10000, stats.getWallNanos(Team.A, RobotType.MINER));
+        assertEquals(3, stats.getTurns(Team.A));
+        assertEquals(6000, stats.getCpuNanos(Team.A));
+        assertEquals(1, stats.getTurns(Team.B));
+        assertEquals(1, stats.getAllocatedTurns(Team.A, RobotType.MINER));
+        assertEquals(4096, stats.getAllocatedBytes(Team.A, RobotType.MINER));
+        assertEquals(4196, stats.getAllocatedBytes(Team.A));
+        assertEquals(1, stats.getAllocatedTurns(Team.B));
+        assertEquals(4, stats.getTurnTimes().getCount());
+        assertEquals(8000, stats.getTurnTimes().getMax());
+
+        stats.recordOverBudget(Team.A, RobotType.MINER);
+        assertEquals(1, stats.getOverBudgetTurns(Team.A, RobotType.MINER));
+        assertEquals(1, stats.getOverBudgetTurns(Team.A));
+        assertEquals(0, stats.getOverBudgetTurns(Team.B));
+
+        TurnStats total = new TurnStats();
+        total.add(stats);
+        total.add(stats);
+        assertEquals(6, total.getTurns(Team.A));
+        assertEquals(12000, total.getCpuNanos(Team.A));
+        assertEquals(40, total.getWallNanos(Team.B, RobotType.MINER));
+        assertEquals(8, total.getTurnTimes().getCount());
+        assertEquals(22040, total.getTurnTimes().getTotal());
+
+        String summary = total.summary();
+        assertTrue(summary.contains("MINER"));
+        assertTrue(summary.contains("HQ"));
+        assertFalse(summary.contains("NEUTRAL"));
+    }
+
+    @Test
+    public void testCollectedByWorld() throws GameActionException {
+        LiveMap map = new TestMapBuilder("test", new MapLocation(0,0), 10, 10, 1337, 100, 5)
+            .addRobot(0, Team.A, RobotType.HQ, new MapLocation(0, 0))
+            .addRobot(1, Team.B, RobotType.HQ, new MapLocation(9, 9))
+            .setSoup()
+            .setWater()
+            .setPollution()
+            .setDirt()
+            .build();
+        TestGame game = new TestGame(map);
+        TurnStats stats = new TurnStats();
+        game.getWorld().setTurnStats(stats);
+        final int minerA = game.spawn(3, 3, RobotType.MINER, Team.A);
+
+        game.round((id, rc) -> {});
+        game.round((id, rc) -> {});
+
+        assertEquals(2, stats.getTurns(Team.A, RobotType.HQ));
+        assertEquals(2, stats.getTurns(Team.A, RobotType.MINER));
+        assertEquals(2, stats.getTurns(Team.B, RobotType.HQ));
+        // the test control provider runs robots on this thread, untimed
+        assertEquals(0, stats.getCpuTurns(Team.A));
+        assertSame(stats, game.getWorld().getTurnStats());
+        assertNotNull(game.getBot(minerA));
+    }
+}
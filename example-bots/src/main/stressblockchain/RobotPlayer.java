@@ -0,0 +1,114 @@
+package stressblockchain;
+import battlecode.common.*;
+
+/**
+ * An engine stress player: keeps the blockchain full. Every robot submits a
+ * transaction every turn it can afford one, so there are always more
+ * waiting than fit in a block, and reads the last block back. Miners mine
+ * soup and bring it back to the HQ to pay for it.
+ *
+ * Nothing here is random; a match plays out the same every time.
+ */
+public strictfp class RobotPlayer {
+    static RobotController rc;
+
+    static Direction[] directions = {Direction.NORTH, Direction.NORTHEAST, Direction.EAST, Direction.SOUTHEAST,
+            Direction.SOUTH, Direction.SOUTHWEST, Direction.WEST, Direction.NORTHWEST};
+
+    /**
+     * How many miners the HQ builds, before leaving all its soup for
+     * transactions.
+     */
+    static final int MINERS = 5;
+
+    static MapLocation hq;
+    static int built;
+    static int received;
+
+    public static void run(RobotController rc) throws GameActionException {
+        RobotPlayer.rc = rc;
+        final int[] message = new int[GameConstants.BLOCKCHAIN_TRANSACTION_LENGTH];
+
+        while (true) {
+            try {
+                if (rc.getType() == RobotType.HQ && built < MINERS && tryBuild(RobotType.MINER)) {
+                    built++;
+                } else if (rc.getType() == RobotType.MINER) {
+                    runMiner();
+                }
+
+                for (int i = 0; i < message.length; i++) {
+                    message[i] = rc.getID() * 31 + rc.getRoundNum() * 7 + i;
+                }
+                // low bids mostly, so the pool backs up, but some outbid them
+                final int cost = 1 + (rc.getID() + rc.getRoundNum()) % 3;
+                if (rc.canSubmitTransaction(message, cost)) {
+                    rc.submitTransaction(message, cost);
+                }
+                if (rc.getRoundNum() > 1) {
+                    received += rc.getBlock(rc.getRoundNum() - 1).length;
+                }
+            } catch (GameActionException e) {
+                e.printStackTrace();
+            }
+            Clock.yield();
+        }
+    }
+
+    /**
+     * Mines the nearest soup until full, then takes it back to the HQ.
+     */
+    static void runMiner() throws GameActionException {
+        if (hq == null) {
+            for (RobotInfo robot : rc.senseNearbyRobots(-1, rc.getTeam())) {
+                if (robot.type == RobotType.HQ) {
+                    hq = robot.location;
+                }
+            }
+        }
+        // including its own tile, for soup
+        for (Direction dir : Direction.allDirections()) {
+            if (rc.isReady() && rc.canDepositSoup(dir)) {
+                rc.depositSoup(dir, rc.getSoupCarrying());
+            }
+            if (rc.isReady() && rc.getSoupCarrying() < RobotType.MINER.soupLimit && rc.canMineSoup(dir)) {
+                rc.mineSoup(dir);
+            }
+        }
+        if (rc.getSoupCarrying() >= RobotType.MINER.soupLimit && hq != null) {
+            tryMoveToward(hq);
+        } else {
+            final MapLocation[] soup = rc.senseNearbySoup();
+            if (soup.length > 0) {
+                tryMoveToward(soup[0]);
+            } else {
+                tryMoveToward(rc.getLocation().add(directions[rc.getID() % directions.length]));
+            }
+        }
+    }
+
+    static boolean tryMoveToward(MapLocation target) throws GameActionException {
+        Direction dir = rc.getLocation().directionTo(target);
+        if (dir == Direction.CENTER) {
+            return false;
+        }
+        for (int i = 0; i < directions.length; i++) {
+            if (rc.isReady() && rc.canMove(dir) && !rc.senseFlooding(rc.adjacentLocation(dir))) {
+                rc.move(dir);
+                return true;
+            }
+            dir = dir.rotateLeft();
+        }
+        return false;
+    }
+
+    static boolean tryBuild(RobotType type) throws GameActionException {
+        for (Direction dir : directions) {
+            if (rc.isReady() && rc.canBuildRobot(type, dir)) {
+                rc.buildRobot(type, dir);
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package stressflooding;
+import battlecode.common.*;
+
+/**
+ * An engine stress player: reshapes the map as fast as it can, so the
+ * flood has new ground to spread over every round. Landscapers dig pits
+ * around them until they're full, heap the dirt up around them, and move
+ * on, leaving the pits to fill with water once it's high enough to reach
+ * them. The HQ builds a few miners, which build design schools, which
+ * build landscapers.
+ *
+ * Nothing here is random; a match plays out the same every time.
+ */
+public strictfp class RobotPlayer {
+    static RobotController rc;
+
+    static Direction[] directions = {Direction.NORTH, Direction.NORTHEAST, Direction.EAST, Direction.SOUTHEAST,
+            Direction.SOUTH, Direction.SOUTHWEST, Direction.WEST, Direction.NORTHWEST};
+
+    /**
+     * How many miners the HQ builds; the rest of the soup is for landscapers.
+     */
+    static final int MINERS = 3;
+
+    static int built;
+    static boolean heaping;
+
+    public static void run(RobotController rc) throws GameActionException {
+        RobotPlayer.rc = rc;
+
+        while (true) {
+            try {
+                switch (rc.getType()) {
+                    case HQ:
+                        if (built < MINERS && tryBuild(RobotType.MINER)) {
+                            built++;
+                        }
+                        break;
+                    case MINER:
+                        if (!tryBuild(RobotType.DESIGN_SCHOOL)) {
+                            tryMove();
+                        }
+                        break;
+                    case DESIGN_SCHOOL:
+                        tryBuild(RobotType.LANDSCAPER);
+                        break;
+                    case LANDSCAPER:
+                        runLandscaper();
+                        break;
+                    default:
+                        break;
+                }
+            } catch (GameActionException e) {
+                e.printStackTrace();
+            }
+            Clock.yield();
+        }
+    }
+
+    static void runLandscaper() throws GameActionException {
+        if (rc.getDirtCarrying() >= RobotType.LANDSCAPER.dirtLimit) {
+            heaping = true;
+        } else if (heaping && rc.getDirtCarrying() == 0) {
+            heaping = false;
+            tryMove();
+            return;
+        }
+
+        // the pits and heaps go round the landscaper, half a turn apart
+        final int start = rc.getID() + rc.getRoundNum();
+        for (int i = 0; i < directions.length; i++) {
+            final Direction dir = directions[(start + i) % directions.length];
+            if (heaping && rc.isReady() && rc.canDepositDirt(dir)) {
+                rc.depositDirt(dir);
+                return;
+            }
+            if (!heaping && rc.isReady() && rc.canDigDirt(dir.opposite())) {
+                rc.digDirt(dir.opposite());
+                return;
+            }
+        }
+        tryMove();
+    }
+
+    /**
+     * Moves in the first direction it can, starting from one that turns with
+     * the robot's ID and the round.
+     */
+    static boolean tryMove() throws GameActionException {
+        final int start = rc.getID() + rc.getRoundNum();
+        for (int i = 0; i < directions.length; i++) {
+            final Direction dir = directions[(start + i) % directions.length];
+            if (rc.isReady() && rc.canMove(dir) && !rc.senseFlooding(rc.adjacentLocation(dir))) {
+                rc.move(dir);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean tryBuild(RobotType type) throws GameActionException {
+        for (Direction dir : directions) {
+            if (rc.isReady() && rc.canBuildRobot(type, dir)) {
+                rc.buildRobot(type, dir);
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package stressrecursion;
+import battlecode.common.*;
+
+/**
+ * An engine stress player: deep stacks and big arrays. Every robot recurses
+ * DEPTH calls deep, with an array in each frame, without ever yielding;
+ * it runs out of bytecodes partway down, so its thread sits with a deep
+ * stack between turns, and picks up where it stopped. On the way back up,
+ * it fills a new ARRAY_LENGTH array, and keeps the last SLOTS of them
+ * (each robot has its own, so about 128KB live per robot). The HQ builds
+ * miners, so there's a crowd doing it on any map.
+ *
+ * Nothing here is random; a match plays out the same every time.
+ */
+public strictfp class RobotPlayer {
+    static RobotController rc;
+
+    static Direction[] directions = {Direction.NORTH, Direction.NORTHEAST, Direction.EAST, Direction.SOUTHEAST,
+            Direction.SOUTH, Direction.SOUTHWEST, Direction.WEST, Direction.NORTHWEST};
+
+    static final int DEPTH = 2000;
+    static final int ARRAY_LENGTH = 4096;
+    static final int SLOTS = 8;
+
+    static int[][] arrays = new int[SLOTS][];
+    static int next;
+    static long checksum;
+
+    public static void run(RobotController rc) throws GameActionException {
+        RobotPlayer.rc = rc;
+
+        while (true) {
+            try {
+                if (rc.getType() == RobotType.HQ) {
+                    tryBuild(RobotType.MINER);
+                }
+                checksum += recurse(DEPTH);
+
+                final int[] array = new int[ARRAY_LENGTH];
+                for (int i = 1; i < array.length; i++) {
+                    array[i] = array[i - 1] * 31 + i;
+                }
+                arrays[next] = array;
+                next = (next + 1) % SLOTS;
+            } catch (GameActionException e) {
+                e.printStackTrace();
+            }
+            Clock.yield();
+        }
+    }
+
+    static int recurse(int depth) {
+        final int[] frame = new int[8];
+        frame[depth % frame.length] = depth;
+        if (depth == 0) {
+            return frame[0];
+        }
+        return recurse(depth - 1) + frame[depth % frame.length];
+    }
+
+    static boolean tryBuild(RobotType type) throws GameActionException {
+        for (Direction dir : directions) {
+            if (rc.isReady() && rc.canBuildRobot(type, dir)) {
+                rc.buildRobot(type, dir);
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,74 @@
+package stresssensing;
+import battlecode.common.*;
+
+/**
+ * An engine stress player: every robot spends its whole turn sensing, over
+ * and over, and mobile robots move each turn so what they sense changes.
+ * Sensing pollution makes the engine recalculate it whenever it's changed.
+ * The HQ builds miners, so that there's a crowd to sense on any map.
+ *
+ * Nothing here is random; a match plays out the same every time.
+ */
+public strictfp class RobotPlayer {
+    static RobotController rc;
+
+    static Direction[] directions = {Direction.NORTH, Direction.NORTHEAST, Direction.EAST, Direction.SOUTHEAST,
+            Direction.SOUTH, Direction.SOUTHWEST, Direction.WEST, Direction.NORTHWEST};
+
+    /**
+     * Enough bytecodes to finish a round of sensing and yield.
+     */
+    static final int RESERVE = 1500;
+
+    static int sensed;
+
+    public static void run(RobotController rc) throws GameActionException {
+        RobotPlayer.rc = rc;
+
+        while (true) {
+            try {
+                if (rc.getType() == RobotType.HQ) {
+                    tryBuild(RobotType.MINER);
+                } else if (rc.getType().canMove()) {
+                    tryMove();
+                }
+                final Team enemy = rc.getTeam().opponent();
+                while (Clock.getBytecodesLeft() > RESERVE) {
+                    sensed += rc.senseNearbyRobots().length;
+                    sensed += rc.senseNearbyRobots(-1, enemy).length;
+                    sensed += rc.senseNearbySoup().length;
+                    sensed += rc.sensePollution(rc.getLocation());
+                }
+            } catch (GameActionException e) {
+                e.printStackTrace();
+            }
+            Clock.yield();
+        }
+    }
+
+    /**
+     * Moves in the first direction it can, starting from one that turns with
+     * the robot's ID and the round.
+     */
+    static boolean tryMove() throws GameActionException {
+        final int start = rc.getID() + rc.getRoundNum();
+        for (int i = 0; i < directions.length; i++) {
+            final Direction dir = directions[(start + i) % directions.length];
+            if (rc.isReady() && rc.canMove(dir) && !rc.senseFlooding(rc.adjacentLocation(dir))) {
+                rc.move(dir);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean tryBuild(RobotType type) throws GameActionException {
+        for (Direction dir : directions) {
+            if (rc.isReady() && rc.canBuildRobot(type, dir)) {
+                rc.buildRobot(type, dir);
+                return true;
+            }
+        }
+        return false;
+    }
+}
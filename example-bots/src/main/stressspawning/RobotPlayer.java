@@ -0,0 +1,118 @@
+package stressspawning;
+import battlecode.common.*;
+
+/**
+ * An engine stress player: spends every bit of soup on new robots, each of
+ * which the engine starts a player for. The HQ builds miners; one miner in
+ * four builds design schools and fulfillment centers, and the rest mine to
+ * pay for it all; design schools build landscapers, and fulfillment
+ * centers drones, which wander off to make room for more.
+ *
+ * Nothing here is random; a match plays out the same every time.
+ */
+public strictfp class RobotPlayer {
+    static RobotController rc;
+
+    static Direction[] directions = {Direction.NORTH, Direction.NORTHEAST, Direction.EAST, Direction.SOUTHEAST,
+            Direction.SOUTH, Direction.SOUTHWEST, Direction.WEST, Direction.NORTHWEST};
+
+    static MapLocation hq;
+
+    public static void run(RobotController rc) throws GameActionException {
+        RobotPlayer.rc = rc;
+
+        while (true) {
+            try {
+                switch (rc.getType()) {
+                    case HQ:                 tryBuild(RobotType.MINER);          break;
+                    case MINER:              runMiner();                         break;
+                    case DESIGN_SCHOOL:      tryBuild(RobotType.LANDSCAPER);     break;
+                    case FULFILLMENT_CENTER: tryBuild(RobotType.DELIVERY_DRONE); break;
+                    case LANDSCAPER:
+                    case DELIVERY_DRONE:     tryMove();                          break;
+                    default:                                                     break;
+                }
+            } catch (GameActionException e) {
+                e.printStackTrace();
+            }
+            Clock.yield();
+        }
+    }
+
+    static void runMiner() throws GameActionException {
+        if (rc.getID() % 4 == 0) {
+            if (!tryBuild(rc.getRoundNum() % 2 == 0 ? RobotType.DESIGN_SCHOOL : RobotType.FULFILLMENT_CENTER)) {
+                tryMove();
+            }
+            return;
+        }
+
+        if (hq == null) {
+            for (RobotInfo robot : rc.senseNearbyRobots(-1, rc.getTeam())) {
+                if (robot.type == RobotType.HQ) {
+                    hq = robot.location;
+                }
+            }
+        }
+        // including its own tile, for soup
+        for (Direction dir : Direction.allDirections()) {
+            if (rc.isReady() && rc.canDepositSoup(dir)) {
+                rc.depositSoup(dir, rc.getSoupCarrying());
+            }
+            if (rc.isReady() && rc.getSoupCarrying() < RobotType.MINER.soupLimit && rc.canMineSoup(dir)) {
+                rc.mineSoup(dir);
+            }
+        }
+        if (rc.getSoupCarrying() >= RobotType.MINER.soupLimit && hq != null) {
+            tryMoveToward(hq);
+        } else {
+            final MapLocation[] soup = rc.senseNearbySoup();
+            if (soup.length > 0) {
+                tryMoveToward(soup[0]);
+            } else {
+                tryMove();
+            }
+        }
+    }
+
+    /**
+     * Moves in the first direction it can, starting from one that turns with
+     * the robot's ID and the round.
+     */
+    static boolean tryMove() throws GameActionException {
+        final int start = rc.getID() + rc.getRoundNum();
+        for (int i = 0; i < directions.length; i++) {
+            final Direction dir = directions[(start + i) % directions.length];
+            if (rc.isReady() && rc.canMove(dir) && !rc.senseFlooding(rc.adjacentLocation(dir))) {
+                rc.move(dir);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean tryMoveToward(MapLocation target) throws GameActionException {
+        Direction dir = rc.getLocation().directionTo(target);
+        if (dir == Direction.CENTER) {
+            return false;
+        }
+        for (int i = 0; i < directions.length; i++) {
+            if (rc.isReady() && rc.canMove(dir) && !rc.senseFlooding(rc.adjacentLocation(dir))) {
+                rc.move(dir);
+                return true;
+            }
+            dir = dir.rotateLeft();
+        }
+        return false;
+    }
+
+    static boolean tryBuild(RobotType type) throws GameActionException {
+        for (Direction dir : directions) {
+            if (rc.isReady() && rc.canBuildRobot(type, dir)) {
+                rc.buildRobot(type, dir);
+                return true;
+            }
+        }
+        return false;
+    }
+}
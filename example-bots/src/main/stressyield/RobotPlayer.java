@@ -0,0 +1,40 @@
+package stressyield;
+import battlecode.common.*;
+
+/**
+ * An engine stress player: does as little as a robot can, so that nearly
+ * all the engine does is hand each robot its turn and take it back. Every
+ * robot yields as soon as its turn starts; the HQ builds a miner first,
+ * while it can, so there are lots of robots to hand turns to on any map.
+ *
+ * Nothing here is random; a match plays out the same every time.
+ */
+public strictfp class RobotPlayer {
+    static RobotController rc;
+
+    static Direction[] directions = {Direction.NORTH, Direction.NORTHEAST, Direction.EAST, Direction.SOUTHEAST,
+            Direction.SOUTH, Direction.SOUTHWEST, Direction.WEST, Direction.NORTHWEST};
+
+    public static void run(RobotController rc) throws GameActionException {
+        RobotPlayer.rc = rc;
+
+        if (rc.getType() != RobotType.HQ) {
+            while (true) {
+                Clock.yield();
+            }
+        }
+        while (true) {
+            try {
+                for (Direction dir : directions) {
+                    if (rc.isReady() && rc.canBuildRobot(RobotType.MINER, dir)) {
+                        rc.buildRobot(RobotType.MINER, dir);
+                        break;
+                    }
+                }
+            } catch (GameActionException e) {
+                e.printStackTrace();
+            }
+            Clock.yield();
+        }
+    }
+}
@@ -22,6 +22,12 @@ TIMEOUT_UNZIP   = 30    # Maximum execution time for unzipping submission archiv
 TIMEOUT_PULL    = 150   # Maximum execution time for updating distribution
 TIMEOUT_COMPILE = 300   # Maximum execution time for submission compilation
 TIMEOUT_GAME    = 36000 # Maximum execution time for game running
+TIMEOUT_DAEMON_START = 150 # Maximum time for the engine daemon to start taking games
+
+# If set, games are played by a resident engine daemon on this local port
+# (see engine_client.py), instead of a `./gradlew run` per game
+ENGINE_DAEMON_PORT = os.getenv('BC20_ENGINE_DAEMON_PORT')
+ENGINE_DAEMON_URL  = 'http://127.0.0.1:{}'.format(ENGINE_DAEMON_PORT) if ENGINE_DAEMON_PORT else None
 
 GAME_WINNER = '^\[server\]\s*.*\([AB]\) wins \(round [0-9]+\)$'
 
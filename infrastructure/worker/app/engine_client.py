@@ -0,0 +1,92 @@
+#!/usr/bin/env python3
+
+"""
+Client for the engine's match daemon (bc.server.mode=daemon), which plays
+games on request in one long-running JVM instead of a `./gradlew run` each.
+"""
+
+from config import *
+
+import os, subprocess, time, json, logging
+import urllib.request, urllib.error
+
+
+def daemon_status(url):
+    """
+    Returns the daemon's status, e.g. {'running': 1, 'waiting': 0, 'played': 12, 'failed': 0},
+    or None if it isn't up
+    """
+    try:
+        with urllib.request.urlopen('{}/status'.format(url), timeout=5) as response:
+            return json.loads(response.read().decode())
+    except (urllib.error.URLError, OSError, ValueError):
+        return None
+
+
+def start_daemon(rootdir, url, port, timeout=TIMEOUT_DAEMON_START):
+    """
+    Starts the daemon from the distribution in rootdir, with the `daemon` gradle task,
+    and waits for it to take requests
+    Returns the daemon's process
+    """
+    subproc = subprocess.Popen(
+        ['./gradlew', 'daemon', '-Pport={}'.format(port)],
+        cwd=rootdir,
+        stdout=subprocess.DEVNULL,
+        preexec_fn=os.setsid)
+    deadline = time.time() + timeout
+    while time.time() < deadline:
+        if daemon_status(url) is not None:
+            logging.info('Engine daemon is up at {}'.format(url))
+            return subproc
+        if subproc.poll() is not None:
+            raise RuntimeError('Engine daemon exited with code {}'.format(subproc.returncode))
+        time.sleep(1)
+    subproc.kill()
+    raise RuntimeError('Engine daemon did not start in {} seconds'.format(timeout))
+
+
+def play_game(url, teamname1, classdir1, package1, teamname2, classdir2, package2, maps, replay,
+              timeout=TIMEOUT_GAME):
+    """
+    Plays a game on the daemon, saving the replay to the path replay
+    Returns the result, as the engine reports it:
+        {'replay': path, 'result': {'winner': 'A' or 'B', 'matches': [{'map', 'winner', ...}, ...], ...}}
+    Raises RuntimeError if the game could not be played
+    """
+    settings = {
+        'bc.game.team-a':         teamname1,
+        'bc.game.team-a.url':     classdir1,
+        'bc.game.team-a.package': package1,
+        'bc.game.team-b':         teamname2,
+        'bc.game.team-b.url':     classdir2,
+        'bc.game.team-b.package': package2,
+        'bc.game.maps':           maps,
+        'bc.server.save-file':    replay,
+    }
+    # Properties file format; values can't have newlines in them
+    body = ''.join('{}={}\n'.format(key, value.replace('\\', '\\\\')) for key, value in settings.items())
+
+    request = urllib.request.Request('{}/match'.format(url), data=body.encode(), method='POST')
+    try:
+        with urllib.request.urlopen(request, timeout=timeout) as response:
+            return json.loads(response.read().decode())
+    except urllib.error.HTTPError as e:
+        try:
+            reason = json.loads(e.read().decode())['error']
+        except (ValueError, KeyError):
+            reason = e.reason
+        raise RuntimeError('Engine daemon could not play game: {}'.format(reason))
+    except (urllib.error.URLError, OSError) as e:
+        raise RuntimeError('Could not reach engine daemon: {}'.format(e))
+
+
+def count_wins(result):
+    """Returns the number of matches won by team A and by team B in a game result"""
+    wins = [0, 0]
+    for match in result['result']['matches']:
+        if match['winner'] == 'A':
+            wins[0] += 1
+        elif match['winner'] == 'B':
+            wins[1] += 1
+    return wins
@@ -1,9 +1,9 @@
 #!/usr/bin/env python3
 
-import subscription, util
+import subscription, util, engine_client
 from config import *
 
-import sys, os, shutil, logging, requests, json, re
+import sys, os, shutil, logging, requests, json, re, signal
 from google.cloud import storage
 
 
@@ -27,6 +27,24 @@ def game_log_error(gametype, gameid, reason):
     game_report_result(gametype, gameid, GAME_ERROR)
     sys.exit(1)
 
+# The resident engine daemon, if games are played with one, and the engine version it runs
+daemon = None
+daemon_version = None
+
+def ensure_daemon(rootdir):
+    """Starts the engine daemon, or restarts it if the distribution has been updated since"""
+    global daemon, daemon_version
+    with open(os.path.join(rootdir, 'version.txt')) as file_obj:
+        version = file_obj.read().strip()
+    if daemon is not None and daemon.poll() is None and version == daemon_version:
+        return
+    if daemon is not None and daemon.poll() is None:
+        logging.info('Restarting engine daemon for version {}'.format(version))
+        os.killpg(os.getpgid(daemon.pid), signal.SIGTERM)
+        daemon.wait()
+    daemon = engine_client.start_daemon(rootdir, ENGINE_DAEMON_URL, ENGINE_DAEMON_PORT)
+    daemon_version = version
+
 def game_worker(gameinfo):
     """
     Runs a game as specified by the message
@@ -129,22 +147,32 @@ def game_worker(gameinfo):
         util.pull_distribution(rootdir, lambda: game_log_error(gametype, gameid, 'Could not pull distribution'))
 
         # Execute game
-        result = util.monitor_command(
-            ['./gradlew', 'run',
-                '-PteamA={}'.format(teamname1),
-                '-PteamB={}'.format(teamname2),
-                '-PclassLocationA={}'.format(os.path.join(classdir, 'player1')),
-                '-PclassLocationB={}'.format(os.path.join(classdir, 'player2')),
-                '-PpackageNameA={}'.format(package1),
-                '-PpackageNameB={}'.format(package2),
-                '-Pmaps={}'.format(maps),
-                '-Preplay=replay.bc20'
-            ],
-            cwd=rootdir,
-            timeout=TIMEOUT_GAME)
-
-        if result[0] != 0:
-            game_log_error(gametype, gameid, 'Game execution had non-zero return code')
+        if ENGINE_DAEMON_URL:
+            try:
+                ensure_daemon(rootdir)
+                game_result = engine_client.play_game(ENGINE_DAEMON_URL,
+                    teamname1, os.path.join(classdir, 'player1'), package1,
+                    teamname2, os.path.join(classdir, 'player2'), package2,
+                    maps, os.path.join(rootdir, 'replay.bc20'))
+            except Exception as e:
+                game_log_error(gametype, gameid, 'Game execution failed: {}'.format(e))
+        else:
+            result = util.monitor_command(
+                ['./gradlew', 'run',
+                    '-PteamA={}'.format(teamname1),
+                    '-PteamB={}'.format(teamname2),
+                    '-PclassLocationA={}'.format(os.path.join(classdir, 'player1')),
+                    '-PclassLocationB={}'.format(os.path.join(classdir, 'player2')),
+                    '-PpackageNameA={}'.format(package1),
+                    '-PpackageNameB={}'.format(package2),
+                    '-Pmaps={}'.format(maps),
+                    '-Preplay=replay.bc20'
+                ],
+                cwd=rootdir,
+                timeout=TIMEOUT_GAME)
+
+            if result[0] != 0:
+                game_log_error(gametype, gameid, 'Game execution had non-zero return code')
 
         # Upload replay file
         bucket = client.get_bucket(GCLOUD_BUCKET_REPLAY)
@@ -155,19 +183,21 @@ def game_worker(gameinfo):
             game_log_error(gametype, gameid, 'Could not send replay file to bucket')
 
         # Interpret game result
-        server_output = result[1].split('\n')
-
         wins = [0, 0]
         try:
-            # Read the winner of each game from the engine
-            for line in server_output:
-                if re.fullmatch(GAME_WINNER, line):
-                    game_winner = line[line.rfind('wins')-3]
-                    assert (game_winner == 'A' or game_winner == 'B')
-                    if game_winner == 'A':
-                        wins[0] += 1
-                    elif game_winner == 'B':
-                        wins[1] += 1
+            if ENGINE_DAEMON_URL:
+                wins = engine_client.count_wins(game_result)
+            else:
+                server_output = result[1].split('\n')
+                # Read the winner of each game from the engine
+                for line in server_output:
+                    if re.fullmatch(GAME_WINNER, line):
+                        game_winner = line[line.rfind('wins')-3]
+                        assert (game_winner == 'A' or game_winner == 'B')
+                        if game_winner == 'A':
+                            wins[0] += 1
+                        elif game_winner == 'B':
+                            wins[1] += 1
             # We should have as many game wins as games played
             assert (wins[0] + wins[1] == len(maps.split(',')))
             logging.info('Game ended. Result {}:{}'.format(wins[0], wins[1]))
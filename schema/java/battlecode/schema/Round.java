@@ -209,6 +209,35 @@ public final class Round extends Table {
   public int bytecodesUsed(int j) { int o = __offset(64); return o != 0 ? bb.getInt(__vector(o) + j * 4) : 0; }
   public int bytecodesUsedLength() { int o = __offset(64); return o != 0 ? __vector_len(o) : 0; }
   public ByteBuffer bytecodesUsedAsByteBuffer() { return __vector_as_bytebuffer(64, 4); }
+  /**
+   * The full state of the match after this round, or null.
+   * Present every bc.server.keyframe-interval rounds, if enabled; the
+   * rest of the round is still sent as usual.
+   */
+  public Keyframe keyframe() { return keyframe(new Keyframe()); }
+  public Keyframe keyframe(Keyframe obj) { int o = __offset(66); return o != 0 ? obj.__init(__indirect(o + bb_pos), bb) : null; }
+  /**
+   * Packed versions of some of the fields above, or null.
+   * Only in replays saved with bc.server.compact-replay.
+   */
+  public CompactRound compact() { return compact(new CompactRound()); }
+  public CompactRound compact(CompactRound obj) { int o = __offset(68); return o != 0 ? obj.__init(__indirect(o + bb_pos), bb) : null; }
+  /**
+   * The CPU time each player body's turn took, in microseconds, or -1 if
+   * it couldn't be measured; in the same order as bytecodeIDs (or, in
+   * compact replays, the bodies in CompactRound.bytecodes).
+   * Only present with bc.server.turn-times-in-replay.
+   */
+  public int cpuTimes(int j) { int o = __offset(70); return o != 0 ? bb.getInt(__vector(o) + j * 4) : 0; }
+  public int cpuTimesLength() { int o = __offset(70); return o != 0 ? __vector_len(o) : 0; }
+  public ByteBuffer cpuTimesAsByteBuffer() { return __vector_as_bytebuffer(70, 4); }
+  /**
+   * The wall-clock time each player body's turn took, in microseconds; in
+   * the same order as cpuTimes.
+   */
+  public int wallTimes(int j) { int o = __offset(72); return o != 0 ? bb.getInt(__vector(o) + j * 4) : 0; }
+  public int wallTimesLength() { int o = __offset(72); return o != 0 ? __vector_len(o) : 0; }
+  public ByteBuffer wallTimesAsByteBuffer() { return __vector_as_bytebuffer(72, 4); }
 
   public static int createRound(FlatBufferBuilder builder,
       int teamIDsOffset,
@@ -241,8 +270,16 @@ public final class Round extends Table {
       int logsOffset,
       int roundID,
       int bytecodeIDsOffset,
-      int bytecodesUsedOffset) {
-    builder.startObject(31);
+      int bytecodesUsedOffset,
+      int keyframeOffset,
+      int compactOffset,
+      int cpuTimesOffset,
+      int wallTimesOffset) {
+    builder.startObject(35);
+    Round.addWallTimes(builder, wallTimesOffset);
+    Round.addCpuTimes(builder, cpuTimesOffset);
+    Round.addCompact(builder, compactOffset);
+    Round.addKeyframe(builder, keyframeOffset);
     Round.addBytecodesUsed(builder, bytecodesUsedOffset);
     Round.addBytecodeIDs(builder, bytecodeIDsOffset);
     Round.addRoundID(builder, roundID);
@@ -277,7 +314,7 @@ public final class Round extends Table {
     return Round.endRound(builder);
   }
 
-  public static void startRound(FlatBufferBuilder builder) { builder.startObject(31); }
+  public static void startRound(FlatBufferBuilder builder) { builder.startObject(35); }
   public static void addTeamIDs(FlatBufferBuilder builder, int teamIDsOffset) { builder.addOffset(0, teamIDsOffset, 0); }
   public static int createTeamIDsVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addInt(data[i]); return builder.endVector(); }
   public static void startTeamIDsVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
@@ -343,6 +380,14 @@ public final class Round extends Table {
   public static void addBytecodesUsed(FlatBufferBuilder builder, int bytecodesUsedOffset) { builder.addOffset(30, bytecodesUsedOffset, 0); }
   public static int createBytecodesUsedVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addInt(data[i]); return builder.endVector(); }
   public static void startBytecodesUsedVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
+  public static void addKeyframe(FlatBufferBuilder builder, int keyframeOffset) { builder.addOffset(31, keyframeOffset, 0); }
+  public static void addCompact(FlatBufferBuilder builder, int compactOffset) { builder.addOffset(32, compactOffset, 0); }
+  public static void addCpuTimes(FlatBufferBuilder builder, int cpuTimesOffset) { builder.addOffset(33, cpuTimesOffset, 0); }
+  public static int createCpuTimesVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addInt(data[i]); return builder.endVector(); }
+  public static void startCpuTimesVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
+  public static void addWallTimes(FlatBufferBuilder builder, int wallTimesOffset) { builder.addOffset(34, wallTimesOffset, 0); }
+  public static int createWallTimesVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addInt(data[i]); return builder.endVector(); }
+  public static void startWallTimesVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
   public static int endRound(FlatBufferBuilder builder) {
     int o = builder.endObject();
     return o;
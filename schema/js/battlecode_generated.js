@@ -59,7 +59,7 @@ battlecode.schema.BodyType = {
   /**
    * Drones pick up any unit and drop them somewhere else.
    */
-  DRONE: 7,
+  DELIVERY_DRONE: 7,
 
   /**
    * Net guns shoot down drones.
@@ -69,8 +69,7 @@ battlecode.schema.BodyType = {
   /**
    * Cows produce pollution.
    */
-  COW: 9,
-  NONE: 10
+  COW: 9
 };
 
 /**
@@ -120,7 +119,7 @@ battlecode.schema.BodyTypeName = {
   /**
    * Drones pick up any unit and drop them somewhere else.
    */
-  7: 'DRONE',
+  7: 'DELIVERY_DRONE',
 
   /**
    * Net guns shoot down drones.
@@ -130,8 +129,7 @@ battlecode.schema.BodyTypeName = {
   /**
    * Cows produce pollution.
    */
-  9: 'COW',
-  10: 'NONE'
+  9: 'COW'
 };
 
 /**
@@ -152,76 +150,82 @@ battlecode.schema.Action = {
   MINE_SOUP: 0,
 
   /**
-   * Refines a unit of soup (miners).
+   * Deposits a unit of soup (miners).
    * Target: refinery.
    */
-  REFINE_SOUP: 1,
+  DEPOSIT_SOUP: 1,
+
+  /**
+   * Refines a unit of soup (refinery).
+   * Target: none.
+   */
+  REFINE_SOUP: 2,
 
   /**
    * Digs a unit of dirt (landscapers).
    * Target: location.
    */
-  DIG_DIRT: 2,
+  DIG_DIRT: 3,
 
   /**
    * Deposits a unit of dirt (landscapers).
    * Target: location.
    */
-  DEPOSIT_DIRT: 3,
+  DEPOSIT_DIRT: 4,
 
   /**
    * Picks up a unit (drones).
    * Target: unit picked up.
    */
-  PICK_UNIT: 4,
+  PICK_UNIT: 5,
 
   /**
    * Drops off a unit (drones).
    * Target: unit dropped off.
    */
-  DROP_UNIT: 5,
+  DROP_UNIT: 6,
 
   /**
    * Builds a unit.
    * Target: spawned unit
    */
-  SPAWN_UNIT: 6,
+  SPAWN_UNIT: 7,
 
   /**
    * Shoots a drone.
    * Target: drone shot.
    */
-  SHOOT: 7,
+  SHOOT: 8,
 
   /**
    * Dies from drowning.
    * Target: none.
    */
-  DIE_DROWN: 8,
+  DIE_DROWN: 9,
 
   /**
    * Dies from being shot (drones).
    * Target: drone.
    */
-  DIE_SHOT: 9,
+  DIE_SHOT: 10,
 
   /**
    * Dies due to having too much dirt on top (buildings).
    * Target: landscaper
    */
-  DIE_TOO_MUCH_DIRT: 10,
+  DIE_TOO_MUCH_DIRT: 11,
 
   /**
    * Dies from suicide.
    * Target: none.
    */
-  DIE_SUICIDE: 11,
+  DIE_SUICIDE: 12,
 
   /**
    * Dies due to an uncaught exception
    * Target: none
    */
-  DIE_EXCEPTION: 12
+  DIE_EXCEPTION: 13
 };
 
 /**
@@ -242,76 +246,82 @@ battlecode.schema.ActionName = {
   0: 'MINE_SOUP',
 
   /**
-   * Refines a unit of soup (miners).
+   * Deposits a unit of soup (miners).
    * Target: refinery.
    */
-  1: 'REFINE_SOUP',
+  1: 'DEPOSIT_SOUP',
+
+  /**
+   * Refines a unit of soup (refinery).
+   * Target: none.
+   */
+  2: 'REFINE_SOUP',
 
   /**
    * Digs a unit of dirt (landscapers).
    * Target: location.
    */
-  2: 'DIG_DIRT',
+  3: 'DIG_DIRT',
 
   /**
    * Deposits a unit of dirt (landscapers).
    * Target: location.
    */
-  3: 'DEPOSIT_DIRT',
+  4: 'DEPOSIT_DIRT',
 
   /**
    * Picks up a unit (drones).
    * Target: unit picked up.
    */
-  4: 'PICK_UNIT',
+  5: 'PICK_UNIT',
 
   /**
    * Drops off a unit (drones).
    * Target: unit dropped off.
    */
-  5: 'DROP_UNIT',
+  6: 'DROP_UNIT',
 
   /**
    * Builds a unit.
    * Target: spawned unit
    */
-  6: 'SPAWN_UNIT',
+  7: 'SPAWN_UNIT',
 
   /**
    * Shoots a drone.
    * Target: drone shot.
    */
-  7: 'SHOOT',
+  8: 'SHOOT',
 
   /**
    * Dies from drowning.
    * Target: none.
    */
-  8: 'DIE_DROWN',
+  9: 'DIE_DROWN',
 
   /**
    * Dies from being shot (drones).
    * Target: drone.
    */
-  9: 'DIE_SHOT',
+  10: 'DIE_SHOT',
 
   /**
    * Dies due to having too much dirt on top (buildings).
    * Target: landscaper
    */
-  10: 'DIE_TOO_MUCH_DIRT',
+  11: 'DIE_TOO_MUCH_DIRT',
 
   /**
    * Dies from suicide.
    * Target: none.
    */
-  11: 'DIE_SUICIDE',
+  12: 'DIE_SUICIDE',
 
   /**
    * Dies due to an uncaught exception
    * Target: none
    */
-  12: 'DIE_EXCEPTION'
+  13: 'DIE_EXCEPTION'
 };
 
 /**
@@ -396,6 +406,78 @@ battlecode.schema.EventName = {
   5: 'GameFooter'
 };
 
+/**
+ * Commands a client can send the server, to control the match it's
+ * running. Only obeyed when the server is interactive
+ * (bc.server.interactive).
+ *
+ * @enum {number}
+ */
+battlecode.schema.ControlCommand = {
+  /**
+   * Run until told otherwise.
+   */
+  Run: 0,
+
+  /**
+   * Stop before the next round.
+   */
+  Pause: 1,
+
+  /**
+   * Run `argument` more rounds, then pause.
+   */
+  Step: 2,
+
+  /**
+   * Run until round `argument` has finished, then pause.
+   */
+  RunUntil: 3,
+
+  /**
+   * Go back or forward to round `argument` of the current match, and
+   * carry on from there. Only replays can seek: the match header is sent
+   * again, then the rounds from the nearest keyframe up to the target.
+   */
+  Seek: 4
+};
+
+/**
+ * Commands a client can send the server, to control the match it's
+ * running. Only obeyed when the server is interactive
+ * (bc.server.interactive).
+ *
+ * @enum {string}
+ */
+battlecode.schema.ControlCommandName = {
+  /**
+   * Run until told otherwise.
+   */
+  0: 'Run',
+
+  /**
+   * Stop before the next round.
+   */
+  1: 'Pause',
+
+  /**
+   * Run `argument` more rounds, then pause.
+   */
+  2: 'Step',
+
+  /**
+   * Run until round `argument` has finished, then pause.
+   */
+  3: 'RunUntil',
+
+  /**
+   * Go back or forward to round `argument` of the current match, and
+   * carry on from there. Only replays can seek: the match header is sent
+   * again, then the rounds from the nearest keyframe up to the target.
+   */
+  4: 'Seek'
+};
+
 /**
  * A vector in two-dimensional space. Discrete space, of course.
  * Defaults to the 0 vector.
@@ -1117,6 +1199,262 @@ battlecode.schema.SpawnedBodyTable.createSpawnedBodyTable = function(builder, ro
   return battlecode.schema.SpawnedBodyTable.endSpawnedBodyTable(builder);
 }
 
+/**
+ * A table of pollution effects
+ * The pollution effect at a location is (global pollution + all additive effects) * all multiplicative effects
+ *
+ * @constructor
+ */
+battlecode.schema.LocalPollutionTable = function() {
+  /**
+   * @type {flatbuffers.ByteBuffer}
+   */
+  this.bb = null;
+
+  /**
+   * @type {number}
+   */
+  this.bb_pos = 0;
+};
+
+/**
+ * @param {number} i
+ * @param {flatbuffers.ByteBuffer} bb
+ * @returns {battlecode.schema.LocalPollutionTable}
+ */
+battlecode.schema.LocalPollutionTable.prototype.__init = function(i, bb) {
+  this.bb_pos = i;
+  this.bb = bb;
+  return this;
+};
+
+/**
+ * @param {flatbuffers.ByteBuffer} bb
+ * @param {battlecode.schema.LocalPollutionTable=} obj
+ * @returns {battlecode.schema.LocalPollutionTable}
+ */
+battlecode.schema.LocalPollutionTable.getRootAsLocalPollutionTable = function(bb, obj) {
+  return (obj || new battlecode.schema.LocalPollutionTable).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * The origin and radius of the circle defining the pollution effect.
+ *
+ * @param {battlecode.schema.VecTable=} obj
+ * @returns {battlecode.schema.VecTable|null}
+ */
+battlecode.schema.LocalPollutionTable.prototype.locations = function(obj) {
+  var offset = this.bb.__offset(this.bb_pos, 4);
+  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+};
+
+/**
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.LocalPollutionTable.prototype.radiiSquared = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 6);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.LocalPollutionTable.prototype.radiiSquaredLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 6);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.LocalPollutionTable.prototype.radiiSquaredArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 6);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The additive amount of the pollution effect.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.LocalPollutionTable.prototype.additiveEffects = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 8);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.LocalPollutionTable.prototype.additiveEffectsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 8);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.LocalPollutionTable.prototype.additiveEffectsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 8);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The multiplicative coefficient.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.LocalPollutionTable.prototype.multiplicativeEffects = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 10);
+  return offset ? this.bb.readFloat32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.LocalPollutionTable.prototype.multiplicativeEffectsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 10);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Float32Array}
+ */
+battlecode.schema.LocalPollutionTable.prototype.multiplicativeEffectsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 10);
+  return offset ? new Float32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ */
+battlecode.schema.LocalPollutionTable.startLocalPollutionTable = function(builder) {
+  builder.startObject(4);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} locationsOffset
+ */
+battlecode.schema.LocalPollutionTable.addLocations = function(builder, locationsOffset) {
+  builder.addFieldOffset(0, locationsOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} radiiSquaredOffset
+ */
+battlecode.schema.LocalPollutionTable.addRadiiSquared = function(builder, radiiSquaredOffset) {
+  builder.addFieldOffset(1, radiiSquaredOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.LocalPollutionTable.createRadiiSquaredVector = function(builder, data) {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.LocalPollutionTable.startRadiiSquaredVector = function(builder, numElems) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} additiveEffectsOffset
+ */
+battlecode.schema.LocalPollutionTable.addAdditiveEffects = function(builder, additiveEffectsOffset) {
+  builder.addFieldOffset(2, additiveEffectsOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.LocalPollutionTable.createAdditiveEffectsVector = function(builder, data) {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.LocalPollutionTable.startAdditiveEffectsVector = function(builder, numElems) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} multiplicativeEffectsOffset
+ */
+battlecode.schema.LocalPollutionTable.addMultiplicativeEffects = function(builder, multiplicativeEffectsOffset) {
+  builder.addFieldOffset(3, multiplicativeEffectsOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.LocalPollutionTable.createMultiplicativeEffectsVector = function(builder, data) {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addFloat32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.LocalPollutionTable.startMultiplicativeEffectsVector = function(builder, numElems) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.LocalPollutionTable.endLocalPollutionTable = function(builder) {
+  var offset = builder.endObject();
+  return offset;
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} locationsOffset
+ * @param {flatbuffers.Offset} radiiSquaredOffset
+ * @param {flatbuffers.Offset} additiveEffectsOffset
+ * @param {flatbuffers.Offset} multiplicativeEffectsOffset
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.LocalPollutionTable.createLocalPollutionTable = function(builder, locationsOffset, radiiSquaredOffset, additiveEffectsOffset, multiplicativeEffectsOffset) {
+  battlecode.schema.LocalPollutionTable.startLocalPollutionTable(builder);
+  battlecode.schema.LocalPollutionTable.addLocations(builder, locationsOffset);
+  battlecode.schema.LocalPollutionTable.addRadiiSquared(builder, radiiSquaredOffset);
+  battlecode.schema.LocalPollutionTable.addAdditiveEffects(builder, additiveEffectsOffset);
+  battlecode.schema.LocalPollutionTable.addMultiplicativeEffects(builder, multiplicativeEffectsOffset);
+  return battlecode.schema.LocalPollutionTable.endLocalPollutionTable(builder);
+}
+
 /**
  * The map a round is played on.
  *
@@ -1633,70 +1971,80 @@ battlecode.schema.BodyTypeMetadata.prototype.actionCooldown = function() {
 };
 
 /**
- * The maximum distance this type can sense other robots.
+ * The maximum distance squared this type can sense other robots.
  *
  * @returns {number}
  */
-battlecode.schema.BodyTypeMetadata.prototype.sensorRadius = function() {
+battlecode.schema.BodyTypeMetadata.prototype.sensorRadiusSquared = function() {
   var offset = this.bb.__offset(this.bb_pos, 16);
   return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
 };
 
 /**
- * The distance this type pollutes.
+ * The radius squared of local pollution effects.
  *
  * @returns {number}
  */
-battlecode.schema.BodyTypeMetadata.prototype.pollutionRadius = function() {
+battlecode.schema.BodyTypeMetadata.prototype.pollutionRadiusSquared = function() {
   var offset = this.bb.__offset(this.bb_pos, 18);
   return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
 };
 
 /**
- * The amount of pollution this type creates.
+ * The amount of pollution created when refining soup locally.
  *
  * @returns {number}
  */
-battlecode.schema.BodyTypeMetadata.prototype.pollutionAmount = function() {
+battlecode.schema.BodyTypeMetadata.prototype.localPollutionAdditiveEffect = function() {
   var offset = this.bb.__offset(this.bb_pos, 20);
   return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
 };
 
 /**
- * The amount of global pollution this type creates.
+ * The fraction that the local pollution is multiplied by around vaporators.
  *
  * @returns {number}
  */
-battlecode.schema.BodyTypeMetadata.prototype.globalPollutionAmount = function() {
+battlecode.schema.BodyTypeMetadata.prototype.localPollutionMultiplicativeEffect = function() {
   var offset = this.bb.__offset(this.bb_pos, 22);
-  return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
+  return offset ? this.bb.readFloat32(this.bb_pos + offset) : 0.0;
 };
 
 /**
- * The maximum amount of soup this type processes every turn.
+ * The amount of global pollution this type creates.
  *
  * @returns {number}
  */
-battlecode.schema.BodyTypeMetadata.prototype.maxSoupProduced = function() {
+battlecode.schema.BodyTypeMetadata.prototype.globalPollutionAmount = function() {
   var offset = this.bb.__offset(this.bb_pos, 24);
   return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
 };
 
 /**
- * The bytecode limit of this type.
+ * The maximum amount of soup this type processes every turn.
  *
  * @returns {number}
  */
-battlecode.schema.BodyTypeMetadata.prototype.bytecodeLimit = function() {
+battlecode.schema.BodyTypeMetadata.prototype.maxSoupProduced = function() {
   var offset = this.bb.__offset(this.bb_pos, 26);
   return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
 };
 
+/**
+ * The bytecode limit of this type.
+ *
+ * @returns {number}
+ */
+battlecode.schema.BodyTypeMetadata.prototype.bytecodeLimit = function() {
+  var offset = this.bb.__offset(this.bb_pos, 28);
+  return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
+};
+
 /**
  * @param {flatbuffers.Builder} builder
  */
 battlecode.schema.BodyTypeMetadata.startBodyTypeMetadata = function(builder) {
-  builder.startObject(12);
+  builder.startObject(13);
 };
 
 /**
@@ -1749,26 +2097,34 @@ battlecode.schema.BodyTypeMetadata.addActionCooldown = function(builder, actionC
 
 /**
  * @param {flatbuffers.Builder} builder
- * @param {number} sensorRadius
+ * @param {number} sensorRadiusSquared
+ */
+battlecode.schema.BodyTypeMetadata.addSensorRadiusSquared = function(builder, sensorRadiusSquared) {
+  builder.addFieldInt32(6, sensorRadiusSquared, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} pollutionRadiusSquared
  */
-battlecode.schema.BodyTypeMetadata.addSensorRadius = function(builder, sensorRadius) {
-  builder.addFieldInt32(6, sensorRadius, 0);
+battlecode.schema.BodyTypeMetadata.addPollutionRadiusSquared = function(builder, pollutionRadiusSquared) {
+  builder.addFieldInt32(7, pollutionRadiusSquared, 0);
 };
 
 /**
  * @param {flatbuffers.Builder} builder
- * @param {number} pollutionRadius
+ * @param {number} localPollutionAdditiveEffect
  */
-battlecode.schema.BodyTypeMetadata.addPollutionRadius = function(builder, pollutionRadius) {
-  builder.addFieldInt32(7, pollutionRadius, 0);
+battlecode.schema.BodyTypeMetadata.addLocalPollutionAdditiveEffect = function(builder, localPollutionAdditiveEffect) {
+  builder.addFieldInt32(8, localPollutionAdditiveEffect, 0);
 };
 
 /**
  * @param {flatbuffers.Builder} builder
- * @param {number} pollutionAmount
+ * @param {number} localPollutionMultiplicativeEffect
  */
-battlecode.schema.BodyTypeMetadata.addPollutionAmount = function(builder, pollutionAmount) {
-  builder.addFieldInt32(8, pollutionAmount, 0);
+battlecode.schema.BodyTypeMetadata.addLocalPollutionMultiplicativeEffect = function(builder, localPollutionMultiplicativeEffect) {
+  builder.addFieldFloat32(9, localPollutionMultiplicativeEffect, 0.0);
 };
 
 /**
@@ -1776,7 +2132,7 @@ battlecode.schema.BodyTypeMetadata.addPollutionAmount = function(builder, pollut
  * @param {number} globalPollutionAmount
  */
 battlecode.schema.BodyTypeMetadata.addGlobalPollutionAmount = function(builder, globalPollutionAmount) {
-  builder.addFieldInt32(9, globalPollutionAmount, 0);
+  builder.addFieldInt32(10, globalPollutionAmount, 0);
 };
 
 /**
@@ -1784,7 +2140,7 @@ battlecode.schema.BodyTypeMetadata.addGlobalPollutionAmount = function(builder,
  * @param {number} maxSoupProduced
  */
 battlecode.schema.BodyTypeMetadata.addMaxSoupProduced = function(builder, maxSoupProduced) {
-  builder.addFieldInt32(10, maxSoupProduced, 0);
+  builder.addFieldInt32(11, maxSoupProduced, 0);
 };
 
 /**
@@ -1792,7 +2148,7 @@ battlecode.schema.BodyTypeMetadata.addMaxSoupProduced = function(builder, maxSou
  * @param {number} bytecodeLimit
  */
 battlecode.schema.BodyTypeMetadata.addBytecodeLimit = function(builder, bytecodeLimit) {
-  builder.addFieldInt32(11, bytecodeLimit, 0);
+  builder.addFieldInt32(12, bytecodeLimit, 0);
 };
 
 /**
@@ -1812,15 +2168,16 @@ battlecode.schema.BodyTypeMetadata.endBodyTypeMetadata = function(builder) {
  * @param {number} dirtLimit
  * @param {number} soupLimit
  * @param {number} actionCooldown
- * @param {number} sensorRadius
- * @param {number} pollutionRadius
- * @param {number} pollutionAmount
+ * @param {number} sensorRadiusSquared
+ * @param {number} pollutionRadiusSquared
+ * @param {number} localPollutionAdditiveEffect
+ * @param {number} localPollutionMultiplicativeEffect
  * @param {number} globalPollutionAmount
  * @param {number} maxSoupProduced
  * @param {number} bytecodeLimit
  * @returns {flatbuffers.Offset}
  */
-battlecode.schema.BodyTypeMetadata.createBodyTypeMetadata = function(builder, type, spawnSource, cost, dirtLimit, soupLimit, actionCooldown, sensorRadius, pollutionRadius, pollutionAmount, globalPollutionAmount, maxSoupProduced, bytecodeLimit) {
+battlecode.schema.BodyTypeMetadata.createBodyTypeMetadata = function(builder, type, spawnSource, cost, dirtLimit, soupLimit, actionCooldown, sensorRadiusSquared, pollutionRadiusSquared, localPollutionAdditiveEffect, localPollutionMultiplicativeEffect, globalPollutionAmount, maxSoupProduced, bytecodeLimit) {
   battlecode.schema.BodyTypeMetadata.startBodyTypeMetadata(builder);
   battlecode.schema.BodyTypeMetadata.addType(builder, type);
   battlecode.schema.BodyTypeMetadata.addSpawnSource(builder, spawnSource);
@@ -1828,9 +2185,10 @@ battlecode.schema.BodyTypeMetadata.createBodyTypeMetadata = function(builder, ty
   battlecode.schema.BodyTypeMetadata.addDirtLimit(builder, dirtLimit);
   battlecode.schema.BodyTypeMetadata.addSoupLimit(builder, soupLimit);
   battlecode.schema.BodyTypeMetadata.addActionCooldown(builder, actionCooldown);
-  battlecode.schema.BodyTypeMetadata.addSensorRadius(builder, sensorRadius);
-  battlecode.schema.BodyTypeMetadata.addPollutionRadius(builder, pollutionRadius);
-  battlecode.schema.BodyTypeMetadata.addPollutionAmount(builder, pollutionAmount);
+  battlecode.schema.BodyTypeMetadata.addSensorRadiusSquared(builder, sensorRadiusSquared);
+  battlecode.schema.BodyTypeMetadata.addPollutionRadiusSquared(builder, pollutionRadiusSquared);
+  battlecode.schema.BodyTypeMetadata.addLocalPollutionAdditiveEffect(builder, localPollutionAdditiveEffect);
+  battlecode.schema.BodyTypeMetadata.addLocalPollutionMultiplicativeEffect(builder, localPollutionMultiplicativeEffect);
   battlecode.schema.BodyTypeMetadata.addGlobalPollutionAmount(builder, globalPollutionAmount);
   battlecode.schema.BodyTypeMetadata.addMaxSoupProduced(builder, maxSoupProduced);
   battlecode.schema.BodyTypeMetadata.addBytecodeLimit(builder, bytecodeLimit);
@@ -2434,14 +2792,14 @@ battlecode.schema.MatchFooter.createMatchFooter = function(builder, winner, tota
 }
 
 /**
- * A single time-step in a Game.
- * The bulk of the data in the file is stored in tables like this.
- * Note that a struct-of-arrays format is more space efficient than an array-
- * of-structs.
+ * The complete state of a match at the end of a round, so that a viewer can
+ * jump to a round without replaying everything since the match header.
+ * Only sent every so often; see Round.keyframe.
+ * Map-sized arrays are in the same order as GameMap's.
  *
  * @constructor
  */
-battlecode.schema.Round = function() {
+battlecode.schema.Keyframe = function() {
   /**
    * @type {flatbuffers.ByteBuffer}
    */
@@ -2456,9 +2814,9 @@ battlecode.schema.Round = function() {
 /**
  * @param {number} i
  * @param {flatbuffers.ByteBuffer} bb
- * @returns {battlecode.schema.Round}
+ * @returns {battlecode.schema.Keyframe}
  */
-battlecode.schema.Round.prototype.__init = function(i, bb) {
+battlecode.schema.Keyframe.prototype.__init = function(i, bb) {
   this.bb_pos = i;
   this.bb = bb;
   return this;
@@ -2466,20 +2824,20 @@ battlecode.schema.Round.prototype.__init = function(i, bb) {
 
 /**
  * @param {flatbuffers.ByteBuffer} bb
- * @param {battlecode.schema.Round=} obj
- * @returns {battlecode.schema.Round}
+ * @param {battlecode.schema.Keyframe=} obj
+ * @returns {battlecode.schema.Keyframe}
  */
-battlecode.schema.Round.getRootAsRound = function(bb, obj) {
-  return (obj || new battlecode.schema.Round).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+battlecode.schema.Keyframe.getRootAsKeyframe = function(bb, obj) {
+  return (obj || new battlecode.schema.Keyframe).__init(bb.readInt32(bb.position()) + bb.position(), bb);
 };
 
 /**
- * The IDs of teams in the Game.
+ * The amount of crude soup at each location.
  *
  * @param {number} index
  * @returns {number}
  */
-battlecode.schema.Round.prototype.teamIDs = function(index) {
+battlecode.schema.Keyframe.prototype.soup = function(index) {
   var offset = this.bb.__offset(this.bb_pos, 4);
   return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
@@ -2487,7 +2845,7 @@ battlecode.schema.Round.prototype.teamIDs = function(index) {
 /**
  * @returns {number}
  */
-battlecode.schema.Round.prototype.teamIDsLength = function() {
+battlecode.schema.Keyframe.prototype.soupLength = function() {
   var offset = this.bb.__offset(this.bb_pos, 4);
   return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
 };
@@ -2495,18 +2853,18 @@ battlecode.schema.Round.prototype.teamIDsLength = function() {
 /**
  * @returns {Int32Array}
  */
-battlecode.schema.Round.prototype.teamIDsArray = function() {
+battlecode.schema.Keyframe.prototype.soupArray = function() {
   var offset = this.bb.__offset(this.bb_pos, 4);
   return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The refined soup counts of the teams.
+ * The dirt level at each location.
  *
  * @param {number} index
  * @returns {number}
  */
-battlecode.schema.Round.prototype.teamSoups = function(index) {
+battlecode.schema.Keyframe.prototype.dirt = function(index) {
   var offset = this.bb.__offset(this.bb_pos, 6);
   return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
@@ -2514,7 +2872,7 @@ battlecode.schema.Round.prototype.teamSoups = function(index) {
 /**
  * @returns {number}
  */
-battlecode.schema.Round.prototype.teamSoupsLength = function() {
+battlecode.schema.Keyframe.prototype.dirtLength = function() {
   var offset = this.bb.__offset(this.bb_pos, 6);
   return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
 };
@@ -2522,95 +2880,77 @@ battlecode.schema.Round.prototype.teamSoupsLength = function() {
 /**
  * @returns {Int32Array}
  */
-battlecode.schema.Round.prototype.teamSoupsArray = function() {
+battlecode.schema.Keyframe.prototype.dirtArray = function() {
   var offset = this.bb.__offset(this.bb_pos, 6);
   return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The IDs of bodies that moved.
+ * Whether each location is flooded.
  *
  * @param {number} index
- * @returns {number}
+ * @returns {boolean}
  */
-battlecode.schema.Round.prototype.movedIDs = function(index) {
+battlecode.schema.Keyframe.prototype.water = function(index) {
   var offset = this.bb.__offset(this.bb_pos, 8);
-  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+  return offset ? !!this.bb.readInt8(this.bb.__vector(this.bb_pos + offset) + index) : false;
 };
 
 /**
  * @returns {number}
  */
-battlecode.schema.Round.prototype.movedIDsLength = function() {
+battlecode.schema.Keyframe.prototype.waterLength = function() {
   var offset = this.bb.__offset(this.bb_pos, 8);
   return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
 };
 
 /**
- * @returns {Int32Array}
+ * @returns {Int8Array}
  */
-battlecode.schema.Round.prototype.movedIDsArray = function() {
+battlecode.schema.Keyframe.prototype.waterArray = function() {
   var offset = this.bb.__offset(this.bb_pos, 8);
-  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+  return offset ? new Int8Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The new locations of bodies that have moved.
+ * The water level.
  *
- * @param {battlecode.schema.VecTable=} obj
- * @returns {battlecode.schema.VecTable|null}
+ * @returns {number}
  */
-battlecode.schema.Round.prototype.movedLocs = function(obj) {
+battlecode.schema.Keyframe.prototype.waterLevel = function() {
   var offset = this.bb.__offset(this.bb_pos, 10);
-  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+  return offset ? this.bb.readFloat32(this.bb_pos + offset) : 0.0;
 };
 
 /**
- * New bodies.
+ * The local pollution effects that are active.
  *
- * @param {battlecode.schema.SpawnedBodyTable=} obj
- * @returns {battlecode.schema.SpawnedBodyTable|null}
+ * @param {battlecode.schema.LocalPollutionTable=} obj
+ * @returns {battlecode.schema.LocalPollutionTable|null}
  */
-battlecode.schema.Round.prototype.spawnedBodies = function(obj) {
+battlecode.schema.Keyframe.prototype.localPollutions = function(obj) {
   var offset = this.bb.__offset(this.bb_pos, 12);
-  return offset ? (obj || new battlecode.schema.SpawnedBodyTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+  return offset ? (obj || new battlecode.schema.LocalPollutionTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
 };
 
 /**
- * The IDs of bodies that died (drowned units and shot drones).
+ * Every body on the map, including HQs and bodies being carried.
  *
- * @param {number} index
- * @returns {number}
- */
-battlecode.schema.Round.prototype.diedIDs = function(index) {
-  var offset = this.bb.__offset(this.bb_pos, 14);
-  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
-};
-
-/**
- * @returns {number}
- */
-battlecode.schema.Round.prototype.diedIDsLength = function() {
-  var offset = this.bb.__offset(this.bb_pos, 14);
-  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
-};
-
-/**
- * @returns {Int32Array}
+ * @param {battlecode.schema.SpawnedBodyTable=} obj
+ * @returns {battlecode.schema.SpawnedBodyTable|null}
  */
-battlecode.schema.Round.prototype.diedIDsArray = function() {
+battlecode.schema.Keyframe.prototype.bodies = function(obj) {
   var offset = this.bb.__offset(this.bb_pos, 14);
-  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+  return offset ? (obj || new battlecode.schema.SpawnedBodyTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
 };
 
 /**
- * The IDs of robots that performed actions.
- * IDs may repeat.
+ * The soup each body is carrying, in the same order as bodies.
  *
  * @param {number} index
  * @returns {number}
  */
-battlecode.schema.Round.prototype.actionIDs = function(index) {
+battlecode.schema.Keyframe.prototype.bodySoupCarrying = function(index) {
   var offset = this.bb.__offset(this.bb_pos, 16);
   return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
@@ -2618,7 +2958,7 @@ battlecode.schema.Round.prototype.actionIDs = function(index) {
 /**
  * @returns {number}
  */
-battlecode.schema.Round.prototype.actionIDsLength = function() {
+battlecode.schema.Keyframe.prototype.bodySoupCarryingLength = function() {
   var offset = this.bb.__offset(this.bb_pos, 16);
   return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
 };
@@ -2626,46 +2966,46 @@ battlecode.schema.Round.prototype.actionIDsLength = function() {
 /**
  * @returns {Int32Array}
  */
-battlecode.schema.Round.prototype.actionIDsArray = function() {
+battlecode.schema.Keyframe.prototype.bodySoupCarryingArray = function() {
   var offset = this.bb.__offset(this.bb_pos, 16);
   return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The actions performed. These actions allow us to track how much soup or dirt a body carries.
+ * The dirt each body is carrying, in the same order as bodies.
  *
  * @param {number} index
- * @returns {battlecode.schema.Action}
+ * @returns {number}
  */
-battlecode.schema.Round.prototype.actions = function(index) {
+battlecode.schema.Keyframe.prototype.bodyDirtCarrying = function(index) {
   var offset = this.bb.__offset(this.bb_pos, 18);
-  return offset ? /** @type {battlecode.schema.Action} */ (this.bb.readInt8(this.bb.__vector(this.bb_pos + offset) + index)) : /** @type {battlecode.schema.Action} */ (0);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
 
 /**
  * @returns {number}
  */
-battlecode.schema.Round.prototype.actionsLength = function() {
+battlecode.schema.Keyframe.prototype.bodyDirtCarryingLength = function() {
   var offset = this.bb.__offset(this.bb_pos, 18);
   return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
 };
 
 /**
- * @returns {Int8Array}
+ * @returns {Int32Array}
  */
-battlecode.schema.Round.prototype.actionsArray = function() {
+battlecode.schema.Keyframe.prototype.bodyDirtCarryingArray = function() {
   var offset = this.bb.__offset(this.bb_pos, 18);
-  return offset ? new Int8Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The 'targets' of the performed actions. Actions without targets may have
- * any target (typically 0).
+ * The ID of the body each body is carrying, or -1, in the same order as
+ * bodies.
  *
  * @param {number} index
  * @returns {number}
  */
-battlecode.schema.Round.prototype.actionTargets = function(index) {
+battlecode.schema.Keyframe.prototype.bodyHeldIDs = function(index) {
   var offset = this.bb.__offset(this.bb_pos, 20);
   return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
@@ -2673,7 +3013,7 @@ battlecode.schema.Round.prototype.actionTargets = function(index) {
 /**
  * @returns {number}
  */
-battlecode.schema.Round.prototype.actionTargetsLength = function() {
+battlecode.schema.Keyframe.prototype.bodyHeldIDsLength = function() {
   var offset = this.bb.__offset(this.bb_pos, 20);
   return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
 };
@@ -2681,96 +3021,1054 @@ battlecode.schema.Round.prototype.actionTargetsLength = function() {
 /**
  * @returns {Int32Array}
  */
-battlecode.schema.Round.prototype.actionTargetsArray = function() {
+battlecode.schema.Keyframe.prototype.bodyHeldIDsArray = function() {
   var offset = this.bb.__offset(this.bb_pos, 20);
   return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The indexes of the locations whose dirt amount changed.
- *
- * @param {battlecode.schema.VecTable=} obj
- * @returns {battlecode.schema.VecTable|null}
+ * @param {flatbuffers.Builder} builder
  */
-battlecode.schema.Round.prototype.dirtChangedLocs = function(obj) {
-  var offset = this.bb.__offset(this.bb_pos, 22);
-  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+battlecode.schema.Keyframe.startKeyframe = function(builder) {
+  builder.startObject(9);
 };
 
 /**
- * The amount the dirt changed by.
- *
- * @param {number} index
- * @returns {number}
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} soupOffset
  */
-battlecode.schema.Round.prototype.dirtChanges = function(index) {
-  var offset = this.bb.__offset(this.bb_pos, 24);
-  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+battlecode.schema.Keyframe.addSoup = function(builder, soupOffset) {
+  builder.addFieldOffset(0, soupOffset, 0);
 };
 
 /**
- * @returns {number}
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
  */
-battlecode.schema.Round.prototype.dirtChangesLength = function() {
-  var offset = this.bb.__offset(this.bb_pos, 24);
-  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+battlecode.schema.Keyframe.createSoupVector = function(builder, data) {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
 };
 
 /**
- * @returns {Int32Array}
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
  */
-battlecode.schema.Round.prototype.dirtChangesArray = function() {
-  var offset = this.bb.__offset(this.bb_pos, 24);
-  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+battlecode.schema.Keyframe.startSoupVector = function(builder, numElems) {
+  builder.startVector(4, numElems, 4);
 };
 
 /**
- * The indexes of the locations whose flood situation changed.
- *
- * @param {battlecode.schema.VecTable=} obj
- * @returns {battlecode.schema.VecTable|null}
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} dirtOffset
  */
-battlecode.schema.Round.prototype.waterChangedLocs = function(obj) {
-  var offset = this.bb.__offset(this.bb_pos, 26);
-  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+battlecode.schema.Keyframe.addDirt = function(builder, dirtOffset) {
+  builder.addFieldOffset(1, dirtOffset, 0);
 };
 
 /**
- * The indexes of the locations whose pollution amount changed.
- *
- * @param {battlecode.schema.VecTable=} obj
- * @returns {battlecode.schema.VecTable|null}
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
  */
-battlecode.schema.Round.prototype.pollutionChangedLocs = function(obj) {
-  var offset = this.bb.__offset(this.bb_pos, 28);
-  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+battlecode.schema.Keyframe.createDirtVector = function(builder, data) {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
 };
 
 /**
- * The amount the pollution changed by.
- *
- * @param {number} index
- * @returns {number}
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
  */
-battlecode.schema.Round.prototype.pollutionChanges = function(index) {
-  var offset = this.bb.__offset(this.bb_pos, 30);
-  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+battlecode.schema.Keyframe.startDirtVector = function(builder, numElems) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} waterOffset
+ */
+battlecode.schema.Keyframe.addWater = function(builder, waterOffset) {
+  builder.addFieldOffset(2, waterOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<boolean>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.Keyframe.createWaterVector = function(builder, data) {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(+data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.Keyframe.startWaterVector = function(builder, numElems) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} waterLevel
+ */
+battlecode.schema.Keyframe.addWaterLevel = function(builder, waterLevel) {
+  builder.addFieldFloat32(3, waterLevel, 0.0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} localPollutionsOffset
+ */
+battlecode.schema.Keyframe.addLocalPollutions = function(builder, localPollutionsOffset) {
+  builder.addFieldOffset(4, localPollutionsOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} bodiesOffset
+ */
+battlecode.schema.Keyframe.addBodies = function(builder, bodiesOffset) {
+  builder.addFieldOffset(5, bodiesOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} bodySoupCarryingOffset
+ */
+battlecode.schema.Keyframe.addBodySoupCarrying = function(builder, bodySoupCarryingOffset) {
+  builder.addFieldOffset(6, bodySoupCarryingOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.Keyframe.createBodySoupCarryingVector = function(builder, data) {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.Keyframe.startBodySoupCarryingVector = function(builder, numElems) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} bodyDirtCarryingOffset
+ */
+battlecode.schema.Keyframe.addBodyDirtCarrying = function(builder, bodyDirtCarryingOffset) {
+  builder.addFieldOffset(7, bodyDirtCarryingOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.Keyframe.createBodyDirtCarryingVector = function(builder, data) {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.Keyframe.startBodyDirtCarryingVector = function(builder, numElems) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} bodyHeldIDsOffset
+ */
+battlecode.schema.Keyframe.addBodyHeldIDs = function(builder, bodyHeldIDsOffset) {
+  builder.addFieldOffset(8, bodyHeldIDsOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.Keyframe.createBodyHeldIDsVector = function(builder, data) {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.Keyframe.startBodyHeldIDsVector = function(builder, numElems) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.Keyframe.endKeyframe = function(builder) {
+  var offset = builder.endObject();
+  return offset;
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} soupOffset
+ * @param {flatbuffers.Offset} dirtOffset
+ * @param {flatbuffers.Offset} waterOffset
+ * @param {number} waterLevel
+ * @param {flatbuffers.Offset} localPollutionsOffset
+ * @param {flatbuffers.Offset} bodiesOffset
+ * @param {flatbuffers.Offset} bodySoupCarryingOffset
+ * @param {flatbuffers.Offset} bodyDirtCarryingOffset
+ * @param {flatbuffers.Offset} bodyHeldIDsOffset
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.Keyframe.createKeyframe = function(builder, soupOffset, dirtOffset, waterOffset, waterLevel, localPollutionsOffset, bodiesOffset, bodySoupCarryingOffset, bodyDirtCarryingOffset, bodyHeldIDsOffset) {
+  battlecode.schema.Keyframe.startKeyframe(builder);
+  battlecode.schema.Keyframe.addSoup(builder, soupOffset);
+  battlecode.schema.Keyframe.addDirt(builder, dirtOffset);
+  battlecode.schema.Keyframe.addWater(builder, waterOffset);
+  battlecode.schema.Keyframe.addWaterLevel(builder, waterLevel);
+  battlecode.schema.Keyframe.addLocalPollutions(builder, localPollutionsOffset);
+  battlecode.schema.Keyframe.addBodies(builder, bodiesOffset);
+  battlecode.schema.Keyframe.addBodySoupCarrying(builder, bodySoupCarryingOffset);
+  battlecode.schema.Keyframe.addBodyDirtCarrying(builder, bodyDirtCarryingOffset);
+  battlecode.schema.Keyframe.addBodyHeldIDs(builder, bodyHeldIDsOffset);
+  return battlecode.schema.Keyframe.endKeyframe(builder);
+}
+
+/**
+ * The bulkiest parts of a Round, packed tightly, for replays saved with
+ * bc.server.compact-replay. The Round fields these replace are left empty;
+ * see battlecode.server.CompactRoundReader for a decoder.
+ *
+ * Varints are unsigned LEB128; signed values are zigzag-encoded first.
+ * A packed location is zigzag(dx), zigzag(dy) from the previous location in
+ * the same vector (or from (0, 0), for the first one).
+ *
+ * @constructor
+ */
+battlecode.schema.CompactRound = function() {
+  /**
+   * @type {flatbuffers.ByteBuffer}
+   */
+  this.bb = null;
+
+  /**
+   * @type {number}
+   */
+  this.bb_pos = 0;
+};
+
+/**
+ * @param {number} i
+ * @param {flatbuffers.ByteBuffer} bb
+ * @returns {battlecode.schema.CompactRound}
+ */
+battlecode.schema.CompactRound.prototype.__init = function(i, bb) {
+  this.bb_pos = i;
+  this.bb = bb;
+  return this;
+};
+
+/**
+ * @param {flatbuffers.ByteBuffer} bb
+ * @param {battlecode.schema.CompactRound=} obj
+ * @returns {battlecode.schema.CompactRound}
+ */
+battlecode.schema.CompactRound.getRootAsCompactRound = function(bb, obj) {
+  return (obj || new battlecode.schema.CompactRound).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * For each of Round.movedIDs: the direction (in battlecode.common.Direction
+ * order, CENTER included) from the body's last recorded location to its
+ * new one, or -1 if the new location isn't adjacent.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.movedDirections = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 4);
+  return offset ? this.bb.readInt8(this.bb.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.movedDirectionsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 4);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int8Array}
+ */
+battlecode.schema.CompactRound.prototype.movedDirectionsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 4);
+  return offset ? new Int8Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Packed locations: where each body marked -1 in movedDirections went.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.movedJumps = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 6);
+  return offset ? this.bb.readUint8(this.bb.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.movedJumpsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 6);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Uint8Array}
+ */
+battlecode.schema.CompactRound.prototype.movedJumpsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 6);
+  return offset ? new Uint8Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Replaces Round.dirtChangedLocs and dirtChanges: for each change, a
+ * packed location, then the change as a signed varint.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.dirtChanges = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 8);
+  return offset ? this.bb.readUint8(this.bb.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.dirtChangesLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 8);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Uint8Array}
+ */
+battlecode.schema.CompactRound.prototype.dirtChangesArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 8);
+  return offset ? new Uint8Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Replaces Round.waterChangedLocs: packed locations.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.waterChanges = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 10);
+  return offset ? this.bb.readUint8(this.bb.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.waterChangesLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 10);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Uint8Array}
+ */
+battlecode.schema.CompactRound.prototype.waterChangesArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 10);
+  return offset ? new Uint8Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Replaces Round.soupChangedLocs and soupChanges: for each change, a
+ * packed location, then the change as a signed varint.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.soupChanges = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 12);
+  return offset ? this.bb.readUint8(this.bb.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.soupChangesLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 12);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Uint8Array}
+ */
+battlecode.schema.CompactRound.prototype.soupChangesArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 12);
+  return offset ? new Uint8Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Replaces Round.bytecodeIDs and bytecodesUsed: for each body, its ID as
+ * a signed varint delta from the previous ID, then the bytecodes it used
+ * divided by bytecodeQuantum (rounded) as a varint.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.bytecodes = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 14);
+  return offset ? this.bb.readUint8(this.bb.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.bytecodesLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 14);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Uint8Array}
+ */
+battlecode.schema.CompactRound.prototype.bytecodesArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 14);
+  return offset ? new Uint8Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * What the bytecode counts were divided by; 1 if they're exact.
+ *
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.bytecodeQuantum = function() {
+  var offset = this.bb.__offset(this.bb_pos, 16);
+  return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
+};
+
+/**
+ * Replaces Round.logs: where this round's logs are in
+ * GameWrapper.compactLogs, once inflated.
+ *
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.logsOffset = function() {
+  var offset = this.bb.__offset(this.bb_pos, 18);
+  return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.CompactRound.prototype.logsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 20);
+  return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ */
+battlecode.schema.CompactRound.startCompactRound = function(builder) {
+  builder.startObject(9);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} movedDirectionsOffset
+ */
+battlecode.schema.CompactRound.addMovedDirections = function(builder, movedDirectionsOffset) {
+  builder.addFieldOffset(0, movedDirectionsOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.CompactRound.createMovedDirectionsVector = function(builder, data) {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.CompactRound.startMovedDirectionsVector = function(builder, numElems) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} movedJumpsOffset
+ */
+battlecode.schema.CompactRound.addMovedJumps = function(builder, movedJumpsOffset) {
+  builder.addFieldOffset(1, movedJumpsOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.CompactRound.createMovedJumpsVector = function(builder, data) {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.CompactRound.startMovedJumpsVector = function(builder, numElems) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} dirtChangesOffset
+ */
+battlecode.schema.CompactRound.addDirtChanges = function(builder, dirtChangesOffset) {
+  builder.addFieldOffset(2, dirtChangesOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.CompactRound.createDirtChangesVector = function(builder, data) {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.CompactRound.startDirtChangesVector = function(builder, numElems) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} waterChangesOffset
+ */
+battlecode.schema.CompactRound.addWaterChanges = function(builder, waterChangesOffset) {
+  builder.addFieldOffset(3, waterChangesOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.CompactRound.createWaterChangesVector = function(builder, data) {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.CompactRound.startWaterChangesVector = function(builder, numElems) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} soupChangesOffset
+ */
+battlecode.schema.CompactRound.addSoupChanges = function(builder, soupChangesOffset) {
+  builder.addFieldOffset(4, soupChangesOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.CompactRound.createSoupChangesVector = function(builder, data) {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.CompactRound.startSoupChangesVector = function(builder, numElems) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} bytecodesOffset
+ */
+battlecode.schema.CompactRound.addBytecodes = function(builder, bytecodesOffset) {
+  builder.addFieldOffset(5, bytecodesOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.CompactRound.createBytecodesVector = function(builder, data) {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.CompactRound.startBytecodesVector = function(builder, numElems) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} bytecodeQuantum
+ */
+battlecode.schema.CompactRound.addBytecodeQuantum = function(builder, bytecodeQuantum) {
+  builder.addFieldInt32(6, bytecodeQuantum, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} logsOffset
+ */
+battlecode.schema.CompactRound.addLogsOffset = function(builder, logsOffset) {
+  builder.addFieldInt32(7, logsOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} logsLength
+ */
+battlecode.schema.CompactRound.addLogsLength = function(builder, logsLength) {
+  builder.addFieldInt32(8, logsLength, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.CompactRound.endCompactRound = function(builder) {
+  var offset = builder.endObject();
+  return offset;
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} movedDirectionsOffset
+ * @param {flatbuffers.Offset} movedJumpsOffset
+ * @param {flatbuffers.Offset} dirtChangesOffset
+ * @param {flatbuffers.Offset} waterChangesOffset
+ * @param {flatbuffers.Offset} soupChangesOffset
+ * @param {flatbuffers.Offset} bytecodesOffset
+ * @param {number} bytecodeQuantum
+ * @param {number} logsOffset
+ * @param {number} logsLength
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.CompactRound.createCompactRound = function(builder, movedDirectionsOffset, movedJumpsOffset, dirtChangesOffset, waterChangesOffset, soupChangesOffset, bytecodesOffset, bytecodeQuantum, logsOffset, logsLength) {
+  battlecode.schema.CompactRound.startCompactRound(builder);
+  battlecode.schema.CompactRound.addMovedDirections(builder, movedDirectionsOffset);
+  battlecode.schema.CompactRound.addMovedJumps(builder, movedJumpsOffset);
+  battlecode.schema.CompactRound.addDirtChanges(builder, dirtChangesOffset);
+  battlecode.schema.CompactRound.addWaterChanges(builder, waterChangesOffset);
+  battlecode.schema.CompactRound.addSoupChanges(builder, soupChangesOffset);
+  battlecode.schema.CompactRound.addBytecodes(builder, bytecodesOffset);
+  battlecode.schema.CompactRound.addBytecodeQuantum(builder, bytecodeQuantum);
+  battlecode.schema.CompactRound.addLogsOffset(builder, logsOffset);
+  battlecode.schema.CompactRound.addLogsLength(builder, logsLength);
+  return battlecode.schema.CompactRound.endCompactRound(builder);
+}
+
+/**
+ * A single time-step in a Game.
+ * The bulk of the data in the file is stored in tables like this.
+ * Note that a struct-of-arrays format is more space efficient than an array-
+ * of-structs.
+ *
+ * @constructor
+ */
+battlecode.schema.Round = function() {
+  /**
+   * @type {flatbuffers.ByteBuffer}
+   */
+  this.bb = null;
+
+  /**
+   * @type {number}
+   */
+  this.bb_pos = 0;
+};
+
+/**
+ * @param {number} i
+ * @param {flatbuffers.ByteBuffer} bb
+ * @returns {battlecode.schema.Round}
+ */
+battlecode.schema.Round.prototype.__init = function(i, bb) {
+  this.bb_pos = i;
+  this.bb = bb;
+  return this;
+};
+
+/**
+ * @param {flatbuffers.ByteBuffer} bb
+ * @param {battlecode.schema.Round=} obj
+ * @returns {battlecode.schema.Round}
+ */
+battlecode.schema.Round.getRootAsRound = function(bb, obj) {
+  return (obj || new battlecode.schema.Round).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * The IDs of teams in the Game.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.teamIDs = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 4);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.teamIDsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 4);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.Round.prototype.teamIDsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 4);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The refined soup counts of the teams.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.teamSoups = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 6);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.teamSoupsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 6);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.Round.prototype.teamSoupsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 6);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The IDs of bodies that moved.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.movedIDs = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 8);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.movedIDsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 8);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.Round.prototype.movedIDsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 8);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The new locations of bodies that have moved.
+ *
+ * @param {battlecode.schema.VecTable=} obj
+ * @returns {battlecode.schema.VecTable|null}
+ */
+battlecode.schema.Round.prototype.movedLocs = function(obj) {
+  var offset = this.bb.__offset(this.bb_pos, 10);
+  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+};
+
+/**
+ * New bodies.
+ *
+ * @param {battlecode.schema.SpawnedBodyTable=} obj
+ * @returns {battlecode.schema.SpawnedBodyTable|null}
+ */
+battlecode.schema.Round.prototype.spawnedBodies = function(obj) {
+  var offset = this.bb.__offset(this.bb_pos, 12);
+  return offset ? (obj || new battlecode.schema.SpawnedBodyTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+};
+
+/**
+ * The IDs of bodies that died (drowned units and shot drones).
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.diedIDs = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 14);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.diedIDsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 14);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.Round.prototype.diedIDsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 14);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The IDs of robots that performed actions.
+ * IDs may repeat.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.actionIDs = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 16);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.actionIDsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 16);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.Round.prototype.actionIDsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 16);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The actions performed. These actions allow us to track how much soup or dirt a body carries.
+ *
+ * @param {number} index
+ * @returns {battlecode.schema.Action}
+ */
+battlecode.schema.Round.prototype.actions = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 18);
+  return offset ? /** @type {battlecode.schema.Action} */ (this.bb.readInt8(this.bb.__vector(this.bb_pos + offset) + index)) : /** @type {battlecode.schema.Action} */ (0);
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.actionsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 18);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int8Array}
+ */
+battlecode.schema.Round.prototype.actionsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 18);
+  return offset ? new Int8Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The 'targets' of the performed actions. Actions without targets may have
+ * any target (typically 0).
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.actionTargets = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 20);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.actionTargetsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 20);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.Round.prototype.actionTargetsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 20);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The indexes of the locations whose dirt amount changed.
+ *
+ * @param {battlecode.schema.VecTable=} obj
+ * @returns {battlecode.schema.VecTable|null}
+ */
+battlecode.schema.Round.prototype.dirtChangedLocs = function(obj) {
+  var offset = this.bb.__offset(this.bb_pos, 22);
+  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+};
+
+/**
+ * The amount the dirt changed by.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.dirtChanges = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 24);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.dirtChangesLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 24);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.Round.prototype.dirtChangesArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 24);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The indexes of the locations whose flood situation changed.
+ *
+ * @param {battlecode.schema.VecTable=} obj
+ * @returns {battlecode.schema.VecTable|null}
+ */
+battlecode.schema.Round.prototype.waterChangedLocs = function(obj) {
+  var offset = this.bb.__offset(this.bb_pos, 26);
+  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
 };
 
 /**
+ * The global pollution level
+ *
  * @returns {number}
  */
-battlecode.schema.Round.prototype.pollutionChangesLength = function() {
-  var offset = this.bb.__offset(this.bb_pos, 30);
-  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+battlecode.schema.Round.prototype.globalPollution = function() {
+  var offset = this.bb.__offset(this.bb_pos, 28);
+  return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
 };
 
 /**
- * @returns {Int32Array}
+ * The local pollution infos
+ *
+ * @param {battlecode.schema.LocalPollutionTable=} obj
+ * @returns {battlecode.schema.LocalPollutionTable|null}
  */
-battlecode.schema.Round.prototype.pollutionChangesArray = function() {
+battlecode.schema.Round.prototype.localPollutions = function(obj) {
   var offset = this.bb.__offset(this.bb_pos, 30);
-  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+  return offset ? (obj || new battlecode.schema.LocalPollutionTable).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
 };
 
 /**
@@ -3109,11 +4407,94 @@ battlecode.schema.Round.prototype.bytecodesUsedArray = function() {
   return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
 };
 
+/**
+ * The full state of the match after this round, or null.
+ * Present every bc.server.keyframe-interval rounds, if enabled; the
+ * rest of the round is still sent as usual.
+ *
+ * @param {battlecode.schema.Keyframe=} obj
+ * @returns {battlecode.schema.Keyframe|null}
+ */
+battlecode.schema.Round.prototype.keyframe = function(obj) {
+  var offset = this.bb.__offset(this.bb_pos, 66);
+  return offset ? (obj || new battlecode.schema.Keyframe).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+};
+
+/**
+ * Packed versions of some of the fields above, or null.
+ * Only in replays saved with bc.server.compact-replay.
+ *
+ * @param {battlecode.schema.CompactRound=} obj
+ * @returns {battlecode.schema.CompactRound|null}
+ */
+battlecode.schema.Round.prototype.compact = function(obj) {
+  var offset = this.bb.__offset(this.bb_pos, 68);
+  return offset ? (obj || new battlecode.schema.CompactRound).__init(this.bb.__indirect(this.bb_pos + offset), this.bb) : null;
+};
+
+/**
+ * The CPU time each player body's turn took, in microseconds, or -1 if
+ * it couldn't be measured; in the same order as bytecodeIDs (or, in
+ * compact replays, the bodies in CompactRound.bytecodes).
+ * Only present with bc.server.turn-times-in-replay.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.cpuTimes = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 70);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.cpuTimesLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 70);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.Round.prototype.cpuTimesArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 70);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The wall-clock time each player body's turn took, in microseconds; in
+ * the same order as cpuTimes.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.wallTimes = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 72);
+  return offset ? this.bb.readInt32(this.bb.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Round.prototype.wallTimesLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 72);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Int32Array}
+ */
+battlecode.schema.Round.prototype.wallTimesArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 72);
+  return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
 /**
  * @param {flatbuffers.Builder} builder
  */
 battlecode.schema.Round.startRound = function(builder) {
-  builder.startObject(31);
+  builder.startObject(35);
 };
 
 /**
@@ -3382,39 +4763,18 @@ battlecode.schema.Round.addWaterChangedLocs = function(builder, waterChangedLocs
 
 /**
  * @param {flatbuffers.Builder} builder
- * @param {flatbuffers.Offset} pollutionChangedLocsOffset
- */
-battlecode.schema.Round.addPollutionChangedLocs = function(builder, pollutionChangedLocsOffset) {
-  builder.addFieldOffset(12, pollutionChangedLocsOffset, 0);
-};
-
-/**
- * @param {flatbuffers.Builder} builder
- * @param {flatbuffers.Offset} pollutionChangesOffset
- */
-battlecode.schema.Round.addPollutionChanges = function(builder, pollutionChangesOffset) {
-  builder.addFieldOffset(13, pollutionChangesOffset, 0);
-};
-
-/**
- * @param {flatbuffers.Builder} builder
- * @param {Array.<number>} data
- * @returns {flatbuffers.Offset}
+ * @param {number} globalPollution
  */
-battlecode.schema.Round.createPollutionChangesVector = function(builder, data) {
-  builder.startVector(4, data.length, 4);
-  for (var i = data.length - 1; i >= 0; i--) {
-    builder.addInt32(data[i]);
-  }
-  return builder.endVector();
+battlecode.schema.Round.addGlobalPollution = function(builder, globalPollution) {
+  builder.addFieldInt32(12, globalPollution, 0);
 };
 
 /**
  * @param {flatbuffers.Builder} builder
- * @param {number} numElems
+ * @param {flatbuffers.Offset} localPollutionsOffset
  */
-battlecode.schema.Round.startPollutionChangesVector = function(builder, numElems) {
-  builder.startVector(4, numElems, 4);
+battlecode.schema.Round.addLocalPollutions = function(builder, localPollutionsOffset) {
+  builder.addFieldOffset(13, localPollutionsOffset, 0);
 };
 
 /**
@@ -3742,6 +5102,80 @@ battlecode.schema.Round.startBytecodesUsedVector = function(builder, numElems) {
   builder.startVector(4, numElems, 4);
 };
 
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} keyframeOffset
+ */
+battlecode.schema.Round.addKeyframe = function(builder, keyframeOffset) {
+  builder.addFieldOffset(31, keyframeOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} compactOffset
+ */
+battlecode.schema.Round.addCompact = function(builder, compactOffset) {
+  builder.addFieldOffset(32, compactOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} cpuTimesOffset
+ */
+battlecode.schema.Round.addCpuTimes = function(builder, cpuTimesOffset) {
+  builder.addFieldOffset(33, cpuTimesOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.Round.createCpuTimesVector = function(builder, data) {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.Round.startCpuTimesVector = function(builder, numElems) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} wallTimesOffset
+ */
+battlecode.schema.Round.addWallTimes = function(builder, wallTimesOffset) {
+  builder.addFieldOffset(34, wallTimesOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.Round.createWallTimesVector = function(builder, data) {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.Round.startWallTimesVector = function(builder, numElems) {
+  builder.startVector(4, numElems, 4);
+};
+
 /**
  * @param {flatbuffers.Builder} builder
  * @returns {flatbuffers.Offset}
@@ -3765,8 +5199,8 @@ battlecode.schema.Round.endRound = function(builder) {
  * @param {flatbuffers.Offset} dirtChangedLocsOffset
  * @param {flatbuffers.Offset} dirtChangesOffset
  * @param {flatbuffers.Offset} waterChangedLocsOffset
- * @param {flatbuffers.Offset} pollutionChangedLocsOffset
- * @param {flatbuffers.Offset} pollutionChangesOffset
+ * @param {number} globalPollution
+ * @param {flatbuffers.Offset} localPollutionsOffset
  * @param {flatbuffers.Offset} soupChangedLocsOffset
  * @param {flatbuffers.Offset} soupChangesOffset
  * @param {flatbuffers.Offset} newMessagesCostsOffset
@@ -3784,9 +5218,13 @@ battlecode.schema.Round.endRound = function(builder) {
  * @param {number} roundID
  * @param {flatbuffers.Offset} bytecodeIDsOffset
  * @param {flatbuffers.Offset} bytecodesUsedOffset
+ * @param {flatbuffers.Offset} keyframeOffset
+ * @param {flatbuffers.Offset} compactOffset
+ * @param {flatbuffers.Offset} cpuTimesOffset
+ * @param {flatbuffers.Offset} wallTimesOffset
  * @returns {flatbuffers.Offset}
  */
-battlecode.schema.Round.createRound = function(builder, teamIDsOffset, teamSoupsOffset, movedIDsOffset, movedLocsOffset, spawnedBodiesOffset, diedIDsOffset, actionIDsOffset, actionsOffset, actionTargetsOffset, dirtChangedLocsOffset, dirtChangesOffset, waterChangedLocsOffset, pollutionChangedLocsOffset, pollutionChangesOffset, soupChangedLocsOffset, soupChangesOffset, newMessagesCostsOffset, newMessagesOffset, broadcastedMessagesCostsOffset, broadcastedMessagesOffset, indicatorDotIDsOffset, indicatorDotLocsOffset, indicatorDotRGBsOffset, indicatorLineIDsOffset, indicatorLineStartLocsOffset, indicatorLineEndLocsOffset, indicatorLineRGBsOffset, logsOffset, roundID, bytecodeIDsOffset, bytecodesUsedOffset) {
+battlecode.schema.Round.createRound = function(builder, teamIDsOffset, teamSoupsOffset, movedIDsOffset, movedLocsOffset, spawnedBodiesOffset, diedIDsOffset, actionIDsOffset, actionsOffset, actionTargetsOffset, dirtChangedLocsOffset, dirtChangesOffset, waterChangedLocsOffset, globalPollution, localPollutionsOffset, soupChangedLocsOffset, soupChangesOffset, newMessagesCostsOffset, newMessagesOffset, broadcastedMessagesCostsOffset, broadcastedMessagesOffset, indicatorDotIDsOffset, indicatorDotLocsOffset, indicatorDotRGBsOffset, indicatorLineIDsOffset, indicatorLineStartLocsOffset, indicatorLineEndLocsOffset, indicatorLineRGBsOffset, logsOffset, roundID, bytecodeIDsOffset, bytecodesUsedOffset, keyframeOffset, compactOffset, cpuTimesOffset, wallTimesOffset) {
   battlecode.schema.Round.startRound(builder);
   battlecode.schema.Round.addTeamIDs(builder, teamIDsOffset);
   battlecode.schema.Round.addTeamSoups(builder, teamSoupsOffset);
@@ -3800,8 +5238,8 @@ battlecode.schema.Round.createRound = function(builder, teamIDsOffset, teamSoups
   battlecode.schema.Round.addDirtChangedLocs(builder, dirtChangedLocsOffset);
   battlecode.schema.Round.addDirtChanges(builder, dirtChangesOffset);
   battlecode.schema.Round.addWaterChangedLocs(builder, waterChangedLocsOffset);
-  battlecode.schema.Round.addPollutionChangedLocs(builder, pollutionChangedLocsOffset);
-  battlecode.schema.Round.addPollutionChanges(builder, pollutionChangesOffset);
+  battlecode.schema.Round.addGlobalPollution(builder, globalPollution);
+  battlecode.schema.Round.addLocalPollutions(builder, localPollutionsOffset);
   battlecode.schema.Round.addSoupChangedLocs(builder, soupChangedLocsOffset);
   battlecode.schema.Round.addSoupChanges(builder, soupChangesOffset);
   battlecode.schema.Round.addNewMessagesCosts(builder, newMessagesCostsOffset);
@@ -3819,6 +5257,10 @@ battlecode.schema.Round.createRound = function(builder, teamIDsOffset, teamSoups
   battlecode.schema.Round.addRoundID(builder, roundID);
   battlecode.schema.Round.addBytecodeIDs(builder, bytecodeIDsOffset);
   battlecode.schema.Round.addBytecodesUsed(builder, bytecodesUsedOffset);
+  battlecode.schema.Round.addKeyframe(builder, keyframeOffset);
+  battlecode.schema.Round.addCompact(builder, compactOffset);
+  battlecode.schema.Round.addCpuTimes(builder, cpuTimesOffset);
+  battlecode.schema.Round.addWallTimes(builder, wallTimesOffset);
   return battlecode.schema.Round.endRound(builder);
 }
 
@@ -4037,11 +5479,40 @@ battlecode.schema.GameWrapper.prototype.matchFootersArray = function() {
   return offset ? new Int32Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
 };
 
+/**
+ * For replays saved with bc.server.compact-replay: the logs of every
+ * round, concatenated and deflated (zlib format). Each Round's
+ * CompactRound says where its logs are.
+ *
+ * @param {number} index
+ * @returns {number}
+ */
+battlecode.schema.GameWrapper.prototype.compactLogs = function(index) {
+  var offset = this.bb.__offset(this.bb_pos, 10);
+  return offset ? this.bb.readUint8(this.bb.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.GameWrapper.prototype.compactLogsLength = function() {
+  var offset = this.bb.__offset(this.bb_pos, 10);
+  return offset ? this.bb.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns {Uint8Array}
+ */
+battlecode.schema.GameWrapper.prototype.compactLogsArray = function() {
+  var offset = this.bb.__offset(this.bb_pos, 10);
+  return offset ? new Uint8Array(this.bb.bytes().buffer, this.bb.bytes().byteOffset + this.bb.__vector(this.bb_pos + offset), this.bb.__vector_len(this.bb_pos + offset)) : null;
+};
+
 /**
  * @param {flatbuffers.Builder} builder
  */
 battlecode.schema.GameWrapper.startGameWrapper = function(builder) {
-  builder.startObject(3);
+  builder.startObject(4);
 };
 
 /**
@@ -4131,6 +5602,35 @@ battlecode.schema.GameWrapper.startMatchFootersVector = function(builder, numEle
   builder.startVector(4, numElems, 4);
 };
 
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {flatbuffers.Offset} compactLogsOffset
+ */
+battlecode.schema.GameWrapper.addCompactLogs = function(builder, compactLogsOffset) {
+  builder.addFieldOffset(3, compactLogsOffset, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {Array.<number>} data
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.GameWrapper.createCompactLogsVector = function(builder, data) {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} numElems
+ */
+battlecode.schema.GameWrapper.startCompactLogsVector = function(builder, numElems) {
+  builder.startVector(1, numElems, 1);
+};
+
 /**
  * @param {flatbuffers.Builder} builder
  * @returns {flatbuffers.Offset}
@@ -4145,15 +5645,116 @@ battlecode.schema.GameWrapper.endGameWrapper = function(builder) {
  * @param {flatbuffers.Offset} eventsOffset
  * @param {flatbuffers.Offset} matchHeadersOffset
  * @param {flatbuffers.Offset} matchFootersOffset
+ * @param {flatbuffers.Offset} compactLogsOffset
  * @returns {flatbuffers.Offset}
  */
-battlecode.schema.GameWrapper.createGameWrapper = function(builder, eventsOffset, matchHeadersOffset, matchFootersOffset) {
+battlecode.schema.GameWrapper.createGameWrapper = function(builder, eventsOffset, matchHeadersOffset, matchFootersOffset, compactLogsOffset) {
   battlecode.schema.GameWrapper.startGameWrapper(builder);
   battlecode.schema.GameWrapper.addEvents(builder, eventsOffset);
   battlecode.schema.GameWrapper.addMatchHeaders(builder, matchHeadersOffset);
   battlecode.schema.GameWrapper.addMatchFooters(builder, matchFootersOffset);
+  battlecode.schema.GameWrapper.addCompactLogs(builder, compactLogsOffset);
   return battlecode.schema.GameWrapper.endGameWrapper(builder);
 }
 
+/**
+ * A message from a client to the server, sent as a binary websocket
+ * message.
+ *
+ * @constructor
+ */
+battlecode.schema.Control = function() {
+  /**
+   * @type {flatbuffers.ByteBuffer}
+   */
+  this.bb = null;
+
+  /**
+   * @type {number}
+   */
+  this.bb_pos = 0;
+};
+
+/**
+ * @param {number} i
+ * @param {flatbuffers.ByteBuffer} bb
+ * @returns {battlecode.schema.Control}
+ */
+battlecode.schema.Control.prototype.__init = function(i, bb) {
+  this.bb_pos = i;
+  this.bb = bb;
+  return this;
+};
+
+/**
+ * @param {flatbuffers.ByteBuffer} bb
+ * @param {battlecode.schema.Control=} obj
+ * @returns {battlecode.schema.Control}
+ */
+battlecode.schema.Control.getRootAsControl = function(bb, obj) {
+  return (obj || new battlecode.schema.Control).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * @returns {battlecode.schema.ControlCommand}
+ */
+battlecode.schema.Control.prototype.command = function() {
+  var offset = this.bb.__offset(this.bb_pos, 4);
+  return offset ? /** @type {battlecode.schema.ControlCommand} */ (this.bb.readInt8(this.bb_pos + offset)) : battlecode.schema.ControlCommand.Run;
+};
+
+/**
+ * @returns {number}
+ */
+battlecode.schema.Control.prototype.argument = function() {
+  var offset = this.bb.__offset(this.bb_pos, 6);
+  return offset ? this.bb.readInt32(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ */
+battlecode.schema.Control.startControl = function(builder) {
+  builder.startObject(2);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {battlecode.schema.ControlCommand} command
+ */
+battlecode.schema.Control.addCommand = function(builder, command) {
+  builder.addFieldInt8(0, command, battlecode.schema.ControlCommand.Run);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {number} argument
+ */
+battlecode.schema.Control.addArgument = function(builder, argument) {
+  builder.addFieldInt32(1, argument, 0);
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.Control.endControl = function(builder) {
+  var offset = builder.endObject();
+  return offset;
+};
+
+/**
+ * @param {flatbuffers.Builder} builder
+ * @param {battlecode.schema.ControlCommand} command
+ * @param {number} argument
+ * @returns {flatbuffers.Offset}
+ */
+battlecode.schema.Control.createControl = function(builder, command, argument) {
+  battlecode.schema.Control.startControl(builder);
+  battlecode.schema.Control.addCommand(builder, command);
+  battlecode.schema.Control.addArgument(builder, argument);
+  return battlecode.schema.Control.endControl(builder);
+}
+
 // Exports for Node.js and RequireJS
 this.battlecode = battlecode;
@@ -201,6 +201,43 @@ export enum Event{
   GameFooter= 5
 }};
 
+/**
+ * Commands a client can send the server, to control the match it's
+ * running. Only obeyed when the server is interactive
+ * (bc.server.interactive).
+ *
+ * @enum {number}
+ */
+export namespace battlecode.schema{
+export enum ControlCommand{
+  /**
+   * Run until told otherwise.
+   */
+  Run= 0,
+
+  /**
+   * Stop before the next round.
+   */
+  Pause= 1,
+
+  /**
+   * Run `argument` more rounds, then pause.
+   */
+  Step= 2,
+
+  /**
+   * Run until round `argument` has finished, then pause.
+   */
+  RunUntil= 3,
+
+  /**
+   * Go back or forward to round `argument` of the current match, and
+   * carry on from there. Only replays can seek: the match header is sent
+   * again, then the rounds from the nearest keyframe up to the target.
+   */
+  Seek= 4
+}};
+
 /**
  * A vector in two-dimensional space. Discrete space, of course.
  * Defaults to the 0 vector.
@@ -2460,24 +2497,24 @@ static createMatchFooter(builder:flatbuffers.Builder, winner:number, totalRounds
 }
 }
 /**
- * A single time-step in a Game.
- * The bulk of the data in the file is stored in tables like this.
- * Note that a struct-of-arrays format is more space efficient than an array-
- * of-structs.
+ * The complete state of a match at the end of a round, so that a viewer can
+ * jump to a round without replaying everything since the match header.
+ * Only sent every so often; see Round.keyframe.
+ * Map-sized arrays are in the same order as GameMap's.
  *
  * @constructor
  */
 export namespace battlecode.schema{
-export class Round {
+export class Keyframe {
   bb: flatbuffers.ByteBuffer|null = null;
 
   bb_pos:number = 0;
 /**
  * @param number i
  * @param flatbuffers.ByteBuffer bb
- * @returns Round
+ * @returns Keyframe
  */
-__init(i:number, bb:flatbuffers.ByteBuffer):Round {
+__init(i:number, bb:flatbuffers.ByteBuffer):Keyframe {
   this.bb_pos = i;
   this.bb = bb;
   return this;
@@ -2485,29 +2522,29 @@ __init(i:number, bb:flatbuffers.ByteBuffer):Round {
 
 /**
  * @param flatbuffers.ByteBuffer bb
- * @param Round= obj
- * @returns Round
+ * @param Keyframe= obj
+ * @returns Keyframe
  */
-static getRootAsRound(bb:flatbuffers.ByteBuffer, obj?:Round):Round {
-  return (obj || new Round).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+static getRootAsKeyframe(bb:flatbuffers.ByteBuffer, obj?:Keyframe):Keyframe {
+  return (obj || new Keyframe).__init(bb.readInt32(bb.position()) + bb.position(), bb);
 };
 
 /**
  * @param flatbuffers.ByteBuffer bb
- * @param Round= obj
- * @returns Round
+ * @param Keyframe= obj
+ * @returns Keyframe
  */
-static getSizePrefixedRootAsRound(bb:flatbuffers.ByteBuffer, obj?:Round):Round {
-  return (obj || new Round).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+static getSizePrefixedRootAsKeyframe(bb:flatbuffers.ByteBuffer, obj?:Keyframe):Keyframe {
+  return (obj || new Keyframe).__init(bb.readInt32(bb.position()) + bb.position(), bb);
 };
 
 /**
- * The IDs of teams in the Game.
+ * The amount of crude soup at each location.
  *
  * @param number index
  * @returns number
  */
-teamIDs(index: number):number|null {
+soup(index: number):number|null {
   var offset = this.bb!.__offset(this.bb_pos, 4);
   return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
@@ -2515,7 +2552,7 @@ teamIDs(index: number):number|null {
 /**
  * @returns number
  */
-teamIDsLength():number {
+soupLength():number {
   var offset = this.bb!.__offset(this.bb_pos, 4);
   return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
 };
@@ -2523,18 +2560,18 @@ teamIDsLength():number {
 /**
  * @returns Int32Array
  */
-teamIDsArray():Int32Array|null {
+soupArray():Int32Array|null {
   var offset = this.bb!.__offset(this.bb_pos, 4);
   return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The refined soup counts of the teams.
+ * The dirt level at each location.
  *
  * @param number index
  * @returns number
  */
-teamSoups(index: number):number|null {
+dirt(index: number):number|null {
   var offset = this.bb!.__offset(this.bb_pos, 6);
   return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
@@ -2542,7 +2579,7 @@ teamSoups(index: number):number|null {
 /**
  * @returns number
  */
-teamSoupsLength():number {
+dirtLength():number {
   var offset = this.bb!.__offset(this.bb_pos, 6);
   return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
 };
@@ -2550,95 +2587,77 @@ teamSoupsLength():number {
 /**
  * @returns Int32Array
  */
-teamSoupsArray():Int32Array|null {
+dirtArray():Int32Array|null {
   var offset = this.bb!.__offset(this.bb_pos, 6);
   return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The IDs of bodies that moved.
+ * Whether each location is flooded.
  *
  * @param number index
- * @returns number
+ * @returns boolean
  */
-movedIDs(index: number):number|null {
+water(index: number):boolean|null {
   var offset = this.bb!.__offset(this.bb_pos, 8);
-  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+  return offset ? !!this.bb!.readInt8(this.bb!.__vector(this.bb_pos + offset) + index) : false;
 };
 
 /**
  * @returns number
  */
-movedIDsLength():number {
+waterLength():number {
   var offset = this.bb!.__offset(this.bb_pos, 8);
   return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
 };
 
 /**
- * @returns Int32Array
+ * @returns Int8Array
  */
-movedIDsArray():Int32Array|null {
+waterArray():Int8Array|null {
   var offset = this.bb!.__offset(this.bb_pos, 8);
-  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+  return offset ? new Int8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The new locations of bodies that have moved.
+ * The water level.
  *
- * @param battlecode.schema.VecTable= obj
- * @returns battlecode.schema.VecTable|null
+ * @returns number
  */
-movedLocs(obj?:battlecode.schema.VecTable):battlecode.schema.VecTable|null {
+waterLevel():number {
   var offset = this.bb!.__offset(this.bb_pos, 10);
-  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+  return offset ? this.bb!.readFloat32(this.bb_pos + offset) : 0.0;
 };
 
 /**
- * New bodies.
+ * The local pollution effects that are active.
  *
- * @param battlecode.schema.SpawnedBodyTable= obj
- * @returns battlecode.schema.SpawnedBodyTable|null
+ * @param battlecode.schema.LocalPollutionTable= obj
+ * @returns battlecode.schema.LocalPollutionTable|null
  */
-spawnedBodies(obj?:battlecode.schema.SpawnedBodyTable):battlecode.schema.SpawnedBodyTable|null {
+localPollutions(obj?:battlecode.schema.LocalPollutionTable):battlecode.schema.LocalPollutionTable|null {
   var offset = this.bb!.__offset(this.bb_pos, 12);
-  return offset ? (obj || new battlecode.schema.SpawnedBodyTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+  return offset ? (obj || new battlecode.schema.LocalPollutionTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
 };
 
 /**
- * The IDs of bodies that died (drowned units and shot drones).
+ * Every body on the map, including HQs and bodies being carried.
  *
- * @param number index
- * @returns number
- */
-diedIDs(index: number):number|null {
-  var offset = this.bb!.__offset(this.bb_pos, 14);
-  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
-};
-
-/**
- * @returns number
- */
-diedIDsLength():number {
-  var offset = this.bb!.__offset(this.bb_pos, 14);
-  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
-};
-
-/**
- * @returns Int32Array
+ * @param battlecode.schema.SpawnedBodyTable= obj
+ * @returns battlecode.schema.SpawnedBodyTable|null
  */
-diedIDsArray():Int32Array|null {
+bodies(obj?:battlecode.schema.SpawnedBodyTable):battlecode.schema.SpawnedBodyTable|null {
   var offset = this.bb!.__offset(this.bb_pos, 14);
-  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+  return offset ? (obj || new battlecode.schema.SpawnedBodyTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
 };
 
 /**
- * The IDs of robots that performed actions.
- * IDs may repeat.
+ * The soup each body is carrying, in the same order as bodies.
  *
  * @param number index
  * @returns number
  */
-actionIDs(index: number):number|null {
+bodySoupCarrying(index: number):number|null {
   var offset = this.bb!.__offset(this.bb_pos, 16);
   return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
@@ -2646,7 +2665,7 @@ actionIDs(index: number):number|null {
 /**
  * @returns number
  */
-actionIDsLength():number {
+bodySoupCarryingLength():number {
   var offset = this.bb!.__offset(this.bb_pos, 16);
   return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
 };
@@ -2654,46 +2673,46 @@ actionIDsLength():number {
 /**
  * @returns Int32Array
  */
-actionIDsArray():Int32Array|null {
+bodySoupCarryingArray():Int32Array|null {
   var offset = this.bb!.__offset(this.bb_pos, 16);
   return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The actions performed. These actions allow us to track how much soup or dirt a body carries.
+ * The dirt each body is carrying, in the same order as bodies.
  *
  * @param number index
- * @returns battlecode.schema.Action
+ * @returns number
  */
-actions(index: number):battlecode.schema.Action|null {
+bodyDirtCarrying(index: number):number|null {
   var offset = this.bb!.__offset(this.bb_pos, 18);
-  return offset ? /**  */ (this.bb!.readInt8(this.bb!.__vector(this.bb_pos + offset) + index)) : /**  */ (0);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
 
 /**
  * @returns number
  */
-actionsLength():number {
+bodyDirtCarryingLength():number {
   var offset = this.bb!.__offset(this.bb_pos, 18);
   return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
 };
 
 /**
- * @returns Int8Array
+ * @returns Int32Array
  */
-actionsArray():Int8Array|null {
+bodyDirtCarryingArray():Int32Array|null {
   var offset = this.bb!.__offset(this.bb_pos, 18);
-  return offset ? new Int8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The 'targets' of the performed actions. Actions without targets may have
- * any target (typically 0).
+ * The ID of the body each body is carrying, or -1, in the same order as
+ * bodies.
  *
  * @param number index
  * @returns number
  */
-actionTargets(index: number):number|null {
+bodyHeldIDs(index: number):number|null {
   var offset = this.bb!.__offset(this.bb_pos, 20);
   return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
@@ -2701,7 +2720,7 @@ actionTargets(index: number):number|null {
 /**
  * @returns number
  */
-actionTargetsLength():number {
+bodyHeldIDsLength():number {
   var offset = this.bb!.__offset(this.bb_pos, 20);
   return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
 };
@@ -2709,134 +2728,1089 @@ actionTargetsLength():number {
 /**
  * @returns Int32Array
  */
-actionTargetsArray():Int32Array|null {
+bodyHeldIDsArray():Int32Array|null {
   var offset = this.bb!.__offset(this.bb_pos, 20);
   return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The indexes of the locations whose dirt amount changed.
- *
- * @param battlecode.schema.VecTable= obj
- * @returns battlecode.schema.VecTable|null
+ * @param flatbuffers.Builder builder
  */
-dirtChangedLocs(obj?:battlecode.schema.VecTable):battlecode.schema.VecTable|null {
-  var offset = this.bb!.__offset(this.bb_pos, 22);
-  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+static startKeyframe(builder:flatbuffers.Builder) {
+  builder.startObject(9);
 };
 
 /**
- * The amount the dirt changed by.
- *
- * @param number index
- * @returns number
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset soupOffset
  */
-dirtChanges(index: number):number|null {
-  var offset = this.bb!.__offset(this.bb_pos, 24);
-  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+static addSoup(builder:flatbuffers.Builder, soupOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(0, soupOffset, 0);
 };
 
 /**
- * @returns number
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
  */
-dirtChangesLength():number {
-  var offset = this.bb!.__offset(this.bb_pos, 24);
-  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+static createSoupVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
 };
 
 /**
- * @returns Int32Array
+ * @param flatbuffers.Builder builder
+ * @param number numElems
  */
-dirtChangesArray():Int32Array|null {
-  var offset = this.bb!.__offset(this.bb_pos, 24);
-  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+static startSoupVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
 };
 
 /**
- * The indexes of the locations whose flood situation changed.
- *
- * @param battlecode.schema.VecTable= obj
- * @returns battlecode.schema.VecTable|null
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset dirtOffset
  */
-waterChangedLocs(obj?:battlecode.schema.VecTable):battlecode.schema.VecTable|null {
-  var offset = this.bb!.__offset(this.bb_pos, 26);
-  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+static addDirt(builder:flatbuffers.Builder, dirtOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(1, dirtOffset, 0);
 };
 
 /**
- * The global pollution level
- *
- * @returns number
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
  */
-globalPollution():number {
-  var offset = this.bb!.__offset(this.bb_pos, 28);
-  return offset ? this.bb!.readInt32(this.bb_pos + offset) : 0;
+static createDirtVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
 };
 
 /**
- * The local pollution infos
- *
- * @param battlecode.schema.LocalPollutionTable= obj
- * @returns battlecode.schema.LocalPollutionTable|null
+ * @param flatbuffers.Builder builder
+ * @param number numElems
  */
-localPollutions(obj?:battlecode.schema.LocalPollutionTable):battlecode.schema.LocalPollutionTable|null {
-  var offset = this.bb!.__offset(this.bb_pos, 30);
-  return offset ? (obj || new battlecode.schema.LocalPollutionTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+static startDirtVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
 };
 
 /**
- * The indexes of the locations whose soup amount changed.
- *
- * @param battlecode.schema.VecTable= obj
- * @returns battlecode.schema.VecTable|null
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset waterOffset
  */
-soupChangedLocs(obj?:battlecode.schema.VecTable):battlecode.schema.VecTable|null {
-  var offset = this.bb!.__offset(this.bb_pos, 32);
-  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+static addWater(builder:flatbuffers.Builder, waterOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(2, waterOffset, 0);
 };
 
 /**
- * The amount the soup changed by.
- *
- * @param number index
- * @returns number
+ * @param flatbuffers.Builder builder
+ * @param Array.<boolean> data
+ * @returns flatbuffers.Offset
  */
-soupChanges(index: number):number|null {
-  var offset = this.bb!.__offset(this.bb_pos, 34);
-  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+static createWaterVector(builder:flatbuffers.Builder, data:boolean[]):flatbuffers.Offset {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(+data[i]);
+  }
+  return builder.endVector();
 };
 
 /**
- * @returns number
+ * @param flatbuffers.Builder builder
+ * @param number numElems
  */
-soupChangesLength():number {
-  var offset = this.bb!.__offset(this.bb_pos, 34);
-  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+static startWaterVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(1, numElems, 1);
 };
 
 /**
- * @returns Int32Array
+ * @param flatbuffers.Builder builder
+ * @param number waterLevel
  */
-soupChangesArray():Int32Array|null {
-  var offset = this.bb!.__offset(this.bb_pos, 34);
-  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+static addWaterLevel(builder:flatbuffers.Builder, waterLevel:number) {
+  builder.addFieldFloat32(3, waterLevel, 0.0);
 };
 
 /**
- * Costs of new message requests.
- *
- * @param number index
- * @returns number
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset localPollutionsOffset
  */
-newMessagesCosts(index: number):number|null {
-  var offset = this.bb!.__offset(this.bb_pos, 36);
-  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+static addLocalPollutions(builder:flatbuffers.Builder, localPollutionsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(4, localPollutionsOffset, 0);
 };
 
 /**
- * @returns number
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset bodiesOffset
  */
-newMessagesCostsLength():number {
+static addBodies(builder:flatbuffers.Builder, bodiesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(5, bodiesOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset bodySoupCarryingOffset
+ */
+static addBodySoupCarrying(builder:flatbuffers.Builder, bodySoupCarryingOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(6, bodySoupCarryingOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createBodySoupCarryingVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startBodySoupCarryingVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset bodyDirtCarryingOffset
+ */
+static addBodyDirtCarrying(builder:flatbuffers.Builder, bodyDirtCarryingOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(7, bodyDirtCarryingOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createBodyDirtCarryingVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startBodyDirtCarryingVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset bodyHeldIDsOffset
+ */
+static addBodyHeldIDs(builder:flatbuffers.Builder, bodyHeldIDsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(8, bodyHeldIDsOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createBodyHeldIDsVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startBodyHeldIDsVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @returns flatbuffers.Offset
+ */
+static endKeyframe(builder:flatbuffers.Builder):flatbuffers.Offset {
+  var offset = builder.endObject();
+  return offset;
+};
+
+static createKeyframe(builder:flatbuffers.Builder, soupOffset:flatbuffers.Offset, dirtOffset:flatbuffers.Offset, waterOffset:flatbuffers.Offset, waterLevel:number, localPollutionsOffset:flatbuffers.Offset, bodiesOffset:flatbuffers.Offset, bodySoupCarryingOffset:flatbuffers.Offset, bodyDirtCarryingOffset:flatbuffers.Offset, bodyHeldIDsOffset:flatbuffers.Offset):flatbuffers.Offset {
+  Keyframe.startKeyframe(builder);
+  Keyframe.addSoup(builder, soupOffset);
+  Keyframe.addDirt(builder, dirtOffset);
+  Keyframe.addWater(builder, waterOffset);
+  Keyframe.addWaterLevel(builder, waterLevel);
+  Keyframe.addLocalPollutions(builder, localPollutionsOffset);
+  Keyframe.addBodies(builder, bodiesOffset);
+  Keyframe.addBodySoupCarrying(builder, bodySoupCarryingOffset);
+  Keyframe.addBodyDirtCarrying(builder, bodyDirtCarryingOffset);
+  Keyframe.addBodyHeldIDs(builder, bodyHeldIDsOffset);
+  return Keyframe.endKeyframe(builder);
+}
+}
+}
+/**
+ * The bulkiest parts of a Round, packed tightly, for replays saved with
+ * bc.server.compact-replay. The Round fields these replace are left empty;
+ * see battlecode.server.CompactRoundReader for a decoder.
+ *
+ * Varints are unsigned LEB128; signed values are zigzag-encoded first.
+ * A packed location is zigzag(dx), zigzag(dy) from the previous location in
+ * the same vector (or from (0, 0), for the first one).
+ *
+ * @constructor
+ */
+export namespace battlecode.schema{
+export class CompactRound {
+  bb: flatbuffers.ByteBuffer|null = null;
+
+  bb_pos:number = 0;
+/**
+ * @param number i
+ * @param flatbuffers.ByteBuffer bb
+ * @returns CompactRound
+ */
+__init(i:number, bb:flatbuffers.ByteBuffer):CompactRound {
+  this.bb_pos = i;
+  this.bb = bb;
+  return this;
+};
+
+/**
+ * @param flatbuffers.ByteBuffer bb
+ * @param CompactRound= obj
+ * @returns CompactRound
+ */
+static getRootAsCompactRound(bb:flatbuffers.ByteBuffer, obj?:CompactRound):CompactRound {
+  return (obj || new CompactRound).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * @param flatbuffers.ByteBuffer bb
+ * @param CompactRound= obj
+ * @returns CompactRound
+ */
+static getSizePrefixedRootAsCompactRound(bb:flatbuffers.ByteBuffer, obj?:CompactRound):CompactRound {
+  return (obj || new CompactRound).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * For each of Round.movedIDs: the direction (in battlecode.common.Direction
+ * order, CENTER included) from the body's last recorded location to its
+ * new one, or -1 if the new location isn't adjacent.
+ *
+ * @param number index
+ * @returns number
+ */
+movedDirections(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 4);
+  return offset ? this.bb!.readInt8(this.bb!.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns number
+ */
+movedDirectionsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 4);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int8Array
+ */
+movedDirectionsArray():Int8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 4);
+  return offset ? new Int8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Packed locations: where each body marked -1 in movedDirections went.
+ *
+ * @param number index
+ * @returns number
+ */
+movedJumps(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? this.bb!.readUint8(this.bb!.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns number
+ */
+movedJumpsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Uint8Array
+ */
+movedJumpsArray():Uint8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? new Uint8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Replaces Round.dirtChangedLocs and dirtChanges: for each change, a
+ * packed location, then the change as a signed varint.
+ *
+ * @param number index
+ * @returns number
+ */
+dirtChanges(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 8);
+  return offset ? this.bb!.readUint8(this.bb!.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns number
+ */
+dirtChangesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 8);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Uint8Array
+ */
+dirtChangesArray():Uint8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 8);
+  return offset ? new Uint8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Replaces Round.waterChangedLocs: packed locations.
+ *
+ * @param number index
+ * @returns number
+ */
+waterChanges(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? this.bb!.readUint8(this.bb!.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns number
+ */
+waterChangesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Uint8Array
+ */
+waterChangesArray():Uint8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? new Uint8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Replaces Round.soupChangedLocs and soupChanges: for each change, a
+ * packed location, then the change as a signed varint.
+ *
+ * @param number index
+ * @returns number
+ */
+soupChanges(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 12);
+  return offset ? this.bb!.readUint8(this.bb!.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns number
+ */
+soupChangesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 12);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Uint8Array
+ */
+soupChangesArray():Uint8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 12);
+  return offset ? new Uint8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Replaces Round.bytecodeIDs and bytecodesUsed: for each body, its ID as
+ * a signed varint delta from the previous ID, then the bytecodes it used
+ * divided by bytecodeQuantum (rounded) as a varint.
+ *
+ * @param number index
+ * @returns number
+ */
+bytecodes(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 14);
+  return offset ? this.bb!.readUint8(this.bb!.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns number
+ */
+bytecodesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 14);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Uint8Array
+ */
+bytecodesArray():Uint8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 14);
+  return offset ? new Uint8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * What the bytecode counts were divided by; 1 if they're exact.
+ *
+ * @returns number
+ */
+bytecodeQuantum():number {
+  var offset = this.bb!.__offset(this.bb_pos, 16);
+  return offset ? this.bb!.readInt32(this.bb_pos + offset) : 0;
+};
+
+/**
+ * Replaces Round.logs: where this round's logs are in
+ * GameWrapper.compactLogs, once inflated.
+ *
+ * @returns number
+ */
+logsOffset():number {
+  var offset = this.bb!.__offset(this.bb_pos, 18);
+  return offset ? this.bb!.readInt32(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns number
+ */
+logsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 20);
+  return offset ? this.bb!.readInt32(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ */
+static startCompactRound(builder:flatbuffers.Builder) {
+  builder.startObject(9);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset movedDirectionsOffset
+ */
+static addMovedDirections(builder:flatbuffers.Builder, movedDirectionsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(0, movedDirectionsOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createMovedDirectionsVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startMovedDirectionsVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset movedJumpsOffset
+ */
+static addMovedJumps(builder:flatbuffers.Builder, movedJumpsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(1, movedJumpsOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createMovedJumpsVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startMovedJumpsVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset dirtChangesOffset
+ */
+static addDirtChanges(builder:flatbuffers.Builder, dirtChangesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(2, dirtChangesOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createDirtChangesVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startDirtChangesVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset waterChangesOffset
+ */
+static addWaterChanges(builder:flatbuffers.Builder, waterChangesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(3, waterChangesOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createWaterChangesVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startWaterChangesVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset soupChangesOffset
+ */
+static addSoupChanges(builder:flatbuffers.Builder, soupChangesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(4, soupChangesOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createSoupChangesVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startSoupChangesVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset bytecodesOffset
+ */
+static addBytecodes(builder:flatbuffers.Builder, bytecodesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(5, bytecodesOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createBytecodesVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startBytecodesVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(1, numElems, 1);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number bytecodeQuantum
+ */
+static addBytecodeQuantum(builder:flatbuffers.Builder, bytecodeQuantum:number) {
+  builder.addFieldInt32(6, bytecodeQuantum, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number logsOffset
+ */
+static addLogsOffset(builder:flatbuffers.Builder, logsOffset:number) {
+  builder.addFieldInt32(7, logsOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number logsLength
+ */
+static addLogsLength(builder:flatbuffers.Builder, logsLength:number) {
+  builder.addFieldInt32(8, logsLength, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @returns flatbuffers.Offset
+ */
+static endCompactRound(builder:flatbuffers.Builder):flatbuffers.Offset {
+  var offset = builder.endObject();
+  return offset;
+};
+
+static createCompactRound(builder:flatbuffers.Builder, movedDirectionsOffset:flatbuffers.Offset, movedJumpsOffset:flatbuffers.Offset, dirtChangesOffset:flatbuffers.Offset, waterChangesOffset:flatbuffers.Offset, soupChangesOffset:flatbuffers.Offset, bytecodesOffset:flatbuffers.Offset, bytecodeQuantum:number, logsOffset:number, logsLength:number):flatbuffers.Offset {
+  CompactRound.startCompactRound(builder);
+  CompactRound.addMovedDirections(builder, movedDirectionsOffset);
+  CompactRound.addMovedJumps(builder, movedJumpsOffset);
+  CompactRound.addDirtChanges(builder, dirtChangesOffset);
+  CompactRound.addWaterChanges(builder, waterChangesOffset);
+  CompactRound.addSoupChanges(builder, soupChangesOffset);
+  CompactRound.addBytecodes(builder, bytecodesOffset);
+  CompactRound.addBytecodeQuantum(builder, bytecodeQuantum);
+  CompactRound.addLogsOffset(builder, logsOffset);
+  CompactRound.addLogsLength(builder, logsLength);
+  return CompactRound.endCompactRound(builder);
+}
+}
+}
+/**
+ * A single time-step in a Game.
+ * The bulk of the data in the file is stored in tables like this.
+ * Note that a struct-of-arrays format is more space efficient than an array-
+ * of-structs.
+ *
+ * @constructor
+ */
+export namespace battlecode.schema{
+export class Round {
+  bb: flatbuffers.ByteBuffer|null = null;
+
+  bb_pos:number = 0;
+/**
+ * @param number i
+ * @param flatbuffers.ByteBuffer bb
+ * @returns Round
+ */
+__init(i:number, bb:flatbuffers.ByteBuffer):Round {
+  this.bb_pos = i;
+  this.bb = bb;
+  return this;
+};
+
+/**
+ * @param flatbuffers.ByteBuffer bb
+ * @param Round= obj
+ * @returns Round
+ */
+static getRootAsRound(bb:flatbuffers.ByteBuffer, obj?:Round):Round {
+  return (obj || new Round).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * @param flatbuffers.ByteBuffer bb
+ * @param Round= obj
+ * @returns Round
+ */
+static getSizePrefixedRootAsRound(bb:flatbuffers.ByteBuffer, obj?:Round):Round {
+  return (obj || new Round).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * The IDs of teams in the Game.
+ *
+ * @param number index
+ * @returns number
+ */
+teamIDs(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 4);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+teamIDsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 4);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+teamIDsArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 4);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The refined soup counts of the teams.
+ *
+ * @param number index
+ * @returns number
+ */
+teamSoups(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+teamSoupsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+teamSoupsArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The IDs of bodies that moved.
+ *
+ * @param number index
+ * @returns number
+ */
+movedIDs(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 8);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+movedIDsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 8);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+movedIDsArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 8);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The new locations of bodies that have moved.
+ *
+ * @param battlecode.schema.VecTable= obj
+ * @returns battlecode.schema.VecTable|null
+ */
+movedLocs(obj?:battlecode.schema.VecTable):battlecode.schema.VecTable|null {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+};
+
+/**
+ * New bodies.
+ *
+ * @param battlecode.schema.SpawnedBodyTable= obj
+ * @returns battlecode.schema.SpawnedBodyTable|null
+ */
+spawnedBodies(obj?:battlecode.schema.SpawnedBodyTable):battlecode.schema.SpawnedBodyTable|null {
+  var offset = this.bb!.__offset(this.bb_pos, 12);
+  return offset ? (obj || new battlecode.schema.SpawnedBodyTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+};
+
+/**
+ * The IDs of bodies that died (drowned units and shot drones).
+ *
+ * @param number index
+ * @returns number
+ */
+diedIDs(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 14);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+diedIDsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 14);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+diedIDsArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 14);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The IDs of robots that performed actions.
+ * IDs may repeat.
+ *
+ * @param number index
+ * @returns number
+ */
+actionIDs(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 16);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+actionIDsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 16);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+actionIDsArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 16);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The actions performed. These actions allow us to track how much soup or dirt a body carries.
+ *
+ * @param number index
+ * @returns battlecode.schema.Action
+ */
+actions(index: number):battlecode.schema.Action|null {
+  var offset = this.bb!.__offset(this.bb_pos, 18);
+  return offset ? /**  */ (this.bb!.readInt8(this.bb!.__vector(this.bb_pos + offset) + index)) : /**  */ (0);
+};
+
+/**
+ * @returns number
+ */
+actionsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 18);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int8Array
+ */
+actionsArray():Int8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 18);
+  return offset ? new Int8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The 'targets' of the performed actions. Actions without targets may have
+ * any target (typically 0).
+ *
+ * @param number index
+ * @returns number
+ */
+actionTargets(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 20);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+actionTargetsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 20);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+actionTargetsArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 20);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The indexes of the locations whose dirt amount changed.
+ *
+ * @param battlecode.schema.VecTable= obj
+ * @returns battlecode.schema.VecTable|null
+ */
+dirtChangedLocs(obj?:battlecode.schema.VecTable):battlecode.schema.VecTable|null {
+  var offset = this.bb!.__offset(this.bb_pos, 22);
+  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+};
+
+/**
+ * The amount the dirt changed by.
+ *
+ * @param number index
+ * @returns number
+ */
+dirtChanges(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 24);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+dirtChangesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 24);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+dirtChangesArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 24);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The indexes of the locations whose flood situation changed.
+ *
+ * @param battlecode.schema.VecTable= obj
+ * @returns battlecode.schema.VecTable|null
+ */
+waterChangedLocs(obj?:battlecode.schema.VecTable):battlecode.schema.VecTable|null {
+  var offset = this.bb!.__offset(this.bb_pos, 26);
+  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+};
+
+/**
+ * The global pollution level
+ *
+ * @returns number
+ */
+globalPollution():number {
+  var offset = this.bb!.__offset(this.bb_pos, 28);
+  return offset ? this.bb!.readInt32(this.bb_pos + offset) : 0;
+};
+
+/**
+ * The local pollution infos
+ *
+ * @param battlecode.schema.LocalPollutionTable= obj
+ * @returns battlecode.schema.LocalPollutionTable|null
+ */
+localPollutions(obj?:battlecode.schema.LocalPollutionTable):battlecode.schema.LocalPollutionTable|null {
+  var offset = this.bb!.__offset(this.bb_pos, 30);
+  return offset ? (obj || new battlecode.schema.LocalPollutionTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+};
+
+/**
+ * The indexes of the locations whose soup amount changed.
+ *
+ * @param battlecode.schema.VecTable= obj
+ * @returns battlecode.schema.VecTable|null
+ */
+soupChangedLocs(obj?:battlecode.schema.VecTable):battlecode.schema.VecTable|null {
+  var offset = this.bb!.__offset(this.bb_pos, 32);
+  return offset ? (obj || new battlecode.schema.VecTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+};
+
+/**
+ * The amount the soup changed by.
+ *
+ * @param number index
+ * @returns number
+ */
+soupChanges(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 34);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+soupChangesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 34);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+soupChangesArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 34);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Costs of new message requests.
+ *
+ * @param number index
+ * @returns number
+ */
+newMessagesCosts(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 36);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+newMessagesCostsLength():number {
   var offset = this.bb!.__offset(this.bb_pos, 36);
   return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
 };
@@ -3126,11 +4100,94 @@ bytecodesUsedArray():Int32Array|null {
   return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
 };
 
+/**
+ * The full state of the match after this round, or null.
+ * Present every bc.server.keyframe-interval rounds, if enabled; the
+ * rest of the round is still sent as usual.
+ *
+ * @param battlecode.schema.Keyframe= obj
+ * @returns battlecode.schema.Keyframe|null
+ */
+keyframe(obj?:battlecode.schema.Keyframe):battlecode.schema.Keyframe|null {
+  var offset = this.bb!.__offset(this.bb_pos, 66);
+  return offset ? (obj || new battlecode.schema.Keyframe).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+};
+
+/**
+ * Packed versions of some of the fields above, or null.
+ * Only in replays saved with bc.server.compact-replay.
+ *
+ * @param battlecode.schema.CompactRound= obj
+ * @returns battlecode.schema.CompactRound|null
+ */
+compact(obj?:battlecode.schema.CompactRound):battlecode.schema.CompactRound|null {
+  var offset = this.bb!.__offset(this.bb_pos, 68);
+  return offset ? (obj || new battlecode.schema.CompactRound).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
+};
+
+/**
+ * The CPU time each player body's turn took, in microseconds, or -1 if
+ * it couldn't be measured; in the same order as bytecodeIDs (or, in
+ * compact replays, the bodies in CompactRound.bytecodes).
+ * Only present with bc.server.turn-times-in-replay.
+ *
+ * @param number index
+ * @returns number
+ */
+cpuTimes(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 70);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+cpuTimesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 70);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+cpuTimesArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 70);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The wall-clock time each player body's turn took, in microseconds; in
+ * the same order as cpuTimes.
+ *
+ * @param number index
+ * @returns number
+ */
+wallTimes(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 72);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+wallTimesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 72);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+wallTimesArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 72);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
 /**
  * @param flatbuffers.Builder builder
  */
 static startRound(builder:flatbuffers.Builder) {
-  builder.startObject(31);
+  builder.startObject(35);
 };
 
 /**
@@ -3738,6 +4795,80 @@ static startBytecodesUsedVector(builder:flatbuffers.Builder, numElems:number) {
   builder.startVector(4, numElems, 4);
 };
 
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset keyframeOffset
+ */
+static addKeyframe(builder:flatbuffers.Builder, keyframeOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(31, keyframeOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset compactOffset
+ */
+static addCompact(builder:flatbuffers.Builder, compactOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(32, compactOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset cpuTimesOffset
+ */
+static addCpuTimes(builder:flatbuffers.Builder, cpuTimesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(33, cpuTimesOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createCpuTimesVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startCpuTimesVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset wallTimesOffset
+ */
+static addWallTimes(builder:flatbuffers.Builder, wallTimesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(34, wallTimesOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createWallTimesVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startWallTimesVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
 /**
  * @param flatbuffers.Builder builder
  * @returns flatbuffers.Offset
@@ -3747,7 +4878,7 @@ static endRound(builder:flatbuffers.Builder):flatbuffers.Offset {
   return offset;
 };
 
-static createRound(builder:flatbuffers.Builder, teamIDsOffset:flatbuffers.Offset, teamSoupsOffset:flatbuffers.Offset, movedIDsOffset:flatbuffers.Offset, movedLocsOffset:flatbuffers.Offset, spawnedBodiesOffset:flatbuffers.Offset, diedIDsOffset:flatbuffers.Offset, actionIDsOffset:flatbuffers.Offset, actionsOffset:flatbuffers.Offset, actionTargetsOffset:flatbuffers.Offset, dirtChangedLocsOffset:flatbuffers.Offset, dirtChangesOffset:flatbuffers.Offset, waterChangedLocsOffset:flatbuffers.Offset, globalPollution:number, localPollutionsOffset:flatbuffers.Offset, soupChangedLocsOffset:flatbuffers.Offset, soupChangesOffset:flatbuffers.Offset, newMessagesCostsOffset:flatbuffers.Offset, newMessagesOffset:flatbuffers.Offset, broadcastedMessagesCostsOffset:flatbuffers.Offset, broadcastedMessagesOffset:flatbuffers.Offset, indicatorDotIDsOffset:flatbuffers.Offset, indicatorDotLocsOffset:flatbuffers.Offset, indicatorDotRGBsOffset:flatbuffers.Offset, indicatorLineIDsOffset:flatbuffers.Offset, indicatorLineStartLocsOffset:flatbuffers.Offset, indicatorLineEndLocsOffset:flatbuffers.Offset, indicatorLineRGBsOffset:flatbuffers.Offset, logsOffset:flatbuffers.Offset, roundID:number, bytecodeIDsOffset:flatbuffers.Offset, bytecodesUsedOffset:flatbuffers.Offset):flatbuffers.Offset {
+static createRound(builder:flatbuffers.Builder, teamIDsOffset:flatbuffers.Offset, teamSoupsOffset:flatbuffers.Offset, movedIDsOffset:flatbuffers.Offset, movedLocsOffset:flatbuffers.Offset, spawnedBodiesOffset:flatbuffers.Offset, diedIDsOffset:flatbuffers.Offset, actionIDsOffset:flatbuffers.Offset, actionsOffset:flatbuffers.Offset, actionTargetsOffset:flatbuffers.Offset, dirtChangedLocsOffset:flatbuffers.Offset, dirtChangesOffset:flatbuffers.Offset, waterChangedLocsOffset:flatbuffers.Offset, globalPollution:number, localPollutionsOffset:flatbuffers.Offset, soupChangedLocsOffset:flatbuffers.Offset, soupChangesOffset:flatbuffers.Offset, newMessagesCostsOffset:flatbuffers.Offset, newMessagesOffset:flatbuffers.Offset, broadcastedMessagesCostsOffset:flatbuffers.Offset, broadcastedMessagesOffset:flatbuffers.Offset, indicatorDotIDsOffset:flatbuffers.Offset, indicatorDotLocsOffset:flatbuffers.Offset, indicatorDotRGBsOffset:flatbuffers.Offset, indicatorLineIDsOffset:flatbuffers.Offset, indicatorLineStartLocsOffset:flatbuffers.Offset, indicatorLineEndLocsOffset:flatbuffers.Offset, indicatorLineRGBsOffset:flatbuffers.Offset, logsOffset:flatbuffers.Offset, roundID:number, bytecodeIDsOffset:flatbuffers.Offset, bytecodesUsedOffset:flatbuffers.Offset, keyframeOffset:flatbuffers.Offset, compactOffset:flatbuffers.Offset, cpuTimesOffset:flatbuffers.Offset, wallTimesOffset:flatbuffers.Offset):flatbuffers.Offset {
   Round.startRound(builder);
   Round.addTeamIDs(builder, teamIDsOffset);
   Round.addTeamSoups(builder, teamSoupsOffset);
@@ -3780,6 +4911,10 @@ static createRound(builder:flatbuffers.Builder, teamIDsOffset:flatbuffers.Offset
   Round.addRoundID(builder, roundID);
   Round.addBytecodeIDs(builder, bytecodeIDsOffset);
   Round.addBytecodesUsed(builder, bytecodesUsedOffset);
+  Round.addKeyframe(builder, keyframeOffset);
+  Round.addCompact(builder, compactOffset);
+  Round.addCpuTimes(builder, cpuTimesOffset);
+  Round.addWallTimes(builder, wallTimesOffset);
   return Round.endRound(builder);
 }
 }
@@ -3998,11 +5133,40 @@ matchFootersArray():Int32Array|null {
   return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
 };
 
+/**
+ * For replays saved with bc.server.compact-replay: the logs of every
+ * round, concatenated and deflated (zlib format). Each Round's
+ * CompactRound says where its logs are.
+ *
+ * @param number index
+ * @returns number
+ */
+compactLogs(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? this.bb!.readUint8(this.bb!.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns number
+ */
+compactLogsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Uint8Array
+ */
+compactLogsArray():Uint8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? new Uint8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
 /**
  * @param flatbuffers.Builder builder
  */
 static startGameWrapper(builder:flatbuffers.Builder) {
-  builder.startObject(3);
+  builder.startObject(4);
 };
 
 /**
@@ -4092,6 +5256,35 @@ static startMatchFootersVector(builder:flatbuffers.Builder, numElems:number) {
   builder.startVector(4, numElems, 4);
 };
 
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset compactLogsOffset
+ */
+static addCompactLogs(builder:flatbuffers.Builder, compactLogsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(3, compactLogsOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createCompactLogsVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startCompactLogsVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(1, numElems, 1);
+};
+
 /**
  * @param flatbuffers.Builder builder
  * @returns flatbuffers.Offset
@@ -4101,12 +5294,109 @@ static endGameWrapper(builder:flatbuffers.Builder):flatbuffers.Offset {
   return offset;
 };
 
-static createGameWrapper(builder:flatbuffers.Builder, eventsOffset:flatbuffers.Offset, matchHeadersOffset:flatbuffers.Offset, matchFootersOffset:flatbuffers.Offset):flatbuffers.Offset {
+static createGameWrapper(builder:flatbuffers.Builder, eventsOffset:flatbuffers.Offset, matchHeadersOffset:flatbuffers.Offset, matchFootersOffset:flatbuffers.Offset, compactLogsOffset:flatbuffers.Offset):flatbuffers.Offset {
   GameWrapper.startGameWrapper(builder);
   GameWrapper.addEvents(builder, eventsOffset);
   GameWrapper.addMatchHeaders(builder, matchHeadersOffset);
   GameWrapper.addMatchFooters(builder, matchFootersOffset);
+  GameWrapper.addCompactLogs(builder, compactLogsOffset);
   return GameWrapper.endGameWrapper(builder);
 }
 }
 }
+/**
+ * A message from a client to the server, sent as a binary websocket
+ * message.
+ *
+ * @constructor
+ */
+export namespace battlecode.schema{
+export class Control {
+  bb: flatbuffers.ByteBuffer|null = null;
+
+  bb_pos:number = 0;
+/**
+ * @param number i
+ * @param flatbuffers.ByteBuffer bb
+ * @returns Control
+ */
+__init(i:number, bb:flatbuffers.ByteBuffer):Control {
+  this.bb_pos = i;
+  this.bb = bb;
+  return this;
+};
+
+/**
+ * @param flatbuffers.ByteBuffer bb
+ * @param Control= obj
+ * @returns Control
+ */
+static getRootAsControl(bb:flatbuffers.ByteBuffer, obj?:Control):Control {
+  return (obj || new Control).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * @param flatbuffers.ByteBuffer bb
+ * @param Control= obj
+ * @returns Control
+ */
+static getSizePrefixedRootAsControl(bb:flatbuffers.ByteBuffer, obj?:Control):Control {
+  return (obj || new Control).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * @returns battlecode.schema.ControlCommand
+ */
+command():battlecode.schema.ControlCommand {
+  var offset = this.bb!.__offset(this.bb_pos, 4);
+  return offset ? /**  */ (this.bb!.readInt8(this.bb_pos + offset)) : battlecode.schema.ControlCommand.Run;
+};
+
+/**
+ * @returns number
+ */
+argument():number {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? this.bb!.readInt32(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ */
+static startControl(builder:flatbuffers.Builder) {
+  builder.startObject(2);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param battlecode.schema.ControlCommand command
+ */
+static addCommand(builder:flatbuffers.Builder, command:battlecode.schema.ControlCommand) {
+  builder.addFieldInt8(0, command, battlecode.schema.ControlCommand.Run);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number argument
+ */
+static addArgument(builder:flatbuffers.Builder, argument:number) {
+  builder.addFieldInt32(1, argument, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @returns flatbuffers.Offset
+ */
+static endControl(builder:flatbuffers.Builder):flatbuffers.Offset {
+  var offset = builder.endObject();
+  return offset;
+};
+
+static createControl(builder:flatbuffers.Builder, command:battlecode.schema.ControlCommand, argument:number):flatbuffers.Offset {
+  Control.startControl(builder);
+  Control.addCommand(builder, command);
+  Control.addArgument(builder, argument);
+  return Control.endControl(builder);
+}
+}
+}